@@ -49,6 +49,18 @@ public enum RCStandardErrorCodes
 
   DUPLICATE_ASSET_LOADER("error-duplicate-asset-loader"),
 
+  /**
+   * An asset loader failed to load an asset.
+   */
+
+  ASSET_LOAD_FAILED("error-asset-load-failed"),
+
+  /**
+   * An asset archive was malformed.
+   */
+
+  ASSET_ARCHIVE_INVALID("error-asset-archive-invalid"),
+
   /**
    * The specified graph is not ready to be evaluated.
    */
@@ -179,7 +191,39 @@ public enum RCStandardErrorCodes
    * Creation of a window failed.
    */
 
-  DISPLAY_WINDOW_CREATION("error-display-window-creation");
+  DISPLAY_WINDOW_CREATION("error-display-window-creation"),
+
+  /**
+   * Staging memory could not be allocated for a transfer.
+   */
+
+  TRANSFER_STAGING_EXHAUSTED("error-transfer-staging-exhausted"),
+
+  /**
+   * An image container (such as a KTX2 file) was malformed.
+   */
+
+  TRANSFER_CONTAINER_INVALID("error-transfer-container-invalid"),
+
+  /**
+   * An image container (such as a KTX2 file) used unsupported features.
+   */
+
+  TRANSFER_CONTAINER_UNSUPPORTED("error-transfer-container-unsupported"),
+
+  /**
+   * An image format is not supported by the device for the requested use.
+   */
+
+  TRANSFER_FORMAT_UNSUPPORTED("error-transfer-format-unsupported"),
+
+  /**
+   * A transfer operation was rejected because the transfer service has
+   * reached its limits on operations in flight. The operation may be
+   * retried later.
+   */
+
+  TRANSFER_BACKPRESSURE("error-transfer-backpressure");
 
   private final String codeName;
 
@@ -22,8 +22,10 @@ import com.io7m.jcoronado.api.VulkanInstanceProviderType;
 import com.io7m.jcoronado.layers.khronos_validation.api.VulkanValidationSettingType;
 import com.io7m.jcoronado.layers.lunarg_api_dump.api.VulkanAPIDumpSettingType;
 import com.io7m.jcoronado.vma.VMAAllocatorProviderType;
+import com.io7m.rocaro.api.assets.RCAssetServiceConfiguration;
 import com.io7m.rocaro.api.devices.RCDeviceSelectionAny;
 import com.io7m.rocaro.api.devices.RCDeviceSelectionType;
+import com.io7m.rocaro.api.transfers.RCTransferServiceConfiguration;
 import com.io7m.verona.core.Version;
 import org.immutables.value.Value;
 
@@ -39,8 +41,14 @@ import java.util.Set;
 public interface RendererVulkanConfigurationType
 {
   /**
-   * @return The rate at which the notification service checks each
-   * registered resource
+   * The notification service blocks waiting for the oldest registered
+   * fence or semaphore, and checks every other registered resource each
+   * time it stops waiting. This value is the maximum time it will block
+   * before doing so, and therefore bounds the latency of notifications for
+   * resources that are signalled out of order. The service does not poll
+   * when nothing is registered.
+   *
+   * @return The maximum time to block waiting for any one resource
    */
 
   @Value.Default
@@ -49,6 +57,28 @@ public interface RendererVulkanConfigurationType
     return Duration.ofMillis(16L);
   }
 
+  /**
+   * @return The transfer service configuration
+   */
+
+  @Value.Default
+  default RCTransferServiceConfiguration transferConfiguration()
+  {
+    return RCTransferServiceConfiguration.builder()
+      .build();
+  }
+
+  /**
+   * @return The asset service configuration
+   */
+
+  @Value.Default
+  default RCAssetServiceConfiguration assetConfiguration()
+  {
+    return RCAssetServiceConfiguration.builder()
+      .build();
+  }
+
   /**
    * @return Whether RenderDoc support should be enabled if available
    */
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.assets;
+
+/**
+ * The memory cost of a loaded asset.
+ *
+ * @param hostOctets   The host memory held by the asset
+ * @param deviceOctets The device memory held by the asset
+ */
+
+public record RCAssetCost(
+  long hostOctets,
+  long deviceOctets)
+{
+  /**
+   * The memory cost of a loaded asset.
+   *
+   * @param hostOctets   The host memory held by the asset
+   * @param deviceOctets The device memory held by the asset
+   */
+
+  public RCAssetCost
+  {
+    if (hostOctets < 0L) {
+      throw new IllegalArgumentException(
+        "Host octets %d must be non-negative".formatted(
+          Long.valueOf(hostOctets))
+      );
+    }
+    if (deviceOctets < 0L) {
+      throw new IllegalArgumentException(
+        "Device octets %d must be non-negative".formatted(
+          Long.valueOf(deviceOctets))
+      );
+    }
+  }
+}
@@ -27,4 +27,23 @@ public interface RCAssetLoaderType<A extends RCAssetType>
     RCDeviceType device,
     RCAssetResolvedType asset
   );
+
+  /**
+   * Determine the memory cost of an asset produced by this loader. The
+   * cost is used by the asset cache to decide when to evict unreferenced
+   * assets. The default implementation assumes that the asset holds a
+   * device copy of the resolved data.
+   *
+   * @param loaded   The loaded asset
+   * @param resolved The resolved data from which the asset was loaded
+   *
+   * @return The cost of the asset
+   */
+
+  default RCAssetCost cost(
+    final A loaded,
+    final RCAssetResolvedType resolved)
+  {
+    return new RCAssetCost(0L, resolved.data().byteSize());
+  }
 }
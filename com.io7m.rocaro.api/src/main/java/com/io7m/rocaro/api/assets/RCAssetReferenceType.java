@@ -25,4 +25,13 @@ public interface RCAssetReferenceType<A extends RCAssetType>
   RCAssetIdentifier identifier();
 
   RCAssetValueType<A> get();
+
+  /**
+   * The generation of the asset value. The generation is incremented each
+   * time the value of a loaded asset is replaced by reloading the asset.
+   *
+   * @return The generation of the asset value
+   */
+
+  long generation();
 }
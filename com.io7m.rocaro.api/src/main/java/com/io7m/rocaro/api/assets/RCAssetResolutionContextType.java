@@ -19,6 +19,7 @@ package com.io7m.rocaro.api.assets;
 
 import java.lang.foreign.Arena;
 import java.nio.file.FileSystem;
+import java.util.concurrent.Executor;
 
 public interface RCAssetResolutionContextType
 {
@@ -27,4 +28,6 @@ public interface RCAssetResolutionContextType
   FileSystem realFileSystem();
 
   FileSystem moduleFileSystem();
+
+  Executor executor();
 }
@@ -32,5 +32,9 @@ public interface RCAssetResolverBuilderType
     RDottedName packageName
   );
 
+  RCAssetResolverBuilderType addArchive(
+    Path file
+  );
+
   RCAssetResolverType build();
 }
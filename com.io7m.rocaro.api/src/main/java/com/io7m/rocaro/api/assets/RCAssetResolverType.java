@@ -18,8 +18,10 @@
 package com.io7m.rocaro.api.assets;
 
 import com.io7m.repetoir.core.RPServiceType;
+import com.io7m.rocaro.api.RCCloseableType;
 
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface RCAssetResolverType
   extends RPServiceType
@@ -28,4 +30,26 @@ public interface RCAssetResolverType
     RCAssetResolutionContextType context,
     RCAssetIdentifier identifier)
     throws RCAssetException;
+
+  /**
+   * Start watching for changes to the assets that this resolver can
+   * resolve. The receiver is called, on an unspecified thread, with the
+   * identifier of each asset that may have changed. Resolvers that cannot
+   * observe changes never call the receiver.
+   *
+   * @param receiver The receiver of changed identifiers
+   *
+   * @return A subscription that stops watching when closed
+   *
+   * @throws RCAssetException On errors
+   */
+
+  default RCCloseableType watch(
+    final Consumer<RCAssetIdentifier> receiver)
+    throws RCAssetException
+  {
+    return () -> {
+
+    };
+  }
 }
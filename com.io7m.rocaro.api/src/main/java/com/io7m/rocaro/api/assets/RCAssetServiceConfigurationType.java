@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.assets;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jaffirm.core.Preconditions;
+import org.immutables.value.Value;
+
+import java.time.Duration;
+
+/**
+ * Configuration information for the asset service.
+ */
+
+@Value.Immutable
+@ImmutablesStyleType
+public interface RCAssetServiceConfigurationType
+{
+  /**
+   * The maximum number of assets that may be resolved (located and read
+   * into memory) concurrently.
+   *
+   * @return The resolution parallelism
+   */
+
+  @Value.Default
+  default int resolveParallelism()
+  {
+    return 8;
+  }
+
+  /**
+   * The maximum number of resolved assets that may be passed to loaders
+   * (decoded and turned into GPU resources) concurrently. Resolution of
+   * further assets continues while assets are loading.
+   *
+   * @return The load parallelism
+   */
+
+  @Value.Default
+  default int loadParallelism()
+  {
+    return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+  }
+
+  /**
+   * The asset service checks for newly opened assets at this frequency.
+   *
+   * @return The queue polling frequency
+   */
+
+  @Value.Default
+  default Duration queueFrequency()
+  {
+    return Duration.ofMillis(16L);
+  }
+
+  /**
+   * The host memory budget of the asset cache. When the host memory held
+   * by loaded assets exceeds this value, assets that are no longer
+   * referenced are evicted in least-recently-used order until the total
+   * fits the budget. Assets that are still referenced are never evicted.
+   *
+   * @return The host memory budget in octets
+   *
+   * @see RCAssetLoaderType#cost(RCAssetType, RCAssetResolvedType)
+   */
+
+  @Value.Default
+  default long cacheBudgetHostOctets()
+  {
+    return 512L * 1024L * 1024L;
+  }
+
+  /**
+   * The device memory budget of the asset cache.
+   *
+   * @return The device memory budget in octets
+   *
+   * @see #cacheBudgetHostOctets()
+   */
+
+  @Value.Default
+  default long cacheBudgetDeviceOctets()
+  {
+    return 1024L * 1024L * 1024L;
+  }
+
+  /**
+   * If enabled, resolvers that can observe changes to their assets (such as
+   * those that read from the filesystem) are watched, and assets that
+   * change are reloaded in the background. The values of existing
+   * references are replaced once the new value has loaded, and graph nodes
+   * that depend on the assets are prepared again. This is intended for
+   * development.
+   *
+   * @return {@code true} if assets should be reloaded when they change
+   */
+
+  @Value.Default
+  default boolean hotReload()
+  {
+    return false;
+  }
+
+  /**
+   * Changes to files typically arrive as bursts of events (an editor saving
+   * a file may truncate, write, and rename it). Reloading starts once no
+   * further changes have been observed for this long.
+   *
+   * @return The hot reload debounce period
+   */
+
+  @Value.Default
+  default Duration hotReloadDebounce()
+  {
+    return Duration.ofMillis(250L);
+  }
+
+  /**
+   * Check preconditions for the configuration.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    Preconditions.checkPreconditionV(
+      this.resolveParallelism() > 0,
+      "Resolve parallelism %d must be positive",
+      Integer.valueOf(this.resolveParallelism())
+    );
+    Preconditions.checkPreconditionV(
+      this.loadParallelism() > 0,
+      "Load parallelism %d must be positive",
+      Integer.valueOf(this.loadParallelism())
+    );
+    Preconditions.checkPreconditionV(
+      this.cacheBudgetHostOctets() >= 0L,
+      "Cache host budget %d must be non-negative",
+      Long.valueOf(this.cacheBudgetHostOctets())
+    );
+    Preconditions.checkPreconditionV(
+      this.cacheBudgetDeviceOctets() >= 0L,
+      "Cache device budget %d must be non-negative",
+      Long.valueOf(this.cacheBudgetDeviceOctets())
+    );
+    Preconditions.checkPreconditionV(
+      !this.hotReloadDebounce().isNegative(),
+      "Hot reload debounce %s must be non-negative",
+      this.hotReloadDebounce()
+    );
+    Preconditions.checkPreconditionV(
+      this.queueFrequency().isPositive(),
+      "Queue frequency %s must be positive",
+      this.queueFrequency()
+    );
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.buffers;
+
+import com.io7m.jcoronado.api.VulkanBufferType;
+import com.io7m.rocaro.api.RCCloseableGPUType;
+
+/**
+ * The base type of device-local buffers. Closing a buffer releases it;
+ * a buffer shared between several owners is released when every owner
+ * has closed it.
+ */
+
+public sealed interface RCBufferType
+  extends RCCloseableGPUType
+  permits RCBufferIndexType,
+  RCBufferStorageType,
+  RCBufferUniformType,
+  RCBufferVertexType
+{
+  /**
+   * @return The buffer ID
+   */
+
+  RCBufferID id();
+
+  /**
+   * @return The underlying buffer
+   */
+
+  VulkanBufferType data();
+
+  /**
+   * @return The size of the buffer in octets
+   */
+
+  long size();
+}
@@ -40,6 +40,12 @@ public final class RCDeviceJFREventQueueSubmit
   @Label("Queue")
   public String queue;
 
+  @Label("Submissions")
+  public int submissions;
+
+  @Label("Deferred Submissions")
+  public int deferred;
+
   public RCDeviceJFREventQueueSubmit()
   {
 
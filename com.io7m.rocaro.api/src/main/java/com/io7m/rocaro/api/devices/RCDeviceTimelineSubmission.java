@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.devices;
+
+import com.io7m.jcoronado.api.VulkanSemaphoreTimelineWait;
+import com.io7m.rocaro.api.RCUnit;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A submission of work to a queue that signals the timeline of that queue.
+ *
+ * @param submitted A future that is completed when the work is submitted
+ * @param completed The point on the queue timeline that is reached when the
+ *                  work has completed
+ */
+
+public record RCDeviceTimelineSubmission(
+  CompletableFuture<RCUnit> submitted,
+  VulkanSemaphoreTimelineWait completed)
+{
+  /**
+   * A submission of work to a queue that signals the timeline of that queue.
+   *
+   * @param submitted A future that is completed when the work is submitted
+   * @param completed The point on the queue timeline that is reached when
+   *                  the work has completed
+   */
+
+  public RCDeviceTimelineSubmission
+  {
+    Objects.requireNonNull(submitted, "submitted");
+    Objects.requireNonNull(completed, "completed");
+  }
+}
@@ -26,6 +26,7 @@ import com.io7m.rocaro.api.RCCloseableType;
 import com.io7m.rocaro.api.RCUnit;
 import com.io7m.rocaro.api.RocaroException;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Callable;
@@ -166,6 +167,70 @@ public interface RCDeviceType extends RCCloseableType
     Optional<VulkanFenceType> fence
   );
 
+  /**
+   * Submit work to the given queue as part of the next submission made to
+   * the same queue with {@link #submit(VulkanQueueType, List, Optional)},
+   * so that the work does not require a queue submission of its own. If no
+   * such submission is made within {@code maximumDelay}, the work is
+   * submitted by itself. The deferred work is submitted ahead of the work
+   * it is combined with. Deferred work is never combined with a submission
+   * that signals a fence, because the fence would then also wait for the
+   * deferred work; it is instead submitted by itself immediately after
+   * such a submission. The returned future is completed when the work has
+   * been submitted.
+   *
+   * @param queue        The queue
+   * @param submission   The work
+   * @param maximumDelay The maximum time for which the work may be deferred
+   *
+   * @return The operation in progress
+   */
+
+  CompletableFuture<RCUnit> submitDeferred(
+    VulkanQueueType queue,
+    List<VulkanSubmitInfo> submission,
+    Duration maximumDelay
+  );
+
+  /**
+   * Submit work to the given queue. Each queue has a single timeline
+   * semaphore, and every submission made with this method signals the
+   * timeline of the queue with a new, strictly increasing value once the
+   * work has completed.
+   *
+   * @param queue      The queue
+   * @param submission The work
+   *
+   * @return The submission
+   *
+   * @throws RocaroException On errors
+   */
+
+  RCDeviceTimelineSubmission submitTimeline(
+    VulkanQueueType queue,
+    List<VulkanSubmitInfo> submission)
+    throws RocaroException;
+
+  /**
+   * Submit work to the given queue as with
+   * {@link #submitTimeline(VulkanQueueType, List)}, deferring the work as
+   * with {@link #submitDeferred(VulkanQueueType, List, Duration)}.
+   *
+   * @param queue        The queue
+   * @param submission   The work
+   * @param maximumDelay The maximum time for which the work may be deferred
+   *
+   * @return The submission
+   *
+   * @throws RocaroException On errors
+   */
+
+  RCDeviceTimelineSubmission submitTimelineDeferred(
+    VulkanQueueType queue,
+    List<VulkanSubmitInfo> submission,
+    Duration maximumDelay)
+    throws RocaroException;
+
   /**
    * Execute work on the device executor.
    *
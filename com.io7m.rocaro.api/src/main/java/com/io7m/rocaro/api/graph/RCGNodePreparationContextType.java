@@ -17,6 +17,10 @@
 
 package com.io7m.rocaro.api.graph;
 
+import com.io7m.rocaro.api.assets.RCAssetIdentifier;
+import com.io7m.rocaro.api.assets.RCAssetReferenceType;
+import com.io7m.rocaro.api.assets.RCAssetType;
+
 /**
  * The context passed to each graph node during preparation.
  */
@@ -24,5 +28,21 @@ package com.io7m.rocaro.api.graph;
 public interface RCGNodePreparationContextType
   extends RCGNodeContextType
 {
+  /**
+   * Open an asset on which the node depends. The reference is owned by the
+   * graph; the node is not ready until the asset has loaded, and the node
+   * is prepared again whenever the asset is reloaded. References opened
+   * during a previous preparation are closed before the node is prepared
+   * again.
+   *
+   * @param identifier The asset identifier
+   * @param assetClass The asset class
+   * @param <A>        The type of asset
+   *
+   * @return A reference to the asset
+   */
 
+  <A extends RCAssetType> RCAssetReferenceType<A> openAsset(
+    RCAssetIdentifier identifier,
+    Class<A> assetClass);
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.images;
+
+import com.io7m.rocaro.api.RCCloseableGPUType;
+
+/**
+ * <p>The type of color images that consist of multiple layers: arrays of
+ * 2D images, cube maps, and 3D volumes.</p>
+ * <p>Layered images support being sampled from shaders and being the
+ * target of transfer operations. The {@link #size()} of a layered image
+ * is the size of a single layer.</p>
+ * <p>Closing an image releases it; an image shared between several owners
+ * is released when every owner has closed it.</p>
+ */
+
+public interface RCImageColorLayeredType
+  extends RCImageColorType, RCCloseableGPUType
+{
+  /**
+   * @return The kind of layered image
+   */
+
+  RCImageLayeredKind kind();
+
+  /**
+   * @return The number of layers (or, for 3D volumes, the depth)
+   */
+
+  int layers();
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.images;
+
+import com.io7m.jcoronado.api.VulkanFormat;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Information about block-compressed image formats.
+ */
+
+public final class RCImageCompressedFormats
+{
+  private static final RCImageFormatBlock BLOCK_4X4_8 =
+    new RCImageFormatBlock(4, 4, 8);
+  private static final RCImageFormatBlock BLOCK_4X4_16 =
+    new RCImageFormatBlock(4, 4, 16);
+
+  private RCImageCompressedFormats()
+  {
+
+  }
+
+  /**
+   * @param format The format
+   *
+   * @return {@code true} if the format is a supported block-compressed format
+   */
+
+  public static boolean isCompressed(
+    final VulkanFormat format)
+  {
+    return blockOf(format).isPresent();
+  }
+
+  /**
+   * Determine the block dimensions of the given format. The BC, ETC2/EAC,
+   * and LDR ASTC families are supported.
+   *
+   * @param format The format
+   *
+   * @return The block dimensions, or nothing if the format is not a
+   * supported block-compressed format
+   */
+
+  public static Optional<RCImageFormatBlock> blockOf(
+    final VulkanFormat format)
+  {
+    Objects.requireNonNull(format, "format");
+
+    return Optional.ofNullable(
+      switch (format) {
+        case VK_FORMAT_BC1_RGB_UNORM_BLOCK,
+             VK_FORMAT_BC1_RGB_SRGB_BLOCK,
+             VK_FORMAT_BC1_RGBA_UNORM_BLOCK,
+             VK_FORMAT_BC1_RGBA_SRGB_BLOCK,
+             VK_FORMAT_BC4_UNORM_BLOCK,
+             VK_FORMAT_BC4_SNORM_BLOCK,
+             VK_FORMAT_ETC2_R8G8B8_UNORM_BLOCK,
+             VK_FORMAT_ETC2_R8G8B8_SRGB_BLOCK,
+             VK_FORMAT_ETC2_R8G8B8A1_UNORM_BLOCK,
+             VK_FORMAT_ETC2_R8G8B8A1_SRGB_BLOCK,
+             VK_FORMAT_EAC_R11_UNORM_BLOCK,
+             VK_FORMAT_EAC_R11_SNORM_BLOCK -> BLOCK_4X4_8;
+
+        case VK_FORMAT_BC2_UNORM_BLOCK,
+             VK_FORMAT_BC2_SRGB_BLOCK,
+             VK_FORMAT_BC3_UNORM_BLOCK,
+             VK_FORMAT_BC3_SRGB_BLOCK,
+             VK_FORMAT_BC5_UNORM_BLOCK,
+             VK_FORMAT_BC5_SNORM_BLOCK,
+             VK_FORMAT_BC6H_UFLOAT_BLOCK,
+             VK_FORMAT_BC6H_SFLOAT_BLOCK,
+             VK_FORMAT_BC7_UNORM_BLOCK,
+             VK_FORMAT_BC7_SRGB_BLOCK,
+             VK_FORMAT_ETC2_R8G8B8A8_UNORM_BLOCK,
+             VK_FORMAT_ETC2_R8G8B8A8_SRGB_BLOCK,
+             VK_FORMAT_EAC_R11G11_UNORM_BLOCK,
+             VK_FORMAT_EAC_R11G11_SNORM_BLOCK,
+             VK_FORMAT_ASTC_4x4_UNORM_BLOCK,
+             VK_FORMAT_ASTC_4x4_SRGB_BLOCK -> BLOCK_4X4_16;
+
+        case VK_FORMAT_ASTC_5x4_UNORM_BLOCK,
+             VK_FORMAT_ASTC_5x4_SRGB_BLOCK -> astc(5, 4);
+        case VK_FORMAT_ASTC_5x5_UNORM_BLOCK,
+             VK_FORMAT_ASTC_5x5_SRGB_BLOCK -> astc(5, 5);
+        case VK_FORMAT_ASTC_6x5_UNORM_BLOCK,
+             VK_FORMAT_ASTC_6x5_SRGB_BLOCK -> astc(6, 5);
+        case VK_FORMAT_ASTC_6x6_UNORM_BLOCK,
+             VK_FORMAT_ASTC_6x6_SRGB_BLOCK -> astc(6, 6);
+        case VK_FORMAT_ASTC_8x5_UNORM_BLOCK,
+             VK_FORMAT_ASTC_8x5_SRGB_BLOCK -> astc(8, 5);
+        case VK_FORMAT_ASTC_8x6_UNORM_BLOCK,
+             VK_FORMAT_ASTC_8x6_SRGB_BLOCK -> astc(8, 6);
+        case VK_FORMAT_ASTC_8x8_UNORM_BLOCK,
+             VK_FORMAT_ASTC_8x8_SRGB_BLOCK -> astc(8, 8);
+        case VK_FORMAT_ASTC_10x5_UNORM_BLOCK,
+             VK_FORMAT_ASTC_10x5_SRGB_BLOCK -> astc(10, 5);
+        case VK_FORMAT_ASTC_10x6_UNORM_BLOCK,
+             VK_FORMAT_ASTC_10x6_SRGB_BLOCK -> astc(10, 6);
+        case VK_FORMAT_ASTC_10x8_UNORM_BLOCK,
+             VK_FORMAT_ASTC_10x8_SRGB_BLOCK -> astc(10, 8);
+        case VK_FORMAT_ASTC_10x10_UNORM_BLOCK,
+             VK_FORMAT_ASTC_10x10_SRGB_BLOCK -> astc(10, 10);
+        case VK_FORMAT_ASTC_12x10_UNORM_BLOCK,
+             VK_FORMAT_ASTC_12x10_SRGB_BLOCK -> astc(12, 10);
+        case VK_FORMAT_ASTC_12x12_UNORM_BLOCK,
+             VK_FORMAT_ASTC_12x12_SRGB_BLOCK -> astc(12, 12);
+
+        default -> null;
+      }
+    );
+  }
+
+  private static RCImageFormatBlock astc(
+    final int width,
+    final int height)
+  {
+    return new RCImageFormatBlock(width, height, 16);
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.images;
+
+import com.io7m.jaffirm.core.Preconditions;
+
+/**
+ * The block dimensions of a block-compressed image format.
+ *
+ * @param width  The width of a block in texels
+ * @param height The height of a block in texels
+ * @param octets The size of a block in octets
+ */
+
+public record RCImageFormatBlock(
+  int width,
+  int height,
+  int octets)
+{
+  /**
+   * The block dimensions of a block-compressed image format.
+   *
+   * @param width  The width of a block in texels
+   * @param height The height of a block in texels
+   * @param octets The size of a block in octets
+   */
+
+  public RCImageFormatBlock
+  {
+    Preconditions.checkPreconditionV(
+      width > 0 && height > 0 && octets > 0,
+      "Block dimensions %dx%d (%d octets) must be positive",
+      Integer.valueOf(width),
+      Integer.valueOf(height),
+      Integer.valueOf(octets)
+    );
+  }
+
+  /**
+   * @param texels A width in texels
+   *
+   * @return The number of blocks required to cover the given width
+   */
+
+  public long blocksX(
+    final int texels)
+  {
+    return Integer.divideUnsigned(texels + this.width - 1, this.width);
+  }
+
+  /**
+   * @param texels A height in texels
+   *
+   * @return The number of blocks required to cover the given height
+   */
+
+  public long blocksY(
+    final int texels)
+  {
+    return Integer.divideUnsigned(texels + this.height - 1, this.height);
+  }
+
+  /**
+   * @param texels A width in texels
+   *
+   * @return The size in octets of a row of blocks covering the given width
+   */
+
+  public long rowOctets(
+    final int texels)
+  {
+    return this.blocksX(texels) * Integer.toUnsignedLong(this.octets);
+  }
+
+  /**
+   * @param width  A width in texels
+   * @param height A height in texels
+   *
+   * @return The size in octets of the blocks covering the given area
+   */
+
+  public long areaOctets(
+    final int width,
+    final int height)
+  {
+    return this.rowOctets(width) * this.blocksY(height);
+  }
+}
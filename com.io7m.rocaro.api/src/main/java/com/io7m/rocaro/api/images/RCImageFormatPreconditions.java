@@ -83,6 +83,29 @@ public final class RCImageFormatPreconditions
     );
   }
 
+  /**
+   * Check the given format against the preconditions required to classify it
+   * as a compressed color image. No compressed format is guaranteed to be
+   * supported by every device, so this check is independent of any device;
+   * the transfer service separately rejects formats that the device cannot
+   * sample.
+   *
+   * @param format The format
+   */
+
+  public static void checkColorCompressedPreconditions(
+    final VulkanFormat format)
+  {
+    Preconditions.checkPrecondition(
+      format,
+      RCImageCompressedFormats::isCompressed,
+      _ -> {
+        return "Format %s must be a supported block-compressed format"
+          .formatted(format);
+      }
+    );
+  }
+
   /**
    * Check the given format against the preconditions required to classify it
    * as a renderable color image.
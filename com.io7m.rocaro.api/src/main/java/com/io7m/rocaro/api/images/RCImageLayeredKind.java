@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.images;
+
+/**
+ * The kinds of layered images.
+ */
+
+public enum RCImageLayeredKind
+{
+  /**
+   * An array of 2D images. Each layer is a 2D image.
+   */
+
+  ARRAY_2D,
+
+  /**
+   * One or more cube maps. Each group of six consecutive layers is a cube,
+   * with the faces in the order +X, -X, +Y, -Y, +Z, -Z.
+   */
+
+  CUBE,
+
+  /**
+   * A 3D volume. Each layer is a slice of the volume along the Z axis.
+   */
+
+  VOLUME_3D
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+/**
+ * The behaviour of the transfer service when the limits on operations in
+ * flight have been reached.
+ *
+ * @see RCTransferServiceConfigurationType#maximumInFlightOperations()
+ * @see RCTransferServiceConfigurationType#maximumInFlightStagingOctets()
+ */
+
+public enum RCTransferBackpressurePolicy
+{
+  /**
+   * New operations are queued, and begin executing (in the order in which
+   * they were submitted) as earlier operations complete. The future
+   * returned for a queued operation simply completes later.
+   */
+
+  WAIT,
+
+  /**
+   * New operations fail immediately with an error with the code
+   * {@link com.io7m.rocaro.api.RCStandardErrorCodes#TRANSFER_BACKPRESSURE}.
+   * The operation may be resubmitted later.
+   */
+
+  REJECT
+}
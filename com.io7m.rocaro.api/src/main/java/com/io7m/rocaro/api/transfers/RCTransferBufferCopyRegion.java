@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.jaffirm.core.Preconditions;
+
+/**
+ * A range of a source buffer that will be copied to a target buffer.
+ *
+ * @param sourceOffset The offset of the range within the source buffer
+ * @param targetOffset The offset of the range within the target buffer
+ * @param size         The size of the range
+ */
+
+public record RCTransferBufferCopyRegion(
+  long sourceOffset,
+  long targetOffset,
+  long size)
+{
+  /**
+   * A range of a source buffer that will be copied to a target buffer.
+   *
+   * @param sourceOffset The offset of the range within the source buffer
+   * @param targetOffset The offset of the range within the target buffer
+   * @param size         The size of the range
+   */
+
+  public RCTransferBufferCopyRegion
+  {
+    Preconditions.checkPreconditionV(
+      sourceOffset >= 0L && targetOffset >= 0L,
+      "Region offsets %d, %d must be non-negative",
+      Long.valueOf(sourceOffset),
+      Long.valueOf(targetOffset)
+    );
+    Preconditions.checkPreconditionV(
+      size > 0L,
+      "Region size %d must be positive",
+      Long.valueOf(size)
+    );
+  }
+
+  /**
+   * @param sourceBufferSize The size of the source buffer
+   * @param targetBufferSize The size of the target buffer
+   *
+   * @return {@code true} if both ranges lie entirely within their buffers
+   */
+
+  public boolean isWithin(
+    final long sourceBufferSize,
+    final long targetBufferSize)
+  {
+    return this.sourceOffset <= sourceBufferSize - this.size
+           && this.targetOffset <= targetBufferSize - this.size;
+  }
+}
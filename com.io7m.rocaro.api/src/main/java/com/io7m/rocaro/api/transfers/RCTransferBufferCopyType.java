@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.rocaro.api.buffers.RCBufferType;
+import com.io7m.rocaro.api.devices.RCDeviceQueueCategory;
+import org.immutables.value.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The parameters required to copy ranges of one existing buffer into
+ * another existing buffer, entirely on the device. The operation yields
+ * the target buffer when completed.
+ */
+
+@Value.Immutable
+@ImmutablesStyleType
+public non-sealed interface RCTransferBufferCopyType
+  extends RCTransferOperationType<RCBufferType>
+{
+  @Override
+  @Value.Default
+  default UUID id()
+  {
+    return UUID.randomUUID();
+  }
+
+  @Override
+  @Value.Default
+  default RCTransferPriority priority()
+  {
+    return RCTransferPriority.NORMAL;
+  }
+
+  /**
+   * @return A humanly-readable name for the copy, for debugging
+   */
+
+  String name();
+
+  /**
+   * @return The buffer to copy from
+   */
+
+  RCBufferType source();
+
+  /**
+   * @return The buffer to copy to
+   */
+
+  RCBufferType target();
+
+  /**
+   * @return The ranges to copy
+   */
+
+  List<RCTransferBufferCopyRegion> regions();
+
+  /**
+   * @return The queue that owns both buffers
+   */
+
+  RCDeviceQueueCategory targetQueue();
+
+  /**
+   * Check preconditions for the copy.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    final var regions = this.regions();
+    Preconditions.checkPreconditionV(
+      !regions.isEmpty(),
+      "At least one region must be specified."
+    );
+    Preconditions.checkPreconditionV(
+      !this.source().id().equals(this.target().id()),
+      "The source and target buffers must be different."
+    );
+
+    final var sourceSize = this.source().size();
+    final var targetSize = this.target().size();
+    for (final var region : regions) {
+      Preconditions.checkPreconditionV(
+        region.isWithin(sourceSize, targetSize),
+        "Region %s must lie within the source (size %d) and target (size %d)",
+        region,
+        Long.valueOf(sourceSize),
+        Long.valueOf(targetSize)
+      );
+    }
+  }
+}
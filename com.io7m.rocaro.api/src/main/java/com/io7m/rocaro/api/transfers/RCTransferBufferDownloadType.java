@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.rocaro.api.buffers.RCBufferType;
+import com.io7m.rocaro.api.devices.RCDeviceQueueCategory;
+import org.immutables.value.Value;
+
+import java.util.UUID;
+
+/**
+ * The parameters required to download a range of an existing buffer into
+ * host-visible memory.
+ */
+
+@Value.Immutable
+@ImmutablesStyleType
+public non-sealed interface RCTransferBufferDownloadType
+  extends RCTransferOperationType<RCTransferDownloadType>
+{
+  @Override
+  @Value.Default
+  default UUID id()
+  {
+    return UUID.randomUUID();
+  }
+
+  @Override
+  @Value.Default
+  default RCTransferPriority priority()
+  {
+    return RCTransferPriority.NORMAL;
+  }
+
+  /**
+   * @return A humanly-readable name for the download, for debugging
+   */
+
+  String name();
+
+  /**
+   * @return The buffer to download
+   */
+
+  RCBufferType buffer();
+
+  /**
+   * @return The offset of the range to download
+   */
+
+  @Value.Default
+  default long offset()
+  {
+    return 0L;
+  }
+
+  /**
+   * @return The size of the range to download
+   */
+
+  long size();
+
+  /**
+   * @return The queue that owns the buffer
+   */
+
+  RCDeviceQueueCategory targetQueue();
+
+  /**
+   * Check preconditions for the download.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    final var bufferSize = this.buffer().size();
+    Preconditions.checkPreconditionV(
+      this.size() > 0L
+      && this.offset() >= 0L
+      && this.offset() <= bufferSize - this.size(),
+      "Range [%d, %d) must be non-empty and lie within the buffer (size %d)",
+      Long.valueOf(this.offset()),
+      Long.valueOf(this.offset() + this.size()),
+      Long.valueOf(bufferSize)
+    );
+  }
+}
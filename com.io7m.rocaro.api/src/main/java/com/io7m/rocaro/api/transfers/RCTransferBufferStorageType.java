@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.rocaro.api.buffers.RCBufferStorageType;
+import org.immutables.value.Value;
+
+import java.util.UUID;
+
+/**
+ * The parameters required to transfer a single storage buffer to the GPU.
+ */
+
+@Value.Immutable
+@ImmutablesStyleType
+public non-sealed interface RCTransferBufferStorageType
+  extends RCTransferBufferType<RCBufferStorageType>
+{
+  @Override
+  @Value.Default
+  default UUID id()
+  {
+    return UUID.randomUUID();
+  }
+
+  @Override
+  @Value.Default
+  default RCTransferPriority priority()
+  {
+    return RCTransferPriority.NORMAL;
+  }
+
+  /**
+   * Check preconditions for the buffer.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    this.checkBufferPreconditions();
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.rocaro.api.buffers.RCBufferType;
+import com.io7m.rocaro.api.devices.RCDeviceQueueCategory;
+
+/**
+ * The base type of operations that transfer data into a new device-local
+ * buffer.
+ *
+ * @param <B> The type of buffer produced
+ */
+
+public sealed interface RCTransferBufferType<B extends RCBufferType>
+  extends RCTransferOperationType<B>
+  permits RCTransferBufferIndexType,
+  RCTransferBufferStorageType,
+  RCTransferBufferUniformType,
+  RCTransferBufferVertexType
+{
+  /**
+   * @return A humanly-readable name for the buffer, for debugging
+   */
+
+  String name();
+
+  /**
+   * @return The size of the buffer in octets
+   */
+
+  long size();
+
+  /**
+   * @return A copying function to populate the buffer with data
+   */
+
+  RCTransferCopyFunctionType dataCopier();
+
+  /**
+   * @return The queue that will own the buffer when the operation is completed
+   */
+
+  RCDeviceQueueCategory targetQueue();
+
+  /**
+   * Check preconditions for the buffer.
+   */
+
+  default void checkBufferPreconditions()
+  {
+    Preconditions.checkPreconditionV(
+      this.size() > 0L,
+      "Buffer size %d must be positive",
+      Long.valueOf(this.size())
+    );
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * <p>A copy function that can copy arbitrary ranges of its source data.</p>
+ *
+ * <p>When a transfer is split into several parts, the transfer service
+ * copies each part into staging memory, on a transfer I/O thread,
+ * immediately before the part is recorded, rather than copying all the
+ * data up front. The copying of later parts on the CPU therefore overlaps
+ * with the GPU's execution of earlier parts.</p>
+ *
+ * <p>If parallel staging copies are enabled, the function may be called
+ * concurrently from several threads with disjoint ranges, and so it must
+ * be safe to call concurrently.</p>
+ *
+ * @see RCTransferServiceConfigurationType#stagingCopyParallelism()
+ */
+
+public interface RCTransferCopyFunctionRangedType
+  extends RCTransferCopyFunctionType
+{
+  /**
+   * Copy {@code target.byteSize()} octets of data, starting at
+   * {@code sourceOffset} in the source data, into the given memory segment.
+   *
+   * @param target       The memory segment
+   * @param sourceOffset The offset within the source data
+   */
+
+  void copyRange(
+    MemorySegment target,
+    long sourceOffset);
+
+  @Override
+  default void copy(
+    final MemorySegment target)
+  {
+    this.copyRange(target, 0L);
+  }
+}
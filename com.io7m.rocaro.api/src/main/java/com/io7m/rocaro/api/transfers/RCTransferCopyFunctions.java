@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.rocaro.api.assets.RCAssetResolvedType;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Objects;
+
+/**
+ * Standard copy functions.
+ */
+
+public final class RCTransferCopyFunctions
+{
+  private RCTransferCopyFunctions()
+  {
+
+  }
+
+  /**
+   * Create a copy function that copies directly from the given memory
+   * segment. No intermediate copies are made on the Java heap; if the
+   * segment is a memory-mapped file, the data is copied directly from the
+   * mapping into staging memory.
+   *
+   * @param source The source data
+   *
+   * @return A copy function
+   */
+
+  public static RCTransferCopyFunctionRangedType ofSegment(
+    final MemorySegment source)
+  {
+    Objects.requireNonNull(source, "source");
+
+    return (target, sourceOffset) -> {
+      MemorySegment.copy(source, sourceOffset, target, 0L, target.byteSize());
+    };
+  }
+
+  /**
+   * Create a copy function that copies directly from a range of the
+   * given resolved asset. The asset must remain open until the transfer
+   * that uses the copy function has completed.
+   *
+   * @param asset  The resolved asset
+   * @param offset The offset of the data within the asset
+   * @param length The length of the data
+   *
+   * @return A copy function
+   */
+
+  public static RCTransferCopyFunctionRangedType ofAsset(
+    final RCAssetResolvedType asset,
+    final long offset,
+    final long length)
+  {
+    Objects.requireNonNull(asset, "asset");
+
+    final var data = asset.data();
+    Preconditions.checkPreconditionV(
+      offset >= 0L && length >= 0L && offset <= data.byteSize() - length,
+      "Range [%d, %d) must lie within the asset (size %d)",
+      Long.valueOf(offset),
+      Long.valueOf(offset + length),
+      Long.valueOf(data.byteSize())
+    );
+    return ofSegment(data.asSlice(offset, length));
+  }
+
+  /**
+   * Create a copy function that copies directly from the entirety of the
+   * given resolved asset. The asset must remain open until the transfer
+   * that uses the copy function has completed.
+   *
+   * @param asset The resolved asset
+   *
+   * @return A copy function
+   */
+
+  public static RCTransferCopyFunctionRangedType ofAsset(
+    final RCAssetResolvedType asset)
+  {
+    Objects.requireNonNull(asset, "asset");
+    return ofSegment(asset.data());
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.rocaro.api.RCCloseableType;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * <p>The data downloaded from the GPU by a download operation.</p>
+ *
+ * <p>The data is held in host-visible memory owned by the transfer
+ * service. The memory is returned to the transfer service when the
+ * download is closed, and the segment returned by {@link #data()} must
+ * not be accessed after that point.</p>
+ */
+
+public interface RCTransferDownloadType
+  extends RCCloseableType
+{
+  /**
+   * @return A read-only view of the downloaded data
+   *
+   * @throws IllegalStateException If the download has been closed
+   */
+
+  MemorySegment data()
+    throws IllegalStateException;
+}
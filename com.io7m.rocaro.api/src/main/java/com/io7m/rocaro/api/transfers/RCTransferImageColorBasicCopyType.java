@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jcoronado.api.VulkanImageLayout;
+import com.io7m.rocaro.api.devices.RCDeviceQueueCategory;
+import com.io7m.rocaro.api.images.RCImageColorBasicType;
+import org.immutables.value.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * <p>The parameters required to copy regions of one existing basic color
+ * image into another existing basic color image, entirely on the device.
+ * The operation yields the target image when completed.</p>
+ *
+ * <p>If the images have the same format and no region is scaled, the
+ * regions are copied exactly. Otherwise, the regions are blitted, which
+ * converts between formats and scales as necessary. Blits can only be
+ * executed on a graphics queue, and so the target queue must be
+ * {@link RCDeviceQueueCategory#GRAPHICS} in that case.</p>
+ */
+
+@Value.Immutable
+@ImmutablesStyleType
+public non-sealed interface RCTransferImageColorBasicCopyType
+  extends RCTransferOperationType<RCImageColorBasicType>
+{
+  @Override
+  @Value.Default
+  default UUID id()
+  {
+    return UUID.randomUUID();
+  }
+
+  @Override
+  @Value.Default
+  default RCTransferPriority priority()
+  {
+    return RCTransferPriority.NORMAL;
+  }
+
+  /**
+   * @return A humanly-readable name for the copy, for debugging
+   */
+
+  String name();
+
+  /**
+   * @return The image to copy from
+   */
+
+  RCImageColorBasicType source();
+
+  /**
+   * @return The layout that the source image is in, and will be returned to
+   */
+
+  VulkanImageLayout sourceLayout();
+
+  /**
+   * @return The image to copy to
+   */
+
+  RCImageColorBasicType target();
+
+  /**
+   * @return The layout that the target image is in, and will be returned to
+   */
+
+  VulkanImageLayout targetLayout();
+
+  /**
+   * @return The regions to copy
+   */
+
+  List<RCTransferImageCopyRegion> regions();
+
+  /**
+   * @return The queue that owns both images
+   */
+
+  RCDeviceQueueCategory targetQueue();
+
+  /**
+   * @return {@code true} if the copy must be performed with a blit
+   */
+
+  default boolean requiresBlit()
+  {
+    return this.source().format() != this.target().format()
+           || this.regions()
+      .stream()
+      .anyMatch(RCTransferImageCopyRegion::isScaled);
+  }
+
+  /**
+   * Check preconditions for the copy.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    final var regions = this.regions();
+    Preconditions.checkPreconditionV(
+      !regions.isEmpty(),
+      "At least one region must be specified."
+    );
+    Preconditions.checkPreconditionV(
+      !this.source().data().equals(this.target().data()),
+      "The source and target images must be different."
+    );
+
+    final var sourceSize = this.source().size();
+    final var targetSize = this.target().size();
+    for (final var region : regions) {
+      Preconditions.checkPreconditionV(
+        region.isWithin(sourceSize, targetSize),
+        "Region %s must lie within the source (size %s) and target (size %s)",
+        region,
+        sourceSize,
+        targetSize
+      );
+    }
+
+    if (this.requiresBlit()) {
+      Preconditions.checkPreconditionV(
+        this.targetQueue() == RCDeviceQueueCategory.GRAPHICS,
+        "Blits require the target queue to be %s",
+        RCDeviceQueueCategory.GRAPHICS
+      );
+    }
+  }
+}
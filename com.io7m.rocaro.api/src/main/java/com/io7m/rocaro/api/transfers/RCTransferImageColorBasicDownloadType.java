@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jcoronado.api.VulkanImageLayout;
+import com.io7m.rocaro.api.devices.RCDeviceQueueCategory;
+import com.io7m.rocaro.api.images.RCImageColorBasicType;
+import org.immutables.value.Value;
+
+import java.util.UUID;
+
+/**
+ * The parameters required to download the contents of an existing basic
+ * color image into host-visible memory. The texels are tightly packed,
+ * row by row, in the image's format.
+ */
+
+@Value.Immutable
+@ImmutablesStyleType
+public non-sealed interface RCTransferImageColorBasicDownloadType
+  extends RCTransferOperationType<RCTransferDownloadType>
+{
+  @Override
+  @Value.Default
+  default UUID id()
+  {
+    return UUID.randomUUID();
+  }
+
+  @Override
+  @Value.Default
+  default RCTransferPriority priority()
+  {
+    return RCTransferPriority.NORMAL;
+  }
+
+  /**
+   * @return A humanly-readable name for the download, for debugging
+   */
+
+  String name();
+
+  /**
+   * @return The image to download
+   */
+
+  RCImageColorBasicType image();
+
+  /**
+   * @return The layout that the image is in, and will be returned to
+   */
+
+  VulkanImageLayout layout();
+
+  /**
+   * @return The queue that owns the image
+   */
+
+  RCDeviceQueueCategory targetQueue();
+}
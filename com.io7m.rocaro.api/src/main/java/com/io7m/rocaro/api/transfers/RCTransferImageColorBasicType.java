@@ -18,11 +18,12 @@
 package com.io7m.rocaro.api.transfers;
 
 import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jaffirm.core.Preconditions;
 import com.io7m.jcoronado.api.VulkanFormat;
 import com.io7m.jcoronado.api.VulkanImageLayout;
 import com.io7m.jtensors.core.unparameterized.vectors.Vector2I;
 import com.io7m.rocaro.api.devices.RCDeviceQueueCategory;
-import com.io7m.rocaro.api.images.RCImageColorBasicType;
+import com.io7m.rocaro.api.images.RCImageColorBasicUploadedType;
 import com.io7m.rocaro.api.images.RCImageFormatPreconditions;
 import org.immutables.value.Value;
 
@@ -35,7 +36,7 @@ import java.util.UUID;
 @Value.Immutable
 @ImmutablesStyleType
 public non-sealed interface RCTransferImageColorBasicType
-  extends RCTransferOperationType<RCImageColorBasicType>
+  extends RCTransferOperationType<RCImageColorBasicUploadedType>
 {
   @Override
   @Value.Default
@@ -44,6 +45,13 @@ public non-sealed interface RCTransferImageColorBasicType
     return UUID.randomUUID();
   }
 
+  @Override
+  @Value.Default
+  default RCTransferPriority priority()
+  {
+    return RCTransferPriority.NORMAL;
+  }
+
   /**
    * @return A humanly-readable name for the image, for debugging
    */
@@ -80,6 +88,21 @@ public non-sealed interface RCTransferImageColorBasicType
 
   RCDeviceQueueCategory targetQueue();
 
+  /**
+   * If {@code true}, a full mipmap chain will be allocated for the image,
+   * and the levels below the base level will be generated on the GPU from
+   * the uploaded base level. Mipmap generation requires a graphics queue,
+   * and so the target queue must be {@link RCDeviceQueueCategory#GRAPHICS}.
+   *
+   * @return {@code true} if mipmaps should be generated
+   */
+
+  @Value.Default
+  default boolean generateMipmaps()
+  {
+    return false;
+  }
+
   /**
    * Check preconditions for the image.
    */
@@ -88,5 +111,13 @@ public non-sealed interface RCTransferImageColorBasicType
   default void checkPreconditions()
   {
     RCImageFormatPreconditions.checkColorBasicPreconditions(this.format());
+
+    if (this.generateMipmaps()) {
+      Preconditions.checkPreconditionV(
+        this.targetQueue() == RCDeviceQueueCategory.GRAPHICS,
+        "Mipmap generation requires a graphics target queue (got %s)",
+        this.targetQueue()
+      );
+    }
   }
 }
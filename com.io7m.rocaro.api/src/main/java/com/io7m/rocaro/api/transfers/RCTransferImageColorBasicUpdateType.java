@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jcoronado.api.VulkanImageLayout;
+import com.io7m.rocaro.api.devices.RCDeviceQueueCategory;
+import com.io7m.rocaro.api.images.RCImageColorBasicType;
+import org.immutables.value.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.io7m.jcoronado.api.VulkanImageLayout.VK_IMAGE_LAYOUT_UNDEFINED;
+
+/**
+ * The parameters required to update one or more regions of an existing
+ * basic color image. Only the given regions are uploaded, and the rest of
+ * the image contents are preserved. The operation yields the same image
+ * when completed.
+ */
+
+@Value.Immutable
+@ImmutablesStyleType
+public non-sealed interface RCTransferImageColorBasicUpdateType
+  extends RCTransferOperationType<RCImageColorBasicType>
+{
+  @Override
+  @Value.Default
+  default UUID id()
+  {
+    return UUID.randomUUID();
+  }
+
+  @Override
+  @Value.Default
+  default RCTransferPriority priority()
+  {
+    return RCTransferPriority.NORMAL;
+  }
+
+  /**
+   * @return A humanly-readable name for the image, for debugging
+   */
+
+  String name();
+
+  /**
+   * @return The image to update
+   */
+
+  RCImageColorBasicType image();
+
+  /**
+   * @return The layout that the image is in, and will be returned to
+   *         (must not be {@code VK_IMAGE_LAYOUT_UNDEFINED}, as the contents
+   *         of the image outside the updated regions would be discarded)
+   */
+
+  VulkanImageLayout layout();
+
+  /**
+   * @return The regions to update
+   */
+
+  List<RCTransferImageRegion> regions();
+
+  /**
+   * @return The queue that owns the image
+   */
+
+  RCDeviceQueueCategory targetQueue();
+
+  /**
+   * Check preconditions for the update.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    Preconditions.checkPreconditionV(
+      this.layout() != VK_IMAGE_LAYOUT_UNDEFINED,
+      "The image layout must not be %s.",
+      VK_IMAGE_LAYOUT_UNDEFINED
+    );
+
+    final var regions = this.regions();
+    Preconditions.checkPreconditionV(
+      !regions.isEmpty(),
+      "At least one region must be specified."
+    );
+
+    final var imageSize = this.image().size();
+    for (final var region : regions) {
+      Preconditions.checkPreconditionV(
+        region.isWithin(imageSize),
+        "Region (offset %s, size %s) must lie within the image size %s",
+        region.offset(),
+        region.size(),
+        imageSize
+      );
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jcoronado.api.VulkanFormat;
+import com.io7m.jcoronado.api.VulkanImageLayout;
+import com.io7m.jtensors.core.unparameterized.vectors.Vector2I;
+import com.io7m.rocaro.api.devices.RCDeviceQueueCategory;
+import com.io7m.rocaro.api.images.RCImageColorCompressedType;
+import com.io7m.rocaro.api.images.RCImageFormatPreconditions;
+import org.immutables.value.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The parameters required to transfer a block-compressed color image to
+ * the GPU. The compressed data is copied to the GPU as-is; no
+ * decompression takes place on the CPU. Transfers of formats that the
+ * device cannot sample fail with
+ * {@link com.io7m.rocaro.api.RCStandardErrorCodes#TRANSFER_FORMAT_UNSUPPORTED}.
+ */
+
+@Value.Immutable
+@ImmutablesStyleType
+public non-sealed interface RCTransferImageColorCompressedType
+  extends RCTransferOperationType<RCImageColorCompressedType>
+{
+  @Override
+  @Value.Default
+  default UUID id()
+  {
+    return UUID.randomUUID();
+  }
+
+  @Override
+  @Value.Default
+  default RCTransferPriority priority()
+  {
+    return RCTransferPriority.NORMAL;
+  }
+
+  /**
+   * @return A humanly-readable name for the image, for debugging
+   */
+
+  String name();
+
+  /**
+   * @return The size of the image at level 0
+   */
+
+  Vector2I size();
+
+  /**
+   * @return The format of the image
+   */
+
+  VulkanFormat format();
+
+  /**
+   * @return The number of array layers
+   */
+
+  @Value.Default
+  default int layers()
+  {
+    return 1;
+  }
+
+  /**
+   * @return The data for each mipmap level, starting at level 0
+   */
+
+  List<RCTransferImageLevel> levels();
+
+  /**
+   * @return The final image layout
+   */
+
+  VulkanImageLayout finalLayout();
+
+  /**
+   * @return The queue that will own the image when the operation is completed
+   */
+
+  RCDeviceQueueCategory targetQueue();
+
+  /**
+   * Check preconditions for the image.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    RCImageFormatPreconditions.checkColorCompressedPreconditions(this.format());
+
+    Preconditions.checkPreconditionV(
+      this.size().x() > 0 && this.size().y() > 0,
+      "Image size %s must be positive",
+      this.size()
+    );
+    Preconditions.checkPreconditionV(
+      this.layers() > 0,
+      "Layer count %d must be positive",
+      Integer.valueOf(this.layers())
+    );
+
+    final var levels = this.levels();
+    Preconditions.checkPreconditionV(
+      !levels.isEmpty(),
+      "At least one level must be specified."
+    );
+
+    final var largest = Math.max(this.size().x(), this.size().y());
+    final var levelsMaximum = 32 - Integer.numberOfLeadingZeros(largest);
+    Preconditions.checkPreconditionV(
+      levels.size() <= levelsMaximum,
+      "Level count %d must be <= %d",
+      Integer.valueOf(levels.size()),
+      Integer.valueOf(levelsMaximum)
+    );
+
+    for (int index = 0; index < levels.size(); ++index) {
+      Preconditions.checkPreconditionV(
+        levels.get(index).level() == index,
+        "Level at index %d must have level number %d",
+        Integer.valueOf(index),
+        Integer.valueOf(index)
+      );
+    }
+  }
+}
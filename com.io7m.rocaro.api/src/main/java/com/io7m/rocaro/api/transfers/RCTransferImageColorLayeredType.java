@@ -0,0 +1,144 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jcoronado.api.VulkanFormat;
+import com.io7m.jcoronado.api.VulkanImageLayout;
+import com.io7m.jtensors.core.unparameterized.vectors.Vector2I;
+import com.io7m.rocaro.api.devices.RCDeviceQueueCategory;
+import com.io7m.rocaro.api.images.RCImageColorLayeredType;
+import com.io7m.rocaro.api.images.RCImageFormatPreconditions;
+import com.io7m.rocaro.api.images.RCImageLayeredKind;
+import org.immutables.value.Value;
+
+import java.util.UUID;
+
+/**
+ * <p>The parameters required to transfer a layered color image (a 2D
+ * array, one or more cube maps, or a 3D volume) to the GPU in a single
+ * operation.</p>
+ *
+ * <p>The copy function must write every layer, tightly packed, one layer
+ * after another. For cube maps, each group of six layers is one cube. For
+ * 3D volumes, each layer is one slice.</p>
+ */
+
+@Value.Immutable
+@ImmutablesStyleType
+public non-sealed interface RCTransferImageColorLayeredType
+  extends RCTransferOperationType<RCImageColorLayeredType>
+{
+  @Override
+  @Value.Default
+  default UUID id()
+  {
+    return UUID.randomUUID();
+  }
+
+  @Override
+  @Value.Default
+  default RCTransferPriority priority()
+  {
+    return RCTransferPriority.NORMAL;
+  }
+
+  /**
+   * @return A humanly-readable name for the image, for debugging
+   */
+
+  String name();
+
+  /**
+   * @return The kind of layered image
+   */
+
+  RCImageLayeredKind kind();
+
+  /**
+   * @return The size of a single layer
+   */
+
+  Vector2I size();
+
+  /**
+   * @return The number of layers (or, for 3D volumes, the depth)
+   */
+
+  int layers();
+
+  /**
+   * @return The format of the image
+   */
+
+  VulkanFormat format();
+
+  /**
+   * @return The final image layout
+   */
+
+  VulkanImageLayout finalLayout();
+
+  /**
+   * @return A copying function to populate every layer with data
+   */
+
+  RCTransferCopyFunctionType dataCopier();
+
+  /**
+   * @return The queue that will own the image when the operation is completed
+   */
+
+  RCDeviceQueueCategory targetQueue();
+
+  /**
+   * Check preconditions for the image.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    RCImageFormatPreconditions.checkColorBasicPreconditions(this.format());
+
+    final var size = this.size();
+    Preconditions.checkPreconditionV(
+      size.x() > 0 && size.y() > 0,
+      "Image size %s must be positive",
+      size
+    );
+    Preconditions.checkPreconditionV(
+      this.layers() > 0,
+      "Layer count %d must be positive",
+      Integer.valueOf(this.layers())
+    );
+
+    if (this.kind() == RCImageLayeredKind.CUBE) {
+      Preconditions.checkPreconditionV(
+        size.x() == size.y(),
+        "Cube map faces must be square (got %s)",
+        size
+      );
+      Preconditions.checkPreconditionV(
+        this.layers() % 6 == 0,
+        "Cube map layer count %d must be a multiple of 6",
+        Integer.valueOf(this.layers())
+      );
+    }
+  }
+}
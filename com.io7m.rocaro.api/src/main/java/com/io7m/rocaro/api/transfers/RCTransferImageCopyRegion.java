@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jtensors.core.unparameterized.vectors.Vector2I;
+
+import java.util.Objects;
+
+/**
+ * A rectangular region of a source image that will be copied to a
+ * rectangular region of a target image. If the sizes of the two regions
+ * differ, the source region is scaled to fit the target region.
+ *
+ * @param sourceOffset The offset of the region within the source image
+ * @param sourceSize   The size of the region within the source image
+ * @param targetOffset The offset of the region within the target image
+ * @param targetSize   The size of the region within the target image
+ */
+
+public record RCTransferImageCopyRegion(
+  Vector2I sourceOffset,
+  Vector2I sourceSize,
+  Vector2I targetOffset,
+  Vector2I targetSize)
+{
+  /**
+   * A rectangular region of a source image that will be copied to a
+   * rectangular region of a target image. If the sizes of the two regions
+   * differ, the source region is scaled to fit the target region.
+   *
+   * @param sourceOffset The offset of the region within the source image
+   * @param sourceSize   The size of the region within the source image
+   * @param targetOffset The offset of the region within the target image
+   * @param targetSize   The size of the region within the target image
+   */
+
+  public RCTransferImageCopyRegion
+  {
+    Objects.requireNonNull(sourceOffset, "sourceOffset");
+    Objects.requireNonNull(sourceSize, "sourceSize");
+    Objects.requireNonNull(targetOffset, "targetOffset");
+    Objects.requireNonNull(targetSize, "targetSize");
+
+    Preconditions.checkPreconditionV(
+      sourceOffset.x() >= 0 && sourceOffset.y() >= 0
+      && targetOffset.x() >= 0 && targetOffset.y() >= 0,
+      "Region offsets %s, %s must be non-negative",
+      sourceOffset,
+      targetOffset
+    );
+    Preconditions.checkPreconditionV(
+      sourceSize.x() > 0 && sourceSize.y() > 0
+      && targetSize.x() > 0 && targetSize.y() > 0,
+      "Region sizes %s, %s must be positive",
+      sourceSize,
+      targetSize
+    );
+  }
+
+  /**
+   * Create a region that copies without scaling.
+   *
+   * @param sourceOffset The offset of the region within the source image
+   * @param targetOffset The offset of the region within the target image
+   * @param size         The size of the region
+   *
+   * @return A region
+   */
+
+  public static RCTransferImageCopyRegion of(
+    final Vector2I sourceOffset,
+    final Vector2I targetOffset,
+    final Vector2I size)
+  {
+    return new RCTransferImageCopyRegion(
+      sourceOffset,
+      size,
+      targetOffset,
+      size
+    );
+  }
+
+  /**
+   * @return {@code true} if the source region is scaled to fit the target
+   */
+
+  public boolean isScaled()
+  {
+    return !this.sourceSize.equals(this.targetSize);
+  }
+
+  /**
+   * @param sourceImageSize The size of the source image
+   * @param targetImageSize The size of the target image
+   *
+   * @return {@code true} if both regions lie entirely within their images
+   */
+
+  public boolean isWithin(
+    final Vector2I sourceImageSize,
+    final Vector2I targetImageSize)
+  {
+    Objects.requireNonNull(sourceImageSize, "sourceImageSize");
+    Objects.requireNonNull(targetImageSize, "targetImageSize");
+
+    return isWithin(this.sourceOffset, this.sourceSize, sourceImageSize)
+           && isWithin(this.targetOffset, this.targetSize, targetImageSize);
+  }
+
+  private static boolean isWithin(
+    final Vector2I offset,
+    final Vector2I size,
+    final Vector2I imageSize)
+  {
+    return (long) offset.x() + (long) size.x() <= imageSize.x()
+           && (long) offset.y() + (long) size.y() <= imageSize.y();
+  }
+}
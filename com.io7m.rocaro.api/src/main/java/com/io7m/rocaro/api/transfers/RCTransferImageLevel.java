@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.jaffirm.core.Preconditions;
+
+import java.util.Objects;
+
+/**
+ * The data for a single mipmap level of an image. The copy function is
+ * given a memory segment of exactly the size of the level, and must write
+ * the data for every array layer of the level, one layer after another,
+ * as tightly packed rows of blocks (or texels, for uncompressed formats).
+ *
+ * @param level      The mipmap level
+ * @param dataCopier A copying function to populate the level with data
+ */
+
+public record RCTransferImageLevel(
+  int level,
+  RCTransferCopyFunctionType dataCopier)
+{
+  /**
+   * The data for a single mipmap level of an image. The copy function is
+   * given a memory segment of exactly the size of the level, and must write
+   * the data for every array layer of the level, one layer after another,
+   * as tightly packed rows of blocks (or texels, for uncompressed formats).
+   *
+   * @param level      The mipmap level
+   * @param dataCopier A copying function to populate the level with data
+   */
+
+  public RCTransferImageLevel
+  {
+    Objects.requireNonNull(dataCopier, "dataCopier");
+
+    Preconditions.checkPreconditionV(
+      level >= 0,
+      "Level %d must be non-negative",
+      Integer.valueOf(level)
+    );
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jtensors.core.unparameterized.vectors.Vector2I;
+
+import java.util.Objects;
+
+/**
+ * A rectangular region of an image that will be updated by a transfer.
+ * The copy function must write tightly packed rows of texels covering
+ * exactly the region.
+ *
+ * @param offset     The offset of the region within the image
+ * @param size       The size of the region
+ * @param dataCopier A copying function to populate the region with data
+ */
+
+public record RCTransferImageRegion(
+  Vector2I offset,
+  Vector2I size,
+  RCTransferCopyFunctionType dataCopier)
+{
+  /**
+   * A rectangular region of an image that will be updated by a transfer.
+   * The copy function must write tightly packed rows of texels covering
+   * exactly the region.
+   *
+   * @param offset     The offset of the region within the image
+   * @param size       The size of the region
+   * @param dataCopier A copying function to populate the region with data
+   */
+
+  public RCTransferImageRegion
+  {
+    Objects.requireNonNull(offset, "offset");
+    Objects.requireNonNull(size, "size");
+    Objects.requireNonNull(dataCopier, "dataCopier");
+
+    Preconditions.checkPreconditionV(
+      offset.x() >= 0 && offset.y() >= 0,
+      "Region offset %s must be non-negative",
+      offset
+    );
+    Preconditions.checkPreconditionV(
+      size.x() > 0 && size.y() > 0,
+      "Region size %s must be positive",
+      size
+    );
+  }
+
+  /**
+   * @param imageSize The size of an image
+   *
+   * @return {@code true} if the region lies entirely within the image
+   */
+
+  public boolean isWithin(
+    final Vector2I imageSize)
+  {
+    Objects.requireNonNull(imageSize, "imageSize");
+
+    return (long) this.offset.x() + (long) this.size.x() <= imageSize.x()
+           && (long) this.offset.y() + (long) this.size.y() <= imageSize.y();
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * An event that records the backlog of the transfer service when an
+ * operation is submitted, admitted from the wait queue, or rejected.
+ */
+
+@Label("Transfer Backpressure")
+@Category("Rocaro.Transfers")
+@Description("The backlog of operations waiting to be admitted.")
+@StackTrace(value = false)
+public final class RCTransferJFREventBackpressure
+  extends Event
+  implements RCTransferJFREventType
+{
+  // CHECKSTYLE:OFF
+
+  @Label("TransferID")
+  public String transferID;
+
+  @Label("Outcome")
+  public String outcome;
+
+  @Label("In Flight Operations")
+  public int inFlightOperations;
+
+  @Label("In Flight Staging")
+  public long inFlightOctets;
+
+  @Label("Waiting Operations")
+  public int waitingOperations;
+
+  @Label("Waiting Staging")
+  public long waitingOctets;
+
+  public RCTransferJFREventBackpressure()
+  {
+
+  }
+}
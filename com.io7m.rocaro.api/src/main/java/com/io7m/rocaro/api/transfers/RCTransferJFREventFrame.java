@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * An event that records the transfer work issued during a single frame,
+ * and the state of the transfer queue at the end of that frame.
+ */
+
+@Label("Transfer Frame")
+@Category("Rocaro.Transfers")
+@Description("Transfer work issued during a frame.")
+@StackTrace(value = false)
+public final class RCTransferJFREventFrame
+  extends Event
+  implements RCTransferJFREventType
+{
+  // CHECKSTYLE:OFF
+
+  @Label("Frame")
+  public long frame;
+
+  @Label("Budget")
+  public long budget;
+
+  @Label("Issued")
+  public long issued;
+
+  @Label("Queue Depth")
+  public int queueDepth;
+
+  @Label("Queued")
+  public long queued;
+
+  public RCTransferJFREventFrame()
+  {
+
+  }
+}
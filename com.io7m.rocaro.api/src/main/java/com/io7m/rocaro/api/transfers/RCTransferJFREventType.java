@@ -22,7 +22,11 @@ package com.io7m.rocaro.api.transfers;
  */
 
 public sealed interface RCTransferJFREventType
-  permits RCTransferJFREventExecuted, RCTransferJFREventStagingCopy
+  permits RCTransferJFREventBackpressure,
+  RCTransferJFREventBatchSubmitted,
+  RCTransferJFREventExecuted,
+  RCTransferJFREventFrame,
+  RCTransferJFREventStagingCopy
 {
 
 }
@@ -26,11 +26,26 @@ import java.util.UUID;
  */
 
 public sealed interface RCTransferOperationType<T>
-  permits RCTransferImageColorBasicType
+  permits RCTransferBufferCopyType,
+  RCTransferBufferDownloadType,
+  RCTransferBufferType,
+  RCTransferImageColorBasicCopyType,
+  RCTransferImageColorBasicDownloadType,
+  RCTransferImageColorBasicType,
+  RCTransferImageColorBasicUpdateType,
+  RCTransferImageColorCompressedType,
+  RCTransferImageColorLayeredType
 {
   /**
-   * @return The transfer ID
+   * @return The transfer ID; operations in flight with equal IDs are
+   * assumed to be identical, and are executed once
    */
 
   UUID id();
+
+  /**
+   * @return The priority of the operation
+   */
+
+  RCTransferPriority priority();
 }
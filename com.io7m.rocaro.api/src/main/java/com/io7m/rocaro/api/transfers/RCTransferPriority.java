@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+/**
+ * The priority of a transfer operation. Pending operations are issued in
+ * priority order, and operations of equal priority are issued in the order
+ * in which they were submitted.
+ */
+
+public enum RCTransferPriority
+{
+  /**
+   * The operation is required in order to render the next frame. Critical
+   * operations are issued as soon as possible and are not subject to the
+   * per-frame transfer budget.
+   */
+
+  CRITICAL,
+
+  /**
+   * The default priority.
+   */
+
+  NORMAL,
+
+  /**
+   * The operation is speculative (such as streaming in data that may be
+   * required in the future) and is issued only when no other operations
+   * are waiting.
+   */
+
+  BACKGROUND
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.api.transfers;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jaffirm.core.Preconditions;
+import org.immutables.value.Value;
+
+import java.time.Duration;
+
+/**
+ * Configuration information for the transfer service.
+ */
+
+@Value.Immutable
+@ImmutablesStyleType
+public interface RCTransferServiceConfigurationType
+{
+  /**
+   * The transfer service allocates staging memory for uploads from a set
+   * of large, persistently mapped rings. This value specifies the size of
+   * each ring. Uploads that are larger than a single ring are given
+   * dedicated staging buffers.
+   *
+   * @return The size in octets of each staging ring
+   */
+
+  @Value.Default
+  default long stagingRingSize()
+  {
+    return 64L * 1024L * 1024L;
+  }
+
+  /**
+   * @return The number of staging rings
+   */
+
+  @Value.Default
+  default int stagingRingCount()
+  {
+    return 2;
+  }
+
+  /**
+   * When all the staging rings are full, uploads wait for space to be
+   * reclaimed by earlier uploads. This value specifies the maximum amount
+   * of time an upload will wait before failing.
+   *
+   * @return The maximum time to wait for staging memory
+   */
+
+  @Value.Default
+  default Duration stagingWaitTimeout()
+  {
+    return Duration.ofSeconds(5L);
+  }
+
+  /**
+   * Transfer operations are collected into batches that are recorded into
+   * a single command buffer and submitted together. When an operation
+   * arrives and no batch is pending, the service waits this long for
+   * further operations to arrive before submitting the batch.
+   *
+   * @return The batch collection window
+   */
+
+  @Value.Default
+  default Duration batchWindow()
+  {
+    return Duration.ofMillis(2L);
+  }
+
+  /**
+   * @return The maximum number of operations in a single batch
+   */
+
+  @Value.Default
+  default int batchMaximumOperations()
+  {
+    return 256;
+  }
+
+  /**
+   * On devices where the primary device-local memory is also host-visible
+   * (such as integrated GPUs, or discrete GPUs with resizable BAR), buffer
+   * uploads can be written directly into their final allocations without
+   * a staging copy or a queue submission.
+   *
+   * @return {@code true} if direct uploads should be used where available
+   */
+
+  @Value.Default
+  default boolean directUploads()
+  {
+    return true;
+  }
+
+  /**
+   * The maximum number of octets that will be copied by non-critical
+   * transfer operations each frame. Operations that would exceed the
+   * remaining budget are split across frames where possible, and otherwise
+   * wait for the next frame.
+   *
+   * @return The per-frame transfer budget in octets
+   */
+
+  @Value.Default
+  default long frameBudgetOctets()
+  {
+    return 32L * 1024L * 1024L;
+  }
+
+  /**
+   * If no new frame has begun within this duration, the renderer is
+   * assumed to be idle and the transfer budget is replenished anyway so
+   * that pending operations are not starved.
+   *
+   * @return The idle timeout
+   */
+
+  @Value.Default
+  default Duration frameIdleTimeout()
+  {
+    return Duration.ofMillis(100L);
+  }
+
+  /**
+   * The number of threads used to fill staging memory for large images.
+   * When this value is greater than one, copy functions that support
+   * ranged copies are invoked concurrently on disjoint slices of the
+   * staging memory (bands of rows for uncompressed images, and whole
+   * levels for compressed images). A value of one disables parallel
+   * copies.
+   *
+   * @return The staging copy parallelism
+   */
+
+  @Value.Default
+  default int stagingCopyParallelism()
+  {
+    return 1;
+  }
+
+  /**
+   * The minimum size of a slice of staging memory filled by a single
+   * thread when parallel copies are enabled. Copies smaller than this
+   * are performed on the calling thread.
+   *
+   * @return The staging copy chunk size in octets
+   *
+   * @see #stagingCopyParallelism()
+   */
+
+  @Value.Default
+  default long stagingCopyChunkOctets()
+  {
+    return 4L * 1024L * 1024L;
+  }
+
+  /**
+   * Operations whose results are owned by the graphics queue finish with a
+   * command buffer on the graphics queue that acquires ownership of the
+   * results. Rather than submitting this command buffer by itself, it is
+   * submitted along with the next graphics queue submission made by the
+   * renderer (typically the first submission of the next frame). If no
+   * such submission is made within this duration, the command buffer is
+   * submitted by itself. A duration of zero submits the command buffer
+   * immediately.
+   *
+   * @return The maximum time to defer ownership acquisitions
+   */
+
+  @Value.Default
+  default Duration ownershipAcquireMaximumDelay()
+  {
+    return Duration.ofMillis(16L);
+  }
+
+  /**
+   * The maximum number of transfer operations that may be in flight at
+   * any one time. An operation is in flight from the moment it is admitted
+   * until its future completes.
+   *
+   * @return The maximum number of operations in flight
+   *
+   * @see #backpressurePolicy()
+   */
+
+  @Value.Default
+  default int maximumInFlightOperations()
+  {
+    return 1024;
+  }
+
+  /**
+   * The maximum number of octets of host-visible staging and download
+   * memory that may be held by operations in flight at any one time. A
+   * single operation that is larger than this limit is admitted only when
+   * no other operations are in flight. The default is the total capacity
+   * of the staging rings, so that admitted operations are not left waiting
+   * for staging memory that other admitted operations hold.
+   *
+   * @return The maximum staging octets in flight
+   *
+   * @see #backpressurePolicy()
+   */
+
+  @Value.Default
+  default long maximumInFlightStagingOctets()
+  {
+    return this.stagingRingSize() * this.stagingRingCount();
+  }
+
+  /**
+   * @return The behaviour when the limits on operations in flight are reached
+   */
+
+  @Value.Default
+  default RCTransferBackpressurePolicy backpressurePolicy()
+  {
+    return RCTransferBackpressurePolicy.WAIT;
+  }
+
+  /**
+   * Check preconditions for the configuration.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    Preconditions.checkPreconditionV(
+      this.stagingRingSize() > 0L
+      && this.stagingRingSize() <= Integer.MAX_VALUE,
+      "Staging ring size %d must be in the range [1, %d]",
+      Long.valueOf(this.stagingRingSize()),
+      Integer.valueOf(Integer.MAX_VALUE)
+    );
+    Preconditions.checkPreconditionV(
+      this.stagingRingCount() > 0,
+      "Staging ring count %d must be positive",
+      Integer.valueOf(this.stagingRingCount())
+    );
+    Preconditions.checkPreconditionV(
+      this.batchMaximumOperations() > 0,
+      "Batch maximum operations %d must be positive",
+      Integer.valueOf(this.batchMaximumOperations())
+    );
+    Preconditions.checkPreconditionV(
+      this.stagingCopyParallelism() > 0,
+      "Staging copy parallelism %d must be positive",
+      Integer.valueOf(this.stagingCopyParallelism())
+    );
+    Preconditions.checkPreconditionV(
+      this.stagingCopyChunkOctets() > 0L,
+      "Staging copy chunk size %d must be positive",
+      Long.valueOf(this.stagingCopyChunkOctets())
+    );
+    Preconditions.checkPreconditionV(
+      !this.ownershipAcquireMaximumDelay().isNegative(),
+      "Ownership acquire delay %s must be non-negative",
+      this.ownershipAcquireMaximumDelay()
+    );
+    Preconditions.checkPreconditionV(
+      this.maximumInFlightOperations() > 0,
+      "Maximum in-flight operations %d must be positive",
+      Integer.valueOf(this.maximumInFlightOperations())
+    );
+    Preconditions.checkPreconditionV(
+      this.maximumInFlightStagingOctets() > 0L,
+      "Maximum in-flight staging size %d must be positive",
+      Long.valueOf(this.maximumInFlightStagingOctets())
+    );
+    Preconditions.checkPreconditionV(
+      this.frameBudgetOctets() > 0L,
+      "Frame budget %d must be positive",
+      Long.valueOf(this.frameBudgetOctets())
+    );
+  }
+}
@@ -22,14 +22,38 @@ import com.io7m.repetoir.core.RPServiceType;
 import java.util.concurrent.CompletableFuture;
 
 /**
- * A transfer service for asynchronously getting resources onto the GPU.
+ * A transfer service for asynchronously getting resources onto the GPU,
+ * and for downloading data from the GPU.
  */
 
 public interface RCTransferServiceType
   extends RPServiceType
 {
   /**
-   * Execute a transfer operation.
+   * Execute a transfer operation. If the service has reached its limits on
+   * operations in flight, the operation is either queued or the returned
+   * future fails with the error code
+   * {@link com.io7m.rocaro.api.RCStandardErrorCodes#TRANSFER_BACKPRESSURE},
+   * depending on the configured {@link RCTransferBackpressurePolicy}.
+   *
+   * <p>If an operation with the same {@link RCTransferOperationType#id()}
+   * is already in flight, no new operation is started, and the returned
+   * future completes with the result of the existing operation.</p>
+   *
+   * <p>The caller owns the result of an operation that creates a resource
+   * (an upload, which yields a new image or buffer, or a download, which
+   * yields downloaded data), and is responsible for closing it exactly
+   * once. Where several calls share one operation, each caller owns its
+   * own reference to the same result, and the resource is released when
+   * every caller has closed it. Operations that modify existing resources
+   * (copies and updates) yield the resources that the caller already
+   * owns.</p>
+   *
+   * <p>Cancelling the returned future before the commands of the operation
+   * have been recorded releases any resources allocated for it without
+   * submitting anything to the GPU. Where several submissions share one
+   * operation, the operation is cancelled only when all of their futures
+   * have been cancelled.</p>
    *
    * @param operation The operation
    * @param <T>       The type of returned values
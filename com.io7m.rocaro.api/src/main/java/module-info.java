@@ -38,6 +38,7 @@ module com.io7m.rocaro.api
   requires jdk.jfr;
 
   exports com.io7m.rocaro.api.assets;
+  exports com.io7m.rocaro.api.buffers;
   exports com.io7m.rocaro.api.devices;
   exports com.io7m.rocaro.api.displays;
   exports com.io7m.rocaro.api.graph;
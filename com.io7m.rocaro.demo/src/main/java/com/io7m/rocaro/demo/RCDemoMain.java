@@ -22,6 +22,7 @@ import com.io7m.quarrel.core.QApplicationMetadata;
 import com.io7m.quarrel.core.QApplicationType;
 import com.io7m.quarrel.core.QCommandMetadata;
 import com.io7m.quarrel.core.QStringType;
+import com.io7m.rocaro.demo.internal.RCArchivePack;
 import com.io7m.rocaro.demo.internal.RCDemoDisplays;
 import com.io7m.rocaro.demo.internal.RCDemoEmpty;
 import com.io7m.rocaro.demo.internal.RCDemoStartup;
@@ -88,6 +89,17 @@ public final class RCDemoMain implements Runnable
       g.addCommand(new RCDemoTransferImage());
     }
 
+    {
+      final var g =
+        builder.createCommandGroup(
+          new QCommandMetadata(
+            "archive",
+            new QStringType.QConstant("Asset archive tools."),
+            Optional.empty())
+        );
+      g.addCommand(new RCArchivePack());
+    }
+
     builder.allowAtSyntax(true);
 
     this.application = builder.build();
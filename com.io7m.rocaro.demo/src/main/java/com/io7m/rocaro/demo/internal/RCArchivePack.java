@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.demo.internal;
+
+import com.io7m.quarrel.core.QCommandContextType;
+import com.io7m.quarrel.core.QCommandMetadata;
+import com.io7m.quarrel.core.QCommandStatus;
+import com.io7m.quarrel.core.QCommandType;
+import com.io7m.quarrel.core.QParameterNamed1;
+import com.io7m.quarrel.core.QParameterNamedType;
+import com.io7m.quarrel.core.QStringType.QConstant;
+import com.io7m.quarrel.ext.logback.QLogback;
+import com.io7m.rocaro.vanilla.RCAssetArchiveCompression;
+import com.io7m.rocaro.vanilla.RCAssetArchives;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Pack a directory of assets into an archive.
+ */
+
+public final class RCArchivePack implements QCommandType
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(RCArchivePack.class);
+
+  private static final QParameterNamed1<Path> DIRECTORY =
+    new QParameterNamed1<>(
+      "--directory",
+      List.of(),
+      new QConstant("The base directory containing asset packages."),
+      Optional.empty(),
+      Path.class
+    );
+
+  private static final QParameterNamed1<Path> OUTPUT =
+    new QParameterNamed1<>(
+      "--output",
+      List.of(),
+      new QConstant("The output archive file."),
+      Optional.empty(),
+      Path.class
+    );
+
+  private static final QParameterNamed1<Boolean> COMPRESS =
+    new QParameterNamed1<>(
+      "--compress",
+      List.of(),
+      new QConstant("Enable/disable compression of entries."),
+      Optional.of(Boolean.TRUE),
+      Boolean.class
+    );
+
+  private static final QParameterNamed1<Integer> CHUNK_SIZE =
+    new QParameterNamed1<>(
+      "--chunk-size",
+      List.of(),
+      new QConstant("The size of independently compressed chunks."),
+      Optional.of(Integer.valueOf(1 << 20)),
+      Integer.class
+    );
+
+  private final QCommandMetadata metadata;
+
+  /**
+   * Pack a directory of assets into an archive.
+   */
+
+  public RCArchivePack()
+  {
+    this.metadata =
+      new QCommandMetadata(
+        "pack",
+        new QConstant("Pack a directory of assets into an archive."),
+        Optional.empty()
+      );
+  }
+
+  @Override
+  public List<QParameterNamedType<?>> onListNamedParameters()
+  {
+    final var parameters = new ArrayList<QParameterNamedType<?>>();
+    parameters.addAll(QLogback.parameters());
+    parameters.add(CHUNK_SIZE);
+    parameters.add(COMPRESS);
+    parameters.add(DIRECTORY);
+    parameters.add(OUTPUT);
+    return List.copyOf(parameters);
+  }
+
+  @Override
+  public QCommandStatus onExecute(
+    final QCommandContextType context)
+    throws Exception
+  {
+    QLogback.configure(context);
+
+    final var directory =
+      context.parameterValue(DIRECTORY).toAbsolutePath();
+    final var output =
+      context.parameterValue(OUTPUT).toAbsolutePath();
+
+    final RCAssetArchiveCompression compression;
+    if (context.parameterValue(COMPRESS).booleanValue()) {
+      final var defaults = RCAssetArchiveCompression.defaults();
+      compression = new RCAssetArchiveCompression(
+        defaults.level(),
+        context.parameterValue(CHUNK_SIZE).intValue(),
+        defaults.minimumSize()
+      );
+    } else {
+      compression = RCAssetArchiveCompression.none();
+    }
+
+    final var packed =
+      RCAssetArchives.pack(
+        Locale.getDefault(),
+        directory,
+        output,
+        compression
+      );
+
+    for (final var identifier : packed) {
+      LOG.debug("Packed: {}", identifier);
+    }
+
+    LOG.info("Packed {} assets into {}", packed.size(), output);
+    return QCommandStatus.SUCCESS;
+  }
+
+  @Override
+  public QCommandMetadata metadata()
+  {
+    return this.metadata;
+  }
+}
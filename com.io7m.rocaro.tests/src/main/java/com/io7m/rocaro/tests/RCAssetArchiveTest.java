@@ -0,0 +1,352 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.tests;
+
+import com.io7m.lanark.core.RDottedName;
+import com.io7m.rocaro.api.assets.RCAssetException;
+import com.io7m.rocaro.api.assets.RCAssetIdentifier;
+import com.io7m.rocaro.api.assets.RCAssetPath;
+import com.io7m.rocaro.api.assets.RCAssetResolutionContextType;
+import com.io7m.rocaro.vanilla.RCAssetArchiveCompression;
+import com.io7m.rocaro.vanilla.RCAssetArchives;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.assets.RCAssetResolverArchive;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.io7m.rocaro.api.RCStandardErrorCodes.ASSET_ARCHIVE_INVALID;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public final class RCAssetArchiveTest
+{
+  private static final RDottedName PACKAGE =
+    new RDottedName("com.io7m.example");
+  private static final RCAssetArchiveCompression SMALL_CHUNKS =
+    new RCAssetArchiveCompression(9, 1000, 0L);
+
+  private RCStrings strings;
+  private RCAssetResolutionContextType context;
+  private ExecutorService executor;
+
+  @BeforeEach
+  public void setup()
+  {
+    this.strings = new RCStrings(Locale.ROOT);
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    this.context = mock(RCAssetResolutionContextType.class);
+    when(this.context.arena()).thenReturn(Arena.ofAuto());
+    when(this.context.executor()).thenReturn(this.executor);
+  }
+
+  @AfterEach
+  public void tearDown()
+  {
+    this.executor.close();
+  }
+
+  private static RCAssetIdentifier identifier(
+    final String path)
+  {
+    return new RCAssetIdentifier(PACKAGE, RCAssetPath.parse(path));
+  }
+
+  private static Path write(
+    final Path base,
+    final String path,
+    final String text)
+    throws Exception
+  {
+    final var file = base.resolve(PACKAGE.value()).resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, text, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private static Path write(
+    final Path base,
+    final String path,
+    final byte[] data)
+    throws Exception
+  {
+    final var file = base.resolve(PACKAGE.value()).resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.write(file, data);
+    return file;
+  }
+
+  /**
+   * Packed assets resolve to their original contents.
+   */
+
+  @Test
+  public void testPackResolve(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var base = directory.resolve("base");
+    write(base, "a.txt", "Hello.");
+    write(base, "shaders/b.spv", "B".repeat(1000));
+    write(base, "shaders/c.spv", "");
+
+    final var archive = directory.resolve("assets.rca");
+    final var packed =
+      RCAssetArchives.pack(Locale.ROOT, base, archive);
+
+    assertEquals(
+      List.of(
+        identifier("/a.txt"),
+        identifier("/shaders/b.spv"),
+        identifier("/shaders/c.spv")
+      ),
+      packed
+    );
+
+    final var resolver =
+      new RCAssetResolverArchive(this.strings, archive);
+
+    for (final var entry : List.of(
+      List.of("/a.txt", "Hello."),
+      List.of("/shaders/b.spv", "B".repeat(1000)),
+      List.of("/shaders/c.spv", ""))) {
+      try (final var resolved =
+             resolver.resolve(this.context, identifier(entry.get(0)))
+               .orElseThrow()) {
+        final var data = resolved.data();
+        assertEquals(0L, data.address() % 16L);
+        assertArrayEquals(
+          entry.get(1).getBytes(StandardCharsets.UTF_8),
+          data.toArray(ValueLayout.JAVA_BYTE)
+        );
+      }
+    }
+
+    assertTrue(
+      resolver.resolve(this.context, identifier("/nonexistent.txt"))
+        .isEmpty()
+    );
+  }
+
+  /**
+   * Files that are not valid assets are not packed.
+   */
+
+  @Test
+  public void testPackSkipsInvalid(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var base = directory.resolve("base");
+    write(base, "a.txt", "Hello.");
+    write(base, "UPPERCASE.txt", "Invalid.");
+    Files.writeString(base.resolve("loose.txt"), "Loose.");
+
+    final var packed =
+      RCAssetArchives.pack(Locale.ROOT, base, directory.resolve("a.rca"));
+
+    assertEquals(List.of(identifier("/a.txt")), packed);
+  }
+
+  /**
+   * Files that are not archives are rejected.
+   */
+
+  @Test
+  public void testResolveInvalid(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var archive = directory.resolve("assets.rca");
+    Files.writeString(archive, "Not an archive, but long enough to be one.");
+
+    final var resolver =
+      new RCAssetResolverArchive(this.strings, archive);
+
+    final var ex =
+      assertThrows(RCAssetException.class, () -> {
+        resolver.resolve(this.context, identifier("/a.txt"));
+      });
+
+    assertEquals(ASSET_ARCHIVE_INVALID.codeName(), ex.errorCode());
+  }
+
+  /**
+   * Truncated archives are rejected.
+   */
+
+  @Test
+  public void testResolveTruncated(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var base = directory.resolve("base");
+    write(base, "a.txt", "Hello.");
+
+    final var archive = directory.resolve("assets.rca");
+    RCAssetArchives.pack(Locale.ROOT, base, archive);
+
+    final var bytes = Files.readAllBytes(archive);
+    Files.write(
+      archive,
+      Arrays.copyOf(bytes, bytes.length - 4)
+    );
+
+    final var resolver =
+      new RCAssetResolverArchive(this.strings, archive);
+
+    final var ex =
+      assertThrows(RCAssetException.class, () -> {
+        resolver.resolve(this.context, identifier("/a.txt"));
+      });
+
+    assertEquals(ASSET_ARCHIVE_INVALID.codeName(), ex.errorCode());
+  }
+
+  /**
+   * Compressed assets, in multiple chunks, resolve to their original
+   * contents.
+   */
+
+  @Test
+  public void testPackResolveCompressed(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var text = new StringBuilder();
+    for (int index = 0; index < 1000; ++index) {
+      text.append("Line %d of some very compressible text.%n"
+                    .formatted(Integer.valueOf(index)));
+    }
+
+    final var expected = text.toString().getBytes(StandardCharsets.UTF_8);
+    final var base = directory.resolve("base");
+    write(base, "a.txt", expected);
+    write(base, "b.txt", "Short.");
+
+    final var archive = directory.resolve("assets.rca");
+    RCAssetArchives.pack(Locale.ROOT, base, archive, SMALL_CHUNKS);
+    assertTrue(Files.size(archive) < expected.length / 2);
+
+    final var resolver =
+      new RCAssetResolverArchive(this.strings, archive);
+
+    try (final var resolved =
+           resolver.resolve(this.context, identifier("/a.txt"))
+             .orElseThrow()) {
+      assertArrayEquals(
+        expected,
+        resolved.data().toArray(ValueLayout.JAVA_BYTE)
+      );
+    }
+
+    try (final var resolved =
+           resolver.resolve(this.context, identifier("/b.txt"))
+             .orElseThrow()) {
+      assertArrayEquals(
+        "Short.".getBytes(StandardCharsets.UTF_8),
+        resolved.data().toArray(ValueLayout.JAVA_BYTE)
+      );
+    }
+  }
+
+  /**
+   * Assets that do not compress are stored uncompressed.
+   */
+
+  @Test
+  public void testPackIncompressibleStored(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var expected = new byte[10_000];
+    new Random(0x5eedL).nextBytes(expected);
+
+    final var base = directory.resolve("base");
+    write(base, "a.bin", expected);
+
+    final var archive = directory.resolve("assets.rca");
+    RCAssetArchives.pack(Locale.ROOT, base, archive, SMALL_CHUNKS);
+    assertTrue(Files.size(archive) > expected.length);
+
+    final var resolver =
+      new RCAssetResolverArchive(this.strings, archive);
+
+    try (final var resolved =
+           resolver.resolve(this.context, identifier("/a.bin"))
+             .orElseThrow()) {
+      assertArrayEquals(
+        expected,
+        resolved.data().toArray(ValueLayout.JAVA_BYTE)
+      );
+    }
+  }
+
+  /**
+   * Corrupted compressed assets are rejected.
+   */
+
+  @Test
+  public void testResolveCompressedCorrupt(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var expected = new byte[10_000];
+    final var base = directory.resolve("base");
+    write(base, "a.bin", expected);
+
+    final var archive = directory.resolve("assets.rca");
+    RCAssetArchives.pack(Locale.ROOT, base, archive, SMALL_CHUNKS);
+
+    /*
+     * The only entry begins directly after the 32 octet header, with a
+     * table of ten chunk sizes. Damage the first chunk.
+     */
+
+    final var bytes = Files.readAllBytes(archive);
+    bytes[32 + 40 + 4] ^= (byte) 0xff;
+    Files.write(archive, bytes);
+
+    final var resolver =
+      new RCAssetResolverArchive(this.strings, archive);
+
+    final var ex =
+      assertThrows(RCAssetException.class, () -> {
+        resolver.resolve(this.context, identifier("/a.bin"));
+      });
+
+    assertEquals(ASSET_ARCHIVE_INVALID.codeName(), ex.errorCode());
+  }
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.tests;
+
+import com.io7m.jcoronado.api.VulkanShaderModuleType;
+import com.io7m.lanark.core.RDottedName;
+import com.io7m.rocaro.api.RCCloseableType;
+import com.io7m.rocaro.api.assets.RCAssetCost;
+import com.io7m.rocaro.api.assets.RCAssetIdentifier;
+import com.io7m.rocaro.api.assets.RCAssetPath;
+import com.io7m.rocaro.api.assets.RCAssetShaderModule;
+import com.io7m.rocaro.api.assets.RCAssetValueLoaded;
+import com.io7m.rocaro.api.assets.RCAssetValueLoading;
+import com.io7m.rocaro.vanilla.internal.assets.RCAssetEntry;
+import com.io7m.rocaro.vanilla.internal.assets.RCAssetReferences;
+import com.io7m.rocaro.vanilla.internal.assets.RCAssetRetirementType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public final class RCAssetReferencesTest
+{
+  private static final RCAssetIdentifier SHADER =
+    new RCAssetIdentifier(
+      new RDottedName("com.io7m.example"),
+      RCAssetPath.parse("/shader.spv")
+    );
+
+  private static final RCAssetCost COST =
+    new RCAssetCost(0L, 10L);
+
+  private static final RCAssetRetirementType IMMEDIATE =
+    owners -> {
+      for (final var owner : owners) {
+        owner.close();
+      }
+    };
+
+  private static RCAssetIdentifier shader(
+    final String name)
+  {
+    return new RCAssetIdentifier(
+      new RDottedName("com.io7m.example"),
+      RCAssetPath.parse("/" + name)
+    );
+  }
+
+  private static RCAssetShaderModule shaderModule()
+  {
+    return new RCAssetShaderModule(mock(VulkanShaderModuleType.class));
+  }
+
+  /**
+   * Opening the same asset repeatedly creates a single shared entry.
+   */
+
+  @Test
+  public void testShared()
+    throws Exception
+  {
+    final var references = new RCAssetReferences(0L, 0L, IMMEDIATE);
+    final var created = new ArrayList<RCAssetEntry<RCAssetShaderModule>>();
+
+    final var r0 =
+      references.open(SHADER, RCAssetShaderModule.class, created::add);
+    final var r1 =
+      references.open(SHADER, RCAssetShaderModule.class, created::add);
+
+    assertEquals(1, created.size());
+    assertEquals(1, references.size());
+    assertInstanceOf(RCAssetValueLoading.class, r0.get());
+
+    final var module = shaderModule();
+    created.getFirst().setLoaded(module, COST, () -> { });
+
+    assertEquals(new RCAssetValueLoaded<>(module), r0.get());
+    assertEquals(new RCAssetValueLoaded<>(module), r1.get());
+  }
+
+  /**
+   * The owner of a loaded asset is closed when the last reference is
+   * closed.
+   */
+
+  @Test
+  public void testReleasedOnLastClose()
+    throws Exception
+  {
+    final var references = new RCAssetReferences(0L, 0L, IMMEDIATE);
+    final var created = new ArrayList<RCAssetEntry<RCAssetShaderModule>>();
+    final var closes = new AtomicInteger();
+    final RCCloseableType owner = closes::incrementAndGet;
+
+    final var r0 =
+      references.open(SHADER, RCAssetShaderModule.class, created::add);
+    final var r1 =
+      references.open(SHADER, RCAssetShaderModule.class, created::add);
+
+    created.getFirst().setLoaded(shaderModule(), COST, owner);
+
+    r0.close();
+    r0.close();
+    assertEquals(0, closes.get());
+    assertEquals(1, references.size());
+
+    r1.close();
+    assertEquals(1, closes.get());
+    assertEquals(0, references.size());
+    assertTrue(created.getFirst().isReleased());
+  }
+
+  /**
+   * An asset that finishes loading after every reference has been closed
+   * is closed immediately.
+   */
+
+  @Test
+  public void testLoadedAfterRelease()
+    throws Exception
+  {
+    final var references = new RCAssetReferences(0L, 0L, IMMEDIATE);
+    final var created = new ArrayList<RCAssetEntry<RCAssetShaderModule>>();
+    final var closes = new AtomicInteger();
+    final RCCloseableType owner = closes::incrementAndGet;
+
+    final var r0 =
+      references.open(SHADER, RCAssetShaderModule.class, created::add);
+    r0.close();
+
+    created.getFirst().setLoaded(shaderModule(), COST, owner);
+    assertEquals(1, closes.get());
+    assertInstanceOf(RCAssetValueLoading.class, r0.get());
+  }
+
+  /**
+   * Forgotten entries are not shared with later references.
+   */
+
+  @Test
+  public void testForget()
+    throws Exception
+  {
+    final var references = new RCAssetReferences(0L, 0L, IMMEDIATE);
+    final var created = new ArrayList<RCAssetEntry<RCAssetShaderModule>>();
+
+    final var r0 =
+      references.open(SHADER, RCAssetShaderModule.class, created::add);
+    references.forget(created.getFirst());
+    final var r1 =
+      references.open(SHADER, RCAssetShaderModule.class, created::add);
+
+    assertEquals(2, created.size());
+    assertNotSame(created.get(0), created.get(1));
+
+    r0.close();
+    assertEquals(1, references.size());
+    r1.close();
+    assertEquals(0, references.size());
+  }
+
+  /**
+   * Unreferenced assets are retained while the cache is within budget.
+   */
+
+  @Test
+  public void testCachedWithinBudget()
+    throws Exception
+  {
+    final var references = new RCAssetReferences(0L, 100L, IMMEDIATE);
+    final var created = new ArrayList<RCAssetEntry<RCAssetShaderModule>>();
+    final var closes = new AtomicInteger();
+    final RCCloseableType owner = closes::incrementAndGet;
+
+    final var r0 =
+      references.open(SHADER, RCAssetShaderModule.class, created::add);
+    final var module = shaderModule();
+    created.getFirst().setLoaded(module, COST, owner);
+    r0.close();
+
+    assertEquals(0, closes.get());
+    assertEquals(1, references.size());
+
+    final var r1 =
+      references.open(SHADER, RCAssetShaderModule.class, created::add);
+    assertEquals(1, created.size());
+    assertEquals(new RCAssetValueLoaded<>(module), r1.get());
+
+    final var statistics = references.statistics();
+    assertEquals(1L, statistics.hits());
+    assertEquals(1L, statistics.misses());
+    assertEquals(0L, statistics.evictions());
+    assertEquals(10L, statistics.deviceOctets());
+
+    r1.close();
+    references.close();
+    assertEquals(1, closes.get());
+    assertEquals(0, references.size());
+    assertEquals(0L, references.statistics().deviceOctets());
+  }
+
+  /**
+   * Unreferenced assets are evicted in least-recently-used order when the
+   * budget is exceeded.
+   */
+
+  @Test
+  public void testEvictedLeastRecentlyUsed()
+    throws Exception
+  {
+    final var references = new RCAssetReferences(0L, 20L, IMMEDIATE);
+    final var created = new ArrayList<RCAssetEntry<RCAssetShaderModule>>();
+    final var closesA = new AtomicInteger();
+    final var closesB = new AtomicInteger();
+    final var closesC = new AtomicInteger();
+
+    final var rA =
+      references.open(shader("a.spv"), RCAssetShaderModule.class, created::add);
+    final var rB =
+      references.open(shader("b.spv"), RCAssetShaderModule.class, created::add);
+    created.get(0).setLoaded(shaderModule(), COST, closesA::incrementAndGet);
+    created.get(1).setLoaded(shaderModule(), COST, closesB::incrementAndGet);
+    rA.close();
+    rB.close();
+
+    final var rC =
+      references.open(shader("c.spv"), RCAssetShaderModule.class, created::add);
+    created.get(2).setLoaded(shaderModule(), COST, closesC::incrementAndGet);
+
+    assertEquals(1, closesA.get());
+    assertEquals(0, closesB.get());
+    assertEquals(0, closesC.get());
+    assertTrue(created.get(0).isReleased());
+    assertFalse(created.get(1).isReleased());
+
+    final var statistics = references.statistics();
+    assertEquals(1L, statistics.evictions());
+    assertEquals(2, statistics.entries());
+    assertEquals(20L, statistics.deviceOctets());
+    rC.close();
+  }
+
+  /**
+   * Referenced assets are never evicted, even when over budget.
+   */
+
+  @Test
+  public void testReferencedNotEvicted()
+    throws Exception
+  {
+    final var references = new RCAssetReferences(0L, 5L, IMMEDIATE);
+    final var created = new ArrayList<RCAssetEntry<RCAssetShaderModule>>();
+    final var closes = new AtomicInteger();
+
+    final var r0 =
+      references.open(SHADER, RCAssetShaderModule.class, created::add);
+    created.getFirst().setLoaded(shaderModule(), COST, closes::incrementAndGet);
+
+    assertEquals(0, closes.get());
+    assertEquals(10L, references.statistics().deviceOctets());
+
+    r0.close();
+    assertEquals(1, closes.get());
+    assertEquals(0L, references.statistics().deviceOctets());
+    assertEquals(1L, references.statistics().evictions());
+  }
+
+  /**
+   * Reloading an asset replaces the value seen by every reference, and
+   * returns the previous owner for retirement.
+   */
+
+  @Test
+  public void testReloaded()
+    throws Exception
+  {
+    final var references = new RCAssetReferences(0L, 100L, IMMEDIATE);
+    final var created = new ArrayList<RCAssetEntry<RCAssetShaderModule>>();
+    final RCCloseableType owner0 = () -> { };
+    final RCCloseableType owner1 = () -> { };
+
+    final var r0 =
+      references.open(SHADER, RCAssetShaderModule.class, created::add);
+    final var r1 =
+      references.open(SHADER, RCAssetShaderModule.class, created::add);
+
+    final var entry = created.getFirst();
+    entry.setLoaded(shaderModule(), COST, owner0);
+    assertEquals(0L, r0.generation());
+    assertEquals(List.of(entry), references.loadedEntries(SHADER));
+
+    final var module = shaderModule();
+    final var retired =
+      entry.setReloaded(module, new RCAssetCost(0L, 30L), owner1);
+
+    assertSame(owner0, retired);
+    assertEquals(1L, r0.generation());
+    assertEquals(1L, r1.generation());
+    assertEquals(new RCAssetValueLoaded<>(module), r0.get());
+    assertEquals(new RCAssetValueLoaded<>(module), r1.get());
+    assertEquals(30L, references.statistics().deviceOctets());
+  }
+
+  /**
+   * Reloading an asset that has been released retires the new owner.
+   */
+
+  @Test
+  public void testReloadedAfterRelease()
+    throws Exception
+  {
+    final var references = new RCAssetReferences(0L, 0L, IMMEDIATE);
+    final var created = new ArrayList<RCAssetEntry<RCAssetShaderModule>>();
+    final RCCloseableType owner0 = () -> { };
+    final RCCloseableType owner1 = () -> { };
+
+    final var r0 =
+      references.open(SHADER, RCAssetShaderModule.class, created::add);
+    final var entry = created.getFirst();
+    entry.setLoaded(shaderModule(), COST, owner0);
+    r0.close();
+
+    assertTrue(references.loadedEntries(SHADER).isEmpty());
+    assertSame(owner1, entry.setReloaded(shaderModule(), COST, owner1));
+    assertEquals(0L, entry.generation());
+  }
+
+  /**
+   * Evicted owners are handed to the retirement function rather than being
+   * closed by the thread that caused the eviction.
+   */
+
+  @Test
+  public void testEvictedRetired()
+    throws Exception
+  {
+    final var retired = new ArrayList<RCCloseableType>();
+    final var references =
+      new RCAssetReferences(0L, 10L, retired::addAll);
+    final var created = new ArrayList<RCAssetEntry<RCAssetShaderModule>>();
+    final var closes = new AtomicInteger();
+    final RCCloseableType ownerA = closes::incrementAndGet;
+    final RCCloseableType ownerB = closes::incrementAndGet;
+
+    final var rA =
+      references.open(shader("a.spv"), RCAssetShaderModule.class, created::add);
+    created.get(0).setLoaded(shaderModule(), COST, ownerA);
+    rA.close();
+
+    final var rB =
+      references.open(shader("b.spv"), RCAssetShaderModule.class, created::add);
+    created.get(1).setLoaded(shaderModule(), COST, ownerB);
+
+    assertEquals(List.of(ownerA), retired);
+    assertEquals(0, closes.get());
+    assertTrue(created.get(0).isReleased());
+
+    rB.close();
+    assertEquals(List.of(ownerA), retired);
+  }
+
+  /**
+   * Closing the cache releases every entry, including entries that are
+   * still referenced.
+   */
+
+  @Test
+  public void testCloseReleasesReferenced()
+    throws Exception
+  {
+    final var retired = new ArrayList<RCCloseableType>();
+    final var references =
+      new RCAssetReferences(0L, 100L, retired::addAll);
+    final var created = new ArrayList<RCAssetEntry<RCAssetShaderModule>>();
+    final RCCloseableType ownerA = () -> { };
+    final RCCloseableType ownerB = () -> { };
+
+    final var rA =
+      references.open(shader("a.spv"), RCAssetShaderModule.class, created::add);
+    final var rB =
+      references.open(shader("b.spv"), RCAssetShaderModule.class, created::add);
+    created.get(0).setLoaded(shaderModule(), COST, ownerA);
+    created.get(1).setLoaded(shaderModule(), COST, ownerB);
+    rB.close();
+
+    references.close();
+    assertEquals(2, retired.size());
+    assertTrue(retired.contains(ownerA));
+    assertTrue(retired.contains(ownerB));
+    assertTrue(created.get(0).isReleased());
+    assertEquals(0, references.size());
+    assertEquals(0L, references.statistics().deviceOctets());
+
+    rA.close();
+    assertEquals(2, retired.size());
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.tests;
+
+import com.io7m.jcoronado.api.VulkanFormat;
+import com.io7m.rocaro.api.RCStandardErrorCodes;
+import com.io7m.rocaro.api.images.RCImageCompressedFormats;
+import com.io7m.rocaro.api.images.RCImageFormatBlock;
+import com.io7m.rocaro.api.transfers.RCTransferException;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.images.RCKTX2Level;
+import com.io7m.rocaro.vanilla.internal.images.RCKTX2Parser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class RCKTX2ParserTest
+{
+  private static final ValueLayout.OfInt U32 =
+    ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+  private static final ValueLayout.OfLong U64 =
+    ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+  private static final byte[] IDENTIFIER = {
+    (byte) 0xAB, 'K', 'T', 'X', ' ', '2', '0', (byte) 0xBB,
+    '\r', '\n', 0x1A, '\n',
+  };
+
+  private RCStrings strings;
+  private Arena arena;
+
+  @BeforeEach
+  public void setup()
+  {
+    this.strings = new RCStrings(Locale.ROOT);
+    this.arena = Arena.ofAuto();
+  }
+
+  /**
+   * Create a BC1 8x8 file with two levels (32 and 8 octets).
+   */
+
+  private MemorySegment exampleFile()
+  {
+    final var data = this.arena.allocate(80L + 48L + 40L);
+    MemorySegment.copy(
+      MemorySegment.ofArray(IDENTIFIER), 0L, data, 0L, IDENTIFIER.length);
+
+    data.set(U32, 12L, 131);
+    data.set(U32, 16L, 1);
+    data.set(U32, 20L, 8);
+    data.set(U32, 24L, 8);
+    data.set(U32, 28L, 0);
+    data.set(U32, 32L, 0);
+    data.set(U32, 36L, 1);
+    data.set(U32, 40L, 2);
+    data.set(U32, 44L, 0);
+
+    data.set(U64, 80L, 128L);
+    data.set(U64, 88L, 32L);
+    data.set(U64, 96L, 32L);
+    data.set(U64, 104L, 160L);
+    data.set(U64, 112L, 8L);
+    data.set(U64, 120L, 8L);
+    return data;
+  }
+
+  @Test
+  public void testParseOK()
+    throws Exception
+  {
+    final var file =
+      RCKTX2Parser.parse(this.strings, this.exampleFile());
+
+    assertEquals(131, file.vkFormat());
+    assertEquals(8, file.width());
+    assertEquals(8, file.height());
+    assertEquals(1, file.faces());
+    assertEquals(2, file.levelCount());
+    assertEquals(0, file.supercompression());
+    assertEquals(
+      List.of(
+        new RCKTX2Level(128L, 32L, 32L),
+        new RCKTX2Level(160L, 8L, 8L)
+      ),
+      file.levels()
+    );
+  }
+
+  @Test
+  public void testParseBadIdentifier()
+  {
+    final var data = this.exampleFile();
+    data.set(ValueLayout.JAVA_BYTE, 1L, (byte) 'Q');
+
+    final var ex =
+      assertThrows(RCTransferException.class, () -> {
+        RCKTX2Parser.parse(this.strings, data);
+      });
+    assertEquals(
+      RCStandardErrorCodes.TRANSFER_CONTAINER_INVALID.codeName(),
+      ex.errorCode()
+    );
+  }
+
+  @Test
+  public void testParseTruncated()
+  {
+    final var data = this.exampleFile().asSlice(0L, 90L);
+
+    assertThrows(RCTransferException.class, () -> {
+      RCKTX2Parser.parse(this.strings, data);
+    });
+  }
+
+  @Test
+  public void testParseLevelOutOfBounds()
+  {
+    final var data = this.exampleFile();
+    data.set(U64, 112L, 9L);
+
+    assertThrows(RCTransferException.class, () -> {
+      RCKTX2Parser.parse(this.strings, data);
+    });
+  }
+
+  @Test
+  public void testParseLevelOverlapsIndex()
+  {
+    final var data = this.exampleFile();
+    data.set(U64, 80L, 16L);
+
+    assertThrows(RCTransferException.class, () -> {
+      RCKTX2Parser.parse(this.strings, data);
+    });
+  }
+
+  @Test
+  public void testParseBadFaces()
+  {
+    final var data = this.exampleFile();
+    data.set(U32, 36L, 2);
+
+    assertThrows(RCTransferException.class, () -> {
+      RCKTX2Parser.parse(this.strings, data);
+    });
+  }
+
+  @Test
+  public void testBlockSizes()
+  {
+    assertEquals(
+      Optional.of(new RCImageFormatBlock(4, 4, 8)),
+      RCImageCompressedFormats.blockOf(VulkanFormat.VK_FORMAT_BC1_RGBA_UNORM_BLOCK)
+    );
+    assertEquals(
+      Optional.of(new RCImageFormatBlock(4, 4, 16)),
+      RCImageCompressedFormats.blockOf(VulkanFormat.VK_FORMAT_BC7_SRGB_BLOCK)
+    );
+    assertEquals(
+      Optional.of(new RCImageFormatBlock(10, 8, 16)),
+      RCImageCompressedFormats.blockOf(VulkanFormat.VK_FORMAT_ASTC_10x8_UNORM_BLOCK)
+    );
+    assertFalse(
+      RCImageCompressedFormats.isCompressed(VulkanFormat.VK_FORMAT_R8G8B8A8_UNORM)
+    );
+  }
+
+  @Test
+  public void testBlockAreas()
+  {
+    final var block = new RCImageFormatBlock(4, 4, 8);
+    assertEquals(32L, block.areaOctets(8, 8));
+    assertEquals(8L, block.areaOctets(1, 1));
+    assertEquals(16L, block.areaOctets(5, 3));
+
+    final var astc = new RCImageFormatBlock(10, 8, 16);
+    assertEquals(32L, astc.areaOctets(11, 8));
+    assertEquals(64L, astc.areaOctets(20, 9));
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.tests;
+
+import com.io7m.rocaro.api.RCStandardErrorCodes;
+import com.io7m.rocaro.api.transfers.RCTransferBackpressurePolicy;
+import com.io7m.rocaro.api.transfers.RCTransferException;
+import com.io7m.rocaro.api.transfers.RCTransferServiceConfiguration;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.transfers.RCTransferAdmission;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class RCTransferAdmissionTest
+{
+  private RCStrings strings;
+  private List<Integer> started;
+
+  @BeforeEach
+  public void setup()
+  {
+    this.strings = new RCStrings(Locale.ROOT);
+    this.started = new ArrayList<>();
+  }
+
+  private Runnable start(
+    final int index)
+  {
+    return () -> this.started.add(Integer.valueOf(index));
+  }
+
+  /**
+   * Operations beyond the operation limit wait, and are started in order.
+   */
+
+  @Test
+  public void testWaitOperations()
+    throws Exception
+  {
+    final var admission =
+      RCTransferAdmission.create(
+        this.strings,
+        RCTransferServiceConfiguration.builder()
+          .setMaximumInFlightOperations(2)
+          .build()
+      );
+
+    for (int index = 0; index < 4; ++index) {
+      admission.admit(UUID.randomUUID(), 0L, this.start(index));
+    }
+
+    assertEquals(List.of(0, 1), this.started);
+    assertEquals(2, admission.inFlightOperations());
+    assertEquals(2, admission.waitingOperations());
+
+    admission.release(0L);
+    assertEquals(List.of(0, 1, 2), this.started);
+    admission.release(0L);
+    assertEquals(List.of(0, 1, 2, 3), this.started);
+    assertEquals(0, admission.waitingOperations());
+  }
+
+  /**
+   * Operations beyond the staging limit wait, and an operation larger than
+   * the limit is admitted once nothing else is in flight.
+   */
+
+  @Test
+  public void testWaitOctets()
+    throws Exception
+  {
+    final var admission =
+      RCTransferAdmission.create(
+        this.strings,
+        RCTransferServiceConfiguration.builder()
+          .setMaximumInFlightStagingOctets(100L)
+          .build()
+      );
+
+    admission.admit(UUID.randomUUID(), 60L, this.start(0));
+    admission.admit(UUID.randomUUID(), 60L, this.start(1));
+    admission.admit(UUID.randomUUID(), 1000L, this.start(2));
+    admission.admit(UUID.randomUUID(), 10L, this.start(3));
+
+    assertEquals(List.of(0), this.started);
+    assertEquals(60L, admission.inFlightOctets());
+
+    admission.release(60L);
+    assertEquals(List.of(0, 1), this.started);
+    admission.release(60L);
+    assertEquals(List.of(0, 1, 2), this.started);
+    assertEquals(1000L, admission.inFlightOctets());
+    admission.release(1000L);
+    assertEquals(List.of(0, 1, 2, 3), this.started);
+  }
+
+  /**
+   * Operations beyond the limits are rejected with a retryable error.
+   */
+
+  @Test
+  public void testReject()
+    throws Exception
+  {
+    final var admission =
+      RCTransferAdmission.create(
+        this.strings,
+        RCTransferServiceConfiguration.builder()
+          .setMaximumInFlightOperations(1)
+          .setBackpressurePolicy(RCTransferBackpressurePolicy.REJECT)
+          .build()
+      );
+
+    admission.admit(UUID.randomUUID(), 0L, this.start(0));
+
+    final var ex =
+      assertThrows(RCTransferException.class, () -> {
+        admission.admit(UUID.randomUUID(), 0L, this.start(1));
+      });
+    assertEquals(
+      RCStandardErrorCodes.TRANSFER_BACKPRESSURE.codeName(),
+      ex.errorCode()
+    );
+
+    admission.release(0L);
+    admission.admit(UUID.randomUUID(), 0L, this.start(2));
+    assertEquals(List.of(0, 2), this.started);
+  }
+}
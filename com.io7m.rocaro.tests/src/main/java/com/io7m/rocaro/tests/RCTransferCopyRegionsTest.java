@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.tests;
+
+import com.io7m.jtensors.core.unparameterized.vectors.Vector2I;
+import com.io7m.rocaro.api.transfers.RCTransferBufferCopyRegion;
+import com.io7m.rocaro.api.transfers.RCTransferImageCopyRegion;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class RCTransferCopyRegionsTest
+{
+  /**
+   * Unscaled image regions are copied exactly.
+   */
+
+  @Test
+  public void testImageRegionScaled()
+  {
+    final var exact =
+      RCTransferImageCopyRegion.of(
+        Vector2I.of(0, 0),
+        Vector2I.of(16, 16),
+        Vector2I.of(8, 8)
+      );
+    assertFalse(exact.isScaled());
+
+    final var scaled =
+      new RCTransferImageCopyRegion(
+        Vector2I.of(0, 0),
+        Vector2I.of(8, 8),
+        Vector2I.of(0, 0),
+        Vector2I.of(4, 4)
+      );
+    assertTrue(scaled.isScaled());
+  }
+
+  /**
+   * Image regions must lie within both images.
+   */
+
+  @Test
+  public void testImageRegionWithin()
+  {
+    final var region =
+      RCTransferImageCopyRegion.of(
+        Vector2I.of(0, 0),
+        Vector2I.of(24, 24),
+        Vector2I.of(8, 8)
+      );
+
+    assertTrue(region.isWithin(Vector2I.of(8, 8), Vector2I.of(32, 32)));
+    assertFalse(region.isWithin(Vector2I.of(8, 8), Vector2I.of(31, 32)));
+    assertFalse(region.isWithin(Vector2I.of(7, 8), Vector2I.of(32, 32)));
+  }
+
+  /**
+   * Empty image regions are rejected.
+   */
+
+  @Test
+  public void testImageRegionEmpty()
+  {
+    assertThrows(Exception.class, () -> {
+      RCTransferImageCopyRegion.of(
+        Vector2I.of(0, 0),
+        Vector2I.of(0, 0),
+        Vector2I.of(0, 8)
+      );
+    });
+  }
+
+  /**
+   * Buffer regions must lie within both buffers.
+   */
+
+  @Test
+  public void testBufferRegionWithin()
+  {
+    final var region =
+      new RCTransferBufferCopyRegion(16L, 32L, 16L);
+
+    assertTrue(region.isWithin(32L, 48L));
+    assertFalse(region.isWithin(31L, 48L));
+    assertFalse(region.isWithin(32L, 47L));
+    assertThrows(Exception.class, () -> {
+      new RCTransferBufferCopyRegion(0L, 0L, 0L);
+    });
+  }
+}
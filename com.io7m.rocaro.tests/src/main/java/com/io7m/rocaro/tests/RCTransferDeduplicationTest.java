@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.tests;
+
+import com.io7m.rocaro.api.RCCloseableType;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.vanilla.internal.RCResourceReference;
+import com.io7m.rocaro.vanilla.internal.RCResourceReferencedType;
+import com.io7m.rocaro.vanilla.internal.transfers.RCTransferDeduplication;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class RCTransferDeduplicationTest
+{
+  /**
+   * Operations with the same ID share a single operation.
+   */
+
+  @Test
+  public void testShared()
+    throws Exception
+  {
+    final var dedup = new RCTransferDeduplication();
+    final var starts = new AtomicInteger();
+    final var source = new CompletableFuture<String>();
+    final var id = UUID.randomUUID();
+
+    final var f0 = dedup.share(id, () -> {
+      starts.incrementAndGet();
+      return source;
+    });
+    final var f1 = dedup.share(id, () -> {
+      starts.incrementAndGet();
+      return source;
+    });
+
+    assertEquals(1, starts.get());
+    assertEquals(1, dedup.size());
+
+    source.complete("x");
+    assertEquals("x", f0.get());
+    assertEquals("x", f1.get());
+    assertEquals(0, dedup.size());
+  }
+
+  /**
+   * Completed operations are not shared with later submissions.
+   */
+
+  @Test
+  public void testCompletedNotShared()
+  {
+    final var dedup = new RCTransferDeduplication();
+    final var starts = new AtomicInteger();
+    final var id = UUID.randomUUID();
+
+    dedup.share(id, () -> {
+      starts.incrementAndGet();
+      return CompletableFuture.completedFuture("x");
+    });
+    dedup.share(id, () -> {
+      starts.incrementAndGet();
+      return CompletableFuture.completedFuture("y");
+    });
+
+    assertEquals(2, starts.get());
+    assertEquals(0, dedup.size());
+  }
+
+  /**
+   * The shared operation is cancelled only when every submission has been
+   * cancelled.
+   */
+
+  @Test
+  public void testCancellation()
+  {
+    final var dedup = new RCTransferDeduplication();
+    final var source = new CompletableFuture<String>();
+    final var id = UUID.randomUUID();
+
+    final var f0 = dedup.share(id, () -> source);
+    final var f1 = dedup.share(id, () -> source);
+
+    f0.cancel(false);
+    assertFalse(source.isDone());
+    assertFalse(f1.isDone());
+
+    f1.cancel(false);
+    assertTrue(source.isCancelled());
+    assertEquals(0, dedup.size());
+  }
+
+  /**
+   * A result shared between submissions is the same object for every
+   * submission, but each submission holds its own reference to it, and the
+   * resources are released only when every submission has closed it.
+   */
+
+  @Test
+  public void testSharedResultReferenceCounted()
+    throws Exception
+  {
+    final var dedup = new RCTransferDeduplication();
+    final var source = new CompletableFuture<Result>();
+    final var id = UUID.randomUUID();
+    final var closes = new AtomicInteger();
+
+    final var f0 = dedup.share(id, () -> source);
+    final var f1 = dedup.share(id, () -> source);
+
+    source.complete(new Result(closes));
+    assertSame(f0.get(), f1.get());
+    assertEquals(2, f0.get().reference().references());
+
+    f0.get().close();
+    assertEquals(0, closes.get());
+    f1.get().close();
+    assertEquals(1, closes.get());
+
+    f1.get().close();
+    assertEquals(1, closes.get());
+  }
+
+  /**
+   * Submissions cancelled before the shared operation completes hold no
+   * reference to its result.
+   */
+
+  @Test
+  public void testCancelledHoldsNoReference()
+    throws Exception
+  {
+    final var dedup = new RCTransferDeduplication();
+    final var source = new CompletableFuture<Result>();
+    final var id = UUID.randomUUID();
+    final var closes = new AtomicInteger();
+
+    final var f0 = dedup.share(id, () -> source);
+    final var f1 = dedup.share(id, () -> source);
+    f0.cancel(false);
+
+    source.complete(new Result(closes));
+    assertEquals(1, f1.get().reference().references());
+
+    f1.get().close();
+    assertEquals(1, closes.get());
+  }
+
+  /**
+   * A released result cannot be acquired again.
+   */
+
+  @Test
+  public void testReleasedNotAcquired()
+    throws Exception
+  {
+    final var closes = new AtomicInteger();
+    final var reference = RCResourceReference.create(closes::incrementAndGet);
+
+    reference.close();
+    assertTrue(reference.isReleased());
+    assertEquals(1, closes.get());
+    assertThrows(IllegalStateException.class, reference::acquire);
+  }
+
+  private record Result(
+    RCResourceReference reference)
+    implements RCResourceReferencedType, RCCloseableType
+  {
+    Result(
+      final AtomicInteger closes)
+    {
+      this(RCResourceReference.create(closes::incrementAndGet));
+    }
+
+    @Override
+    public void close()
+      throws RocaroException
+    {
+      this.reference.close();
+    }
+  }
+}
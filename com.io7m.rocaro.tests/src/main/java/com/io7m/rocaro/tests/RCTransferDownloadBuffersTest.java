@@ -0,0 +1,199 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.tests;
+
+import com.io7m.jcoronado.api.VulkanBufferType;
+import com.io7m.jcoronado.vma.VMAAllocationResult;
+import com.io7m.jcoronado.vma.VMAAllocatorType;
+import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.vanilla.internal.transfers.RCTransferDownload;
+import com.io7m.rocaro.vanilla.internal.transfers.RCTransferDownloadBuffers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public final class RCTransferDownloadBuffersTest
+{
+  private static final UUID TRANSFER =
+    UUID.randomUUID();
+
+  private ArrayList<VulkanBufferType> created;
+  private AtomicInteger closed;
+  private RCTransferDownloadBuffers downloads;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  public void setup()
+    throws Exception
+  {
+    this.created =
+      new ArrayList<>();
+    this.closed =
+      new AtomicInteger();
+
+    final var allocator =
+      mock(VMAAllocatorType.class, Answers.RETURNS_DEEP_STUBS);
+    final var device =
+      mock(RCDeviceType.class, Answers.RETURNS_DEEP_STUBS);
+
+    when(device.allocator())
+      .thenReturn(allocator);
+    when(allocator.createBuffer(any(), any()))
+      .thenAnswer(_ -> {
+        final var buffer = mock(VulkanBufferType.class);
+        doAnswer(_ -> this.closed.incrementAndGet())
+          .when(buffer)
+          .close();
+        final var result = mock(VMAAllocationResult.class);
+        when(result.result()).thenReturn(buffer);
+        this.created.add(buffer);
+        return result;
+      });
+    when(allocator.mapMemory(any()).asByteBuffer())
+      .thenAnswer(_ -> ByteBuffer.allocateDirect(65536));
+
+    this.downloads =
+      RCTransferDownloadBuffers.create(device);
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    this.downloads.close();
+  }
+
+  /**
+   * Size classes are powers of two with a lower bound.
+   */
+
+  @Test
+  public void testSizeClasses()
+  {
+    assertEquals(65536L, RCTransferDownloadBuffers.sizeClassOf(1L));
+    assertEquals(65536L, RCTransferDownloadBuffers.sizeClassOf(65536L));
+    assertEquals(131072L, RCTransferDownloadBuffers.sizeClassOf(65537L));
+    assertEquals(1048576L, RCTransferDownloadBuffers.sizeClassOf(1048576L));
+    assertEquals(2097152L, RCTransferDownloadBuffers.sizeClassOf(1048577L));
+  }
+
+  /**
+   * Buffers are reused by later downloads in the same size class, and
+   * not by downloads in other size classes.
+   */
+
+  @Test
+  public void testReusedWithinSizeClass()
+    throws Exception
+  {
+    final var d0 = this.downloads.allocate(TRANSFER, 100L);
+    d0.close();
+    assertEquals(1, this.created.size());
+
+    final var d1 = this.downloads.allocate(TRANSFER, 60000L);
+    assertEquals(1, this.created.size());
+    assertEquals(60000L, d1.data().byteSize());
+
+    final var d2 = this.downloads.allocate(TRANSFER, 100000L);
+    assertEquals(2, this.created.size());
+
+    d1.close();
+    d2.close();
+    assertEquals(0, this.closed.get());
+  }
+
+  /**
+   * The data of a download cannot be read after it has been closed.
+   */
+
+  @Test
+  public void testDataAfterClose()
+    throws Exception
+  {
+    final var d0 = this.downloads.allocate(TRANSFER, 100L);
+    assertEquals(100L, d0.data().byteSize());
+    d0.close();
+    assertThrows(IllegalStateException.class, d0::data);
+  }
+
+  /**
+   * Closing a download twice returns its buffer to the pool once.
+   */
+
+  @Test
+  public void testCloseTwice()
+    throws Exception
+  {
+    final var d0 = this.downloads.allocate(TRANSFER, 100L);
+    d0.close();
+    d0.close();
+
+    final var d1 = this.downloads.allocate(TRANSFER, 100L);
+    final var d2 = this.downloads.allocate(TRANSFER, 100L);
+    assertEquals(2, this.created.size());
+
+    d1.close();
+    d2.close();
+  }
+
+  /**
+   * At most four free buffers are retained for each size class, and any
+   * further buffers are closed when they are released.
+   */
+
+  @Test
+  public void testFreeListLimited()
+    throws Exception
+  {
+    final var allocated = new ArrayList<RCTransferDownload>();
+    for (int index = 0; index < 6; ++index) {
+      allocated.add(this.downloads.allocate(TRANSFER, 100L));
+    }
+    assertEquals(6, this.created.size());
+
+    for (final var download : allocated) {
+      download.close();
+    }
+    assertEquals(2, this.closed.get());
+
+    allocated.clear();
+    for (int index = 0; index < 5; ++index) {
+      allocated.add(this.downloads.allocate(TRANSFER, 100L));
+    }
+    assertEquals(7, this.created.size());
+
+    for (final var download : allocated) {
+      download.close();
+    }
+    this.downloads.close();
+    assertEquals(7, this.closed.get());
+  }
+}
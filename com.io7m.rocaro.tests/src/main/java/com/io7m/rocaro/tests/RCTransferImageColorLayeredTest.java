@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.tests;
+
+import com.io7m.jcoronado.api.VulkanFormat;
+import com.io7m.jcoronado.api.VulkanImageLayout;
+import com.io7m.jtensors.core.unparameterized.vectors.Vector2I;
+import com.io7m.rocaro.api.devices.RCDeviceQueueCategory;
+import com.io7m.rocaro.api.images.RCImageLayeredKind;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorLayered;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class RCTransferImageColorLayeredTest
+{
+  private static RCTransferImageColorLayered.Builder builder(
+    final RCImageLayeredKind kind,
+    final Vector2I size,
+    final int layers)
+  {
+    return RCTransferImageColorLayered.builder()
+      .setName("Layered")
+      .setKind(kind)
+      .setSize(size)
+      .setLayers(layers)
+      .setFormat(VulkanFormat.VK_FORMAT_R8G8B8A8_UNORM)
+      .setFinalLayout(VulkanImageLayout.VK_IMAGE_LAYOUT_SHADER_READ_ONLY_OPTIMAL)
+      .setDataCopier(_ -> {})
+      .setTargetQueue(RCDeviceQueueCategory.GRAPHICS);
+  }
+
+  /**
+   * Valid layered images are accepted.
+   */
+
+  @Test
+  public void testValid()
+  {
+    final var array =
+      builder(RCImageLayeredKind.ARRAY_2D, Vector2I.of(64, 32), 256).build();
+    assertEquals(256, array.layers());
+
+    final var cube =
+      builder(RCImageLayeredKind.CUBE, Vector2I.of(64, 64), 12).build();
+    assertEquals(12, cube.layers());
+
+    final var volume =
+      builder(RCImageLayeredKind.VOLUME_3D, Vector2I.of(16, 16), 16).build();
+    assertEquals(16, volume.layers());
+  }
+
+  /**
+   * Cube maps must have square faces.
+   */
+
+  @Test
+  public void testCubeNotSquare()
+  {
+    assertThrows(Exception.class, () -> {
+      builder(RCImageLayeredKind.CUBE, Vector2I.of(64, 32), 6).build();
+    });
+  }
+
+  /**
+   * Cube maps must have a multiple of six layers.
+   */
+
+  @Test
+  public void testCubeLayers()
+  {
+    assertThrows(Exception.class, () -> {
+      builder(RCImageLayeredKind.CUBE, Vector2I.of(64, 64), 5).build();
+    });
+  }
+
+  /**
+   * Layered images must have at least one layer.
+   */
+
+  @Test
+  public void testNoLayers()
+  {
+    assertThrows(Exception.class, () -> {
+      builder(RCImageLayeredKind.ARRAY_2D, Vector2I.of(64, 64), 0).build();
+    });
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.tests;
+
+import com.io7m.rocaro.vanilla.internal.transfers.RCTransferMipmaps;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class RCTransferMipmapsTest
+{
+  /**
+   * Mipmap chains end at 1x1.
+   */
+
+  @Test
+  public void testLevelCount()
+  {
+    assertEquals(1, RCTransferMipmaps.levelCount(1, 1));
+    assertEquals(2, RCTransferMipmaps.levelCount(2, 1));
+    assertEquals(2, RCTransferMipmaps.levelCount(3, 3));
+    assertEquals(9, RCTransferMipmaps.levelCount(256, 256));
+    assertEquals(9, RCTransferMipmaps.levelCount(256, 16));
+    assertEquals(9, RCTransferMipmaps.levelCount(300, 200));
+    assertEquals(12, RCTransferMipmaps.levelCount(1, 2048));
+  }
+
+  /**
+   * Level sizes never fall below one.
+   */
+
+  @Test
+  public void testLevelSize()
+  {
+    assertEquals(256, RCTransferMipmaps.levelSize(256, 0));
+    assertEquals(128, RCTransferMipmaps.levelSize(256, 1));
+    assertEquals(1, RCTransferMipmaps.levelSize(256, 8));
+    assertEquals(1, RCTransferMipmaps.levelSize(256, 9));
+    assertEquals(1, RCTransferMipmaps.levelSize(3, 1));
+    assertEquals(1, RCTransferMipmaps.levelSize(3, 2));
+  }
+
+  /**
+   * Empty images have no mipmaps.
+   */
+
+  @Test
+  public void testLevelCountInvalid()
+  {
+    assertThrows(Exception.class, () -> RCTransferMipmaps.levelCount(0, 1));
+  }
+}
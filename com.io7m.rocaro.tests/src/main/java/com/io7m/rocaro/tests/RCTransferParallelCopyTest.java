@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.tests;
+
+import com.io7m.rocaro.api.RCRendererID;
+import com.io7m.rocaro.api.transfers.RCTransferCopyFunctionRangedType;
+import com.io7m.rocaro.api.transfers.RCTransferServiceConfiguration;
+import com.io7m.rocaro.vanilla.internal.transfers.RCTransferParallelCopy;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class RCTransferParallelCopyTest
+{
+  /**
+   * Parallel copies fill the whole target, and never split a unit.
+   */
+
+  @Test
+  public void testCopyRanged()
+  {
+    final var configuration =
+      RCTransferServiceConfiguration.builder()
+        .setStagingCopyParallelism(4)
+        .setStagingCopyChunkOctets(16L)
+        .build();
+
+    try (final var arena = Arena.ofShared();
+         final var copies =
+           RCTransferParallelCopy.create(new RCRendererID(1L), configuration)) {
+      final var source = arena.allocate(960L);
+      for (long index = 0L; index < source.byteSize(); ++index) {
+        source.set(ValueLayout.JAVA_BYTE, index, (byte) index);
+      }
+
+      final var target = arena.allocate(960L);
+      final var offsets = ConcurrentHashMap.<Long>newKeySet();
+      final RCTransferCopyFunctionRangedType copier = (slice, sourceOffset) -> {
+        assertEquals(0L, slice.byteSize() % 12L);
+        assertEquals(0L, sourceOffset % 12L);
+        offsets.add(Long.valueOf(sourceOffset));
+        MemorySegment.copy(source, sourceOffset, slice, 0L, slice.byteSize());
+      };
+
+      copies.copyRanged(copier, target, 0L, 12L);
+
+      assertTrue(offsets.size() > 1);
+      assertEquals(-1L, source.mismatch(target));
+    }
+  }
+
+  /**
+   * All copies are executed.
+   */
+
+  @Test
+  public void testCopyAll()
+  {
+    final var configuration =
+      RCTransferServiceConfiguration.builder()
+        .setStagingCopyParallelism(4)
+        .build();
+
+    try (final var copies =
+           RCTransferParallelCopy.create(new RCRendererID(1L), configuration)) {
+      final var executed =
+        Collections.synchronizedList(new ArrayList<Integer>());
+      final var runs = new ArrayList<Runnable>();
+      for (int index = 0; index < 10; ++index) {
+        final var value = Integer.valueOf(index);
+        runs.add(() -> executed.add(value));
+      }
+
+      copies.copyAll(runs);
+      executed.sort(Integer::compareTo);
+      assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), executed);
+    }
+  }
+}
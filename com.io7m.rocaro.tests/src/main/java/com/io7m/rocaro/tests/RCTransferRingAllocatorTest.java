@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.tests;
+
+import com.io7m.rocaro.vanilla.internal.transfers.RCTransferAlignment;
+import com.io7m.rocaro.vanilla.internal.transfers.RCTransferRingAllocator;
+import com.io7m.rocaro.vanilla.internal.transfers.RCTransferRingRegion;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.constraints.Size;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class RCTransferRingAllocatorTest
+{
+  @Test
+  public void testAllocateSequential()
+  {
+    final var ring = new RCTransferRingAllocator(100L);
+    final var r0 = ring.allocate(30L, 1L).orElseThrow();
+    final var r1 = ring.allocate(30L, 1L).orElseThrow();
+    final var r2 = ring.allocate(30L, 1L).orElseThrow();
+
+    assertEquals(0L, r0.offset());
+    assertEquals(30L, r1.offset());
+    assertEquals(60L, r2.offset());
+    assertTrue(ring.allocate(30L, 1L).isEmpty());
+    assertEquals(90L, ring.used());
+  }
+
+  @Test
+  public void testAllocateAligned()
+  {
+    final var ring = new RCTransferRingAllocator(100L);
+    final var r0 = ring.allocate(3L, 1L).orElseThrow();
+    final var r1 = ring.allocate(8L, 12L).orElseThrow();
+
+    assertEquals(0L, r0.offset());
+    assertEquals(12L, r1.offset());
+  }
+
+  @Test
+  public void testAllocateWraps()
+  {
+    final var ring = new RCTransferRingAllocator(100L);
+    final var r0 = ring.allocate(50L, 1L).orElseThrow();
+    final var r1 = ring.allocate(50L, 1L).orElseThrow();
+
+    ring.release(r0);
+
+    final var r2 = ring.allocate(30L, 1L).orElseThrow();
+    final var r3 = ring.allocate(20L, 1L).orElseThrow();
+
+    assertEquals(0L, r2.offset());
+    assertEquals(30L, r3.offset());
+    assertTrue(ring.allocate(1L, 1L).isEmpty());
+
+    ring.release(r1);
+    assertEquals(50L, ring.allocate(50L, 1L).orElseThrow().offset());
+  }
+
+  @Test
+  public void testReleaseOutOfOrder()
+  {
+    final var ring = new RCTransferRingAllocator(100L);
+    final var r0 = ring.allocate(50L, 1L).orElseThrow();
+    final var r1 = ring.allocate(50L, 1L).orElseThrow();
+
+    /*
+     * Releasing the newest region does not reclaim space until the oldest
+     * region is also released.
+     */
+
+    ring.release(r1);
+    assertTrue(ring.allocate(1L, 1L).isEmpty());
+    assertEquals(2, ring.liveCount());
+
+    ring.release(r0);
+    assertEquals(0, ring.liveCount());
+    assertEquals(0L, ring.allocate(100L, 1L).orElseThrow().offset());
+  }
+
+  @Test
+  public void testTooLarge()
+  {
+    final var ring = new RCTransferRingAllocator(100L);
+    assertTrue(ring.allocate(101L, 1L).isEmpty());
+  }
+
+  @Test
+  public void testCopyAlignment()
+  {
+    assertEquals(4L, RCTransferAlignment.copyAlignment(1L));
+    assertEquals(4L, RCTransferAlignment.copyAlignment(2L));
+    assertEquals(12L, RCTransferAlignment.copyAlignment(3L));
+    assertEquals(4L, RCTransferAlignment.copyAlignment(4L));
+    assertEquals(8L, RCTransferAlignment.copyAlignment(8L));
+    assertEquals(16L, RCTransferAlignment.copyAlignment(16L));
+  }
+
+  /**
+   * Split image copies always begin at aligned offsets.
+   */
+
+  @Test
+  public void testRowsForCopy()
+  {
+    /*
+     * 4 octet rows can be split anywhere.
+     */
+
+    assertEquals(10L, RCTransferAlignment.rowsForCopy(4L, 40L, 100L));
+    assertEquals(10L, RCTransferAlignment.rowsForCopy(4L, 43L, 100L));
+    assertEquals(3L, RCTransferAlignment.rowsForCopy(4L, 40L, 3L));
+
+    /*
+     * At least one row is always copied.
+     */
+
+    assertEquals(1L, RCTransferAlignment.rowsForCopy(4L, 0L, 100L));
+
+    /*
+     * Rows of an odd size must be copied four at a time.
+     */
+
+    assertEquals(4L, RCTransferAlignment.rowsForCopy(3L, 1L, 100L));
+    assertEquals(8L, RCTransferAlignment.rowsForCopy(3L, 30L, 100L));
+    assertEquals(5L, RCTransferAlignment.rowsForCopy(3L, 30L, 5L));
+
+    /*
+     * Rows of two octets must be copied two at a time.
+     */
+
+    assertEquals(2L, RCTransferAlignment.rowsForCopy(2L, 2L, 100L));
+    assertEquals(4L, RCTransferAlignment.rowsForCopy(2L, 10L, 100L));
+  }
+
+  /**
+   * Live regions never overlap, and always lie within the ring.
+   *
+   * @param sizes    The allocation sizes
+   * @param releases The number of regions to release after each allocation
+   */
+
+  @Property
+  public void testNeverOverlaps(
+    final @ForAll @Size(min = 1, max = 200) List<@LongRange(min = 1L, max = 64L) Long> sizes,
+    final @ForAll @IntRange(min = 0, max = 2) int releases)
+  {
+    final var ring = new RCTransferRingAllocator(256L);
+    final var live = new ArrayList<RCTransferRingRegion>();
+
+    for (final var size : sizes) {
+      final var regionOpt = ring.allocate(size.longValue(), 4L);
+      if (regionOpt.isPresent()) {
+        final var region = regionOpt.get();
+        assertEquals(0L, region.offset() % 4L);
+        assertTrue(region.end() <= ring.capacity());
+
+        for (final var other : live) {
+          assertFalse(
+            region.offset() < other.end() && other.offset() < region.end(),
+            "%s must not overlap %s".formatted(region, other)
+          );
+        }
+        live.add(region);
+      }
+
+      for (int index = 0; index < releases && !live.isEmpty(); ++index) {
+        ring.release(live.remove(0));
+      }
+    }
+  }
+}
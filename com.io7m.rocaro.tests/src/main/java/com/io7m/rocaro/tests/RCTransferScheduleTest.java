@@ -0,0 +1,250 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.rocaro.tests;
+
+import com.io7m.jcoronado.vma.VMAAllocatorType;
+import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.api.transfers.RCTransferPriority;
+import com.io7m.rocaro.api.transfers.RCTransferServiceConfiguration;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.transfers.RCTransferSchedule;
+import com.io7m.rocaro.vanilla.internal.transfers.RCTransferScheduledType;
+import com.io7m.rocaro.vanilla.internal.transfers.RCTransferStagingBuffers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public final class RCTransferScheduleTest
+{
+  private static final long RING_SIZE = 1024L;
+
+  private RCTransferServiceConfiguration configuration;
+  private RCTransferSchedule<Op> schedule;
+  private RCTransferStagingBuffers staging;
+
+  private static final class Op
+    implements RCTransferScheduledType
+  {
+    private final UUID id;
+    private final RCTransferPriority priority;
+    private long remaining;
+
+    Op(
+      final RCTransferPriority inPriority,
+      final long inRemaining)
+    {
+      this.id = UUID.randomUUID();
+      this.priority = inPriority;
+      this.remaining = inRemaining;
+    }
+
+    @Override
+    public RCTransferPriority priority()
+    {
+      return this.priority;
+    }
+
+    @Override
+    public long transferRemainingOctets()
+    {
+      return this.remaining;
+    }
+  }
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.configuration =
+      RCTransferServiceConfiguration.builder()
+        .setStagingRingSize(RING_SIZE)
+        .setStagingRingCount(1)
+        .setFrameBudgetOctets(256L)
+        .setFrameIdleTimeout(Duration.ofHours(1L))
+        .setStagingWaitTimeout(Duration.ofMillis(10L))
+        .build();
+
+    final var allocator =
+      mock(VMAAllocatorType.class, Answers.RETURNS_DEEP_STUBS);
+    final var device =
+      mock(RCDeviceType.class, Answers.RETURNS_DEEP_STUBS);
+
+    when(device.allocator())
+      .thenReturn(allocator);
+    when(device.registerResource(any()))
+      .thenAnswer(i -> i.getArgument(0));
+    when(allocator.mapMemory(any()).asByteBuffer())
+      .thenAnswer(_ -> ByteBuffer.allocateDirect((int) RING_SIZE));
+
+    this.schedule =
+      new RCTransferSchedule<>(this.configuration, 0L);
+    this.staging =
+      RCTransferStagingBuffers.create(
+        new RCStrings(Locale.ROOT),
+        device,
+        this.configuration
+      );
+  }
+
+  /**
+   * The default limit on staging memory held by operations in flight is
+   * the total capacity of the staging rings.
+   */
+
+  @Test
+  public void testAdmissionDefaultIsRingCapacity()
+  {
+    final var defaults =
+      RCTransferServiceConfiguration.builder()
+        .build();
+
+    assertEquals(
+      defaults.stagingRingSize() * defaults.stagingRingCount(),
+      defaults.maximumInFlightStagingOctets()
+    );
+  }
+
+  /**
+   * A background operation held back by the frame budget holds no staging
+   * memory, and so a critical operation sharing the same staging ring can
+   * allocate the entire ring immediately.
+   */
+
+  @Test
+  public void testDeferredHoldsNoStaging()
+    throws Exception
+  {
+    final var background = new Op(RCTransferPriority.BACKGROUND, RING_SIZE);
+    this.schedule.enqueue(background);
+
+    final var parts0 = this.schedule.select(_ -> false);
+    assertEquals(1, parts0.size());
+    assertSame(background, parts0.get(0).item());
+    assertEquals(256L, parts0.get(0).maximumOctets());
+
+    /*
+     * Stage, record, and complete the first part of the background
+     * operation, and then return the rest of it to the schedule.
+     */
+
+    try (var _ = this.staging.allocate(background.id, 256L, 1L)) {
+      background.remaining -= 256L;
+    }
+    this.schedule.requeue(parts0);
+
+    /*
+     * The budget for the frame is exhausted, and so the rest of the
+     * background operation is deferred.
+     */
+
+    assertEquals(List.of(), this.schedule.select(_ -> false));
+    assertEquals(1, this.schedule.size());
+
+    final var critical = new Op(RCTransferPriority.CRITICAL, RING_SIZE);
+    this.schedule.enqueue(critical);
+
+    final var parts1 = this.schedule.select(_ -> false);
+    assertEquals(1, parts1.size());
+    assertSame(critical, parts1.get(0).item());
+    assertEquals(Long.MAX_VALUE, parts1.get(0).maximumOctets());
+
+    try (var a = this.staging.allocate(critical.id, RING_SIZE, 1L)) {
+      assertFalse(a.isDedicated());
+      assertEquals(0L, a.offset());
+    }
+  }
+
+  /**
+   * The parts selected for a single batch never require more staging
+   * memory than one staging ring holds.
+   */
+
+  @Test
+  public void testBatchStagingLimited()
+  {
+    final var c0 = new Op(RCTransferPriority.CRITICAL, RING_SIZE);
+    final var c1 = new Op(RCTransferPriority.CRITICAL, RING_SIZE);
+    this.schedule.enqueue(c0);
+    this.schedule.enqueue(c1);
+
+    final var parts0 = this.schedule.select(_ -> false);
+    assertEquals(1, parts0.size());
+    assertSame(c0, parts0.get(0).item());
+
+    final var parts1 = this.schedule.select(_ -> false);
+    assertEquals(1, parts1.size());
+    assertSame(c1, parts1.get(0).item());
+  }
+
+  /**
+   * Non-critical parts are limited by the staging memory remaining for the
+   * batch as well as by the frame budget.
+   */
+
+  @Test
+  public void testPartsLimitedByStaging()
+  {
+    final var schedule =
+      new RCTransferSchedule<Op>(
+        RCTransferServiceConfiguration.builder()
+          .from(this.configuration)
+          .setFrameBudgetOctets(4096L)
+          .build(),
+        0L
+      );
+
+    final var n0 = new Op(RCTransferPriority.NORMAL, 1000L);
+    final var n1 = new Op(RCTransferPriority.NORMAL, 1000L);
+    schedule.enqueue(n0);
+    schedule.enqueue(n1);
+
+    final var parts = schedule.select(_ -> false);
+    assertEquals(2, parts.size());
+    assertSame(n0, parts.get(0).item());
+    assertEquals(RING_SIZE, parts.get(0).maximumOctets());
+    assertSame(n1, parts.get(1).item());
+    assertEquals(RING_SIZE - 1000L, parts.get(1).maximumOctets());
+  }
+
+  /**
+   * Operations rejected by the discard function are removed.
+   */
+
+  @Test
+  public void testDiscarded()
+  {
+    this.schedule.enqueue(new Op(RCTransferPriority.CRITICAL, 1L));
+    assertEquals(List.of(), this.schedule.select(_ -> true));
+    assertTrue(this.schedule.isEmpty());
+  }
+}
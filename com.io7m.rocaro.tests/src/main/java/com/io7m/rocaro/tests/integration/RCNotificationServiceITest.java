@@ -56,11 +56,15 @@ import java.util.List;
 import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import static com.io7m.jcoronado.api.VulkanCommandBufferLevel.VK_COMMAND_BUFFER_LEVEL_PRIMARY;
 import static com.io7m.jcoronado.api.VulkanCommandBufferUsageFlag.VK_COMMAND_BUFFER_USAGE_ONE_TIME_SUBMIT_BIT;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Tag("Real-Vulkan-Integration")
 public final class RCNotificationServiceITest
@@ -122,7 +126,9 @@ public final class RCNotificationServiceITest
   public void tearDown()
     throws Exception
   {
-    this.renderer.close();
+    if (this.renderer != null) {
+      this.renderer.close();
+    }
 
     LOG.debug("Waiting for window system to settle…");
     Thread.sleep(1_000L);
@@ -194,6 +200,50 @@ public final class RCNotificationServiceITest
     );
   }
 
+  /**
+   * A timeline semaphore signalled while an older registration is pending is
+   * observed without waiting for the older registration, and registrations
+   * still pending when the service is closed are failed.
+   */
+
+  @Test
+  public void testTimelineSemaphoreOutOfOrder()
+    throws Exception
+  {
+    final var executor =
+      (RCExecutorType) this.device.gpuExecutor();
+
+    final var older =
+      this.device.registerResource(
+        executor.executeAndWait(() -> {
+          return this.vulkanDevice.createTimelineSemaphore(10L);
+        })
+      );
+    final var newer =
+      this.device.registerResource(
+        executor.executeAndWait(() -> {
+          return this.vulkanDevice.createTimelineSemaphore(10L);
+        })
+      );
+
+    final var olderFuture =
+      this.notifications.registerTimelineSemaphore(
+        new VulkanSemaphoreTimelineWait(older, 20L));
+    final var newerFuture =
+      this.notifications.registerTimelineSemaphore(
+        new VulkanSemaphoreTimelineWait(newer, 20L));
+
+    this.vulkanDevice.signalTimelineSemaphore(newer, 20L);
+    newerFuture.get(5L, TimeUnit.SECONDS);
+    assertFalse(olderFuture.isDone());
+
+    this.renderer.close();
+    this.renderer = null;
+
+    final var ex =
+      assertThrows(ExecutionException.class, olderFuture::get);
+    assertInstanceOf(IllegalStateException.class, ex.getCause());
+  }
 
   private void executeFenceSignalled(
     final RCExecutorType executor,
@@ -31,10 +31,21 @@ import com.io7m.rocaro.api.RendererFactoryType;
 import com.io7m.rocaro.api.RendererType;
 import com.io7m.rocaro.api.RendererVulkanConfiguration;
 import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.buffers.RCBufferStorageType;
 import com.io7m.rocaro.api.devices.RCDeviceQueueCategory;
 import com.io7m.rocaro.api.devices.RCDeviceType;
 import com.io7m.rocaro.api.displays.RCDisplaySelectionWindowed;
+import com.io7m.rocaro.api.images.RCImageColorBasicUploadedType;
+import com.io7m.rocaro.api.transfers.RCTransferBufferCopy;
+import com.io7m.rocaro.api.transfers.RCTransferBufferCopyRegion;
+import com.io7m.rocaro.api.transfers.RCTransferBufferDownload;
+import com.io7m.rocaro.api.transfers.RCTransferBufferStorage;
+import com.io7m.rocaro.api.transfers.RCTransferCopyFunctionType;
+import com.io7m.rocaro.api.transfers.RCTransferDownloadType;
 import com.io7m.rocaro.api.transfers.RCTransferImageColorBasic;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorBasicDownload;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorBasicUpdate;
+import com.io7m.rocaro.api.transfers.RCTransferImageRegion;
 import com.io7m.rocaro.api.transfers.RCTransferServiceType;
 import com.io7m.rocaro.vanilla.internal.images.RCImageColorBasic;
 import com.io7m.rocaro.vanilla.internal.notifications.RCNotificationServiceType;
@@ -48,11 +59,16 @@ import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.List;
 import java.util.Objects;
 import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static com.io7m.jcoronado.api.VulkanImageLayout.VK_IMAGE_LAYOUT_SHADER_READ_ONLY_OPTIMAL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @Tag("Real-Vulkan-Integration")
 public final class RCTransferServiceITest
@@ -157,8 +173,7 @@ public final class RCTransferServiceITest
       future.get(5L, TimeUnit.SECONDS);
     LOG.debug("Transferred: {}", r);
 
-    this.device.registerResource(r.data());
-    this.device.registerResource(r.view());
+    this.device.registerResource(r);
   }
 
   private void executeWaitingFrames()
@@ -200,7 +215,231 @@ public final class RCTransferServiceITest
       future.get(5L, TimeUnit.SECONDS);
     LOG.debug("Transferred: {}", r);
 
-    this.device.registerResource(r.data());
-    this.device.registerResource(r.view());
+    this.device.registerResource(r);
+  }
+
+  /**
+   * An uploaded image can be downloaded again, unchanged.
+   */
+
+  @Test
+  public void testTransferImageUploadDownload()
+    throws Exception
+  {
+    final var image =
+      this.awaitImage(RCTransferServiceITest::fillIndexed);
+
+    final var download =
+      this.downloadImage(image);
+
+    final var data = download.data();
+    assertEquals(64L, data.byteSize());
+    for (long index = 0L; index < data.byteSize(); ++index) {
+      assertEquals((byte) index, data.get(ValueLayout.JAVA_BYTE, index));
+    }
+  }
+
+  /**
+   * Updating regions of an image leaves the pixels outside the regions
+   * unchanged.
+   */
+
+  @Test
+  public void testTransferImageUpdatePreservesOutside()
+    throws Exception
+  {
+    final var image =
+      this.awaitImage(target -> target.fill((byte) 0x10));
+
+    this.await(
+      this.transfers.transfer(
+        RCTransferImageColorBasicUpdate.builder()
+          .setName("Update")
+          .setImage(image)
+          .setLayout(VK_IMAGE_LAYOUT_SHADER_READ_ONLY_OPTIMAL)
+          .setTargetQueue(RCDeviceQueueCategory.TRANSFER)
+          .addRegions(
+            new RCTransferImageRegion(
+              Vector2I.of(2, 2),
+              Vector2I.of(4, 4),
+              target -> target.fill((byte) 0x7f)
+            )
+          )
+          .build()
+      )
+    );
+
+    final var download =
+      this.downloadImage(image);
+
+    final var data = download.data();
+    for (int y = 0; y < 8; ++y) {
+      for (int x = 0; x < 8; ++x) {
+        final var inside = x >= 2 && x < 6 && y >= 2 && y < 6;
+        assertEquals(
+          inside ? (byte) 0x7f : (byte) 0x10,
+          data.get(ValueLayout.JAVA_BYTE, (y * 8L) + x),
+          "Pixel %d,%d".formatted(Integer.valueOf(x), Integer.valueOf(y))
+        );
+      }
+    }
+  }
+
+  /**
+   * An uploaded buffer can be downloaded again, unchanged.
+   */
+
+  @Test
+  public void testTransferBufferUploadDownload()
+    throws Exception
+  {
+    final var buffer =
+      this.awaitBuffer("Buffer", 256L, RCTransferServiceITest::fillIndexed);
+
+    final var download =
+      this.await(
+        this.transfers.transfer(
+          RCTransferBufferDownload.builder()
+            .setName("Download")
+            .setBuffer(buffer)
+            .setSize(256L)
+            .setTargetQueue(RCDeviceQueueCategory.TRANSFER)
+            .build()
+        )
+      );
+    this.device.registerResource(download);
+
+    final var data = download.data();
+    assertEquals(256L, data.byteSize());
+    for (long index = 0L; index < data.byteSize(); ++index) {
+      assertEquals((byte) index, data.get(ValueLayout.JAVA_BYTE, index));
+    }
+  }
+
+  /**
+   * Copying between buffers copies only the given region.
+   */
+
+  @Test
+  public void testTransferBufferCopy()
+    throws Exception
+  {
+    final var source =
+      this.awaitBuffer("Source", 256L, RCTransferServiceITest::fillIndexed);
+    final var target =
+      this.awaitBuffer("Target", 256L, t -> t.fill((byte) 0));
+
+    this.await(
+      this.transfers.transfer(
+        RCTransferBufferCopy.builder()
+          .setName("Copy")
+          .setSource(source)
+          .setTarget(target)
+          .setRegions(List.of(new RCTransferBufferCopyRegion(16L, 64L, 32L)))
+          .setTargetQueue(RCDeviceQueueCategory.TRANSFER)
+          .build()
+      )
+    );
+
+    final var download =
+      this.await(
+        this.transfers.transfer(
+          RCTransferBufferDownload.builder()
+            .setName("Download")
+            .setBuffer(target)
+            .setSize(256L)
+            .setTargetQueue(RCDeviceQueueCategory.TRANSFER)
+            .build()
+        )
+      );
+    this.device.registerResource(download);
+
+    final var data = download.data();
+    for (long index = 0L; index < data.byteSize(); ++index) {
+      final var inside = index >= 64L && index < 96L;
+      assertEquals(
+        inside ? (byte) (index - 48L) : (byte) 0,
+        data.get(ValueLayout.JAVA_BYTE, index),
+        "Octet %d".formatted(Long.valueOf(index))
+      );
+    }
+  }
+
+  private static void fillIndexed(
+    final MemorySegment target)
+  {
+    for (long index = 0L; index < target.byteSize(); ++index) {
+      target.set(ValueLayout.JAVA_BYTE, index, (byte) index);
+    }
+  }
+
+  private <T> T await(
+    final CompletableFuture<T> future)
+    throws Exception
+  {
+    this.executeWaitingFrames();
+
+    LOG.debug("Waiting for transfer...");
+    final var r = future.get(5L, TimeUnit.SECONDS);
+    LOG.debug("Transferred: {}", r);
+    return r;
+  }
+
+  private RCImageColorBasicUploadedType awaitImage(
+    final RCTransferCopyFunctionType copier)
+    throws Exception
+  {
+    final var r =
+      this.await(
+        this.transfers.transfer(
+          RCTransferImageColorBasic.builder()
+            .setFinalLayout(VK_IMAGE_LAYOUT_SHADER_READ_ONLY_OPTIMAL)
+            .setFormat(VulkanFormat.VK_FORMAT_R8_UNORM)
+            .setSize(Vector2I.of(8, 8))
+            .setTargetQueue(RCDeviceQueueCategory.TRANSFER)
+            .setName("Image")
+            .setDataCopier(copier)
+            .build()
+        )
+      );
+    return this.device.registerResource(r);
+  }
+
+  private RCBufferStorageType awaitBuffer(
+    final String name,
+    final long size,
+    final RCTransferCopyFunctionType copier)
+    throws Exception
+  {
+    final var r =
+      this.await(
+        this.transfers.transfer(
+          RCTransferBufferStorage.builder()
+            .setName(name)
+            .setSize(size)
+            .setTargetQueue(RCDeviceQueueCategory.TRANSFER)
+            .setDataCopier(copier)
+            .build()
+        )
+      );
+    return this.device.registerResource(r);
+  }
+
+  private RCTransferDownloadType downloadImage(
+    final RCImageColorBasicUploadedType image)
+    throws Exception
+  {
+    final var r =
+      this.await(
+        this.transfers.transfer(
+          RCTransferImageColorBasicDownload.builder()
+            .setName("Download")
+            .setImage(image)
+            .setLayout(VK_IMAGE_LAYOUT_SHADER_READ_ONLY_OPTIMAL)
+            .setTargetQueue(RCDeviceQueueCategory.TRANSFER)
+            .build()
+        )
+      );
+    return this.device.registerResource(r);
   }
 }
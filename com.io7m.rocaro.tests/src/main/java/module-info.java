@@ -41,6 +41,7 @@ open module com.io7m.rocaro.tests
   requires com.io7m.jcoronado.vma;
   requires com.io7m.jtensors.core;
   requires com.io7m.junreachable.core;
+  requires com.io7m.lanark.core;
   requires com.io7m.percentpass.extension;
   requires net.jqwik.api;
   requires net.jqwik.engine;
@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla;
+
+import java.util.zip.Deflater;
+
+/**
+ * <p>The compression applied to entries in asset archives.</p>
+ *
+ * <p>Entries of at least {@code minimumSize} octets are compressed in
+ * independent chunks of {@code chunkSize} octets, so that the chunks of a
+ * single entry can be decompressed in parallel. Entries that do not shrink
+ * by at least one eighth are stored uncompressed.</p>
+ *
+ * @param level       The deflate compression level (in the range
+ *                    {@code [0, 9]}, or {@code -1} for the default level,
+ *                    where {@code 0} disables compression)
+ * @param chunkSize   The size of uncompressed chunks
+ * @param minimumSize The minimum size of entries that will be compressed
+ */
+
+public record RCAssetArchiveCompression(
+  int level,
+  int chunkSize,
+  long minimumSize)
+{
+  private static final RCAssetArchiveCompression NONE =
+    new RCAssetArchiveCompression(Deflater.NO_COMPRESSION, 1, 0L);
+
+  private static final RCAssetArchiveCompression DEFAULTS =
+    new RCAssetArchiveCompression(
+      Deflater.DEFAULT_COMPRESSION,
+      1 << 20,
+      4096L
+    );
+
+  /**
+   * <p>The compression applied to entries in asset archives.</p>
+   *
+   * @param level       The deflate compression level (in the range
+   *                    {@code [0, 9]}, or {@code -1} for the default level,
+   *                    where {@code 0} disables compression)
+   * @param chunkSize   The size of uncompressed chunks
+   * @param minimumSize The minimum size of entries that will be compressed
+   */
+
+  public RCAssetArchiveCompression
+  {
+    if (level != Deflater.DEFAULT_COMPRESSION && (level < 0 || level > 9)) {
+      throw new IllegalArgumentException(
+        "Compression level %d must be in the range [0, 9]."
+          .formatted(Integer.valueOf(level))
+      );
+    }
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException(
+        "Chunk size %d must be positive."
+          .formatted(Integer.valueOf(chunkSize))
+      );
+    }
+    if (minimumSize < 0L) {
+      throw new IllegalArgumentException(
+        "Minimum size %d must be non-negative."
+          .formatted(Long.valueOf(minimumSize))
+      );
+    }
+  }
+
+  /**
+   * @return A configuration that stores every entry uncompressed
+   */
+
+  public static RCAssetArchiveCompression none()
+  {
+    return NONE;
+  }
+
+  /**
+   * @return A configuration that compresses entries of at least 4KiB in
+   * chunks of 1MiB at the default compression level
+   */
+
+  public static RCAssetArchiveCompression defaults()
+  {
+    return DEFAULTS;
+  }
+
+  /**
+   * @return {@code true} if compression is enabled
+   */
+
+  public boolean isEnabled()
+  {
+    return this.level != Deflater.NO_COMPRESSION;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla;
+
+import com.io7m.rocaro.api.assets.RCAssetException;
+import com.io7m.rocaro.api.assets.RCAssetIdentifier;
+import com.io7m.rocaro.api.assets.RCAssetResolverBuilderType;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveWriter;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * <p>Functions to produce asset archives.</p>
+ *
+ * <p>An archive packs the assets beneath a base directory (with the layout
+ * expected of directories given to
+ * {@link RCAssetResolverBuilderType#addBaseDirectory(Path)}) into a single
+ * file that can be given to
+ * {@link RCAssetResolverBuilderType#addArchive(Path)}.</p>
+ */
+
+public final class RCAssetArchives
+{
+  private RCAssetArchives()
+  {
+
+  }
+
+  /**
+   * Pack the assets beneath a base directory into an archive, replacing
+   * the output file if it exists. Entries are stored uncompressed.
+   *
+   * @param locale        The locale for error messages
+   * @param baseDirectory The base directory
+   * @param outputFile    The output archive
+   *
+   * @return The identifiers of the packed assets
+   *
+   * @throws RCAssetException On errors
+   */
+
+  public static List<RCAssetIdentifier> pack(
+    final Locale locale,
+    final Path baseDirectory,
+    final Path outputFile)
+    throws RCAssetException
+  {
+    return pack(
+      locale,
+      baseDirectory,
+      outputFile,
+      RCAssetArchiveCompression.none()
+    );
+  }
+
+  /**
+   * Pack the assets beneath a base directory into an archive, replacing
+   * the output file if it exists.
+   *
+   * @param locale        The locale for error messages
+   * @param baseDirectory The base directory
+   * @param outputFile    The output archive
+   * @param compression   The compression applied to entries
+   *
+   * @return The identifiers of the packed assets
+   *
+   * @throws RCAssetException On errors
+   */
+
+  public static List<RCAssetIdentifier> pack(
+    final Locale locale,
+    final Path baseDirectory,
+    final Path outputFile,
+    final RCAssetArchiveCompression compression)
+    throws RCAssetException
+  {
+    Objects.requireNonNull(locale, "locale");
+    Objects.requireNonNull(baseDirectory, "baseDirectory");
+    Objects.requireNonNull(outputFile, "outputFile");
+    Objects.requireNonNull(compression, "compression");
+
+    return RCAssetArchiveWriter.pack(
+      new RCStrings(locale),
+      baseDirectory,
+      outputFile,
+      compression
+    );
+  }
+}
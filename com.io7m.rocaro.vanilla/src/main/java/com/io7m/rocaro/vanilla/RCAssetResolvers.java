@@ -21,6 +21,7 @@ import com.io7m.lanark.core.RDottedName;
 import com.io7m.rocaro.api.assets.RCAssetResolverBuilderType;
 import com.io7m.rocaro.api.assets.RCAssetResolverType;
 import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.assets.RCAssetResolverArchive;
 import com.io7m.rocaro.vanilla.internal.assets.RCAssetResolverComposite;
 import com.io7m.rocaro.vanilla.internal.assets.RCAssetResolverFS;
 import com.io7m.rocaro.vanilla.internal.assets.RCAssetResolverModulePath;
@@ -80,6 +81,16 @@ public final class RCAssetResolvers
       return this;
     }
 
+    @Override
+    public RCAssetResolverBuilderType addArchive(
+      final Path file)
+    {
+      Objects.requireNonNull(file, "file");
+
+      this.resolvers.add(new RCAssetResolverArchive(this.strings, file));
+      return this;
+    }
+
     @Override
     public RCAssetResolverType build()
     {
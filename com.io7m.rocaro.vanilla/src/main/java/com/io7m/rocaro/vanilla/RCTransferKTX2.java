@@ -0,0 +1,204 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla;
+
+import com.io7m.jcoronado.api.VulkanFormat;
+import com.io7m.jcoronado.api.VulkanImageLayout;
+import com.io7m.jtensors.core.unparameterized.vectors.Vector2I;
+import com.io7m.rocaro.api.assets.RCAssetResolvedType;
+import com.io7m.rocaro.api.devices.RCDeviceQueueCategory;
+import com.io7m.rocaro.api.images.RCImageCompressedFormats;
+import com.io7m.rocaro.api.transfers.RCTransferException;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorCompressed;
+import com.io7m.rocaro.api.transfers.RCTransferImageLevel;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.images.RCKTX2File;
+import com.io7m.rocaro.vanilla.internal.images.RCKTX2Parser;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.io7m.rocaro.api.RCStandardErrorCodes.TRANSFER_CONTAINER_INVALID;
+import static com.io7m.rocaro.api.RCStandardErrorCodes.TRANSFER_CONTAINER_UNSUPPORTED;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ERROR_TRANSFER_CONTAINER_INVALID;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ERROR_TRANSFER_CONTAINER_UNSUPPORTED;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.REASON;
+
+/**
+ * <p>Functions to produce transfer operations from KTX2 files.</p>
+ *
+ * <p>The level data is copied directly from the resolved asset into
+ * staging memory, and so the asset must remain open until the transfer
+ * operation has completed.</p>
+ */
+
+public final class RCTransferKTX2
+{
+  private RCTransferKTX2()
+  {
+
+  }
+
+  /**
+   * Produce a transfer operation for a compressed 2D image (or 2D image
+   * array) stored in a KTX2 file. Supercompressed files, cube maps, and
+   * 3D images are not supported.
+   *
+   * @param locale      The locale for error messages
+   * @param name        The image name
+   * @param asset       The resolved asset containing the KTX2 file
+   * @param finalLayout The final image layout
+   * @param targetQueue The queue that will own the image
+   *
+   * @return A transfer operation
+   *
+   * @throws RCTransferException If the file is malformed or unsupported
+   */
+
+  public static RCTransferImageColorCompressed compressedImage(
+    final Locale locale,
+    final String name,
+    final RCAssetResolvedType asset,
+    final VulkanImageLayout finalLayout,
+    final RCDeviceQueueCategory targetQueue)
+    throws RCTransferException
+  {
+    Objects.requireNonNull(locale, "locale");
+    Objects.requireNonNull(name, "name");
+    Objects.requireNonNull(asset, "asset");
+    Objects.requireNonNull(finalLayout, "finalLayout");
+    Objects.requireNonNull(targetQueue, "targetQueue");
+
+    final var strings =
+      new RCStrings(locale);
+    final var data =
+      asset.data();
+    final var file =
+      RCKTX2Parser.parse(strings, data);
+
+    if (file.supercompression() != 0) {
+      throw unsupported(
+        strings,
+        "Supercompression scheme %d is not supported."
+          .formatted(Integer.valueOf(file.supercompression()))
+      );
+    }
+    if (file.faces() != 1) {
+      throw unsupported(strings, "Cube maps are not supported.");
+    }
+    if (file.depth() > 1 || file.height() == 0) {
+      throw unsupported(strings, "Only 2D images are supported.");
+    }
+
+    final var format =
+      findFormat(strings, file);
+    final var block =
+      RCImageCompressedFormats.blockOf(format)
+        .orElseThrow(() -> unsupported(
+          strings,
+          "Format %s is not a supported compressed format.".formatted(format)
+        ));
+
+    final var layers =
+      Math.max(1, file.layers());
+    final var builder =
+      RCTransferImageColorCompressed.builder()
+        .setName(name)
+        .setSize(Vector2I.of(file.width(), file.height()))
+        .setFormat(format)
+        .setLayers(layers)
+        .setFinalLayout(finalLayout)
+        .setTargetQueue(targetQueue);
+
+    final var levels = file.levels();
+    for (int level = 0; level < levels.size(); ++level) {
+      final var entry =
+        levels.get(level);
+      final var width =
+        Math.max(1, file.width() >>> level);
+      final var height =
+        Math.max(1, file.height() >>> level);
+      final var expected =
+        block.areaOctets(width, height) * layers;
+
+      if (entry.length() != expected) {
+        throw invalid(
+          strings,
+          "Level %d has length %d but %d was expected."
+            .formatted(
+              Integer.valueOf(level),
+              Long.valueOf(entry.length()),
+              Long.valueOf(expected))
+        );
+      }
+
+      final var offset = entry.offset();
+      builder.addLevels(
+        new RCTransferImageLevel(
+          level,
+          target -> MemorySegment.copy(data, offset, target, 0L, expected)
+        )
+      );
+    }
+
+    return builder.build();
+  }
+
+  private static VulkanFormat findFormat(
+    final RCStrings strings,
+    final RCKTX2File file)
+    throws RCTransferException
+  {
+    for (final var format : VulkanFormat.values()) {
+      if (format.value() == file.vkFormat()) {
+        return format;
+      }
+    }
+    throw unsupported(
+      strings,
+      "Unrecognized Vulkan format %d.".formatted(Integer.valueOf(file.vkFormat()))
+    );
+  }
+
+  private static RCTransferException invalid(
+    final RCStrings strings,
+    final String reason)
+  {
+    return new RCTransferException(
+      strings.format(ERROR_TRANSFER_CONTAINER_INVALID),
+      Map.of(strings.format(REASON), reason),
+      TRANSFER_CONTAINER_INVALID.codeName(),
+      Optional.empty()
+    );
+  }
+
+  private static RCTransferException unsupported(
+    final RCStrings strings,
+    final String reason)
+  {
+    return new RCTransferException(
+      strings.format(ERROR_TRANSFER_CONTAINER_UNSUPPORTED),
+      Map.of(strings.format(REASON), reason),
+      TRANSFER_CONTAINER_UNSUPPORTED.codeName(),
+      Optional.empty()
+    );
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.rocaro.vanilla.internal;
+
+import com.io7m.rocaro.api.RCCloseableType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A reference-counted holder for a resource. The holder starts with a
+ * single reference, each call to {@link #acquire()} adds a reference, and
+ * each call to {@link #close()} removes one. The resource is closed when
+ * the last reference is removed.</p>
+ *
+ * <p>Closing a holder that has already been released has no effect.</p>
+ */
+
+public final class RCResourceReference
+  extends RCObject
+  implements RCCloseableType
+{
+  private final RCCloseableType resource;
+  private final AtomicInteger references;
+
+  private RCResourceReference(
+    final RCCloseableType inResource)
+  {
+    this.resource =
+      Objects.requireNonNull(inResource, "resource");
+    this.references =
+      new AtomicInteger(1);
+  }
+
+  /**
+   * Create a holder with a single reference.
+   *
+   * @param resource The resource
+   *
+   * @return The holder
+   */
+
+  public static RCResourceReference create(
+    final RCCloseableType resource)
+  {
+    return new RCResourceReference(resource);
+  }
+
+  /**
+   * Add a reference.
+   *
+   * @throws IllegalStateException If the resource has already been released
+   */
+
+  public void acquire()
+    throws IllegalStateException
+  {
+    while (true) {
+      final var count = this.references.get();
+      if (count <= 0) {
+        throw new IllegalStateException("Resource has been released.");
+      }
+      if (this.references.compareAndSet(count, count + 1)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * @return The number of references
+   */
+
+  public int references()
+  {
+    return Math.max(0, this.references.get());
+  }
+
+  /**
+   * @return {@code true} if the last reference has been removed
+   */
+
+  public boolean isReleased()
+  {
+    return this.references.get() <= 0;
+  }
+
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    while (true) {
+      final var count = this.references.get();
+      if (count <= 0) {
+        return;
+      }
+      if (this.references.compareAndSet(count, count - 1)) {
+        if (count == 1) {
+          this.resource.close();
+        }
+        return;
+      }
+    }
+  }
+}
@@ -61,8 +61,6 @@ import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanRendererType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.Duration;
-import java.time.temporal.ChronoUnit;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
@@ -332,7 +330,12 @@ public final class RendererBuilder
         executors,
         resources,
         RCTransferServiceType.class,
-        () -> RCTransferService.create(services)
+        () -> {
+          return RCTransferService.create(
+            services,
+            this.vulkanConfiguration.transferConfiguration()
+          );
+        }
       );
 
       createService(
@@ -343,13 +346,18 @@ public final class RendererBuilder
         RCAssetServiceType.class,
         () -> {
           return RCAssetService.create(
-            services, Duration.of(16L, ChronoUnit.MILLIS)
+            services,
+            this.vulkanConfiguration.assetConfiguration()
           );
         }
       );
 
       final var instantiatedGraphs =
-        this.instantiateGraphs(exceptions, builtGraphDescriptions);
+        this.instantiateGraphs(
+          exceptions,
+          services.requireService(RCAssetServiceType.class),
+          builtGraphDescriptions
+        );
 
       exceptions.throwIfNecessary();
 
@@ -409,11 +417,12 @@ public final class RendererBuilder
 
   private TreeMap<RCGraphName, RCGraph> instantiateGraphs(
     final ExceptionTracker<RocaroException> tracker,
+    final RCAssetServiceType assets,
     final TreeMap<RCGraphName, RCGraphDescription> descriptions)
   {
     final var builtGraphs = new TreeMap<RCGraphName, RCGraph>();
     for (final var description : descriptions.values()) {
-      builtGraphs.put(description.name(), description.instantiate());
+      builtGraphs.put(description.name(), description.instantiate(assets));
     }
     return builtGraphs;
   }
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Objects;
+
+/**
+ * An entry in an asset archive.
+ *
+ * @param stored      The stored (possibly compressed) data
+ * @param size        The size of the asset
+ * @param compression The compression method
+ * @param chunkSize   The size of uncompressed chunks
+ *
+ * @see RCAssetArchiveFormat
+ */
+
+record RCAssetArchiveEntry(
+  MemorySegment stored,
+  long size,
+  int compression,
+  int chunkSize)
+{
+  /**
+   * An entry in an asset archive.
+   *
+   * @param stored      The stored (possibly compressed) data
+   * @param size        The size of the asset
+   * @param compression The compression method
+   * @param chunkSize   The size of uncompressed chunks
+   */
+
+  RCAssetArchiveEntry
+  {
+    Objects.requireNonNull(stored, "stored");
+  }
+
+  /**
+   * @return {@code true} if the entry is compressed
+   */
+
+  boolean isCompressed()
+  {
+    return this.compression != RCAssetArchiveFormat.COMPRESSION_NONE;
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+import com.io7m.lanark.core.RDottedName;
+import com.io7m.rocaro.api.assets.RCAssetException;
+import com.io7m.rocaro.api.assets.RCAssetIdentifier;
+import com.io7m.rocaro.api.assets.RCAssetPath;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.io7m.rocaro.api.RCStandardErrorCodes.ASSET_ARCHIVE_INVALID;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ERROR_ASSET_ARCHIVE_INVALID;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.FILE;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.REASON;
+
+/**
+ * <p>The layout of asset archives.</p>
+ *
+ * <p>An archive is a single file containing the contents of any number of
+ * assets, followed by an index. All integers are little-endian.</p>
+ *
+ * <ul>
+ *   <li>A 32 octet header: the magic number {@code 0x52434152}
+ *   ({@code "RCAR"}) as a u32, the version as a u32, the offset of the index
+ *   as a u64, the size of the index as a u64, the number of entries as a
+ *   u32, and four reserved octets.</li>
+ *   <li>The stored data of each asset, each starting at an offset that is
+ *   a multiple of {@link #DATA_ALIGNMENT}.</li>
+ *   <li>The index, consisting of one record per asset, ordered by asset
+ *   identifier: the offset of the stored data as a u64, the size of the
+ *   stored data as a u64, the size of the asset as a u64, the compression
+ *   method as a u32, the chunk size as a u32, the length of the identifier
+ *   as a u32, and the identifier encoded as UTF-8, padded with zeroes to a
+ *   multiple of eight octets.</li>
+ * </ul>
+ *
+ * <p>Uncompressed ({@link #COMPRESSION_NONE}) assets are stored as-is, and
+ * have a chunk size of zero.</p>
+ *
+ * <p>Compressed ({@link #COMPRESSION_DEFLATE}) assets are divided into
+ * chunks of the chunk size (the last chunk may be shorter), and each chunk
+ * is compressed as an independent zlib stream (which carries a checksum of
+ * the uncompressed chunk). The stored data is a table holding the
+ * compressed size of each chunk as a u32, followed by the compressed chunks
+ * in order.</p>
+ */
+
+final class RCAssetArchiveFormat
+{
+  static final int MAGIC = 0x52434152;
+  static final int VERSION = 2;
+  static final long HEADER_SIZE = 32L;
+  static final long DATA_ALIGNMENT = 16L;
+  static final long INDEX_RECORD_SIZE = 36L;
+  static final int COMPRESSION_NONE = 0;
+  static final int COMPRESSION_DEFLATE = 1;
+
+  static final ValueLayout.OfInt U32 =
+    ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+  static final ValueLayout.OfLong U64 =
+    ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+  private RCAssetArchiveFormat()
+  {
+
+  }
+
+  static long align(
+    final long offset,
+    final long alignment)
+  {
+    return (offset + (alignment - 1L)) & -alignment;
+  }
+
+  static long chunkCount(
+    final long size,
+    final int chunkSize)
+  {
+    return (size + (chunkSize - 1L)) / chunkSize;
+  }
+
+  static String nameOf(
+    final RCAssetIdentifier identifier)
+  {
+    return "%s:%s".formatted(
+      identifier.packageName().value(),
+      identifier.path()
+    );
+  }
+
+  static RCAssetIdentifier identifierOf(
+    final String name)
+  {
+    final var colon = name.indexOf(':');
+    if (colon < 0) {
+      throw new IllegalArgumentException(
+        "Identifier '%s' is missing a package name.".formatted(name)
+      );
+    }
+    return new RCAssetIdentifier(
+      new RDottedName(name.substring(0, colon)),
+      RCAssetPath.parse(name.substring(colon + 1))
+    );
+  }
+
+  static RCAssetException invalid(
+    final RCStrings strings,
+    final Path file,
+    final String reason)
+  {
+    return new RCAssetException(
+      strings.format(ERROR_ASSET_ARCHIVE_INVALID),
+      Map.ofEntries(
+        Map.entry(strings.format(FILE), file.toString()),
+        Map.entry(strings.format(REASON), reason)
+      ),
+      ASSET_ARCHIVE_INVALID.codeName(),
+      Optional.empty()
+    );
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+import com.io7m.rocaro.api.assets.RCAssetException;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.U32;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.chunkCount;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.invalid;
+
+/**
+ * <p>Decompression of compressed archive entries.</p>
+ *
+ * <p>Each chunk is an independent deflate stream that decompresses to a
+ * known offset within the asset, and so chunks are decompressed in
+ * parallel, each directly from the archive mapping into the destination
+ * memory. No intermediate buffers are used.</p>
+ */
+
+final class RCAssetArchiveInflater
+{
+  private RCAssetArchiveInflater()
+  {
+
+  }
+
+  /**
+   * Decompress an entry into memory allocated from the given arena.
+   *
+   * @param strings  The string resources
+   * @param file     The archive file, for error messages
+   * @param name     The entry name, for error messages
+   * @param entry    The entry
+   * @param arena    The arena from which to allocate the asset
+   * @param executor The executor used to decompress chunks
+   *
+   * @return The decompressed asset
+   *
+   * @throws RCAssetException If the entry is malformed
+   */
+
+  static MemorySegment inflate(
+    final RCStrings strings,
+    final Path file,
+    final String name,
+    final RCAssetArchiveEntry entry,
+    final Arena arena,
+    final Executor executor)
+    throws RCAssetException
+  {
+    Objects.requireNonNull(strings, "strings");
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(name, "name");
+    Objects.requireNonNull(entry, "entry");
+    Objects.requireNonNull(arena, "arena");
+    Objects.requireNonNull(executor, "executor");
+
+    final var stored =
+      entry.stored();
+    final var size =
+      entry.size();
+    final var chunkSize =
+      entry.chunkSize();
+    final var chunks =
+      chunkCount(size, chunkSize);
+    final var target =
+      arena.allocate(size, RCAssetArchiveFormat.DATA_ALIGNMENT);
+
+    /*
+     * Locate every chunk before starting any work, so that a malformed
+     * chunk table is rejected without decompressing anything.
+     */
+
+    final var sources = new ArrayList<MemorySegment>();
+    var position = chunks * 4L;
+    for (long chunk = 0L; chunk < chunks; ++chunk) {
+      final var length =
+        Integer.toUnsignedLong(stored.get(U32, chunk * 4L));
+      if (length > stored.byteSize() - position) {
+        throw invalid(
+          strings,
+          file,
+          "The chunk table of %s lies outside the entry.".formatted(name)
+        );
+      }
+      sources.add(stored.asSlice(position, length));
+      position += length;
+    }
+    if (position != stored.byteSize()) {
+      throw invalid(
+        strings,
+        file,
+        "The chunks of %s do not fill the entry.".formatted(name)
+      );
+    }
+
+    final var destinations = new ArrayList<MemorySegment>();
+    for (long chunk = 0L; chunk < chunks; ++chunk) {
+      final var offset = chunk * chunkSize;
+      destinations.add(
+        target.asSlice(offset, Math.min(chunkSize, size - offset))
+      );
+    }
+
+    if (chunks == 1L) {
+      inflateChunk(
+        strings,
+        file,
+        name,
+        sources.getFirst(),
+        destinations.getFirst()
+      );
+      return target;
+    }
+
+    final var futures = new CompletableFuture<?>[sources.size()];
+    for (int index = 0; index < futures.length; ++index) {
+      final var source = sources.get(index);
+      final var destination = destinations.get(index);
+      futures[index] = CompletableFuture.runAsync(() -> {
+        try {
+          inflateChunk(strings, file, name, source, destination);
+        } catch (final RCAssetException e) {
+          throw new CompletionException(e);
+        }
+      }, executor);
+    }
+
+    try {
+      CompletableFuture.allOf(futures).join();
+    } catch (final CompletionException e) {
+      if (e.getCause() instanceof final RCAssetException x) {
+        throw x;
+      }
+      throw e;
+    }
+    return target;
+  }
+
+  private static void inflateChunk(
+    final RCStrings strings,
+    final Path file,
+    final String name,
+    final MemorySegment source,
+    final MemorySegment destination)
+    throws RCAssetException
+  {
+    final var inflater = new Inflater();
+    try {
+      final var output = destination.asByteBuffer();
+      inflater.setInput(source.asByteBuffer());
+
+      while (output.hasRemaining() && !inflater.finished()) {
+        if (inflater.inflate(output) == 0
+            && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+      }
+
+      if (output.hasRemaining() || !inflater.finished()) {
+        throw invalid(
+          strings,
+          file,
+          "A chunk of %s does not decompress to the expected size."
+            .formatted(name)
+        );
+      }
+    } catch (final DataFormatException e) {
+      throw invalid(
+        strings,
+        file,
+        "A chunk of %s is corrupt: %s".formatted(
+          name,
+          Objects.requireNonNullElse(e.getMessage(), e.getClass().getName())
+        )
+      );
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+import com.io7m.rocaro.api.assets.RCAssetException;
+import com.io7m.rocaro.api.assets.RCAssetIdentifier;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.COMPRESSION_DEFLATE;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.COMPRESSION_NONE;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.DATA_ALIGNMENT;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.HEADER_SIZE;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.INDEX_RECORD_SIZE;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.MAGIC;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.U32;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.U64;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.VERSION;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.align;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.chunkCount;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.identifierOf;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.invalid;
+
+/**
+ * <p>A parser for the index of asset archives.</p>
+ *
+ * <p>The parser reads directly from a (typically memory-mapped) segment,
+ * and the index it produces refers to slices of that segment. No asset
+ * data is copied, and compressed data is not examined.</p>
+ *
+ * @see RCAssetArchiveFormat
+ */
+
+final class RCAssetArchiveParser
+{
+  private RCAssetArchiveParser()
+  {
+
+  }
+
+  /**
+   * Parse the index of an archive.
+   *
+   * @param strings The string resources
+   * @param file    The archive file, for error messages
+   * @param data    The archive data
+   *
+   * @return The entry for each asset in the archive
+   *
+   * @throws RCAssetException If the archive is malformed
+   */
+
+  static Map<RCAssetIdentifier, RCAssetArchiveEntry> parse(
+    final RCStrings strings,
+    final Path file,
+    final MemorySegment data)
+    throws RCAssetException
+  {
+    Objects.requireNonNull(strings, "strings");
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(data, "data");
+
+    if (data.byteSize() < HEADER_SIZE) {
+      throw invalid(strings, file, "File is too short to contain a header.");
+    }
+    if (data.get(U32, 0L) != MAGIC) {
+      throw invalid(strings, file, "File magic number is incorrect.");
+    }
+
+    final var version = data.get(U32, 4L);
+    if (version != VERSION) {
+      throw invalid(
+        strings,
+        file,
+        "Unsupported version %d (expected %d)."
+          .formatted(Integer.valueOf(version), Integer.valueOf(VERSION))
+      );
+    }
+
+    final var indexOffset =
+      data.get(U64, 8L);
+    final var indexSize =
+      data.get(U64, 16L);
+    final var entryCount =
+      data.get(U32, 24L);
+
+    if (indexOffset < HEADER_SIZE
+        || indexSize < 0L
+        || indexOffset > data.byteSize() - indexSize) {
+      throw invalid(strings, file, "The index lies outside the file.");
+    }
+    if (entryCount < 0 || entryCount > indexSize / INDEX_RECORD_SIZE) {
+      throw invalid(strings, file, "The entry count is out of range.");
+    }
+
+    final var entries =
+      HashMap.<RCAssetIdentifier, RCAssetArchiveEntry>newHashMap(entryCount);
+    final var indexEnd =
+      indexOffset + indexSize;
+
+    var position = indexOffset;
+    for (int index = 0; index < entryCount; ++index) {
+      if (indexEnd - position < INDEX_RECORD_SIZE) {
+        throw invalid(strings, file, "The index is truncated.");
+      }
+
+      final var offset =
+        data.get(U64, position);
+      final var storedSize =
+        data.get(U64, position + 8L);
+      final var size =
+        data.get(U64, position + 16L);
+      final var compression =
+        data.get(U32, position + 24L);
+      final var chunkSize =
+        data.get(U32, position + 28L);
+      final var nameLength =
+        data.get(U32, position + 32L);
+
+      position += INDEX_RECORD_SIZE;
+      if (nameLength <= 0 || nameLength > indexEnd - position) {
+        throw invalid(strings, file, "The index is truncated.");
+      }
+
+      final var name =
+        decodeName(strings, file, data.asSlice(position, nameLength));
+      position = align(position + nameLength, 8L);
+
+      if (offset < HEADER_SIZE
+          || offset % DATA_ALIGNMENT != 0L
+          || storedSize < 0L
+          || offset > indexOffset - storedSize) {
+        throw invalid(
+          strings,
+          file,
+          "The data of %s lies outside the data section.".formatted(name)
+        );
+      }
+
+      final RCAssetIdentifier identifier;
+      try {
+        identifier = identifierOf(name);
+      } catch (final IllegalArgumentException e) {
+        throw invalid(strings, file, e.getMessage());
+      }
+
+      checkCompression(
+        strings, file, name, storedSize, size, compression, chunkSize);
+
+      final var existing =
+        entries.put(
+          identifier,
+          new RCAssetArchiveEntry(
+            data.asSlice(offset, storedSize).asReadOnly(),
+            size,
+            compression,
+            chunkSize
+          )
+        );
+
+      if (existing != null) {
+        throw invalid(
+          strings,
+          file,
+          "The index contains %s more than once.".formatted(name)
+        );
+      }
+    }
+
+    return Map.copyOf(entries);
+  }
+
+  private static void checkCompression(
+    final RCStrings strings,
+    final Path file,
+    final String name,
+    final long storedSize,
+    final long size,
+    final int compression,
+    final int chunkSize)
+    throws RCAssetException
+  {
+    switch (compression) {
+      case COMPRESSION_NONE -> {
+        if (storedSize != size || chunkSize != 0) {
+          throw invalid(
+            strings,
+            file,
+            "The uncompressed entry %s has inconsistent sizes."
+              .formatted(name)
+          );
+        }
+      }
+      case COMPRESSION_DEFLATE -> {
+        if (size < 0L
+            || chunkSize <= 0
+            || chunkCount(size, chunkSize) * 4L > storedSize) {
+          throw invalid(
+            strings,
+            file,
+            "The compressed entry %s has inconsistent sizes."
+              .formatted(name)
+          );
+        }
+      }
+      default -> {
+        throw invalid(
+          strings,
+          file,
+          "The entry %s uses unsupported compression method %d."
+            .formatted(name, Integer.valueOf(compression))
+        );
+      }
+    }
+  }
+
+  private static String decodeName(
+    final RCStrings strings,
+    final Path file,
+    final MemorySegment name)
+    throws RCAssetException
+  {
+    try {
+      return StandardCharsets.UTF_8.newDecoder()
+        .decode(name.asByteBuffer())
+        .toString();
+    } catch (final CharacterCodingException e) {
+      throw invalid(strings, file, "An identifier is not valid UTF-8.");
+    }
+  }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+import com.io7m.lanark.core.RDottedName;
+import com.io7m.rocaro.api.RCStandardErrorCodes;
+import com.io7m.rocaro.api.assets.RCAssetException;
+import com.io7m.rocaro.api.assets.RCAssetIdentifier;
+import com.io7m.rocaro.api.assets.RCAssetPath;
+import com.io7m.rocaro.vanilla.RCAssetArchiveCompression;
+import com.io7m.rocaro.vanilla.internal.RCStringConstants;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.COMPRESSION_DEFLATE;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.COMPRESSION_NONE;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.DATA_ALIGNMENT;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.HEADER_SIZE;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.INDEX_RECORD_SIZE;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.MAGIC;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.VERSION;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.align;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.chunkCount;
+import static com.io7m.rocaro.vanilla.internal.assets.RCAssetArchiveFormat.nameOf;
+
+/**
+ * <p>A writer that packs the assets beneath a base directory into an
+ * archive.</p>
+ *
+ * <p>The base directory has the same layout as that used by
+ * {@link RCAssetResolverFS}: each directory directly beneath it is named
+ * after a package, and each file beneath a package directory is an asset.
+ * Files that could not be resolved by {@link RCAssetResolverFS} (such as
+ * files with names that are not valid asset path elements) are skipped.</p>
+ *
+ * <p>Entries are compressed according to the given
+ * {@link RCAssetArchiveCompression}. Each entry is read once, and
+ * uncompressed entries are copied directly between files.</p>
+ *
+ * <p>The archive is written to a temporary file that atomically replaces
+ * the output file once complete.</p>
+ *
+ * @see RCAssetArchiveFormat
+ */
+
+public final class RCAssetArchiveWriter
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(RCAssetArchiveWriter.class);
+
+  private RCAssetArchiveWriter()
+  {
+
+  }
+
+  /**
+   * Pack the assets beneath a base directory into an archive.
+   *
+   * @param strings       The string resources
+   * @param baseDirectory The base directory
+   * @param outputFile    The output archive
+   * @param compression   The compression applied to entries
+   *
+   * @return The identifiers of the packed assets, in archive order
+   *
+   * @throws RCAssetException On errors
+   */
+
+  public static List<RCAssetIdentifier> pack(
+    final RCStrings strings,
+    final Path baseDirectory,
+    final Path outputFile,
+    final RCAssetArchiveCompression compression)
+    throws RCAssetException
+  {
+    Objects.requireNonNull(strings, "strings");
+    Objects.requireNonNull(baseDirectory, "baseDirectory");
+    Objects.requireNonNull(outputFile, "outputFile");
+    Objects.requireNonNull(compression, "compression");
+
+    final var files =
+      collect(strings, baseDirectory);
+    final var temporary =
+      outputFile.resolveSibling(outputFile.getFileName() + ".tmp");
+
+    try {
+      try (final var output = FileChannel.open(
+        temporary,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE)) {
+        write(output, files, compression);
+        output.force(true);
+      }
+      Files.move(
+        temporary,
+        outputFile,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE
+      );
+    } catch (final IOException e) {
+      try {
+        Files.deleteIfExists(temporary);
+      } catch (final IOException ex) {
+        e.addSuppressed(ex);
+      }
+      throw errorIO(strings, e, outputFile);
+    }
+
+    return List.copyOf(files.keySet());
+  }
+
+  private static TreeMap<RCAssetIdentifier, Path> collect(
+    final RCStrings strings,
+    final Path baseDirectory)
+    throws RCAssetException
+  {
+    final var files = new ArrayList<Path>();
+    try (final var stream = Files.walk(baseDirectory)) {
+      stream.filter(Files::isRegularFile).forEach(files::add);
+    } catch (final IOException e) {
+      throw errorIO(strings, e, baseDirectory);
+    }
+
+    final var results = new TreeMap<RCAssetIdentifier, Path>();
+    for (final var file : files) {
+      final var relative =
+        baseDirectory.relativize(file);
+      final var count =
+        relative.getNameCount();
+
+      if (count < 2) {
+        LOG.warn("Skipping {}: Not inside a package directory.", file);
+        continue;
+      }
+
+      final var path = new StringBuilder(64);
+      for (int index = 1; index < count; ++index) {
+        path.append('/');
+        path.append(relative.getName(index));
+      }
+
+      try {
+        results.put(
+          new RCAssetIdentifier(
+            new RDottedName(relative.getName(0).toString()),
+            RCAssetPath.parse(path.toString())
+          ),
+          file
+        );
+      } catch (final IllegalArgumentException e) {
+        LOG.warn("Skipping {}: {}", file, e.getMessage());
+      }
+    }
+    return results;
+  }
+
+  private static void write(
+    final FileChannel output,
+    final TreeMap<RCAssetIdentifier, Path> files,
+    final RCAssetArchiveCompression compression)
+    throws IOException
+  {
+    final var index =
+      new ArrayList<ByteBuffer>(files.size());
+
+    var position = HEADER_SIZE;
+    var indexSize = 0L;
+
+    for (final var entry : files.entrySet()) {
+      position = align(position, DATA_ALIGNMENT);
+
+      final var offset = position;
+      try (final var input =
+             FileChannel.open(entry.getValue(), StandardOpenOption.READ)) {
+        final var size =
+          input.size();
+        final var chunks =
+          compress(input, size, compression);
+
+        final long storedSize;
+        final int method;
+        final int chunkSize;
+        if (chunks.isPresent()) {
+          storedSize = writeChunks(output, offset, chunks.get());
+          method = COMPRESSION_DEFLATE;
+          chunkSize = compression.chunkSize();
+        } else {
+          storedSize = copy(output, offset, input, size, entry.getValue());
+          method = COMPRESSION_NONE;
+          chunkSize = 0;
+        }
+        position += storedSize;
+
+        final var name =
+          nameOf(entry.getKey()).getBytes(StandardCharsets.UTF_8);
+        final var recordSize =
+          align(INDEX_RECORD_SIZE + name.length, 8L);
+        final var record =
+          ByteBuffer.allocate(Math.toIntExact(recordSize))
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .putLong(offset)
+            .putLong(storedSize)
+            .putLong(size)
+            .putInt(method)
+            .putInt(chunkSize)
+            .putInt(name.length)
+            .put(name)
+            .position(0);
+
+        index.add(record);
+        indexSize += recordSize;
+      }
+    }
+
+    final var indexOffset = align(position, 8L);
+    output.position(indexOffset);
+    for (final var record : index) {
+      writeFully(output, record);
+    }
+
+    final var header =
+      ByteBuffer.allocate(Math.toIntExact(HEADER_SIZE))
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .putInt(MAGIC)
+        .putInt(VERSION)
+        .putLong(indexOffset)
+        .putLong(indexSize)
+        .putInt(files.size())
+        .putInt(0)
+        .flip();
+
+    output.position(0L);
+    writeFully(output, header);
+  }
+
+  private static long copy(
+    final FileChannel output,
+    final long offset,
+    final FileChannel input,
+    final long size,
+    final Path file)
+    throws IOException
+  {
+    var copied = 0L;
+    while (copied < size) {
+      final var transferred = output.transferFrom(
+        input.position(copied),
+        offset + copied,
+        size - copied
+      );
+      if (transferred <= 0L) {
+        throw new IOException(
+          "File %s was truncated while it was being packed.".formatted(file)
+        );
+      }
+      copied += transferred;
+    }
+    return size;
+  }
+
+  /**
+   * Compress a file in independent chunks. Nothing is returned if the file
+   * is too small to be worth compressing, or if compression does not save
+   * at least one eighth of the size of the file.
+   */
+
+  private static Optional<List<byte[]>> compress(
+    final FileChannel input,
+    final long size,
+    final RCAssetArchiveCompression compression)
+    throws IOException
+  {
+    if (!compression.isEnabled()
+        || size == 0L
+        || size < compression.minimumSize()) {
+      return Optional.empty();
+    }
+
+    final var chunkSize =
+      compression.chunkSize();
+    final var chunkCount =
+      chunkCount(size, chunkSize);
+    final var limit =
+      size - (size / 8L);
+
+    final var chunks = new ArrayList<byte[]>();
+    var storedSize = chunkCount * 4L;
+
+    try (final var arena = Arena.ofConfined()) {
+      final var data =
+        input.map(MapMode.READ_ONLY, 0L, size, arena);
+      final var deflater =
+        new Deflater(compression.level());
+
+      try {
+        final var buffer = new byte[64 * 1024];
+        for (long chunk = 0L; chunk < chunkCount; ++chunk) {
+          final var offset = chunk * chunkSize;
+          final var source =
+            data.asSlice(offset, Math.min(chunkSize, size - offset));
+
+          deflater.reset();
+          deflater.setInput(source.asByteBuffer());
+          deflater.finish();
+
+          final var compressed = new ByteArrayOutputStream();
+          while (!deflater.finished()) {
+            final var count = deflater.deflate(buffer);
+            compressed.write(buffer, 0, count);
+          }
+
+          storedSize += compressed.size();
+          if (storedSize > limit) {
+            return Optional.empty();
+          }
+          chunks.add(compressed.toByteArray());
+        }
+      } finally {
+        deflater.end();
+      }
+    }
+    return Optional.of(chunks);
+  }
+
+  private static long writeChunks(
+    final FileChannel output,
+    final long offset,
+    final List<byte[]> chunks)
+    throws IOException
+  {
+    final var table =
+      ByteBuffer.allocate(Math.multiplyExact(chunks.size(), 4))
+        .order(ByteOrder.LITTLE_ENDIAN);
+
+    for (final var chunk : chunks) {
+      table.putInt(chunk.length);
+    }
+
+    output.position(offset);
+    writeFully(output, table.flip());
+    for (final var chunk : chunks) {
+      writeFully(output, ByteBuffer.wrap(chunk));
+    }
+    return output.position() - offset;
+  }
+
+  private static void writeFully(
+    final FileChannel output,
+    final ByteBuffer buffer)
+    throws IOException
+  {
+    while (buffer.hasRemaining()) {
+      output.write(buffer);
+    }
+  }
+
+  private static RCAssetException errorIO(
+    final RCStrings strings,
+    final IOException e,
+    final Path filePath)
+  {
+    return new RCAssetException(
+      Objects.requireNonNullElse(e.getMessage(), e.getClass().getName()),
+      e,
+      Map.ofEntries(
+        Map.entry(
+          strings.format(RCStringConstants.FILE),
+          filePath.toString()
+        )
+      ),
+      RCStandardErrorCodes.IO.codeName(),
+      Optional.empty()
+    );
+  }
+}
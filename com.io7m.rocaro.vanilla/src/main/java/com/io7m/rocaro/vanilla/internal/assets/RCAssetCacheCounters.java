@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+// CHECKSTYLE:OFF
+
+@Label("Asset Cache")
+@Category("Rocaro.Assets")
+@Description("The counters of the asset cache.")
+@Period("1 s")
+@StackTrace(false)
+public final class RCAssetCacheCounters
+  extends Event
+  implements RCAssetEventType
+{
+  @Label("Hits")
+  public long hits;
+
+  @Label("Misses")
+  public long misses;
+
+  @Label("Evictions")
+  public long evictions;
+
+  @Label("Entries")
+  public int entries;
+
+  @Label("Unreferenced Entries")
+  public int unreferenced;
+
+  @Label("Host Octets")
+  public long hostOctets;
+
+  @Label("Device Octets")
+  public long deviceOctets;
+
+  public RCAssetCacheCounters()
+  {
+
+  }
+
+  public static RCAssetCacheCounters ofStatistics(
+    final RCAssetCacheStatistics statistics)
+  {
+    final var ev = new RCAssetCacheCounters();
+    ev.hits = statistics.hits();
+    ev.misses = statistics.misses();
+    ev.evictions = statistics.evictions();
+    ev.entries = statistics.entries();
+    ev.unreferenced = statistics.unreferenced();
+    ev.hostOctets = statistics.hostOctets();
+    ev.deviceOctets = statistics.deviceOctets();
+    return ev;
+  }
+}
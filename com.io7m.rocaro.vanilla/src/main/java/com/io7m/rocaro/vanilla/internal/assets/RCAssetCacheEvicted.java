@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+// CHECKSTYLE:OFF
+
+@Label("Asset Cache Eviction")
+@Category("Rocaro.Assets")
+@Description("An unreferenced asset was evicted from the asset cache.")
+@StackTrace(false)
+public final class RCAssetCacheEvicted
+  extends Event
+  implements RCAssetEventType
+{
+  @Label("Package")
+  public String packageName;
+
+  @Label("Path")
+  public String path;
+
+  @Label("AssetClass")
+  public String assetClass;
+
+  @Label("Host Octets")
+  public long hostOctets;
+
+  @Label("Device Octets")
+  public long deviceOctets;
+
+  public RCAssetCacheEvicted()
+  {
+
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+/**
+ * A snapshot of the counters maintained by the asset cache.
+ *
+ * @param hits               The number of opens that found an existing entry
+ * @param misses             The number of opens that created a new entry
+ * @param evictions          The number of unreferenced assets evicted
+ * @param entries            The number of open or cached assets
+ * @param unreferenced       The number of cached assets that are unreferenced
+ * @param hostOctets         The host memory held by loaded assets
+ * @param deviceOctets       The device memory held by loaded assets
+ * @param budgetHostOctets   The host memory budget
+ * @param budgetDeviceOctets The device memory budget
+ */
+
+public record RCAssetCacheStatistics(
+  long hits,
+  long misses,
+  long evictions,
+  int entries,
+  int unreferenced,
+  long hostOctets,
+  long deviceOctets,
+  long budgetHostOctets,
+  long budgetDeviceOctets)
+{
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+import com.io7m.rocaro.api.RCCloseableType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.assets.RCAssetCost;
+import com.io7m.rocaro.api.assets.RCAssetIdentifier;
+import com.io7m.rocaro.api.assets.RCAssetType;
+import com.io7m.rocaro.api.assets.RCAssetValueFailed;
+import com.io7m.rocaro.api.assets.RCAssetValueLoaded;
+import com.io7m.rocaro.api.assets.RCAssetValueLoading;
+import com.io7m.rocaro.api.assets.RCAssetValueType;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>The state of an asset shared by every reference to it.</p>
+ *
+ * <p>An entry owns the resources that back a loaded asset (typically the
+ * loader that created it). The owner is retired when the entry is released
+ * (when the entry is evicted from the cache, when the last reference is
+ * closed before the asset has loaded, or when the cache is closed), or
+ * immediately if the asset finishes loading after the entry has already
+ * been released.</p>
+ *
+ * <p>The value of a loaded asset may be replaced by reloading the asset,
+ * in which case the generation of the entry is incremented.</p>
+ *
+ * @param <A> The type of asset
+ */
+
+public final class RCAssetEntry<A extends RCAssetType>
+  extends RCObject
+{
+  private final RCAssetReferences references;
+  private final RCAssetIdentifier identifier;
+  private final Class<A> assetClass;
+  private final ReentrantLock lock;
+  private volatile RCAssetValueType<A> value;
+  private volatile long generation;
+  private RCCloseableType owner;
+  private boolean released;
+
+  RCAssetEntry(
+    final RCAssetReferences inReferences,
+    final RCAssetIdentifier inIdentifier,
+    final Class<A> inAssetClass)
+  {
+    this.references =
+      Objects.requireNonNull(inReferences, "references");
+    this.identifier =
+      Objects.requireNonNull(inIdentifier, "identifier");
+    this.assetClass =
+      Objects.requireNonNull(inAssetClass, "assetClass");
+    this.lock =
+      new ReentrantLock();
+    this.value =
+      new RCAssetValueLoading<>(0.0, Optional.empty());
+  }
+
+  /**
+   * @return The asset identifier
+   */
+
+  public RCAssetIdentifier identifier()
+  {
+    return this.identifier;
+  }
+
+  /**
+   * @return The asset class
+   */
+
+  public Class<A> assetClass()
+  {
+    return this.assetClass;
+  }
+
+  /**
+   * @return The current value of the asset
+   */
+
+  public RCAssetValueType<A> get()
+  {
+    return this.value;
+  }
+
+  /**
+   * @return The number of times the value of the asset has been replaced
+   */
+
+  public long generation()
+  {
+    return this.generation;
+  }
+
+  /**
+   * @return {@code true} if every reference to the entry has been closed
+   */
+
+  public boolean isReleased()
+  {
+    this.lock.lock();
+    try {
+      return this.released;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Set the loading progress of the asset.
+   *
+   * @param progress The progress in the range {@code [0, 1]}
+   */
+
+  public void setProgress(
+    final double progress)
+  {
+    this.lock.lock();
+    try {
+      if (this.value instanceof RCAssetValueLoading<A>) {
+        this.value = new RCAssetValueLoading<>(progress, Optional.empty());
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Mark the asset as loaded, and account for its cost in the cache. If the
+   * entry has already been released, the owner is retired immediately.
+   *
+   * @param asset      The asset
+   * @param cost       The memory cost of the asset
+   * @param assetOwner The resources that back the asset
+   *
+   * @throws RocaroException On errors retiring the owner or evicted assets
+   */
+
+  public void setLoaded(
+    final A asset,
+    final RCAssetCost cost,
+    final RCCloseableType assetOwner)
+    throws RocaroException
+  {
+    Objects.requireNonNull(asset, "asset");
+    Objects.requireNonNull(cost, "cost");
+    Objects.requireNonNull(assetOwner, "assetOwner");
+
+    this.references.loaded(this, asset, cost, assetOwner);
+  }
+
+  boolean storeLoaded(
+    final A asset,
+    final RCCloseableType assetOwner)
+  {
+    this.lock.lock();
+    try {
+      if (this.released) {
+        return false;
+      }
+      this.value = new RCAssetValueLoaded<>(asset);
+      this.owner = assetOwner;
+      return true;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Replace the value of a loaded asset with a newly loaded value, and
+   * account for the new cost in the cache. The resources that backed the
+   * previous value (or the new resources, if the entry has been released
+   * in the meantime) are returned, and must be closed by the caller once
+   * nothing can be using them.
+   *
+   * @param asset      The asset
+   * @param cost       The memory cost of the asset
+   * @param assetOwner The resources that back the asset
+   *
+   * @return The resources that must be retired
+   *
+   * @throws RocaroException On errors retiring evicted assets
+   */
+
+  public RCCloseableType setReloaded(
+    final A asset,
+    final RCAssetCost cost,
+    final RCCloseableType assetOwner)
+    throws RocaroException
+  {
+    Objects.requireNonNull(asset, "asset");
+    Objects.requireNonNull(cost, "cost");
+    Objects.requireNonNull(assetOwner, "assetOwner");
+
+    return this.references.reloaded(this, asset, cost, assetOwner);
+  }
+
+  RCCloseableType storeReloaded(
+    final A asset,
+    final RCCloseableType assetOwner)
+  {
+    this.lock.lock();
+    try {
+      if (this.released) {
+        return assetOwner;
+      }
+      final var previous = this.owner;
+      this.value = new RCAssetValueLoaded<>(asset);
+      this.owner = assetOwner;
+      this.generation += 1L;
+      return previous;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Mark the asset as failed.
+   *
+   * @param exception The failure
+   */
+
+  public void setFailed(
+    final RocaroException exception)
+  {
+    this.value = new RCAssetValueFailed<>(exception);
+  }
+
+  Optional<RCCloseableType> release()
+  {
+    this.lock.lock();
+    try {
+      this.released = true;
+      final var retiring = this.owner;
+      this.owner = null;
+      return Optional.ofNullable(retiring);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+}
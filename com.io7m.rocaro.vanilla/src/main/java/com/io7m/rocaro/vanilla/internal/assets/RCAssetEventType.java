@@ -21,9 +21,12 @@ package com.io7m.rocaro.vanilla.internal.assets;
  */
 
 public sealed interface RCAssetEventType
-  permits RCAssetControllerFailed,
+  permits RCAssetCacheCounters,
+  RCAssetCacheEvicted,
+  RCAssetControllerFailed,
   RCAssetLoadFailed,
-  RCAssetLoading
+  RCAssetLoading,
+  RCAssetReloading
 {
 
 }
@@ -0,0 +1,539 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+import com.io7m.rocaro.api.RCCloseableType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.assets.RCAssetCost;
+import com.io7m.rocaro.api.assets.RCAssetIdentifier;
+import com.io7m.rocaro.api.assets.RCAssetReferenceType;
+import com.io7m.rocaro.api.assets.RCAssetType;
+import com.io7m.rocaro.api.assets.RCAssetValueType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * <p>The set of open assets, and the cache of loaded assets.</p>
+ *
+ * <p>Assets are identified by their identifier and asset class. Opening an
+ * asset that is already open (or cached) returns a new reference to the
+ * existing {@link RCAssetEntry}, and so an asset is loaded once regardless
+ * of the number of references to it.</p>
+ *
+ * <p>The memory cost of every loaded asset is counted against a host and
+ * a device budget. When the last reference to a loaded asset is closed,
+ * the asset is retained in the cache. Whenever either budget is exceeded,
+ * unreferenced assets are evicted (and their entries released) in
+ * least-recently-used order until the totals fit or no unreferenced assets
+ * remain. Referenced assets are never evicted, and so the budgets may be
+ * exceeded by assets that are in use. The last reference to an asset that
+ * has not finished loading releases the entry immediately.</p>
+ *
+ * <p>Loaded assets may be reloaded, in which case the cost of the new
+ * value replaces the cost of the old value.</p>
+ *
+ * <p>The resources behind released entries are never closed directly;
+ * they are passed to an {@link RCAssetRetirementType}, because commands
+ * that have already been submitted may still use them.</p>
+ */
+
+public final class RCAssetReferences
+  extends RCObject
+  implements RCCloseableType
+{
+  private final ReentrantLock lock;
+  private final HashMap<Key, Shared<?>> entries;
+  private final LinkedHashMap<Key, Shared<?>> unreferenced;
+  private final long budgetHostOctets;
+  private final long budgetDeviceOctets;
+  private final RCAssetRetirementType retirement;
+  private long usedHostOctets;
+  private long usedDeviceOctets;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  private record Key(
+    RCAssetIdentifier identifier,
+    Class<?> assetClass)
+  {
+
+  }
+
+  private static final class Shared<A extends RCAssetType>
+  {
+    private final RCAssetEntry<A> entry;
+    private int references;
+    private RCAssetCost cost;
+
+    Shared(
+      final RCAssetEntry<A> inEntry)
+    {
+      this.entry =
+        Objects.requireNonNull(inEntry, "entry");
+    }
+  }
+
+  /**
+   * Create an empty set of assets.
+   *
+   * @param inBudgetHostOctets   The host memory budget
+   * @param inBudgetDeviceOctets The device memory budget
+   * @param inRetirement         The retirement of released resources
+   */
+
+  public RCAssetReferences(
+    final long inBudgetHostOctets,
+    final long inBudgetDeviceOctets,
+    final RCAssetRetirementType inRetirement)
+  {
+    this.retirement =
+      Objects.requireNonNull(inRetirement, "retirement");
+    this.budgetHostOctets =
+      inBudgetHostOctets;
+    this.budgetDeviceOctets =
+      inBudgetDeviceOctets;
+    this.lock =
+      new ReentrantLock();
+    this.entries =
+      new HashMap<>();
+    this.unreferenced =
+      new LinkedHashMap<>();
+  }
+
+  /**
+   * Open a reference to an asset. If the asset is not already open, a new
+   * entry is created and passed to {@code onCreate} (typically to start
+   * loading it).
+   *
+   * @param identifier The asset identifier
+   * @param assetClass The asset class
+   * @param onCreate   A function called with newly created entries
+   * @param <A>        The type of asset
+   *
+   * @return A new reference to the asset
+   */
+
+  @SuppressWarnings("unchecked")
+  public <A extends RCAssetType> RCAssetReferenceType<A> open(
+    final RCAssetIdentifier identifier,
+    final Class<A> assetClass,
+    final Consumer<RCAssetEntry<A>> onCreate)
+  {
+    Objects.requireNonNull(identifier, "identifier");
+    Objects.requireNonNull(assetClass, "assetClass");
+    Objects.requireNonNull(onCreate, "onCreate");
+
+    final var key = new Key(identifier, assetClass);
+    final Shared<A> shared;
+    final boolean created;
+
+    this.lock.lock();
+    try {
+      final var existing = (Shared<A>) this.entries.get(key);
+      if (existing == null) {
+        shared = new Shared<>(
+          new RCAssetEntry<>(this, identifier, assetClass)
+        );
+        this.entries.put(key, shared);
+        this.misses += 1L;
+        created = true;
+      } else {
+        shared = existing;
+        if (shared.references == 0) {
+          this.unreferenced.remove(key);
+        }
+        this.hits += 1L;
+        created = false;
+      }
+      shared.references += 1;
+    } finally {
+      this.lock.unlock();
+    }
+
+    if (created) {
+      onCreate.accept(shared.entry);
+    }
+    return new Reference<>(this, key, shared);
+  }
+
+  <A extends RCAssetType> void loaded(
+    final RCAssetEntry<A> entry,
+    final A asset,
+    final RCAssetCost cost,
+    final RCCloseableType owner)
+    throws RocaroException
+  {
+    final var key = new Key(entry.identifier(), entry.assetClass());
+    final List<Shared<?>> evicted;
+    final boolean stored;
+
+    this.lock.lock();
+    try {
+      final var shared = this.entries.get(key);
+      if (shared != null
+          && shared.entry == entry
+          && shared.references > 0
+          && entry.storeLoaded(asset, owner)) {
+        shared.cost = cost;
+        this.usedHostOctets += cost.hostOctets();
+        this.usedDeviceOctets += cost.deviceOctets();
+        evicted = this.evict();
+        stored = true;
+      } else {
+        evicted = List.of();
+        stored = false;
+      }
+    } finally {
+      this.lock.unlock();
+    }
+
+    final var owners = ownersOf(evicted);
+    if (!stored) {
+      owners.add(owner);
+    }
+    this.retire(owners);
+  }
+
+  <A extends RCAssetType> RCCloseableType reloaded(
+    final RCAssetEntry<A> entry,
+    final A asset,
+    final RCAssetCost cost,
+    final RCCloseableType owner)
+    throws RocaroException
+  {
+    final var key = new Key(entry.identifier(), entry.assetClass());
+    final List<Shared<?>> evicted;
+    final RCCloseableType retired;
+
+    this.lock.lock();
+    try {
+      final var shared = this.entries.get(key);
+      if (shared != null && shared.entry == entry && shared.cost != null) {
+        retired = entry.storeReloaded(asset, owner);
+        this.unaccount(shared);
+        shared.cost = cost;
+        this.usedHostOctets += cost.hostOctets();
+        this.usedDeviceOctets += cost.deviceOctets();
+        evicted = this.evict();
+      } else {
+        retired = owner;
+        evicted = List.of();
+      }
+    } finally {
+      this.lock.unlock();
+    }
+
+    this.release(evicted);
+    return retired;
+  }
+
+  /**
+   * Find the loaded entries for assets with the given identifier (of any
+   * asset class).
+   *
+   * @param identifier The asset identifier
+   *
+   * @return The loaded entries
+   */
+
+  public List<RCAssetEntry<?>> loadedEntries(
+    final RCAssetIdentifier identifier)
+  {
+    Objects.requireNonNull(identifier, "identifier");
+
+    this.lock.lock();
+    try {
+      final var results = new ArrayList<RCAssetEntry<?>>();
+      for (final var entry : this.entries.entrySet()) {
+        final var shared = entry.getValue();
+        if (entry.getKey().identifier().equals(identifier)
+            && shared.cost != null) {
+          results.add(shared.entry);
+        }
+      }
+      return List.copyOf(results);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Forget an entry, so that the next attempt to open the same asset
+   * creates a new entry. Existing references are unaffected. This is
+   * typically used for assets that have failed to load.
+   *
+   * @param entry The entry
+   *
+   * @throws RocaroException On errors releasing the entry
+   */
+
+  public void forget(
+    final RCAssetEntry<?> entry)
+    throws RocaroException
+  {
+    Objects.requireNonNull(entry, "entry");
+
+    final var key = new Key(entry.identifier(), entry.assetClass());
+    final List<Shared<?>> released;
+
+    this.lock.lock();
+    try {
+      final var existing = this.entries.get(key);
+      if (existing == null || existing.entry != entry) {
+        return;
+      }
+
+      this.entries.remove(key);
+      this.unaccount(existing);
+      if (existing.references == 0) {
+        this.unreferenced.remove(key);
+        released = List.of(existing);
+      } else {
+        released = List.of();
+      }
+    } finally {
+      this.lock.unlock();
+    }
+
+    this.release(released);
+  }
+
+  /**
+   * @return The number of distinct open or cached assets
+   */
+
+  public int size()
+  {
+    this.lock.lock();
+    try {
+      return this.entries.size();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * @return A snapshot of the cache counters
+   */
+
+  public RCAssetCacheStatistics statistics()
+  {
+    this.lock.lock();
+    try {
+      return new RCAssetCacheStatistics(
+        this.hits,
+        this.misses,
+        this.evictions,
+        this.entries.size(),
+        this.unreferenced.size(),
+        this.usedHostOctets,
+        this.usedDeviceOctets,
+        this.budgetHostOctets,
+        this.budgetDeviceOctets
+      );
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Release every asset, including assets that are still referenced.
+   *
+   * @throws RocaroException On errors
+   */
+
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    final List<Shared<?>> released;
+
+    this.lock.lock();
+    try {
+      released = new ArrayList<>(this.entries.values());
+      for (final var shared : released) {
+        this.unaccount(shared);
+      }
+      this.entries.clear();
+      this.unreferenced.clear();
+    } finally {
+      this.lock.unlock();
+    }
+
+    this.release(released);
+  }
+
+  private void closeReference(
+    final Key key,
+    final Shared<?> shared)
+    throws RocaroException
+  {
+    final List<Shared<?>> released;
+
+    this.lock.lock();
+    try {
+      shared.references -= 1;
+      if (shared.references > 0) {
+        return;
+      }
+
+      if (shared.cost != null && this.entries.get(key) == shared) {
+        this.unreferenced.put(key, shared);
+        released = this.evict();
+      } else {
+        this.entries.remove(key, shared);
+        released = List.of(shared);
+      }
+    } finally {
+      this.lock.unlock();
+    }
+
+    this.release(released);
+  }
+
+  private boolean overBudget()
+  {
+    return this.usedHostOctets > this.budgetHostOctets
+           || this.usedDeviceOctets > this.budgetDeviceOctets;
+  }
+
+  private List<Shared<?>> evict()
+  {
+    if (!this.overBudget() || this.unreferenced.isEmpty()) {
+      return List.of();
+    }
+
+    final var evicted = new ArrayList<Shared<?>>();
+    while (this.overBudget() && !this.unreferenced.isEmpty()) {
+      final var oldest = this.unreferenced.pollFirstEntry();
+      final var key = oldest.getKey();
+      final var shared = oldest.getValue();
+      this.entries.remove(key, shared);
+      this.unaccount(shared);
+      this.evictions += 1L;
+      evicted.add(shared);
+
+      final var ev = new RCAssetCacheEvicted();
+      if (ev.shouldCommit()) {
+        ev.packageName = key.identifier().packageName().value();
+        ev.path = key.identifier().path().toString();
+        ev.assetClass = key.assetClass().getName();
+        ev.hostOctets = shared.cost.hostOctets();
+        ev.deviceOctets = shared.cost.deviceOctets();
+        ev.commit();
+      }
+    }
+    return evicted;
+  }
+
+  private void unaccount(
+    final Shared<?> shared)
+  {
+    final var cost = shared.cost;
+    if (cost != null) {
+      this.usedHostOctets -= cost.hostOctets();
+      this.usedDeviceOctets -= cost.deviceOctets();
+    }
+  }
+
+  private void release(
+    final List<Shared<?>> released)
+    throws RocaroException
+  {
+    this.retire(ownersOf(released));
+  }
+
+  private static ArrayList<RCCloseableType> ownersOf(
+    final List<Shared<?>> released)
+  {
+    final var owners = new ArrayList<RCCloseableType>(released.size());
+    for (final var shared : released) {
+      shared.entry.release().ifPresent(owners::add);
+    }
+    return owners;
+  }
+
+  private void retire(
+    final List<RCCloseableType> owners)
+    throws RocaroException
+  {
+    if (!owners.isEmpty()) {
+      this.retirement.retire(List.copyOf(owners));
+    }
+  }
+
+  private static final class Reference<A extends RCAssetType>
+    implements RCAssetReferenceType<A>
+  {
+    private final RCAssetReferences references;
+    private final Key key;
+    private final Shared<A> shared;
+    private final AtomicBoolean closed;
+
+    Reference(
+      final RCAssetReferences inReferences,
+      final Key inKey,
+      final Shared<A> inShared)
+    {
+      this.references =
+        Objects.requireNonNull(inReferences, "references");
+      this.key =
+        Objects.requireNonNull(inKey, "key");
+      this.shared =
+        Objects.requireNonNull(inShared, "shared");
+      this.closed =
+        new AtomicBoolean(false);
+    }
+
+    @Override
+    public RCAssetIdentifier identifier()
+    {
+      return this.shared.entry.identifier();
+    }
+
+    @Override
+    public RCAssetValueType<A> get()
+    {
+      return this.shared.entry.get();
+    }
+
+    @Override
+    public long generation()
+    {
+      return this.shared.entry.generation();
+    }
+
+    @Override
+    public void close()
+      throws RocaroException
+    {
+      if (this.closed.compareAndSet(false, true)) {
+        this.references.closeReference(this.key, this.shared);
+      }
+    }
+  }
+}
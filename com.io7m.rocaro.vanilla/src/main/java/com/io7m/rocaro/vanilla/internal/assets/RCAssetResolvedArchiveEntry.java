@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.assets.RCAssetResolvedType;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Objects;
+
+/**
+ * An asset resolved from an archive. The data is either a slice of the
+ * archive mapping or memory allocated from the arena of the resolution
+ * context, and so closing the asset releases nothing.
+ */
+
+final class RCAssetResolvedArchiveEntry
+  extends RCObject
+  implements RCAssetResolvedType
+{
+  private final MemorySegment data;
+
+  RCAssetResolvedArchiveEntry(
+    final MemorySegment inData)
+  {
+    this.data = Objects.requireNonNull(inData, "data");
+  }
+
+  @Override
+  public MemorySegment data()
+  {
+    return this.data;
+  }
+
+  @Override
+  public void close()
+  {
+
+  }
+}
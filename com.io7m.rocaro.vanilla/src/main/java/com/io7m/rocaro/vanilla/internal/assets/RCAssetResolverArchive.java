@@ -0,0 +1,177 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RCStandardErrorCodes;
+import com.io7m.rocaro.api.assets.RCAssetException;
+import com.io7m.rocaro.api.assets.RCAssetIdentifier;
+import com.io7m.rocaro.api.assets.RCAssetResolutionContextType;
+import com.io7m.rocaro.api.assets.RCAssetResolvedType;
+import com.io7m.rocaro.api.assets.RCAssetResolverType;
+import com.io7m.rocaro.vanilla.internal.RCStringConstants;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>A resolver that resolves assets from a single archive.</p>
+ *
+ * <p>The archive is memory-mapped, and its index read, exactly once (on
+ * the first resolution). Each resolution is then a lookup in the index
+ * that returns a slice of the shared mapping, without any system calls
+ * or copying. The mapping is released when neither the resolver nor any
+ * resolved asset refers to it.</p>
+ *
+ * <p>Compressed entries are instead decompressed into memory allocated
+ * from the arena of the resolution context, with the chunks of each entry
+ * decompressed in parallel on the executor of the resolution context.</p>
+ *
+ * @see RCAssetArchiveWriter
+ */
+
+public final class RCAssetResolverArchive
+  extends RCObject
+  implements RCAssetResolverType
+{
+  private final RCStrings strings;
+  private final Path file;
+  private final ReentrantLock lock;
+  private volatile Map<RCAssetIdentifier, RCAssetArchiveEntry> entries;
+
+  public RCAssetResolverArchive(
+    final RCStrings inStrings,
+    final Path inFile)
+  {
+    this.strings =
+      Objects.requireNonNull(inStrings, "strings");
+    this.file =
+      Objects.requireNonNull(inFile, "file");
+    this.lock =
+      new ReentrantLock();
+  }
+
+  @Override
+  public Optional<RCAssetResolvedType> resolve(
+    final RCAssetResolutionContextType context,
+    final RCAssetIdentifier identifier)
+    throws RCAssetException
+  {
+    Objects.requireNonNull(context, "context");
+    Objects.requireNonNull(identifier, "identifier");
+
+    final var entry = this.open().get(identifier);
+    if (entry == null) {
+      return Optional.empty();
+    }
+
+    if (!entry.isCompressed()) {
+      return Optional.of(new RCAssetResolvedArchiveEntry(entry.stored()));
+    }
+
+    return Optional.of(
+      new RCAssetResolvedArchiveEntry(
+        RCAssetArchiveInflater.inflate(
+          this.strings,
+          this.file,
+          identifier.toString(),
+          entry,
+          context.arena(),
+          context.executor()
+        )
+      )
+    );
+  }
+
+  private Map<RCAssetIdentifier, RCAssetArchiveEntry> open()
+    throws RCAssetException
+  {
+    final var existing = this.entries;
+    if (existing != null) {
+      return existing;
+    }
+
+    this.lock.lock();
+    try {
+      if (this.entries == null) {
+        this.entries = this.map();
+      }
+      return this.entries;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private Map<RCAssetIdentifier, RCAssetArchiveEntry> map()
+    throws RCAssetException
+  {
+    /*
+     * The mapping remains valid after the channel is closed. The automatic
+     * arena keeps the mapping alive for as long as any slice of it is
+     * reachable.
+     */
+
+    final MemorySegment data;
+    try (final var channel =
+           FileChannel.open(this.file, StandardOpenOption.READ)) {
+      data = channel.map(
+        MapMode.READ_ONLY,
+        0L,
+        channel.size(),
+        Arena.ofAuto()
+      );
+    } catch (final IOException e) {
+      throw this.errorIO(e);
+    }
+
+    return RCAssetArchiveParser.parse(this.strings, this.file, data);
+  }
+
+  private RCAssetException errorIO(
+    final IOException e)
+  {
+    return new RCAssetException(
+      Objects.requireNonNullElse(e.getMessage(), e.getClass().getName()),
+      e,
+      Map.ofEntries(
+        Map.entry(
+          this.strings.format(RCStringConstants.FILE),
+          this.file.toString()
+        )
+      ),
+      RCStandardErrorCodes.IO.codeName(),
+      Optional.empty()
+    );
+  }
+
+  @Override
+  public String description()
+  {
+    return "Archive asset resolver service.";
+  }
+}
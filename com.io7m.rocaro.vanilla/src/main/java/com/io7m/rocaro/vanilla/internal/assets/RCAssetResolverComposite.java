@@ -17,16 +17,20 @@
 
 package com.io7m.rocaro.vanilla.internal.assets;
 
+import com.io7m.rocaro.api.RCCloseableType;
 import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
 import com.io7m.rocaro.api.assets.RCAssetException;
 import com.io7m.rocaro.api.assets.RCAssetIdentifier;
 import com.io7m.rocaro.api.assets.RCAssetResolutionContextType;
 import com.io7m.rocaro.api.assets.RCAssetResolvedType;
 import com.io7m.rocaro.api.assets.RCAssetResolverType;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public final class RCAssetResolverComposite
   extends RCObject
@@ -61,6 +65,47 @@ public final class RCAssetResolverComposite
     return Optional.empty();
   }
 
+  @Override
+  public RCCloseableType watch(
+    final Consumer<RCAssetIdentifier> receiver)
+    throws RCAssetException
+  {
+    Objects.requireNonNull(receiver, "receiver");
+
+    final var subscriptions = new ArrayList<RCCloseableType>();
+    final RCCloseableType all = () -> {
+      RocaroException failure = null;
+      for (final var subscription : subscriptions.reversed()) {
+        try {
+          subscription.close();
+        } catch (final RocaroException e) {
+          if (failure == null) {
+            failure = e;
+          } else {
+            failure.addSuppressed(e);
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    };
+
+    try {
+      for (final var resolver : this.resolvers) {
+        subscriptions.add(resolver.watch(receiver));
+      }
+    } catch (final RCAssetException e) {
+      try {
+        all.close();
+      } catch (final RocaroException ex) {
+        e.addSuppressed(ex);
+      }
+      throw e;
+    }
+    return all;
+  }
+
   @Override
   public String description()
   {
@@ -18,6 +18,7 @@
 package com.io7m.rocaro.vanilla.internal.assets;
 
 import com.io7m.junreachable.UnimplementedCodeException;
+import com.io7m.rocaro.api.RCCloseableType;
 import com.io7m.rocaro.api.RCObject;
 import com.io7m.rocaro.api.RCStandardErrorCodes;
 import com.io7m.rocaro.api.assets.RCAssetException;
@@ -38,6 +39,7 @@ import java.nio.file.StandardOpenOption;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public final class RCAssetResolverFS
   extends RCObject
@@ -129,6 +131,15 @@ public final class RCAssetResolverFS
     );
   }
 
+  @Override
+  public RCCloseableType watch(
+    final Consumer<RCAssetIdentifier> receiver)
+    throws RCAssetException
+  {
+    Objects.requireNonNull(receiver, "receiver");
+    return RCAssetWatcherFS.create(this.strings, this.baseDirectory, receiver);
+  }
+
   @Override
   public String description()
   {
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+import com.io7m.rocaro.api.RCCloseableType;
+import com.io7m.rocaro.api.RocaroException;
+
+import java.util.List;
+
+/**
+ * A function that disposes of the resources behind assets that are no
+ * longer used. The resources might still be referenced by commands that
+ * have been recorded or submitted, and so implementations must not close
+ * them until the device has finished with them.
+ */
+
+@FunctionalInterface
+public interface RCAssetRetirementType
+{
+  /**
+   * Retire the given resources.
+   *
+   * @param owners The resources
+   *
+   * @throws RocaroException On errors
+   */
+
+  void retire(List<RCCloseableType> owners)
+    throws RocaroException;
+}
@@ -17,25 +17,32 @@
 
 package com.io7m.rocaro.vanilla.internal.assets;
 
+import com.io7m.jcoronado.api.VulkanQueueType;
 import com.io7m.jmulticlose.core.CloseableCollectionType;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
 import com.io7m.rocaro.api.RCCloseableType;
 import com.io7m.rocaro.api.RCObject;
 import com.io7m.rocaro.api.RCStandardErrorCodes;
 import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.assets.RCAssetCost;
 import com.io7m.rocaro.api.assets.RCAssetException;
 import com.io7m.rocaro.api.assets.RCAssetIdentifier;
 import com.io7m.rocaro.api.assets.RCAssetLoaderDirectoryType;
+import com.io7m.rocaro.api.assets.RCAssetLoaderType;
 import com.io7m.rocaro.api.assets.RCAssetReferenceType;
 import com.io7m.rocaro.api.assets.RCAssetResolutionContextType;
+import com.io7m.rocaro.api.assets.RCAssetResolvedType;
 import com.io7m.rocaro.api.assets.RCAssetResolverType;
+import com.io7m.rocaro.api.assets.RCAssetServiceConfiguration;
 import com.io7m.rocaro.api.assets.RCAssetServiceType;
 import com.io7m.rocaro.api.assets.RCAssetType;
-import com.io7m.rocaro.api.assets.RCAssetValueFailed;
-import com.io7m.rocaro.api.assets.RCAssetValueLoading;
-import com.io7m.rocaro.api.assets.RCAssetValueType;
+import com.io7m.rocaro.api.devices.RCDeviceType;
 import com.io7m.rocaro.vanilla.internal.RCResourceCollections;
 import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.notifications.RCNotificationServiceType;
+import com.io7m.rocaro.vanilla.internal.threading.RCThread;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanRendererType;
+import jdk.jfr.FlightRecorder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,20 +50,50 @@ import java.lang.foreign.Arena;
 import java.net.URI;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
-import java.nio.file.NoSuchFileException;
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ASSET;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.CLASS;
 import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ERROR_ASSET_DOES_NOT_EXIST;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ERROR_ASSET_LOAD_FAILED;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.GPU;
+
+/**
+ * <p>The asset service.</p>
+ *
+ * <p>Opening an asset that is already open returns a new reference to the
+ * same shared entry (see {@link RCAssetReferences}), and so each distinct
+ * asset is loaded once. New entries are loaded in two stages: the asset
+ * is first resolved (located and read into memory), and is then passed to
+ * a loader that decodes it and creates any GPU resources. Each stage has
+ * its own bound on parallelism, so resolution of further assets continues
+ * while earlier assets are being loaded. The loader that produced an asset
+ * is kept open until the asset is evicted from the cache.</p>
+ *
+ * <p>The cache counters are published as a periodic JFR event.</p>
+ *
+ * <p>If hot reloading is enabled, the resolver is watched for changes.
+ * Changes are debounced, and then every loaded asset with a changed
+ * identifier is loaded again and its value replaced in the shared entry.</p>
+ *
+ * <p>The resources behind evicted, released, and replaced asset values are
+ * retired against a completion point on every device queue, and are closed
+ * on the GPU thread once that point has been reached.</p>
+ */
 
 public final class RCAssetService
   extends RCObject
@@ -65,37 +102,88 @@ public final class RCAssetService
   private static final Logger LOG =
     LoggerFactory.getLogger(RCAssetService.class);
 
+  /**
+   * The progress reported for assets that have been resolved but not yet
+   * loaded.
+   */
+
+  private static final double PROGRESS_RESOLVED = 0.5;
+
   private final AtomicBoolean closed;
   private final CloseableCollectionType<RocaroException> resources;
-  private final Duration queueFrequency;
+  private final RCAssetServiceConfiguration configuration;
   private final ExecutorService ioExecutor;
   private final ExecutorService taskExecutor;
-  private final LinkedBlockingQueue<RCAssetReference<?>> queue;
+  private final LinkedBlockingQueue<RCAssetEntry<?>> queue;
+  private final LinkedBlockingQueue<RCAssetIdentifier> changes;
   private final RCAssetLoaderDirectoryType loaders;
   private final RCAssetResolverType resolver;
+  private final RCAssetReferences references;
+  private final RCDeviceType device;
+  private final RCNotificationServiceType notifications;
+  private final ReentrantLock retireLock;
+  private final ArrayList<RCCloseableType> retiring;
+  private final LinkedHashSet<Retirement> retirements;
   private final RCStrings strings;
   private final FileSystem realFileSystem;
   private final FileSystem moduleFileSystem;
+  private final Semaphore resolveSlots;
+  private final Semaphore loadSlots;
+  private boolean retireScheduled;
 
   private RCAssetService(
-    final RCAssetLoaderDirectoryType loaders,
-    final Duration queueFrequency,
-    final RCStrings strings,
-    final RCAssetResolverType inResolver)
+    final RCAssetLoaderDirectoryType inLoaders,
+    final RCAssetServiceConfiguration inConfiguration,
+    final RCStrings inStrings,
+    final RCAssetResolverType inResolver,
+    final RCDeviceType inDevice,
+    final RCNotificationServiceType inNotifications)
   {
     this.loaders =
-      Objects.requireNonNull(loaders, "loaders");
-    this.queueFrequency =
-      Objects.requireNonNull(queueFrequency, "queueFrequency");
+      Objects.requireNonNull(inLoaders, "loaders");
+    this.configuration =
+      Objects.requireNonNull(inConfiguration, "configuration");
     this.resolver =
       Objects.requireNonNull(inResolver, "resolver");
     this.strings =
-      Objects.requireNonNull(strings, "strings");
+      Objects.requireNonNull(inStrings, "strings");
+    this.device =
+      Objects.requireNonNull(inDevice, "device");
+    this.notifications =
+      Objects.requireNonNull(inNotifications, "notifications");
+    this.retireLock =
+      new ReentrantLock();
+    this.retiring =
+      new ArrayList<>();
+    this.retirements =
+      new LinkedHashSet<>();
 
     this.resources =
-      RCResourceCollections.create(strings);
+      RCResourceCollections.create(inStrings);
     this.closed =
       new AtomicBoolean(false);
+    this.references =
+      this.resources.add(
+        new RCAssetReferences(
+          inConfiguration.cacheBudgetHostOctets(),
+          inConfiguration.cacheBudgetDeviceOctets(),
+          this::retire
+        )
+      );
+
+    final Runnable countersHook = () -> {
+      RCAssetCacheCounters.ofStatistics(this.references.statistics())
+        .commit();
+    };
+    FlightRecorder.addPeriodicEvent(RCAssetCacheCounters.class, countersHook);
+    this.resources.add(() -> {
+      FlightRecorder.removePeriodicEvent(countersHook);
+    });
+
+    this.resolveSlots =
+      new Semaphore(inConfiguration.resolveParallelism());
+    this.loadSlots =
+      new Semaphore(inConfiguration.loadParallelism());
 
     this.realFileSystem =
       FileSystems.getDefault();
@@ -122,11 +210,25 @@ public final class RCAssetService
 
     this.queue =
       new LinkedBlockingQueue<>();
+    this.changes =
+      new LinkedBlockingQueue<>();
   }
 
+  /**
+   * Create an asset service.
+   *
+   * @param services      The service directory
+   * @param configuration The configuration
+   *
+   * @return The service
+   *
+   * @throws RocaroException On errors
+   */
+
   public static RCAssetService create(
     final RPServiceDirectoryType services,
-    final Duration queueFrequency)
+    final RCAssetServiceConfiguration configuration)
+    throws RocaroException
   {
     final var strings =
       services.requireService(RCStrings.class);
@@ -134,13 +236,19 @@ public final class RCAssetService
       services.requireService(RCAssetResolverType.class);
     final var loaders =
       services.requireService(RCAssetLoaderDirectoryType.class);
+    final var vulkan =
+      services.requireService(RCVulkanRendererType.class);
+    final var notifications =
+      services.requireService(RCNotificationServiceType.class);
 
     final var service =
       new RCAssetService(
         loaders,
-        queueFrequency,
+        configuration,
         strings,
-        resolver
+        resolver,
+        vulkan.device(),
+        notifications
       );
 
     service.start();
@@ -160,14 +268,14 @@ public final class RCAssetService
   }
 
   private static void logAssetLoadFailure(
-    final RCAssetReference<?> ref,
+    final RCAssetEntry<?> entry,
     final Throwable e)
   {
     final var ev = new RCAssetLoadFailed();
     if (ev.shouldCommit()) {
-      ev.packageName = ref.identifier.packageName().value();
-      ev.path = ref.identifier.path().toString();
-      ev.assetClass = ref.assetClass.getName();
+      ev.packageName = entry.identifier().packageName().value();
+      ev.path = entry.identifier().path().toString();
+      ev.assetClass = entry.assetClass().getName();
       ev.message = e.getMessage();
       ev.begin();
       ev.end();
@@ -176,19 +284,70 @@ public final class RCAssetService
   }
 
   private void start()
+    throws RocaroException
   {
     this.taskExecutor.execute(this::run);
+
+    if (this.configuration.hotReload()) {
+      this.resources.add(this.resolver.watch(this.changes::add));
+      this.taskExecutor.execute(this::runReloads);
+    }
   }
 
   private void run()
   {
+    final var frequency =
+      this.configuration.queueFrequency().toNanos();
+
+    while (!this.closed.get()) {
+      try {
+        final var entry =
+          this.queue.poll(frequency, TimeUnit.NANOSECONDS);
+
+        if (entry != null) {
+          this.ioExecutor.execute(() -> this.processNewAsset(entry));
+        }
+      } catch (final Throwable e) {
+        logAssetControllerCrash(e);
+      }
+    }
+  }
+
+  private void runReloads()
+  {
+    final var frequency =
+      this.configuration.queueFrequency().toNanos();
+    final var debounce =
+      this.configuration.hotReloadDebounce().toNanos();
+
     while (!this.closed.get()) {
       try {
-        final var ref =
-          this.queue.poll(this.queueFrequency.toNanos(), TimeUnit.NANOSECONDS);
+        final var first =
+          this.changes.poll(frequency, TimeUnit.NANOSECONDS);
 
-        if (ref != null) {
-          this.ioExecutor.execute(() -> this.processNewAsset(ref));
+        if (first == null) {
+          continue;
+        }
+
+        /*
+         * Collect changes until none have arrived for the debounce period.
+         */
+
+        final var changed = new LinkedHashSet<RCAssetIdentifier>();
+        changed.add(first);
+        while (true) {
+          final var next =
+            this.changes.poll(debounce, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          changed.add(next);
+        }
+
+        for (final var identifier : changed) {
+          for (final var entry : this.references.loadedEntries(identifier)) {
+            this.ioExecutor.execute(() -> this.reloadAsset(entry));
+          }
         }
       } catch (final Throwable e) {
         logAssetControllerCrash(e);
@@ -196,64 +355,399 @@ public final class RCAssetService
     }
   }
 
-  private void processNewAsset(
-    final RCAssetReference<?> ref)
+  private <A extends RCAssetType> void processNewAsset(
+    final RCAssetEntry<A> entry)
+  {
+    /*
+     * The last reference to the asset might already have been closed.
+     */
+
+    if (entry.isReleased()) {
+      return;
+    }
+
+    final var ev =
+      RCAssetLoading.ofIdentifier(entry.identifier());
+    ev.begin();
+
+    try {
+      final var loaded = this.load(entry);
+      try {
+        entry.setLoaded(loaded.asset(), loaded.cost(), loaded.loader());
+      } catch (final RocaroException e) {
+        LOG.debug("Failed to retire evicted assets: ", e);
+      }
+    } catch (final Throwable e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      entry.setFailed(this.errorLoadFailed(entry, e));
+      try {
+        this.references.forget(entry);
+      } catch (final RocaroException ex) {
+        e.addSuppressed(ex);
+      }
+      logAssetLoadFailure(entry, e);
+    } finally {
+      ev.end();
+      ev.commit();
+    }
+  }
+
+  private <A extends RCAssetType> void reloadAsset(
+    final RCAssetEntry<A> entry)
   {
+    if (entry.isReleased()) {
+      return;
+    }
+
     final var ev =
-      RCAssetLoading.ofIdentifier(ref.identifier);
+      RCAssetReloading.ofIdentifier(entry.identifier());
     ev.begin();
 
+    /*
+     * A failed reload (perhaps because a file was only partially written)
+     * leaves the existing value in place.
+     */
+
+    try {
+      final var loaded = this.load(entry);
+      this.retire(List.of(
+        entry.setReloaded(loaded.asset(), loaded.cost(), loaded.loader())
+      ));
+      ev.generation = entry.generation();
+    } catch (final Throwable e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      logAssetLoadFailure(entry, e);
+    } finally {
+      ev.end();
+      ev.commit();
+    }
+  }
+
+  /**
+   * Close the resources behind evicted, released, or replaced asset values.
+   * The resources might still be referenced by commands that have been
+   * recorded or submitted, so they are closed only once all work submitted
+   * to the device so far has completed. Graph nodes observe new values when
+   * they are next prepared, at the start of a frame.
+   *
+   * Owners retired in quick succession (such as by a burst of evictions)
+   * share a single completion point.
+   */
+
+  private void retire(
+    final List<RCCloseableType> owners)
+  {
+    if (owners.isEmpty()) {
+      return;
+    }
+
+    this.retireLock.lock();
+    try {
+      this.retiring.addAll(owners);
+      if (this.retireScheduled) {
+        return;
+      }
+      this.retireScheduled = true;
+    } finally {
+      this.retireLock.unlock();
+    }
+
+    this.device.gpuExecutor().execute(this::retireFlush);
+  }
+
+  /**
+   * Frames are recorded and submitted on the GPU thread, and so by the time
+   * this runs, every frame that might have used the retired resources has
+   * been submitted. An empty submission that signals the timeline of each
+   * queue is then made: a semaphore signal operation covers all work
+   * submitted to the queue before it, and so the resources can be closed
+   * once every queue has reached its signalled value.
+   */
+
+  @RCThread(GPU)
+  private void retireFlush()
+  {
+    final Retirement retirement;
+    this.retireLock.lock();
+    try {
+      retirement = new Retirement(List.copyOf(this.retiring));
+      this.retiring.clear();
+      this.retireScheduled = false;
+      this.retirements.add(retirement);
+    } finally {
+      this.retireLock.unlock();
+    }
+
+    if (this.closed.get()) {
+      this.retireCompleted(retirement, true);
+      return;
+    }
+
+    try {
+      final var queues = new LinkedHashSet<VulkanQueueType>();
+      queues.add(this.device.graphicsQueue());
+      queues.add(this.device.transferQueue());
+      queues.add(this.device.computeQueue());
+
+      final var completions = new ArrayList<CompletableFuture<?>>();
+      for (final var queue : queues) {
+        final var submission =
+          this.device.submitTimeline(queue, List.of());
+        completions.add(
+          submission.submitted()
+            .thenCompose(_ -> {
+              return this.notifications.registerTimelineSemaphore(
+                submission.completed()
+              );
+            })
+        );
+      }
+
+      CompletableFuture.allOf(completions.toArray(new CompletableFuture[0]))
+        .whenComplete((_, exception) -> {
+          this.device.gpuExecutor().execute(() -> {
+            this.retireCompleted(retirement, exception != null);
+          });
+        });
+    } catch (final RocaroException e) {
+      LOG.debug("Failed to submit retirement: ", e);
+      this.retireCompleted(retirement, true);
+    }
+  }
+
+  /**
+   * Close the owners of a retirement, unless they have already been closed
+   * by the service closing. If the completion point could not be observed,
+   * the device is drained instead.
+   */
+
+  @RCThread(GPU)
+  private void retireCompleted(
+    final Retirement retirement,
+    final boolean failed)
+  {
+    this.retireLock.lock();
+    try {
+      if (!this.retirements.remove(retirement)) {
+        return;
+      }
+    } finally {
+      this.retireLock.unlock();
+    }
+
+    try {
+      if (failed) {
+        this.device.waitUntilIdle();
+      }
+      closeAll(retirement.owners());
+    } catch (final RocaroException e) {
+      LOG.debug("Failed to retire assets: ", e);
+    }
+  }
+
+  /**
+   * Close the owners of every retirement that is still waiting for its
+   * completion point, once the device is idle. The GPU executor runs tasks
+   * in submission order, and the renderer closes the device with a task
+   * submitted after this service has been closed, so resources retired
+   * during shutdown are closed before the device.
+   */
+
+  @RCThread(GPU)
+  private void retireAllNow()
+  {
+    final List<Retirement> pending;
+    this.retireLock.lock();
+    try {
+      pending = List.copyOf(this.retirements);
+      this.retirements.clear();
+    } finally {
+      this.retireLock.unlock();
+    }
+
+    if (pending.isEmpty()) {
+      return;
+    }
+
+    try {
+      this.device.waitUntilIdle();
+    } catch (final RocaroException e) {
+      LOG.debug("Failed to wait for device: ", e);
+    }
+
+    for (final var retirement : pending) {
+      try {
+        closeAll(retirement.owners());
+      } catch (final RocaroException e) {
+        LOG.debug("Failed to retire assets: ", e);
+      }
+    }
+  }
+
+  /**
+   * A set of owners retired against one completion point. Retirements are
+   * compared by identity.
+   */
+
+  private static final class Retirement
+  {
+    private final List<RCCloseableType> owners;
+
+    Retirement(
+      final List<RCCloseableType> inOwners)
+    {
+      this.owners =
+        Objects.requireNonNull(inOwners, "owners");
+    }
+
+    List<RCCloseableType> owners()
+    {
+      return this.owners;
+    }
+  }
+
+  private static void closeAll(
+    final List<RCCloseableType> owners)
+    throws RocaroException
+  {
+    RocaroException failure = null;
+    for (final var owner : owners) {
+      try {
+        owner.close();
+      } catch (final RocaroException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private record Loaded<A extends RCAssetType>(
+    A asset,
+    RCAssetCost cost,
+    RCAssetLoaderType<A> loader)
+  {
+
+  }
+
+  /**
+   * Resolve and load an asset. The returned loader owns whatever it
+   * created.
+   */
+
+  private <A extends RCAssetType> Loaded<A> load(
+    final RCAssetEntry<A> entry)
+    throws Exception
+  {
+    final var loader =
+      this.loaders.findLoaderForClass(entry.assetClass())
+        .createLoader();
+
     try {
+      final A asset;
+      final RCAssetCost cost;
       try (final var processResources =
              RCResourceCollections.create(this.strings)) {
 
-        final var loaderFactory =
-          this.loaders.findLoaderForClass(ref.assetClass);
-        final var loader =
-          processResources.add(loaderFactory.createLoader());
         final var context =
           processResources.add(
             new AssetResolutionContext(
               this.strings,
               Arena.ofShared(),
               this.realFileSystem,
-              this.moduleFileSystem
+              this.moduleFileSystem,
+              this.ioExecutor
             )
           );
 
-        final var resolvedOpt =
-          this.resolver.resolve(context, ref.identifier);
+        /*
+         * Resolve the asset.
+         */
+
+        final Optional<RCAssetResolvedType> resolvedOpt;
+        this.resolveSlots.acquire();
+        try {
+          resolvedOpt = this.resolver.resolve(context, entry.identifier());
+        } finally {
+          this.resolveSlots.release();
+        }
 
         if (resolvedOpt.isEmpty()) {
-          ref.setValue(
-            new RCAssetValueFailed<>(this.errorAssetNonexistent(ref))
-          );
-          throw new NoSuchFileException(
-            this.strings.format(ERROR_ASSET_DOES_NOT_EXIST)
-          );
+          throw this.errorAssetNonexistent(entry);
         }
 
         final var resolved =
           processResources.add(resolvedOpt.get());
 
+        entry.setProgress(PROGRESS_RESOLVED);
+
+        /*
+         * Decode the asset and create GPU resources.
+         */
+
+        this.loadSlots.acquire();
+        try {
+          asset = loader.load(this.device, resolved);
+          cost = loader.cost(asset, resolved);
+        } finally {
+          this.loadSlots.release();
+        }
       }
-    } catch (final Throwable e) {
-      logAssetLoadFailure(ref, e);
-    } finally {
-      ev.end();
-      ev.commit();
+      return new Loaded<>(asset, cost, loader);
+    } catch (final Exception e) {
+      try {
+        loader.close();
+      } catch (final RocaroException ex) {
+        e.addSuppressed(ex);
+      }
+      throw e;
     }
   }
 
+  private RocaroException errorLoadFailed(
+    final RCAssetEntry<?> entry,
+    final Throwable e)
+  {
+    if (e instanceof final RocaroException x) {
+      return x;
+    }
+
+    return new RCAssetException(
+      this.strings.format(ERROR_ASSET_LOAD_FAILED),
+      e,
+      Map.ofEntries(
+        Map.entry(
+          this.strings.format(ASSET),
+          entry.identifier().toString()
+        ),
+        Map.entry(
+          this.strings.format(CLASS),
+          entry.assetClass().getName()
+        )
+      ),
+      RCStandardErrorCodes.ASSET_LOAD_FAILED.codeName(),
+      Optional.empty()
+    );
+  }
+
   private RCAssetException errorAssetNonexistent(
-    final RCAssetReference<?> ref)
+    final RCAssetEntry<?> entry)
   {
     return new RCAssetException(
       this.strings.format(ERROR_ASSET_DOES_NOT_EXIST),
       Map.ofEntries(
         Map.entry(
           this.strings.format(ASSET),
-          ref.identifier.toString()
+          entry.identifier().toString()
         )
       ),
       RCStandardErrorCodes.NONEXISTENT_ASSET.codeName(),
@@ -267,7 +761,11 @@ public final class RCAssetService
   {
     LOG.debug("Close");
     this.closed.set(true);
-    this.resources.close();
+    try {
+      this.resources.close();
+    } finally {
+      this.device.gpuExecutor().execute(this::retireAllNow);
+    }
   }
 
   @Override
@@ -278,9 +776,16 @@ public final class RCAssetService
     Objects.requireNonNull(identifier, "identifier");
     Objects.requireNonNull(assetClass, "assetClass");
 
-    final var ref = new RCAssetReference<>(identifier, assetClass);
-    this.queue.add(ref);
-    return ref;
+    return this.references.open(identifier, assetClass, this.queue::add);
+  }
+
+  /**
+   * @return A snapshot of the asset cache counters
+   */
+
+  public RCAssetCacheStatistics statistics()
+  {
+    return this.references.statistics();
   }
 
   @Override
@@ -295,22 +800,32 @@ public final class RCAssetService
     private final Arena arena;
     private final FileSystem realFileSystem;
     private final FileSystem moduleFileSystem;
+    private final Executor executor;
     private final CloseableCollectionType<RocaroException> resources;
 
     AssetResolutionContext(
       final RCStrings strings,
       final Arena inArena,
       final FileSystem inRealFileSystem,
-      final FileSystem inModuleFileSystem)
+      final FileSystem inModuleFileSystem,
+      final Executor inExecutor)
     {
       this.resources =
         RCResourceCollections.create(strings);
       this.arena =
         this.resources.add(inArena);
+
+      /*
+       * The file systems are shared by every context and must not be
+       * closed (the default file system cannot be closed at all).
+       */
+
       this.realFileSystem =
-        this.resources.add(inRealFileSystem);
+        Objects.requireNonNull(inRealFileSystem, "realFileSystem");
       this.moduleFileSystem =
-        this.resources.add(inModuleFileSystem);
+        Objects.requireNonNull(inModuleFileSystem, "moduleFileSystem");
+      this.executor =
+        Objects.requireNonNull(inExecutor, "executor");
     }
 
     @Override
@@ -332,56 +847,16 @@ public final class RCAssetService
     }
 
     @Override
-    public void close()
-      throws RocaroException
-    {
-      this.resources.close();
-    }
-  }
-
-  private static final class RCAssetReference<A extends RCAssetType>
-    implements RCAssetReferenceType<A>
-  {
-    private final RCAssetIdentifier identifier;
-    private final Class<A> assetClass;
-    private AtomicReference<RCAssetValueType<A>> value;
-
-    RCAssetReference(
-      final RCAssetIdentifier inIdentifier,
-      final Class<A> inAssetClass)
-    {
-      this.identifier =
-        Objects.requireNonNull(inIdentifier, "identifier");
-      this.assetClass =
-        Objects.requireNonNull(inAssetClass, "assetClass");
-      this.value =
-        new AtomicReference<>(
-          new RCAssetValueLoading<>(0.0, Optional.empty())
-        );
-    }
-
-    @Override
-    public RCAssetIdentifier identifier()
-    {
-      return this.identifier;
-    }
-
-    @Override
-    public RCAssetValueType<A> get()
+    public Executor executor()
     {
-      return this.value.get();
+      return this.executor;
     }
 
     @Override
     public void close()
+      throws RocaroException
     {
-
-    }
-
-    public void setValue(
-      final RCAssetValueType<A> value)
-    {
-      this.value.set(Objects.requireNonNull(value, "value"));
+      this.resources.close();
     }
   }
 }
@@ -0,0 +1,257 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.assets;
+
+import com.io7m.lanark.core.RDottedName;
+import com.io7m.rocaro.api.RCCloseableType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RCStandardErrorCodes;
+import com.io7m.rocaro.api.assets.RCAssetException;
+import com.io7m.rocaro.api.assets.RCAssetIdentifier;
+import com.io7m.rocaro.api.assets.RCAssetPath;
+import com.io7m.rocaro.vanilla.internal.RCStringConstants;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * <p>A watcher for the assets beneath a base directory.</p>
+ *
+ * <p>Watch services do not watch directories recursively, so every package
+ * directory (and every directory beneath it) is registered individually,
+ * and directories created later are registered as they appear. Each event
+ * on a file is translated to the identifier of the asset that the file
+ * would resolve to.</p>
+ */
+
+final class RCAssetWatcherFS
+  extends RCObject
+  implements RCCloseableType
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(RCAssetWatcherFS.class);
+
+  private final RCStrings strings;
+  private final Path baseDirectory;
+  private final WatchService watchService;
+  private final Consumer<RCAssetIdentifier> receiver;
+  private final Thread thread;
+
+  private RCAssetWatcherFS(
+    final RCStrings inStrings,
+    final Path inBaseDirectory,
+    final WatchService inWatchService,
+    final Consumer<RCAssetIdentifier> inReceiver)
+  {
+    this.strings =
+      Objects.requireNonNull(inStrings, "strings");
+    this.baseDirectory =
+      Objects.requireNonNull(inBaseDirectory, "baseDirectory");
+    this.watchService =
+      Objects.requireNonNull(inWatchService, "watchService");
+    this.receiver =
+      Objects.requireNonNull(inReceiver, "receiver");
+    this.thread =
+      Thread.ofVirtual()
+        .name("com.io7m.rocaro.asset.watch-", 0)
+        .unstarted(this::run);
+  }
+
+  /**
+   * Start watching a base directory.
+   *
+   * @param strings       The string resources
+   * @param baseDirectory The base directory
+   * @param receiver      The receiver of changed identifiers
+   *
+   * @return The watcher
+   *
+   * @throws RCAssetException On errors
+   */
+
+  static RCAssetWatcherFS create(
+    final RCStrings strings,
+    final Path baseDirectory,
+    final Consumer<RCAssetIdentifier> receiver)
+    throws RCAssetException
+  {
+    final WatchService watchService;
+    try {
+      watchService = baseDirectory.getFileSystem().newWatchService();
+    } catch (final IOException e) {
+      throw errorIO(strings, e, baseDirectory);
+    }
+
+    final var watcher =
+      new RCAssetWatcherFS(strings, baseDirectory, watchService, receiver);
+
+    try {
+      watcher.registerTree(baseDirectory);
+    } catch (final IOException e) {
+      try {
+        watchService.close();
+      } catch (final IOException ex) {
+        e.addSuppressed(ex);
+      }
+      throw errorIO(strings, e, baseDirectory);
+    }
+
+    watcher.thread.start();
+    return watcher;
+  }
+
+  private static RCAssetException errorIO(
+    final RCStrings strings,
+    final IOException e,
+    final Path filePath)
+  {
+    return new RCAssetException(
+      Objects.requireNonNullElse(e.getMessage(), e.getClass().getName()),
+      e,
+      Map.ofEntries(
+        Map.entry(
+          strings.format(RCStringConstants.FILE),
+          filePath.toString()
+        )
+      ),
+      RCStandardErrorCodes.IO.codeName(),
+      Optional.empty()
+    );
+  }
+
+  private void registerTree(
+    final Path directory)
+    throws IOException
+  {
+    final var directories = new ArrayList<Path>();
+    try (final var stream = Files.walk(directory)) {
+      stream.filter(Files::isDirectory).forEach(directories::add);
+    }
+    for (final var d : directories) {
+      d.register(this.watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+    }
+  }
+
+  private void run()
+  {
+    while (true) {
+      final var key = this.takeKey();
+      if (key == null) {
+        return;
+      }
+
+      final var directory = (Path) key.watchable();
+      for (final var event : key.pollEvents()) {
+        try {
+          this.processEvent(directory, event);
+        } catch (final Exception e) {
+          LOG.debug("Failed to process watch event: ", e);
+        }
+      }
+      key.reset();
+    }
+  }
+
+  private WatchKey takeKey()
+  {
+    try {
+      return this.watchService.take();
+    } catch (final ClosedWatchServiceException e) {
+      return null;
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private void processEvent(
+    final Path directory,
+    final WatchEvent<?> event)
+    throws IOException
+  {
+    if (event.kind() == OVERFLOW) {
+      LOG.warn("Watch events were lost in {}", directory);
+      return;
+    }
+
+    final var file =
+      directory.resolve((Path) event.context());
+
+    if (event.kind() == ENTRY_CREATE && Files.isDirectory(file)) {
+      this.registerTree(file);
+      return;
+    }
+
+    final var relative =
+      this.baseDirectory.relativize(file);
+    final var count =
+      relative.getNameCount();
+
+    if (count < 2) {
+      return;
+    }
+
+    final var path = new StringBuilder(64);
+    for (int index = 1; index < count; ++index) {
+      path.append('/');
+      path.append(relative.getName(index));
+    }
+
+    final RCAssetIdentifier identifier;
+    try {
+      identifier = new RCAssetIdentifier(
+        new RDottedName(relative.getName(0).toString()),
+        RCAssetPath.parse(path.toString())
+      );
+    } catch (final IllegalArgumentException e) {
+      return;
+    }
+
+    LOG.trace("Changed: {}", identifier);
+    this.receiver.accept(identifier);
+  }
+
+  @Override
+  public void close()
+    throws RCAssetException
+  {
+    try {
+      this.watchService.close();
+    } catch (final IOException e) {
+      throw errorIO(this.strings, e, this.baseDirectory);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.buffers;
+
+import com.io7m.jcoronado.api.VulkanBufferType;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.buffers.RCBufferID;
+import com.io7m.rocaro.api.buffers.RCBufferStorageType;
+import com.io7m.rocaro.vanilla.internal.RCResourceReference;
+import com.io7m.rocaro.vanilla.internal.RCResourceReferencedType;
+
+import java.util.Objects;
+
+/**
+ * A storage buffer.
+ *
+ * @param id        The buffer ID
+ * @param data      The buffer data
+ * @param size      The buffer size
+ * @param reference The holder of the buffer's resources
+ */
+
+public record RCBufferStorage(
+  RCBufferID id,
+  VulkanBufferType data,
+  long size,
+  RCResourceReference reference)
+  implements RCBufferStorageType, RCResourceReferencedType
+{
+  /**
+   * A storage buffer.
+   *
+   * @param id        The buffer ID
+   * @param data      The buffer data
+   * @param size      The buffer size
+   * @param reference The holder of the buffer's resources
+   */
+
+  public RCBufferStorage
+  {
+    Objects.requireNonNull(id, "id");
+    Objects.requireNonNull(data, "data");
+    Objects.requireNonNull(reference, "reference");
+  }
+
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    this.reference.close();
+  }
+}
@@ -19,7 +19,10 @@ package com.io7m.rocaro.vanilla.internal.graph;
 
 import com.io7m.rocaro.api.RCFrameInformation;
 import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.assets.RCAssetIdentifier;
 import com.io7m.rocaro.api.assets.RCAssetReferenceType;
+import com.io7m.rocaro.api.assets.RCAssetServiceType;
+import com.io7m.rocaro.api.assets.RCAssetType;
 import com.io7m.rocaro.api.assets.RCAssetValueFailed;
 import com.io7m.rocaro.api.assets.RCAssetValueLoaded;
 import com.io7m.rocaro.api.assets.RCAssetValueLoading;
@@ -39,6 +42,7 @@ import org.jgrapht.traverse.TopologicalOrderIterator;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -54,6 +58,7 @@ import static com.io7m.rocaro.vanilla.internal.RCStringConstants.GRAPH;
 public final class RCGraph
 {
   private final RCGraphDescription description;
+  private final RCAssetServiceType assets;
   private final Map<RCGNodeName, RCGNodeType<?>> nodes;
   private final HashSet<RCGNodeName> nodesEvaluated;
   private final HashMap<RCGNodeName, NodePreparationContext> nodesResources;
@@ -61,10 +66,13 @@ public final class RCGraph
 
   RCGraph(
     final RCGraphDescription inDescription,
+    final RCAssetServiceType inAssets,
     final Map<RCGNodeName, RCGNodeType<?>> inNodes)
   {
     this.description =
       Objects.requireNonNull(inDescription, "description");
+    this.assets =
+      Objects.requireNonNull(inAssets, "assets");
     this.nodes =
       Map.copyOf(inNodes);
     this.nodesEvaluated =
@@ -170,14 +178,25 @@ public final class RCGraph
     final RCFrameInformation frameInformation)
   {
     /*
-     * Bail out immediately if the graph is already ready, or has failed.
+     * Bail out immediately if the graph has failed, or if the graph is
+     * ready and none of the assets used by its nodes have been reloaded.
      */
 
-    if (this.status instanceof RCGStatusReady
-        || this.status instanceof RCGStatusFailed) {
+    if (this.status instanceof RCGStatusFailed) {
       return;
     }
 
+    if (this.status instanceof RCGStatusReady) {
+      final var anyStale =
+        this.nodesResources.values()
+          .stream()
+          .anyMatch(NodePreparationContext::isStale);
+
+      if (!anyStale) {
+        return;
+      }
+    }
+
     /*
      * If this graph has never been prepared, create resource holders for all
      * nodes in the graph.
@@ -310,7 +329,7 @@ public final class RCGraph
     private final HashMap<Class<? extends RCGFrameScopedServiceType>, RCGFrameScopedServiceType> frameServices;
     private final RCGNodeType<?> node;
     private final RCFrameInformation frameInformation;
-    private final HashSet<RCAssetReferenceType<?>> resources;
+    private final HashMap<RCAssetReferenceType<?>, Long> resources;
     private RCGStatusType status;
     private final RCGraph graph;
 
@@ -328,7 +347,7 @@ public final class RCGraph
       this.frameServices =
         new HashMap<>();
       this.resources =
-        new HashSet<>(8);
+        new HashMap<>(8);
       this.status =
         new RCGStatusUninitialized(inGraph.description.name());
     }
@@ -351,8 +370,44 @@ public final class RCGraph
       return (T) this.frameServices.get(serviceClass);
     }
 
+    @Override
+    public <A extends RCAssetType> RCAssetReferenceType<A> openAsset(
+      final RCAssetIdentifier identifier,
+      final Class<A> assetClass)
+    {
+      final var reference =
+        this.graph.assets.openAsset(identifier, assetClass);
+      this.resources.put(reference, Long.valueOf(reference.generation()));
+      return reference;
+    }
+
+    /**
+     * @return {@code true} if the node is ready, but at least one of its
+     * assets has been reloaded since the node was prepared
+     */
+
+    boolean isStale()
+    {
+      if (!(this.status instanceof RCGStatusReady)) {
+        return false;
+      }
+      for (final var entry : this.resources.entrySet()) {
+        if (entry.getKey().generation() != entry.getValue().longValue()) {
+          return true;
+        }
+      }
+      return false;
+    }
+
     public void update()
     {
+      final List<RCAssetReferenceType<?>> previous;
+      if (this.isStale()) {
+        previous = this.reset();
+      } else {
+        previous = List.of();
+      }
+
       switch (this.status) {
         case final RCGStatusReady _,
              final RCGStatusFailed _ -> {
@@ -372,6 +427,35 @@ public final class RCGraph
           this.updateInProgress();
         }
       }
+
+      this.closeAll(previous);
+    }
+
+    /**
+     * Forget the assets opened during the previous preparation, so that the
+     * node can be prepared again. The returned references are closed after
+     * the node has been prepared again, so that assets that are opened
+     * again are not evicted from the asset cache in the meantime.
+     */
+
+    private List<RCAssetReferenceType<?>> reset()
+    {
+      final var previous = List.copyOf(this.resources.keySet());
+      this.resources.clear();
+      this.status = new RCGStatusUninitialized(this.graph.description.name());
+      return previous;
+    }
+
+    private void closeAll(
+      final List<RCAssetReferenceType<?>> references)
+    {
+      for (final var reference : references) {
+        try {
+          reference.close();
+        } catch (final RocaroException e) {
+          this.failed(e);
+        }
+      }
     }
 
     private void failed(
@@ -389,7 +473,7 @@ public final class RCGraph
       var allReady = true;
       var progress = 0.0;
 
-      for (final var r : this.resources) {
+      for (final var r : this.resources.keySet()) {
         switch (r.get()) {
           case final RCAssetValueFailed<?> s -> {
             this.failed(s.exception());
@@ -18,6 +18,7 @@
 package com.io7m.rocaro.vanilla.internal.graph;
 
 import com.io7m.jcoronado.api.VulkanPhysicalDeviceFeatures;
+import com.io7m.rocaro.api.assets.RCAssetServiceType;
 import com.io7m.rocaro.api.graph.RCGNodeDescriptionType;
 import com.io7m.rocaro.api.graph.RCGNodeName;
 import com.io7m.rocaro.api.graph.RCGNodeType;
@@ -101,10 +102,13 @@ public final class RCGraphDescription
   /**
    * Instantiate all nodes in the graph.
    *
+   * @param assets The asset service used by nodes during preparation
+   *
    * @return The instantiated graph
    */
 
-  public RCGraph instantiate()
+  public RCGraph instantiate(
+    final RCAssetServiceType assets)
   {
     final var nodes =
       new HashMap<RCGNodeName, RCGNodeType<?>>(
@@ -129,6 +133,6 @@ public final class RCGraphDescription
       nodes.put(nodeName, node);
     }
 
-    return new RCGraph(this, nodes);
+    return new RCGraph(this, assets, nodes);
   }
 }
@@ -21,34 +21,40 @@ import com.io7m.jcoronado.api.VulkanFormat;
 import com.io7m.jcoronado.api.VulkanImageType;
 import com.io7m.jcoronado.api.VulkanImageViewType;
 import com.io7m.jtensors.core.unparameterized.vectors.Vector2I;
-import com.io7m.rocaro.api.images.RCImageColorBasicType;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.images.RCImageColorBasicUploadedType;
 import com.io7m.rocaro.api.images.RCImageFormatPreconditions;
+import com.io7m.rocaro.vanilla.internal.RCResourceReference;
+import com.io7m.rocaro.vanilla.internal.RCResourceReferencedType;
 
 import java.util.Objects;
 
 /**
  * A basic color image.
  *
- * @param size   The size
- * @param data   The image data
- * @param view   The image view
- * @param format The image format
+ * @param size      The size
+ * @param data      The image data
+ * @param view      The image view
+ * @param format    The image format
+ * @param reference The holder of the image's resources
  */
 
 public record RCImageColorBasic(
   Vector2I size,
   VulkanImageType data,
   VulkanImageViewType view,
-  VulkanFormat format)
-  implements RCImageColorBasicType
+  VulkanFormat format,
+  RCResourceReference reference)
+  implements RCImageColorBasicUploadedType, RCResourceReferencedType
 {
   /**
    * A basic color image.
    *
-   * @param size   The size
-   * @param data   The image data
-   * @param view   The image view
-   * @param format The image format
+   * @param size      The size
+   * @param data      The image data
+   * @param view      The image view
+   * @param format    The image format
+   * @param reference The holder of the image's resources
    */
 
   public RCImageColorBasic
@@ -57,7 +63,15 @@ public record RCImageColorBasic(
     Objects.requireNonNull(data, "data");
     Objects.requireNonNull(view, "view");
     Objects.requireNonNull(format, "format");
+    Objects.requireNonNull(reference, "reference");
 
     RCImageFormatPreconditions.checkColorBasicPreconditions(format);
   }
+
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    this.reference.close();
+  }
 }
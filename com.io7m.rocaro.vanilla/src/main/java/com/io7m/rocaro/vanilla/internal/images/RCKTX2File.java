@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.images;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The header and level index of a KTX2 file.
+ *
+ * @param vkFormat         The Vulkan format value
+ * @param typeSize         The size of the data type in octets
+ * @param width            The width of level 0
+ * @param height           The height of level 0
+ * @param depth            The depth of level 0
+ * @param layers           The number of array layers
+ * @param faces            The number of cube faces
+ * @param levelCount       The number of levels declared in the header
+ * @param supercompression The supercompression scheme
+ * @param levels           The level index, starting at level 0
+ */
+
+public record RCKTX2File(
+  int vkFormat,
+  int typeSize,
+  int width,
+  int height,
+  int depth,
+  int layers,
+  int faces,
+  int levelCount,
+  int supercompression,
+  List<RCKTX2Level> levels)
+{
+  /**
+   * The header and level index of a KTX2 file.
+   *
+   * @param vkFormat         The Vulkan format value
+   * @param typeSize         The size of the data type in octets
+   * @param width            The width of level 0
+   * @param height           The height of level 0
+   * @param depth            The depth of level 0
+   * @param layers           The number of array layers
+   * @param faces            The number of cube faces
+   * @param levelCount       The number of levels declared in the header
+   * @param supercompression The supercompression scheme
+   * @param levels           The level index, starting at level 0
+   */
+
+  public RCKTX2File
+  {
+    levels = List.copyOf(Objects.requireNonNull(levels, "levels"));
+  }
+}
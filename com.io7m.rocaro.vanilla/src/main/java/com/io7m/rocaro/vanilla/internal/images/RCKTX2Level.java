@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.images;
+
+import com.io7m.jaffirm.core.Preconditions;
+
+/**
+ * The location of a single mipmap level within a KTX2 file.
+ *
+ * @param offset             The offset of the level data in octets
+ * @param length             The length of the level data in octets
+ * @param uncompressedLength The length of the level data after
+ *                           supercompression is removed
+ */
+
+public record RCKTX2Level(
+  long offset,
+  long length,
+  long uncompressedLength)
+{
+  /**
+   * The location of a single mipmap level within a KTX2 file.
+   *
+   * @param offset             The offset of the level data in octets
+   * @param length             The length of the level data in octets
+   * @param uncompressedLength The length of the level data after
+   *                           supercompression is removed
+   */
+
+  public RCKTX2Level
+  {
+    Preconditions.checkPreconditionV(
+      offset >= 0L && length >= 0L && uncompressedLength >= 0L,
+      "Level offsets and lengths must be non-negative"
+    );
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.images;
+
+import com.io7m.rocaro.api.transfers.RCTransferException;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.io7m.rocaro.api.RCStandardErrorCodes.TRANSFER_CONTAINER_INVALID;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ERROR_TRANSFER_CONTAINER_INVALID;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.REASON;
+
+/**
+ * <p>A parser for the header and level index of KTX2 files.</p>
+ *
+ * <p>The parser reads directly from a (typically memory-mapped) segment
+ * and does not copy any image data. The data format descriptor, key/value
+ * data, and supercompression global data are not interpreted.</p>
+ *
+ * @see "https://registry.khronos.org/KTX/specs/2.0/ktxspec.v2.html"
+ */
+
+public final class RCKTX2Parser
+{
+  private static final byte[] IDENTIFIER = {
+    (byte) 0xAB, 'K', 'T', 'X', ' ', '2', '0', (byte) 0xBB,
+    '\r', '\n', 0x1A, '\n',
+  };
+
+  private static final ValueLayout.OfInt U32 =
+    ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+  private static final ValueLayout.OfLong U64 =
+    ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+  private static final long HEADER_SIZE = 80L;
+  private static final long LEVEL_INDEX_ENTRY_SIZE = 24L;
+
+  private RCKTX2Parser()
+  {
+
+  }
+
+  /**
+   * Parse the header and level index of a KTX2 file.
+   *
+   * @param strings The string resources
+   * @param data    The file data
+   *
+   * @return The parsed file
+   *
+   * @throws RCTransferException If the file is malformed
+   */
+
+  public static RCKTX2File parse(
+    final RCStrings strings,
+    final MemorySegment data)
+    throws RCTransferException
+  {
+    Objects.requireNonNull(strings, "strings");
+    Objects.requireNonNull(data, "data");
+
+    if (data.byteSize() < HEADER_SIZE) {
+      throw invalid(strings, "File is too short to contain a header.");
+    }
+
+    for (int index = 0; index < IDENTIFIER.length; ++index) {
+      if (data.get(ValueLayout.JAVA_BYTE, index) != IDENTIFIER[index]) {
+        throw invalid(strings, "File identifier is incorrect.");
+      }
+    }
+
+    final var vkFormat =
+      data.get(U32, 12L);
+    final var typeSize =
+      data.get(U32, 16L);
+    final var width =
+      data.get(U32, 20L);
+    final var height =
+      data.get(U32, 24L);
+    final var depth =
+      data.get(U32, 28L);
+    final var layers =
+      data.get(U32, 32L);
+    final var faces =
+      data.get(U32, 36L);
+    final var levelCount =
+      data.get(U32, 40L);
+    final var supercompression =
+      data.get(U32, 44L);
+
+    if (width <= 0) {
+      throw invalid(strings, "Image width must be positive.");
+    }
+    if (height < 0 || depth < 0 || layers < 0 || levelCount < 0) {
+      throw invalid(strings, "Image dimensions are out of range.");
+    }
+    if (faces != 1 && faces != 6) {
+      throw invalid(strings, "Face count must be 1 or 6.");
+    }
+
+    /*
+     * A level count of zero indicates that the file contains only the
+     * base level, and that the consumer should generate the rest.
+     */
+
+    final var levelsPresent =
+      Math.max(1, levelCount);
+    final var indexEnd =
+      HEADER_SIZE + (levelsPresent * LEVEL_INDEX_ENTRY_SIZE);
+
+    if (levelsPresent > 32 || data.byteSize() < indexEnd) {
+      throw invalid(strings, "File is too short to contain the level index.");
+    }
+
+    final var levels = new ArrayList<RCKTX2Level>(levelsPresent);
+    for (int level = 0; level < levelsPresent; ++level) {
+      final var base =
+        HEADER_SIZE + (level * LEVEL_INDEX_ENTRY_SIZE);
+      final var offset =
+        data.get(U64, base);
+      final var length =
+        data.get(U64, base + 8L);
+      final var uncompressedLength =
+        data.get(U64, base + 16L);
+
+      if (offset < indexEnd
+          || length < 0L
+          || uncompressedLength < 0L
+          || offset > data.byteSize() - length) {
+        throw invalid(
+          strings,
+          "Level %d lies outside the file.".formatted(Integer.valueOf(level))
+        );
+      }
+      levels.add(new RCKTX2Level(offset, length, uncompressedLength));
+    }
+
+    return new RCKTX2File(
+      vkFormat,
+      typeSize,
+      width,
+      height,
+      depth,
+      layers,
+      faces,
+      levelCount,
+      supercompression,
+      levels
+    );
+  }
+
+  private static RCTransferException invalid(
+    final RCStrings strings,
+    final String reason)
+  {
+    return new RCTransferException(
+      strings.format(ERROR_TRANSFER_CONTAINER_INVALID),
+      Map.of(strings.format(REASON), reason),
+      TRANSFER_CONTAINER_INVALID.codeName(),
+      Optional.empty()
+    );
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.notifications;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// CHECKSTYLE:OFF
+
+@Label("Notification")
+@Category("Rocaro.Notifications")
+@Description("A registered fence or semaphore was signalled, or failed. The event duration is the time from registration to the completion of the future.")
+@StackTrace(false)
+public final class RCNotificationCompleted
+  extends Event
+  implements RCNotificationEventType
+{
+  @Label("Kind")
+  public String kind;
+
+  @Label("Value")
+  @Description("The awaited timeline semaphore value, or zero for fences.")
+  public long value;
+
+  @Label("Failed")
+  public boolean failed;
+
+  @Label("Detection Window")
+  @Description("An upper bound on the time between the GPU signalling the resource and the future being completed.")
+  @Timespan(Timespan.NANOSECONDS)
+  public long detectionWindow;
+
+  public RCNotificationCompleted()
+  {
+
+  }
+}
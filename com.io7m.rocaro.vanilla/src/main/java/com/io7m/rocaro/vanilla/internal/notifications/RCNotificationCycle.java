@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.notifications;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// CHECKSTYLE:OFF
+
+@Label("Notification Cycle")
+@Category("Rocaro.Notifications")
+@Description("The notification service blocked on, and then checked, the registered fences and semaphores.")
+@StackTrace(false)
+public final class RCNotificationCycle
+  extends Event
+  implements RCNotificationEventType
+{
+  @Label("Pending Fences")
+  public int pendingFences;
+
+  @Label("Pending Semaphore Waits")
+  public int pendingSemaphoreWaits;
+
+  @Label("Pending Semaphores")
+  public int pendingSemaphores;
+
+  @Label("Completed")
+  public int completed;
+
+  @Label("Blocked")
+  @Description("The time spent blocking in the driver on the oldest registration.")
+  @Timespan(Timespan.NANOSECONDS)
+  public long blocked;
+
+  @Label("Signalled")
+  @Description("True if the blocking wait returned because the resource was signalled.")
+  public boolean signalled;
+
+  public RCNotificationCycle()
+  {
+
+  }
+}
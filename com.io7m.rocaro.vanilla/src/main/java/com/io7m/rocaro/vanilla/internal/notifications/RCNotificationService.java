@@ -19,6 +19,7 @@ package com.io7m.rocaro.vanilla.internal.notifications;
 
 import com.io7m.jcoronado.api.VulkanException;
 import com.io7m.jcoronado.api.VulkanFenceType;
+import com.io7m.jcoronado.api.VulkanSemaphoreTimelineType;
 import com.io7m.jcoronado.api.VulkanSemaphoreTimelineWait;
 import com.io7m.jmulticlose.core.CloseableCollectionType;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
@@ -39,17 +40,63 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.io7m.jcoronado.api.VulkanLogicalDeviceType.VulkanFenceStatus.VK_FENCE_SIGNALLED;
 import static com.io7m.jcoronado.api.VulkanLogicalDeviceType.VulkanWaitStatus.VK_WAIT_SUCCEEDED;
 
 /**
- * The notification service.
+ * <p>The notification service.</p>
+ *
+ * <p>Registered fences and timeline semaphores are observed by a single
+ * waiter thread. When nothing is registered, the thread parks until a new
+ * registration arrives. Otherwise, if any timeline semaphores are
+ * registered, it blocks in the driver in a single wait that returns when
+ * any one of them reaches the smallest value waited upon, or when the
+ * service's own wake semaphore is signalled, for at most the configured
+ * wait slice. The wake semaphore is signalled from the host on every new
+ * registration (and on closing the service), so a registration made while
+ * the thread is blocked is never delayed by the wait. After the wait
+ * returns, every registration is checked without blocking. Timeline
+ * semaphore waits are therefore observed as soon as the driver returns,
+ * regardless of the order in which they complete.</p>
+ *
+ * <p>Fences cannot take part in a semaphore wait. If only fences are
+ * registered, the thread blocks on the oldest fence (GPU work generally
+ * completes in submission order, so this is usually the first to be
+ * signalled) for at most the wait slice, and otherwise fences are checked
+ * each time the semaphore wait returns. Fences, and registrations made
+ * while the thread is blocked on a fence, are therefore observed within
+ * one wait slice.</p>
+ *
+ * <p>Registrations that are still pending when the service is closed are
+ * failed.</p>
+ *
+ * <p>Waits on timeline semaphores are held in a min-heap of values per
+ * semaphore. Devices signal a single timeline semaphore per queue, so a
+ * check of the largest pending value of a semaphore completes every wait
+ * on that queue at once, and a check of the smallest pending value costs a
+ * single query per queue when nothing has completed.</p>
+ *
+ * <p>Every completed registration produces an {@link RCNotificationCompleted}
+ * event, and every check cycle produces an {@link RCNotificationCycle} event.
+ * The same measurements are accumulated into counters that can be read with
+ * {@link #statistics()}. There is no way to read the time at which the GPU
+ * actually signalled a resource, so the detection window of a registration
+ * is bounded by the last time it was observed to be unsignalled: the start
+ * of the previous sweep, its registration time, or the return of a blocking
+ * wait that it satisfied.</p>
  */
 
 public final class RCNotificationService
@@ -59,37 +106,87 @@ public final class RCNotificationService
   private static final Logger LOG =
     LoggerFactory.getLogger(RCNotificationService.class);
 
+  private static final Comparator<TimelineSemaphore> TIMELINE_ORDER =
+    Comparator.comparingLong(w -> w.semaphore.value());
+
   private final CloseableCollectionType<RocaroException> resources;
   private final RCDeviceType device;
-  private final ConcurrentHashMap.KeySetView<Fence, Boolean> fences;
-  private final ConcurrentHashMap.KeySetView<TimelineSemaphore, Boolean> timelineSemaphores;
+  private final ReentrantLock lock;
+  private final Condition registered;
+  private final LinkedHashSet<Fence> fences;
+  private final LinkedHashMap<VulkanSemaphoreTimelineType, PriorityQueue<TimelineSemaphore>> timelines;
   private final AtomicBoolean closed;
-  private final Duration checkFrequency;
+  private final VulkanSemaphoreTimelineType wakeSemaphore;
+  private final long waitSliceNanos;
+  private final AtomicLong cycles;
+  private final AtomicLong fencesRegistered;
+  private final AtomicLong semaphoresRegistered;
+  private final AtomicLong completed;
+  private final AtomicLong failed;
+  private final AtomicLong latencyTotal;
+  private final AtomicLong latencyMaximum;
+  private final AtomicLong windowTotal;
+  private final AtomicLong windowMaximum;
+  private final AtomicLong blockedTotal;
+  private final AtomicLong cycleTotal;
+  private long sweepPreviousNanos;
+  private long wakeValue;
 
   private RCNotificationService(
     final CloseableCollectionType<RocaroException> inResources,
     final RCVulkanRendererType inVulkan,
-    final Duration inCheckFrequency)
+    final VulkanSemaphoreTimelineType inWake,
+    final Duration inWaitSlice)
   {
-    this.checkFrequency =
-      Objects.requireNonNull(inCheckFrequency, "checkFrequency");
+    this.wakeSemaphore =
+      Objects.requireNonNull(inWake, "wake");
+    this.waitSliceNanos =
+      Objects.requireNonNull(inWaitSlice, "waitSlice").toNanos();
     this.closed =
       new AtomicBoolean(false);
     this.resources =
       Objects.requireNonNull(inResources, "resources");
     this.device =
       inVulkan.device();
+    this.lock =
+      new ReentrantLock();
+    this.registered =
+      this.lock.newCondition();
     this.fences =
-      ConcurrentHashMap.newKeySet();
-    this.timelineSemaphores =
-      ConcurrentHashMap.newKeySet();
+      new LinkedHashSet<>();
+    this.timelines =
+      new LinkedHashMap<>();
+    this.cycles =
+      new AtomicLong();
+    this.fencesRegistered =
+      new AtomicLong();
+    this.semaphoresRegistered =
+      new AtomicLong();
+    this.completed =
+      new AtomicLong();
+    this.failed =
+      new AtomicLong();
+    this.latencyTotal =
+      new AtomicLong();
+    this.latencyMaximum =
+      new AtomicLong();
+    this.windowTotal =
+      new AtomicLong();
+    this.windowMaximum =
+      new AtomicLong();
+    this.blockedTotal =
+      new AtomicLong();
+    this.cycleTotal =
+      new AtomicLong();
+    this.sweepPreviousNanos =
+      System.nanoTime();
   }
 
   /**
    * Create a notification service.
    *
-   * @param services       The service directory
-   * @param checkFrequency The frequency at which to check for notifications
+   * @param services  The service directory
+   * @param waitSlice The maximum time to block waiting for any one resource
    *
    * @return The service
    *
@@ -98,7 +195,7 @@ public final class RCNotificationService
 
   public static RCNotificationService create(
     final RPServiceDirectoryType services,
-    final Duration checkFrequency)
+    final Duration waitSlice)
     throws RCServiceException
   {
     try {
@@ -117,12 +214,22 @@ public final class RCNotificationService
           )
         );
 
+      final var device =
+        vulkan.device();
+      final var wake =
+        device.registerResource(device.device().createTimelineSemaphore(0L));
+      device.device()
+        .debugging()
+        .setObjectName(wake, "NotificationWake");
+
       final var service =
-        new RCNotificationService(resources, vulkan, checkFrequency);
+        new RCNotificationService(resources, vulkan, wake, waitSlice);
 
       executor.execute(service::run);
       return service;
-    } catch (final RPServiceException | IllegalStateException e) {
+    } catch (final RPServiceException
+                   | VulkanException
+                   | IllegalStateException e) {
       throw new RCServiceException(e);
     }
   }
@@ -132,6 +239,9 @@ public final class RCNotificationService
     while (!this.closed.get()) {
       try {
         this.runOne();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
       } catch (final Throwable e) {
         LOG.debug("Notification exception: ", e);
       }
@@ -139,51 +249,333 @@ public final class RCNotificationService
   }
 
   private void runOne()
+    throws InterruptedException
   {
-    final var fencesNow =
-      List.copyOf(this.fences);
-    for (final var fence : fencesNow) {
-      this.runCheckFence(fence);
+    /*
+     * Park until something is registered.
+     */
+
+    final Fence oldestFence;
+    final List<VulkanSemaphoreTimelineWait> waits;
+    final List<Fence> fencesNow;
+    final List<VulkanSemaphoreTimelineType> semaphoresNow;
+    final var ev = new RCNotificationCycle();
+
+    this.lock.lock();
+    try {
+      while (this.fences.isEmpty() && this.timelines.isEmpty()) {
+        if (this.closed.get()) {
+          return;
+        }
+        this.registered.await();
+      }
+
+      /*
+       * Each semaphore is waited upon for the smallest pending value, and
+       * the wake semaphore for the next value that will be signalled. A
+       * registration made after this point signals the wake semaphore with
+       * at least that value, and so the wait returns immediately even if
+       * the registration happens before the wait begins.
+       */
+
+      if (this.timelines.isEmpty()) {
+        oldestFence = this.fences.getFirst();
+        waits = List.of();
+      } else {
+        oldestFence = null;
+        waits = new ArrayList<>(this.timelines.size() + 1);
+        for (final var heap : this.timelines.values()) {
+          waits.add(heap.peek().semaphore);
+        }
+        waits.add(
+          new VulkanSemaphoreTimelineWait(this.wakeSemaphore, this.wakeValue + 1L)
+        );
+      }
+    } finally {
+      this.lock.unlock();
+    }
+
+    final var timeStart = System.nanoTime();
+    ev.begin();
+
+    /*
+     * Block in the driver, and then check everything that is registered.
+     * Failures are reported by the checks.
+     */
+
+    try {
+      if (oldestFence != null) {
+        if (oldestFence.waitFor(this.waitSliceNanos)) {
+          oldestFence.signalledNanos = System.nanoTime();
+          ev.signalled = true;
+        }
+      } else {
+        ev.signalled = this.waitForAny(waits);
+      }
+    } catch (final RocaroException e) {
+      LOG.debug("Wait failed: ", e);
+    }
+
+    final var timeSweep = System.nanoTime();
+    final var blocked = timeSweep - timeStart;
+    ev.blocked = blocked;
+
+    this.lock.lock();
+    try {
+      fencesNow = List.copyOf(this.fences);
+      semaphoresNow = List.copyOf(this.timelines.keySet());
+      ev.pendingFences = fencesNow.size();
+      ev.pendingSemaphores = semaphoresNow.size();
+      ev.pendingSemaphoreWaits = this.pendingSemaphoreWaits();
+    } finally {
+      this.lock.unlock();
     }
 
-    final var semaphoresNow =
-      List.copyOf(this.timelineSemaphores);
+    final var completedBefore =
+      this.completed.get() + this.failed.get();
+
+    for (final var fence : fencesNow) {
+      this.checkFence(fence);
+    }
     for (final var semaphore : semaphoresNow) {
-      this.runCheckSemaphore(semaphore);
+      this.checkTimeline(semaphore);
     }
 
+    /*
+     * Everything that is still pending was unsignalled when the sweep
+     * started.
+     */
+
+    this.sweepPreviousNanos = timeSweep;
+
+    ev.completed =
+      Math.toIntExact(this.completed.get() + this.failed.get() - completedBefore);
+    ev.commit();
+
+    this.cycles.incrementAndGet();
+    this.blockedTotal.addAndGet(blocked);
+    this.cycleTotal.addAndGet(System.nanoTime() - timeStart);
+  }
+
+  private boolean waitForAny(
+    final List<VulkanSemaphoreTimelineWait> waits)
+    throws RocaroException
+  {
     try {
-      Thread.sleep(this.checkFrequency);
-    } catch (final InterruptedException e) {
-      Thread.currentThread().interrupt();
+      return this.device.device()
+               .waitForTimelineSemaphoresAny(waits, this.waitSliceNanos)
+             == VK_WAIT_SUCCEEDED;
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
     }
   }
 
-  private void runCheckSemaphore(
-    final TimelineSemaphore semaphore)
+  /**
+   * Signal the wake semaphore so that a blocked wait returns. Values
+   * signalled from the host must be strictly increasing, and so this is
+   * called with the lock held.
+   */
+
+  private void wake()
   {
     try {
-      if (semaphore.isSignalled()) {
-        this.timelineSemaphores.remove(semaphore);
-        semaphore.future.complete(RCUnit.UNIT);
+      ++this.wakeValue;
+      this.device.device()
+        .signalTimelineSemaphore(this.wakeSemaphore, this.wakeValue);
+    } catch (final VulkanException e) {
+      LOG.debug("Wake failed: ", e);
+    }
+  }
+
+  private int pendingSemaphoreWaits()
+  {
+    var count = 0;
+    for (final var heap : this.timelines.values()) {
+      count += heap.size();
+    }
+    return count;
+  }
+
+  private void complete(
+    final Waitable waitable)
+  {
+    this.finish(waitable, false);
+    waitable.future.complete(RCUnit.UNIT);
+  }
+
+  private void fail(
+    final Waitable waitable,
+    final Throwable e)
+  {
+    this.finish(waitable, true);
+    waitable.future.completeExceptionally(e);
+  }
+
+  private void finish(
+    final Waitable waitable,
+    final boolean isFailed)
+  {
+    final var timeNow =
+      System.nanoTime();
+    final var latency =
+      timeNow - waitable.registeredNanos;
+
+    final long unsignalledLast;
+    if (waitable.signalledNanos != 0L) {
+      unsignalledLast = waitable.signalledNanos;
+    } else {
+      unsignalledLast =
+        Math.max(waitable.registeredNanos, this.sweepPreviousNanos);
+    }
+    final var window = Math.max(0L, timeNow - unsignalledLast);
+
+    if (isFailed) {
+      this.failed.incrementAndGet();
+    } else {
+      this.completed.incrementAndGet();
+    }
+    this.latencyTotal.addAndGet(latency);
+    this.latencyMaximum.accumulateAndGet(latency, Math::max);
+    this.windowTotal.addAndGet(window);
+    this.windowMaximum.accumulateAndGet(window, Math::max);
+
+    final var ev = waitable.event;
+    ev.failed = isFailed;
+    ev.detectionWindow = window;
+    ev.commit();
+  }
+
+  private void checkFence(
+    final Fence fence)
+  {
+    try {
+      if (fence.waitFor(0L)) {
+        if (this.removeFence(fence)) {
+          this.complete(fence);
+        }
       }
     } catch (final RocaroException e) {
-      this.timelineSemaphores.remove(semaphore);
-      semaphore.future.completeExceptionally(e);
+      if (this.removeFence(fence)) {
+        this.fail(fence, e);
+      }
     }
   }
 
-  private void runCheckFence(
+  private boolean removeFence(
     final Fence fence)
+  {
+    this.lock.lock();
+    try {
+      return this.fences.remove(fence);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void checkTimeline(
+    final VulkanSemaphoreTimelineType semaphore)
   {
     try {
-      if (fence.isSignalled()) {
-        this.fences.remove(fence);
-        fence.future.complete(RCUnit.UNIT);
+
+      /*
+       * If the largest pending value has been reached, everything waiting
+       * on the semaphore is complete.
+       */
+
+      final var largest = this.timelineLargest(semaphore);
+      if (largest == null) {
+        return;
+      }
+      if (largest.waitFor(0L)) {
+        this.timelineCompleteAtMost(semaphore, largest.semaphore.value());
+        return;
+      }
+
+      /*
+       * Otherwise, complete waits in ascending order of value until one is
+       * found that has not been reached.
+       */
+
+      while (true) {
+        final var smallest = this.timelineSmallest(semaphore);
+        if (smallest == null || !smallest.waitFor(0L)) {
+          return;
+        }
+        this.timelineCompleteAtMost(semaphore, smallest.semaphore.value());
       }
     } catch (final RocaroException e) {
-      this.fences.remove(fence);
-      fence.future.completeExceptionally(e);
+      final PriorityQueue<TimelineSemaphore> removed;
+      this.lock.lock();
+      try {
+        removed = this.timelines.remove(semaphore);
+      } finally {
+        this.lock.unlock();
+      }
+      if (removed != null) {
+        for (final var w : removed) {
+          this.fail(w, e);
+        }
+      }
+    }
+  }
+
+  private TimelineSemaphore timelineSmallest(
+    final VulkanSemaphoreTimelineType semaphore)
+  {
+    this.lock.lock();
+    try {
+      final var heap = this.timelines.get(semaphore);
+      return heap == null ? null : heap.peek();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private TimelineSemaphore timelineLargest(
+    final VulkanSemaphoreTimelineType semaphore)
+  {
+    this.lock.lock();
+    try {
+      final var heap = this.timelines.get(semaphore);
+      if (heap == null) {
+        return null;
+      }
+      TimelineSemaphore largest = null;
+      for (final var w : heap) {
+        if (largest == null || w.semaphore.value() > largest.semaphore.value()) {
+          largest = w;
+        }
+      }
+      return largest;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void timelineCompleteAtMost(
+    final VulkanSemaphoreTimelineType semaphore,
+    final long value)
+  {
+    final var done = new ArrayList<TimelineSemaphore>();
+
+    this.lock.lock();
+    try {
+      final var heap = this.timelines.get(semaphore);
+      if (heap == null) {
+        return;
+      }
+      while (!heap.isEmpty() && heap.peek().semaphore.value() <= value) {
+        done.add(heap.poll());
+      }
+      if (heap.isEmpty()) {
+        this.timelines.remove(semaphore);
+      }
+    } finally {
+      this.lock.unlock();
+    }
+
+    for (final var w : done) {
+      this.complete(w);
     }
   }
 
@@ -193,9 +585,40 @@ public final class RCNotificationService
   {
     LOG.debug("Close");
     this.closed.set(true);
+
+    /*
+     * Anything still registered will never be observed, and so is failed
+     * rather than left pending.
+     */
+
+    final var pending = new ArrayList<Waitable>();
+    this.lock.lock();
+    try {
+      pending.addAll(this.fences);
+      this.fences.clear();
+      for (final var heap : this.timelines.values()) {
+        pending.addAll(heap);
+      }
+      this.timelines.clear();
+      this.registered.signalAll();
+      this.wake();
+    } finally {
+      this.lock.unlock();
+    }
+
+    final var closedError = errorClosed();
+    for (final var waitable : pending) {
+      this.fail(waitable, closedError);
+    }
+
     this.resources.close();
   }
 
+  private static IllegalStateException errorClosed()
+  {
+    return new IllegalStateException("Notification service is closed.");
+  }
+
   @Override
   public String description()
   {
@@ -207,7 +630,20 @@ public final class RCNotificationService
     final VulkanFenceType fence)
   {
     final var future = new CompletableFuture<RCUnit>();
-    this.fences.add(new Fence(this.device, future, fence));
+    final var waiter = new Fence(this.device, future, fence);
+
+    this.lock.lock();
+    try {
+      if (this.closed.get()) {
+        return CompletableFuture.failedFuture(errorClosed());
+      }
+      this.fences.add(waiter);
+      this.registered.signalAll();
+      this.wake();
+    } finally {
+      this.lock.unlock();
+    }
+    this.fencesRegistered.incrementAndGet();
     return future;
   }
 
@@ -216,37 +652,116 @@ public final class RCNotificationService
     final VulkanSemaphoreTimelineWait semaphore)
   {
     final var future = new CompletableFuture<RCUnit>();
-    this.timelineSemaphores.add(
-      new TimelineSemaphore(this.device, future, semaphore)
-    );
+    final var waiter = new TimelineSemaphore(this.device, future, semaphore);
+
+    this.lock.lock();
+    try {
+      if (this.closed.get()) {
+        return CompletableFuture.failedFuture(errorClosed());
+      }
+      this.timelines.computeIfAbsent(
+        semaphore.semaphore(),
+        _ -> new PriorityQueue<>(TIMELINE_ORDER)
+      ).add(waiter);
+      this.registered.signalAll();
+      this.wake();
+    } finally {
+      this.lock.unlock();
+    }
+    this.semaphoresRegistered.incrementAndGet();
     return future;
   }
 
-  private static final class Fence
+  @Override
+  public RCNotificationStatistics statistics()
+  {
+    final int pendingFences;
+    final int pendingSemaphoreWaits;
+
+    this.lock.lock();
+    try {
+      pendingFences = this.fences.size();
+      pendingSemaphoreWaits = this.pendingSemaphoreWaits();
+    } finally {
+      this.lock.unlock();
+    }
+
+    return new RCNotificationStatistics(
+      this.cycles.get(),
+      this.fencesRegistered.get(),
+      this.semaphoresRegistered.get(),
+      this.completed.get(),
+      this.failed.get(),
+      pendingFences,
+      pendingSemaphoreWaits,
+      Duration.ofNanos(this.latencyTotal.get()),
+      Duration.ofNanos(this.latencyMaximum.get()),
+      Duration.ofNanos(this.windowTotal.get()),
+      Duration.ofNanos(this.windowMaximum.get()),
+      Duration.ofNanos(this.blockedTotal.get()),
+      Duration.ofNanos(this.cycleTotal.get())
+    );
+  }
+
+  private abstract static sealed class Waitable
+    permits Fence, TimelineSemaphore
   {
-    private final CompletableFuture<RCUnit> future;
-    private final VulkanFenceType fence;
     private final RCDeviceType device;
+    private final CompletableFuture<RCUnit> future;
+    private final RCNotificationCompleted event;
+    private final long registeredNanos;
+    private long signalledNanos;
 
-    Fence(
+    Waitable(
       final RCDeviceType inDevice,
       final CompletableFuture<RCUnit> inFuture,
-      final VulkanFenceType inFence)
+      final String kind,
+      final long value)
     {
       this.device =
         Objects.requireNonNull(inDevice, "device");
       this.future =
         Objects.requireNonNull(inFuture, "future");
+      this.registeredNanos =
+        System.nanoTime();
+      this.event =
+        new RCNotificationCompleted();
+      this.event.kind = kind;
+      this.event.value = value;
+      this.event.begin();
+    }
+
+    abstract boolean waitFor(long timeoutNanos)
+      throws RocaroException;
+  }
+
+  private static final class Fence
+    extends Waitable
+  {
+    private final VulkanFenceType fence;
+
+    Fence(
+      final RCDeviceType inDevice,
+      final CompletableFuture<RCUnit> inFuture,
+      final VulkanFenceType inFence)
+    {
+      super(inDevice, inFuture, "Fence", 0L);
       this.fence =
         Objects.requireNonNull(inFence, "fence");
     }
 
-    boolean isSignalled()
+    @Override
+    boolean waitFor(
+      final long timeoutNanos)
       throws RocaroException
     {
       try {
-        final var vkDevice = this.device.device();
-        return vkDevice.getFenceStatus(this.fence) == VK_FENCE_SIGNALLED;
+        final var vkDevice = super.device.device();
+        if (timeoutNanos == 0L) {
+          return vkDevice.getFenceStatus(this.fence) == VK_FENCE_SIGNALLED;
+        }
+        return vkDevice.waitForFence(this.fence, timeoutNanos)
+               == VK_WAIT_SUCCEEDED;
       } catch (final VulkanException e) {
         throw RCVulkanException.wrap(e);
       }
@@ -254,30 +769,28 @@ public final class RCNotificationService
   }
 
   private static final class TimelineSemaphore
+    extends Waitable
   {
-    private final CompletableFuture<RCUnit> future;
     private final VulkanSemaphoreTimelineWait semaphore;
-    private final RCDeviceType device;
 
     TimelineSemaphore(
       final RCDeviceType inDevice,
       final CompletableFuture<RCUnit> inFuture,
       final VulkanSemaphoreTimelineWait inSemaphore)
     {
-      this.device =
-        Objects.requireNonNull(inDevice, "device");
-      this.future =
-        Objects.requireNonNull(inFuture, "future");
+      super(inDevice, inFuture, "TimelineSemaphore", inSemaphore.value());
       this.semaphore =
-        Objects.requireNonNull(inSemaphore, "fence");
+        Objects.requireNonNull(inSemaphore, "semaphore");
     }
 
-    boolean isSignalled()
+    @Override
+    boolean waitFor(
+      final long timeoutNanos)
       throws RocaroException
     {
       try {
-        final var vkDevice = this.device.device();
-        return vkDevice.waitForTimelineSemaphore(this.semaphore, 0L)
+        final var vkDevice = super.device.device();
+        return vkDevice.waitForTimelineSemaphore(this.semaphore, timeoutNanos)
                == VK_WAIT_SUCCEEDED;
       } catch (final VulkanException e) {
         throw RCVulkanException.wrap(e);
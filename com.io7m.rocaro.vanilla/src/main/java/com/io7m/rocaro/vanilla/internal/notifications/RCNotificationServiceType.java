@@ -53,4 +53,10 @@ public interface RCNotificationServiceType
 
   CompletableFuture<?> registerTimelineSemaphore(
     VulkanSemaphoreTimelineWait semaphore);
+
+  /**
+   * @return A snapshot of the service's counters
+   */
+
+  RCNotificationStatistics statistics();
 }
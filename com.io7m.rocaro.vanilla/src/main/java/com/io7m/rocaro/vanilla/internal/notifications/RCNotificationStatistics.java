@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.notifications;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * A snapshot of the counters maintained by the notification service.
+ *
+ * @param cycles                 The number of completed check cycles
+ * @param fencesRegistered       The number of fences ever registered
+ * @param semaphoresRegistered   The number of semaphore waits ever registered
+ * @param completed              The number of registrations completed
+ * @param failed                 The number of registrations that failed
+ * @param pendingFences          The number of fences currently pending
+ * @param pendingSemaphoreWaits  The number of semaphore waits currently pending
+ * @param latencyTotal           The total time from registration to completion
+ * @param latencyMaximum         The maximum time from registration to completion
+ * @param detectionWindowTotal   The total detection window
+ * @param detectionWindowMaximum The maximum detection window
+ * @param blockedTotal           The total time spent blocking in the driver
+ * @param cycleTotal             The total time spent in check cycles
+ *
+ * @see RCNotificationCompleted#detectionWindow
+ */
+
+public record RCNotificationStatistics(
+  long cycles,
+  long fencesRegistered,
+  long semaphoresRegistered,
+  long completed,
+  long failed,
+  int pendingFences,
+  int pendingSemaphoreWaits,
+  Duration latencyTotal,
+  Duration latencyMaximum,
+  Duration detectionWindowTotal,
+  Duration detectionWindowMaximum,
+  Duration blockedTotal,
+  Duration cycleTotal)
+{
+  /**
+   * A snapshot of the counters maintained by the notification service.
+   *
+   * @param cycles                 The number of completed check cycles
+   * @param fencesRegistered       The number of fences ever registered
+   * @param semaphoresRegistered   The number of semaphore waits ever registered
+   * @param completed              The number of registrations completed
+   * @param failed                 The number of registrations that failed
+   * @param pendingFences          The number of fences currently pending
+   * @param pendingSemaphoreWaits  The number of semaphore waits currently pending
+   * @param latencyTotal           The total time from registration to completion
+   * @param latencyMaximum         The maximum time from registration to completion
+   * @param detectionWindowTotal   The total detection window
+   * @param detectionWindowMaximum The maximum detection window
+   * @param blockedTotal           The total time spent blocking in the driver
+   * @param cycleTotal             The total time spent in check cycles
+   */
+
+  public RCNotificationStatistics
+  {
+    Objects.requireNonNull(latencyTotal, "latencyTotal");
+    Objects.requireNonNull(latencyMaximum, "latencyMaximum");
+    Objects.requireNonNull(detectionWindowTotal, "detectionWindowTotal");
+    Objects.requireNonNull(detectionWindowMaximum, "detectionWindowMaximum");
+    Objects.requireNonNull(blockedTotal, "blockedTotal");
+    Objects.requireNonNull(cycleTotal, "cycleTotal");
+  }
+
+  /**
+   * @return The mean time from registration to completion
+   */
+
+  public Duration latencyMean()
+  {
+    final var n = this.completed + this.failed;
+    if (n == 0L) {
+      return Duration.ZERO;
+    }
+    return this.latencyTotal.dividedBy(n);
+  }
+
+  /**
+   * @return The mean detection window
+   */
+
+  public Duration detectionWindowMean()
+  {
+    final var n = this.completed + this.failed;
+    if (n == 0L) {
+      return Duration.ZERO;
+    }
+    return this.detectionWindowTotal.dividedBy(n);
+  }
+}
@@ -24,6 +24,8 @@ import org.slf4j.LoggerFactory;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 /**
  * Convenience functions to perform blocking calls on other threads.
@@ -104,4 +106,68 @@ public final class RCExecutors
         .unstarted(w);
     });
   }
+
+  /**
+   * Create a new fork-join pool with a reasonable naming scheme. Every
+   * worker thread in the pool carries the given thread labels.
+   *
+   * @param name        The subsystem name
+   * @param id          The renderer ID
+   * @param parallelism The pool parallelism
+   * @param label       The primary thread label
+   * @param labels      The other thread labels
+   *
+   * @return A new pool
+   */
+
+  public static ForkJoinPool createForkJoinPool(
+    final String name,
+    final RCRendererID id,
+    final int parallelism,
+    final RCThreadLabel label,
+    final RCThreadLabel... labels)
+  {
+    Objects.requireNonNull(name, "name");
+    Objects.requireNonNull(labels, "labels");
+
+    final var namePrefix =
+      "com.io7m.rocaro[%s].%s-"
+        .formatted(Long.toUnsignedString(id.value(), 16), name);
+    final var bits =
+      RCThreadLabels.serializeLabels(label, labels);
+
+    return new ForkJoinPool(
+      parallelism,
+      pool -> {
+        final var thread = new LabelledWorkerThread(pool, bits);
+        thread.setName(namePrefix + thread.getPoolIndex());
+        return thread;
+      },
+      (thread, e) -> {
+        LOG.error("Uncaught exception in {}: ", thread.getName(), e);
+      },
+      false
+    );
+  }
+
+  private static final class LabelledWorkerThread
+    extends ForkJoinWorkerThread
+  {
+    private final int bits;
+
+    LabelledWorkerThread(
+      final ForkJoinPool pool,
+      final int inBits)
+    {
+      super(pool);
+      this.bits = inBits;
+    }
+
+    @Override
+    protected void onStart()
+    {
+      super.onStart();
+      RCThreadLabels.LABELS.set(Integer.valueOf(this.bits));
+    }
+  }
 }
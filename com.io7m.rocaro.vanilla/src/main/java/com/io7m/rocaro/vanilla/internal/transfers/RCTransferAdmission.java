@@ -0,0 +1,299 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.transfers.RCTransferBackpressurePolicy;
+import com.io7m.rocaro.api.transfers.RCTransferException;
+import com.io7m.rocaro.api.transfers.RCTransferJFREventBackpressure;
+import com.io7m.rocaro.api.transfers.RCTransferServiceConfiguration;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.io7m.rocaro.api.RCStandardErrorCodes.TRANSFER_BACKPRESSURE;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ERROR_TRANSFER_BACKPRESSURE;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ERROR_TRANSFER_BACKPRESSURE_REMEDIATE;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.OPERATIONS_IN_FLIGHT;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.SIZE;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.STAGING_IN_FLIGHT;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.TRANSFER;
+
+/**
+ * <p>Admission control for the transfer service.</p>
+ *
+ * <p>Operations are admitted only while the number of operations in flight,
+ * and the staging memory they hold, are within the configured limits.
+ * Depending on the configured policy, operations that cannot be admitted
+ * are either queued and started (in submission order) as earlier operations
+ * are released, or are rejected immediately. An operation that is larger
+ * than the staging limit by itself is admitted only when nothing else is
+ * in flight, so that it cannot wait forever.</p>
+ */
+
+public final class RCTransferAdmission
+  extends RCObject
+{
+  private final RCStrings strings;
+  private final RCTransferBackpressurePolicy policy;
+  private final int maximumOperations;
+  private final long maximumOctets;
+  private final ReentrantLock lock;
+  private final ArrayDeque<Waiting> waiting;
+  private int inFlightOperations;
+  private long inFlightOctets;
+  private long waitingOctets;
+
+  private record Waiting(
+    UUID transferID,
+    long octets,
+    Runnable start)
+  {
+
+  }
+
+  private RCTransferAdmission(
+    final RCStrings inStrings,
+    final RCTransferBackpressurePolicy inPolicy,
+    final int inMaximumOperations,
+    final long inMaximumOctets)
+  {
+    this.strings =
+      Objects.requireNonNull(inStrings, "strings");
+    this.policy =
+      Objects.requireNonNull(inPolicy, "policy");
+    this.maximumOperations =
+      inMaximumOperations;
+    this.maximumOctets =
+      inMaximumOctets;
+    this.lock =
+      new ReentrantLock();
+    this.waiting =
+      new ArrayDeque<>();
+  }
+
+  /**
+   * Create admission control.
+   *
+   * @param strings       The string resources
+   * @param configuration The transfer configuration
+   *
+   * @return The admission control
+   */
+
+  public static RCTransferAdmission create(
+    final RCStrings strings,
+    final RCTransferServiceConfiguration configuration)
+  {
+    Objects.requireNonNull(configuration, "configuration");
+
+    return new RCTransferAdmission(
+      strings,
+      configuration.backpressurePolicy(),
+      configuration.maximumInFlightOperations(),
+      configuration.maximumInFlightStagingOctets()
+    );
+  }
+
+  /**
+   * Admit an operation. If the operation can be admitted immediately,
+   * {@code start} is executed on the calling thread. Otherwise, if the
+   * policy is {@link RCTransferBackpressurePolicy#WAIT}, {@code start} is
+   * executed later on whichever thread calls {@link #release(long)}. Every
+   * admitted operation must eventually be released.
+   *
+   * @param transferID The transfer ID
+   * @param octets     The staging memory held by the operation
+   * @param start      The function that starts the operation
+   *
+   * @throws RCTransferException If the operation is rejected
+   */
+
+  public void admit(
+    final UUID transferID,
+    final long octets,
+    final Runnable start)
+    throws RCTransferException
+  {
+    Objects.requireNonNull(transferID, "transferID");
+    Objects.requireNonNull(start, "start");
+
+    this.lock.lock();
+    try {
+      if (this.waiting.isEmpty() && this.fits(octets)) {
+        this.inFlightOperations += 1;
+        this.inFlightOctets += octets;
+        this.event(transferID, "Admitted");
+      } else if (this.policy == RCTransferBackpressurePolicy.WAIT) {
+        this.waiting.add(new Waiting(transferID, octets, start));
+        this.waitingOctets += octets;
+        this.event(transferID, "Queued");
+        return;
+      } else {
+        this.event(transferID, "Rejected");
+        throw this.errorRejected(transferID, octets);
+      }
+    } finally {
+      this.lock.unlock();
+    }
+
+    start.run();
+  }
+
+  /**
+   * Release an operation that was previously admitted, and start as many
+   * waiting operations as now fit within the limits.
+   *
+   * @param octets The staging memory held by the operation
+   */
+
+  public void release(
+    final long octets)
+  {
+    final var started = new ArrayList<Runnable>();
+
+    this.lock.lock();
+    try {
+      this.inFlightOperations -= 1;
+      this.inFlightOctets -= octets;
+
+      while (!this.waiting.isEmpty()) {
+        final var next = this.waiting.peek();
+        if (!this.fits(next.octets)) {
+          break;
+        }
+        this.waiting.poll();
+        this.waitingOctets -= next.octets;
+        this.inFlightOperations += 1;
+        this.inFlightOctets += next.octets;
+        this.event(next.transferID, "Admitted");
+        started.add(next.start);
+      }
+    } finally {
+      this.lock.unlock();
+    }
+
+    /*
+     * Waiting operations are started outside the lock, in the order in
+     * which they were submitted.
+     */
+
+    for (final var start : started) {
+      start.run();
+    }
+  }
+
+  private boolean fits(
+    final long octets)
+  {
+    if (this.inFlightOperations >= this.maximumOperations) {
+      return false;
+    }
+    if (this.inFlightOctets == 0L) {
+      return true;
+    }
+    return this.inFlightOctets + octets <= this.maximumOctets;
+  }
+
+  private void event(
+    final UUID transferID,
+    final String outcome)
+  {
+    final var ev = new RCTransferJFREventBackpressure();
+    if (ev.shouldCommit()) {
+      ev.transferID = transferID.toString();
+      ev.outcome = outcome;
+      ev.inFlightOperations = this.inFlightOperations;
+      ev.inFlightOctets = this.inFlightOctets;
+      ev.waitingOperations = this.waiting.size();
+      ev.waitingOctets = this.waitingOctets;
+      ev.commit();
+    }
+  }
+
+  /**
+   * @return The number of operations in flight
+   */
+
+  public int inFlightOperations()
+  {
+    this.lock.lock();
+    try {
+      return this.inFlightOperations;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * @return The staging memory held by operations in flight
+   */
+
+  public long inFlightOctets()
+  {
+    this.lock.lock();
+    try {
+      return this.inFlightOctets;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * @return The number of operations waiting to be admitted
+   */
+
+  public int waitingOperations()
+  {
+    this.lock.lock();
+    try {
+      return this.waiting.size();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private RCTransferException errorRejected(
+    final UUID transferID,
+    final long octets)
+  {
+    return new RCTransferException(
+      this.strings.format(ERROR_TRANSFER_BACKPRESSURE),
+      Map.ofEntries(
+        Map.entry(this.strings.format(TRANSFER), transferID.toString()),
+        Map.entry(this.strings.format(SIZE), Long.toUnsignedString(octets)),
+        Map.entry(
+          this.strings.format(OPERATIONS_IN_FLIGHT),
+          Integer.toString(this.inFlightOperations)
+        ),
+        Map.entry(
+          this.strings.format(STAGING_IN_FLIGHT),
+          Long.toUnsignedString(this.inFlightOctets)
+        )
+      ),
+      TRANSFER_BACKPRESSURE.codeName(),
+      Optional.of(this.strings.format(ERROR_TRANSFER_BACKPRESSURE_REMEDIATE))
+    );
+  }
+}
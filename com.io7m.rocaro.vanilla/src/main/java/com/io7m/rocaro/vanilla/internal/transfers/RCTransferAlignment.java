@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jaffirm.core.Preconditions;
+
+/**
+ * Functions to calculate alignments for transfer operations.
+ */
+
+public final class RCTransferAlignment
+{
+  private RCTransferAlignment()
+  {
+
+  }
+
+  /**
+   * Calculate the required alignment for the source offset of a
+   * buffer-to-image copy. The offset must be a multiple of four and a
+   * multiple of the texel (or block) size of the image format.
+   *
+   * @param texelSize The size of a texel or block in octets
+   *
+   * @return The alignment
+   */
+
+  public static long copyAlignment(
+    final long texelSize)
+  {
+    Preconditions.checkPreconditionV(
+      texelSize > 0L,
+      "Texel size %d must be positive",
+      Long.valueOf(texelSize)
+    );
+
+    return lcm(4L, texelSize);
+  }
+
+  /**
+   * Calculate the number of rows of an image that should be copied in a
+   * single part of a split buffer-to-image copy. Each part begins at an
+   * offset of a whole number of rows from the start of the image data, and
+   * so the number of rows (except in the final part) must be chosen such
+   * that the next part begins at a multiple of four octets. At least one
+   * valid step of rows is always copied, even if this exceeds
+   * {@code maximumOctets}.
+   *
+   * @param rowOctets     The size of a row in octets
+   * @param maximumOctets The maximum number of octets to copy
+   * @param remainingRows The number of rows not yet copied
+   *
+   * @return The number of rows to copy
+   */
+
+  public static long rowsForCopy(
+    final long rowOctets,
+    final long maximumOctets,
+    final long remainingRows)
+  {
+    Preconditions.checkPreconditionV(
+      rowOctets > 0L,
+      "Row size %d must be positive",
+      Long.valueOf(rowOctets)
+    );
+    Preconditions.checkPreconditionV(
+      remainingRows > 0L,
+      "Remaining rows %d must be positive",
+      Long.valueOf(remainingRows)
+    );
+
+    final var step = 4L / gcd(rowOctets, 4L);
+    final var rows = ((Math.max(0L, maximumOctets) / rowOctets) / step) * step;
+    return Math.min(Math.max(rows, step), remainingRows);
+  }
+
+  private static long lcm(
+    final long x,
+    final long y)
+  {
+    return (x / gcd(x, y)) * y;
+  }
+
+  private static long gcd(
+    final long x,
+    final long y)
+  {
+    var a = x;
+    var b = y;
+    while (b != 0L) {
+      final var t = b;
+      b = a % b;
+      a = t;
+    }
+    return a;
+  }
+}
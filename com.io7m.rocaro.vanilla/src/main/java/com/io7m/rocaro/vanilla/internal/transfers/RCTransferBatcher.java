@@ -0,0 +1,670 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanCommandBufferSubmitInfo;
+import com.io7m.jcoronado.api.VulkanCommandBufferType;
+import com.io7m.jcoronado.api.VulkanQueueType;
+import com.io7m.jcoronado.api.VulkanSemaphoreSubmitInfo;
+import com.io7m.jcoronado.api.VulkanSemaphoreTimelineWait;
+import com.io7m.jcoronado.api.VulkanSubmitInfo;
+import com.io7m.jmulticlose.core.CloseableCollectionType;
+import com.io7m.rocaro.api.RCFrameInformation;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RCUnit;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.devices.RCDeviceTimelineSubmission;
+import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.api.transfers.RCTransferJFREventBatchSubmitted;
+import com.io7m.rocaro.api.transfers.RCTransferServiceConfiguration;
+import com.io7m.rocaro.vanilla.internal.RCResourceCollections;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.notifications.RCNotificationServiceType;
+import com.io7m.rocaro.vanilla.internal.threading.RCThread;
+import com.io7m.rocaro.vanilla.internal.transfers.RCTransferSchedule.Part;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.io7m.jcoronado.api.VulkanCommandBufferUsageFlag.VK_COMMAND_BUFFER_USAGE_ONE_TIME_SUBMIT_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_COPY_BIT;
+import static com.io7m.rocaro.api.RCUnit.UNIT;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.GPU;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.TRANSFER_IO;
+
+/**
+ * <p>The transfer batcher. Prepared transfer operations are collected into
+ * batches. The commands of every operation in a batch are recorded into a
+ * single command buffer for the transfer queue (plus one command buffer for
+ * each distinct target queue that requires an ownership transfer), the
+ * command buffers are submitted together, and the completion of the entire
+ * batch is observed with a single timeline semaphore.</p>
+ *
+ * <p>Pending operations are held in a {@link RCTransferSchedule}, which
+ * selects the parts of each batch according to priority and the per-frame
+ * budget. Before a batch is recorded, the staging memory for every selected
+ * part is allocated and filled concurrently on the task executor rather
+ * than on the batcher thread. The parts are filled while earlier batches
+ * are executing on the GPU, and the staging memory is released when the
+ * batch completes.</p>
+ */
+
+final class RCTransferBatcher
+  extends RCObject
+  implements AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(RCTransferBatcher.class);
+
+  private final RCStrings strings;
+  private final RCDeviceType device;
+  private final RCNotificationServiceType notifications;
+  private final RCTransferCommandBufferFactoryType commandBuffers;
+  private final ExecutorService taskExecutor;
+  private final Duration window;
+  private final Duration acquireDelay;
+  private final ReentrantLock lock;
+  private final Condition changed;
+  private final RCTransferSchedule<RCTransferPending<?>> schedule;
+  private final AtomicBoolean closed;
+  private final AtomicLong batchIds;
+  private final HashMap<RCTransferPending<?>, CompletableFuture<RCUnit>> started;
+
+  RCTransferBatcher(
+    final RCStrings inStrings,
+    final RCDeviceType inDevice,
+    final RCNotificationServiceType inNotifications,
+    final RCTransferCommandBufferFactoryType inCommandBuffers,
+    final ExecutorService inTaskExecutor,
+    final RCTransferServiceConfiguration configuration)
+  {
+    this.strings =
+      Objects.requireNonNull(inStrings, "strings");
+    this.device =
+      Objects.requireNonNull(inDevice, "device");
+    this.notifications =
+      Objects.requireNonNull(inNotifications, "notifications");
+    this.commandBuffers =
+      Objects.requireNonNull(inCommandBuffers, "commandBuffers");
+    this.taskExecutor =
+      Objects.requireNonNull(inTaskExecutor, "taskExecutor");
+    this.window =
+      configuration.batchWindow();
+    this.acquireDelay =
+      configuration.ownershipAcquireMaximumDelay();
+    this.lock =
+      new ReentrantLock();
+    this.changed =
+      this.lock.newCondition();
+    this.schedule =
+      new RCTransferSchedule<>(configuration, System.nanoTime());
+    this.closed =
+      new AtomicBoolean(false);
+    this.batchIds =
+      new AtomicLong(0L);
+    this.started =
+      new HashMap<>();
+  }
+
+  /**
+   * Enqueue a prepared operation for inclusion in a batch.
+   *
+   * @param pending The operation
+   */
+
+  void enqueue(
+    final RCTransferPending<?> pending)
+  {
+    Objects.requireNonNull(pending, "pending");
+
+    this.lock.lock();
+    try {
+      this.schedule.enqueue(pending);
+      this.changed.signalAll();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Indicate that a new frame has started. This replenishes the transfer
+   * budget.
+   *
+   * @param information The frame information
+   */
+
+  void frameStarted(
+    final RCFrameInformation information)
+  {
+    Objects.requireNonNull(information, "information");
+
+    this.lock.lock();
+    try {
+      this.schedule.frameStarted(
+        information.frameNumber().value().longValue()
+      );
+      this.changed.signalAll();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Run the batcher until closed.
+   */
+
+  @RCThread(TRANSFER_IO)
+  void run()
+  {
+    while (!this.closed.get()) {
+      try {
+        final var batch = this.collect();
+        if (!batch.isEmpty()) {
+          this.stageAndSubmit(batch);
+        }
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (final Throwable e) {
+        LOG.debug("Batch exception: ", e);
+      }
+    }
+  }
+
+  private List<Part<RCTransferPending<?>>> collect()
+    throws InterruptedException
+  {
+    /*
+     * Wait for the first operation of a batch, and then wait for the batch
+     * window to elapse in order to collect any further operations that
+     * arrive in the meantime.
+     */
+
+    this.lock.lock();
+    try {
+      if (this.schedule.isEmpty()) {
+        this.changed.await(100L, TimeUnit.MILLISECONDS);
+        if (this.schedule.isEmpty()) {
+          return List.of();
+        }
+      }
+    } finally {
+      this.lock.unlock();
+    }
+
+    Thread.sleep(this.window);
+
+    this.lock.lock();
+    try {
+      this.schedule.replenish(System.nanoTime());
+
+      final var batch = this.schedule.select(this::discardIfDone);
+      if (batch.isEmpty()) {
+
+        /*
+         * The budget for this frame is exhausted. Wait for the next frame,
+         * the idle timeout, or the arrival of new (possibly critical)
+         * operations.
+         */
+
+        this.changed.await(
+          this.schedule.idleRemainingNanos(System.nanoTime()),
+          TimeUnit.NANOSECONDS
+        );
+      }
+      return batch;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private boolean discardIfDone(
+    final RCTransferPending<?> pending)
+  {
+    /*
+     * An operation that was cancelled or failed before any of its data was
+     * recorded is discarded without being submitted. An operation that was
+     * cancelled or failed after some of its data was recorded (including
+     * one partially copied in a batch that later failed) may have commands
+     * in flight that refer to its resources, and so it is copied to
+     * completion and its results are discarded then.
+     */
+
+    final var future = pending.future();
+    if (!future.isDone()) {
+      return false;
+    }
+    if (this.started.containsKey(pending)) {
+      return false;
+    }
+
+    this.started.remove(pending);
+    this.closeTasks(List.of(pending));
+    return true;
+  }
+
+  @RCThread(TRANSFER_IO)
+  private void stageAndSubmit(
+    final List<Part<RCTransferPending<?>>> batch)
+    throws InterruptedException
+  {
+    final var batchResources =
+      RCResourceCollections.create(this.strings);
+    final var staged =
+      this.stage(batch, batchResources);
+
+    if (staged.isEmpty()) {
+      this.device.execute(() -> {
+        batchResources.close();
+        return UNIT;
+      });
+      return;
+    }
+    this.submitBatch(staged, batchResources);
+  }
+
+  /**
+   * Allocate and fill the staging memory for every part of the batch. The
+   * parts are staged concurrently on the task executor, and the batcher
+   * waits for all of them before recording anything. The staging memory of
+   * each part is registered with the batch resources, and so is held only
+   * while the batch is in flight. An operation whose part could not be
+   * staged is failed and removed from the batch.
+   */
+
+  @RCThread(TRANSFER_IO)
+  private List<Part<RCTransferPending<?>>> stage(
+    final List<Part<RCTransferPending<?>>> batch,
+    final CloseableCollectionType<RocaroException> batchResources)
+    throws InterruptedException
+  {
+    final var fills =
+      new ArrayList<CompletableFuture<RCUnit>>(batch.size());
+
+    for (final var part : batch) {
+      final var task = part.item().task();
+      final var partResources =
+        batchResources.add(RCResourceCollections.create(this.strings));
+      final var fill = new CompletableFuture<RCUnit>();
+      this.taskExecutor.execute(() -> {
+        try {
+          task.stageTransfer(partResources, part.maximumOctets());
+          fill.complete(UNIT);
+        } catch (final Throwable e) {
+          fill.completeExceptionally(e);
+        }
+      });
+      fills.add(fill);
+    }
+
+    final var staged =
+      new ArrayList<Part<RCTransferPending<?>>>(batch.size());
+    for (int index = 0; index < batch.size(); ++index) {
+      final var part = batch.get(index);
+      try {
+        fills.get(index).get();
+        staged.add(part);
+      } catch (final ExecutionException e) {
+        this.stageFailed(part.item(), e.getCause());
+      }
+    }
+    return staged;
+  }
+
+  private void stageFailed(
+    final RCTransferPending<?> pending,
+    final Throwable exception)
+  {
+    pending.future().completeExceptionally(exception);
+
+    /*
+     * If earlier parts of the operation are still in flight, the task
+     * cannot be closed until the most recent batch containing one of them
+     * has completed.
+     */
+
+    final var inFlight = this.started.remove(pending);
+    if (inFlight == null) {
+      this.closeTasks(List.of(pending));
+      return;
+    }
+    inFlight.whenComplete((_, _) -> this.closeTasks(List.of(pending)));
+  }
+
+  private void requeue(
+    final List<Part<RCTransferPending<?>>> partial,
+    final long octets)
+  {
+    this.lock.lock();
+    try {
+      this.schedule.requeue(partial);
+      this.schedule.issued(octets);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @RCThread(TRANSFER_IO)
+  private void submitBatch(
+    final List<Part<RCTransferPending<?>>> batch,
+    final CloseableCollectionType<RocaroException> batchResources)
+  {
+    final var batchId =
+      this.batchIds.incrementAndGet();
+    final var batchDone =
+      new CompletableFuture<RCUnit>();
+    final var finished =
+      new ArrayList<RCTransferPending<?>>(batch.size());
+    final var partial =
+      new ArrayList<Part<RCTransferPending<?>>>();
+    final var requeued =
+      new ArrayList<RCTransferPending<?>>();
+
+    try {
+      final var transferQueue =
+        this.device.transferQueue();
+
+      /*
+       * Record the transfer queue commands for every operation into a
+       * single command buffer, and collect the operations that require
+       * commands on other queues. Operations that have not finished
+       * copying their data are returned to the queue for a later batch.
+       */
+
+      final var transferCommands =
+        this.commandBuffers.commandBufferForQueue(
+          batchResources,
+          transferQueue,
+          "TransferBatch[%d]".formatted(Long.valueOf(batchId))
+        );
+
+      final var targets =
+        new LinkedHashMap<VulkanQueueType, List<RCTransferPending<?>>>();
+
+      var octets = 0L;
+      transferCommands.beginCommandBuffer(
+        VK_COMMAND_BUFFER_USAGE_ONE_TIME_SUBMIT_BIT
+      );
+      for (final var part : batch) {
+        final var pending = part.item();
+        final var task = pending.task();
+        octets += task.recordTransferCommands(
+          transferCommands,
+          part.maximumOctets()
+        );
+
+        if (task.transferRemainingOctets() > 0L) {
+          partial.add(part);
+          continue;
+        }
+
+        finished.add(pending);
+        final var targetQueue = task.targetQueue();
+        if (!Objects.equals(targetQueue, transferQueue)) {
+          targets.computeIfAbsent(targetQueue, _ -> new ArrayList<>())
+            .add(pending);
+        }
+      }
+      transferCommands.endCommandBuffer();
+
+      this.requeue(partial, octets);
+      for (final var part : partial) {
+        requeued.add(part.item());
+        this.started.put(part.item(), batchDone);
+      }
+      for (final var pending : finished) {
+        this.started.remove(pending);
+      }
+
+      /*
+       * The batch is tracked with the timeline semaphores of the queues to
+       * which it is submitted. The work on each target queue waits for the
+       * transfer queue work to reach its point on the transfer timeline, and
+       * the batch is complete when every submission has reached its point
+       * on the timeline of its queue.
+       */
+
+      final var submits =
+        new ArrayList<CompletableFuture<?>>();
+      final var completions =
+        new ArrayList<VulkanSemaphoreTimelineWait>();
+
+      final var transferSubmit =
+        this.device.submitTimeline(
+          transferQueue,
+          List.of(
+            VulkanSubmitInfo.builder()
+              .addCommandBuffers(
+                VulkanCommandBufferSubmitInfo.builder()
+                  .setCommandBuffer(transferCommands)
+                  .build())
+              .build()
+          )
+        );
+
+      submits.add(transferSubmit.submitted());
+      completions.add(transferSubmit.completed());
+
+      for (final var entry : targets.entrySet()) {
+        final var targetQueue = entry.getKey();
+        final var targetCommands =
+          this.commandBuffers.commandBufferForQueue(
+            batchResources,
+            targetQueue,
+            "TransferBatchAcquire[%d]".formatted(Long.valueOf(batchId))
+          );
+
+        targetCommands.beginCommandBuffer(
+          VK_COMMAND_BUFFER_USAGE_ONE_TIME_SUBMIT_BIT
+        );
+        for (final var pending : entry.getValue()) {
+          pending.task().recordTargetCommands(targetCommands);
+        }
+        targetCommands.endCommandBuffer();
+
+        final var targetSubmit =
+          this.submitTarget(
+            targetQueue,
+            this.targetSubmission(transferSubmit.completed(), targetCommands)
+          );
+
+        submits.add(targetSubmit.submitted());
+        completions.add(targetSubmit.completed());
+      }
+
+      final var ev = new RCTransferJFREventBatchSubmitted();
+      if (ev.shouldCommit()) {
+        ev.batchID = batchId;
+        ev.operations = batch.size();
+        ev.submits = submits.size();
+        ev.commit();
+      }
+
+      CompletableFuture.allOf(submits.toArray(new CompletableFuture[0]))
+        .thenCompose(_ -> {
+          return CompletableFuture.allOf(
+            completions.stream()
+              .map(this.notifications::registerTimelineSemaphore)
+              .toArray(CompletableFuture[]::new)
+          );
+        })
+        .whenCompleteAsync((_, exception) -> {
+          this.completeBatch(
+            finished,
+            requeued,
+            batchResources,
+            batchDone,
+            exception
+          );
+        }, this.taskExecutor);
+
+    } catch (final Throwable e) {
+
+      /*
+       * Any operation that was not returned to the queue is finished,
+       * one way or another.
+       */
+
+      final var failed = new ArrayList<RCTransferPending<?>>(batch.size());
+      for (final var part : batch) {
+        final var pending = part.item();
+        if (!requeued.contains(pending)) {
+          failed.add(pending);
+        }
+      }
+      this.completeBatch(failed, requeued, batchResources, batchDone, e);
+    }
+  }
+
+  private RCDeviceTimelineSubmission submitTarget(
+    final VulkanQueueType targetQueue,
+    final VulkanSubmitInfo submission)
+    throws RocaroException
+  {
+    /*
+     * Ownership acquisitions on the graphics queue are folded into the
+     * next graphics queue submission made by the renderer, saving a queue
+     * submission per batch. The device never folds them into a fenced
+     * submission such as a frame, so frame fences do not wait on the
+     * transfer queue.
+     */
+
+    final var graphics =
+      Objects.equals(targetQueue, this.device.graphicsQueue());
+
+    if (graphics && !this.acquireDelay.isZero()) {
+      return this.device.submitTimelineDeferred(
+        targetQueue,
+        List.of(submission),
+        this.acquireDelay
+      );
+    }
+
+    return this.device.submitTimeline(targetQueue, List.of(submission));
+  }
+
+  private VulkanSubmitInfo targetSubmission(
+    final VulkanSemaphoreTimelineWait transferCompleted,
+    final VulkanCommandBufferType commands)
+  {
+    return VulkanSubmitInfo.builder()
+      .addCommandBuffers(
+        VulkanCommandBufferSubmitInfo.builder()
+          .setCommandBuffer(commands)
+          .build())
+      .addWaitSemaphores(
+        VulkanSemaphoreSubmitInfo.builder()
+          .addStageMask(VK_PIPELINE_STAGE_COPY_BIT)
+          .setSemaphore(transferCompleted.semaphore())
+          .setValue(transferCompleted.value())
+          .build())
+      .build();
+  }
+
+  @RCThread(TRANSFER_IO)
+  private void completeBatch(
+    final List<RCTransferPending<?>> finished,
+    final List<RCTransferPending<?>> partial,
+    final CloseableCollectionType<RocaroException> batchResources,
+    final CompletableFuture<RCUnit> batchDone,
+    final Throwable exception)
+  {
+    batchDone.complete(UNIT);
+
+    for (final var pending : finished) {
+      if (exception != null) {
+        pending.future().completeExceptionally(exception);
+      } else {
+        pending.complete();
+      }
+    }
+
+    /*
+     * Operations that were partially copied in a failed batch can never
+     * be completed. They remain in the queue, because earlier parts may
+     * still refer to their resources, and are copied to completion and
+     * discarded.
+     */
+
+    if (exception != null) {
+      for (final var pending : partial) {
+        pending.future().completeExceptionally(exception);
+      }
+    }
+
+    /*
+     * The tasks (and therefore any staging memory they hold) and the
+     * batch resources must be released on the GPU thread.
+     */
+
+    this.device.execute(() -> {
+      this.closeTasksNow(finished);
+      batchResources.close();
+      return UNIT;
+    });
+  }
+
+  private void closeTasks(
+    final List<RCTransferPending<?>> pendings)
+  {
+    this.device.execute(() -> {
+      this.closeTasksNow(pendings);
+      return UNIT;
+    });
+  }
+
+  @RCThread(GPU)
+  private void closeTasksNow(
+    final List<RCTransferPending<?>> pendings)
+  {
+    for (final var pending : pendings) {
+      try {
+        pending.close();
+      } catch (final RocaroException e) {
+        LOG.debug("Failed to close task: ", e);
+      }
+    }
+  }
+
+  @Override
+  public void close()
+  {
+    this.closed.set(true);
+
+    this.lock.lock();
+    try {
+      this.changed.signalAll();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanBufferCopy;
+import com.io7m.jcoronado.api.VulkanBufferMemoryBarrier;
+import com.io7m.jcoronado.api.VulkanCommandBufferType;
+import com.io7m.jcoronado.api.VulkanDebuggingType;
+import com.io7m.jcoronado.api.VulkanDependencyInfo;
+import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.api.VulkanQueueFamilyIndex;
+import com.io7m.jcoronado.api.VulkanQueueType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.buffers.RCBufferType;
+import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.api.transfers.RCTransferBufferCopyType;
+import com.io7m.rocaro.vanilla.internal.threading.RCThread;
+import com.io7m.rocaro.vanilla.internal.threading.RCThreadLabels;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_MEMORY_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_MEMORY_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_ALL_COMMANDS_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_COPY_BIT;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.GPU;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.TRANSFER_IO;
+
+/**
+ * <p>A task that copies ranges between two existing buffers on the
+ * device.</p>
+ *
+ * <p>Both buffers are owned by the target queue, and so all the commands
+ * are recorded onto the target queue as with image updates.</p>
+ */
+
+final class RCTransferBufferCopyTask
+  extends RCObject
+  implements RCTransferTaskType<RCBufferType>
+{
+  private final RCTransferBufferCopyType copy;
+  private final VulkanQueueType transferQueue;
+  private final VulkanQueueType targetQueue;
+  private final VulkanDebuggingType debugging;
+  private final long size;
+  private boolean recorded;
+
+  RCTransferBufferCopyTask(
+    final RCDeviceType inDevice,
+    final RCTransferBufferCopyType inCopy)
+  {
+    Objects.requireNonNull(inDevice, "device");
+
+    this.copy =
+      Objects.requireNonNull(inCopy, "copy");
+
+    this.transferQueue =
+      inDevice.transferQueue();
+    this.targetQueue =
+      inDevice.queueForCategory(this.copy.targetQueue());
+    this.debugging =
+      inDevice.device().debugging();
+
+    var octets = 0L;
+    for (final var region : this.copy.regions()) {
+      octets += region.size();
+    }
+    this.size = octets;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void prepare()
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+  }
+
+  @Override
+  public boolean requiresSubmission()
+  {
+    return true;
+  }
+
+  @Override
+  public VulkanQueueType targetQueue()
+  {
+    return this.targetQueue;
+  }
+
+  @Override
+  public long stagingOctets()
+  {
+    return 0L;
+  }
+
+  @Override
+  public long transferRemainingOctets()
+  {
+    return this.recorded ? 0L : this.size;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public long recordTransferCommands(
+    final VulkanCommandBufferType commands,
+    final long maximumOctets)
+    throws RocaroException
+  {
+    this.recorded = true;
+    if (Objects.equals(this.transferQueue, this.targetQueue)) {
+      this.recordCopy(commands);
+    }
+    return this.size;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void recordTargetCommands(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    this.recordCopy(commands);
+  }
+
+  private void recordCopy(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    final var source =
+      this.copy.source().data();
+    final var target =
+      this.copy.target().data();
+    final var regions =
+      this.copy.regions();
+
+    try (final var _ =
+           this.debugging.begin(
+             commands,
+             "BufferCopy[%s]".formatted(this.copy.name()))) {
+
+      /*
+       * Wait for any prior use of either buffer to complete.
+       */
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addBufferMemoryBarriers(
+            VulkanBufferMemoryBarrier.builder()
+              .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_ALL_COMMANDS_BIT))
+              .setSrcAccessMask(Set.of(VK_ACCESS_MEMORY_WRITE_BIT))
+              .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+              .setDstStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+              .setDstAccessMask(Set.of(VK_ACCESS_TRANSFER_READ_BIT))
+              .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+              .setBuffer(source)
+              .setOffset(0L)
+              .setSize(this.copy.source().size())
+              .build())
+          .addBufferMemoryBarriers(
+            VulkanBufferMemoryBarrier.builder()
+              .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_ALL_COMMANDS_BIT))
+              .setSrcAccessMask(
+                Set.of(VK_ACCESS_MEMORY_READ_BIT, VK_ACCESS_MEMORY_WRITE_BIT))
+              .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+              .setDstStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+              .setDstAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+              .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+              .setBuffer(target)
+              .setOffset(0L)
+              .setSize(this.copy.target().size())
+              .build())
+          .build()
+      );
+
+      final var copies =
+        new ArrayList<VulkanBufferCopy>(regions.size());
+      for (final var region : regions) {
+        copies.add(
+          VulkanBufferCopy.of(
+            region.sourceOffset(),
+            region.targetOffset(),
+            region.size()
+          )
+        );
+      }
+      commands.copyBuffer(source, target, copies);
+
+      /*
+       * Make the copy visible to subsequent users of the target buffer.
+       */
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addBufferMemoryBarriers(
+            VulkanBufferMemoryBarrier.builder()
+              .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+              .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+              .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+              .setDstStageMask(Set.of(VK_PIPELINE_STAGE_ALL_COMMANDS_BIT))
+              .setDstAccessMask(
+                Set.of(VK_ACCESS_MEMORY_READ_BIT, VK_ACCESS_MEMORY_WRITE_BIT))
+              .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+              .setBuffer(target)
+              .setOffset(0L)
+              .setSize(this.copy.target().size())
+              .build())
+          .build()
+      );
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public RCBufferType complete()
+  {
+    return this.copy.target();
+  }
+
+  @RCThread(GPU)
+  @Override
+  public void close()
+  {
+    RCThreadLabels.checkThreadLabelsAny(GPU);
+  }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanBufferCopy;
+import com.io7m.jcoronado.api.VulkanBufferMemoryBarrier;
+import com.io7m.jcoronado.api.VulkanCommandBufferType;
+import com.io7m.jcoronado.api.VulkanDebuggingType;
+import com.io7m.jcoronado.api.VulkanDependencyInfo;
+import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.api.VulkanQueueFamilyIndex;
+import com.io7m.jcoronado.api.VulkanQueueType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.api.transfers.RCTransferBufferDownloadType;
+import com.io7m.rocaro.api.transfers.RCTransferDownloadType;
+import com.io7m.rocaro.vanilla.internal.threading.RCThread;
+import com.io7m.rocaro.vanilla.internal.threading.RCThreadLabels;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_HOST_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_MEMORY_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_ALL_COMMANDS_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_COPY_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_HOST_BIT;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.GPU;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.TRANSFER_IO;
+
+/**
+ * <p>A task that downloads a range of an existing buffer.</p>
+ *
+ * <p>The buffer is owned by the target queue and may be in use there.
+ * As with image updates, the copy is recorded onto the target queue
+ * rather than transferring ownership of the buffer to the transfer queue
+ * and back again.</p>
+ */
+
+final class RCTransferBufferDownloadTask
+  extends RCObject
+  implements RCTransferTaskType<RCTransferDownloadType>
+{
+  private final RCTransferDownloadBuffers downloads;
+  private final RCTransferBufferDownloadType download;
+  private final VulkanQueueType transferQueue;
+  private final VulkanQueueType targetQueue;
+  private final VulkanDebuggingType debugging;
+  private RCTransferDownload result;
+  private boolean recorded;
+
+  RCTransferBufferDownloadTask(
+    final RCDeviceType inDevice,
+    final RCTransferDownloadBuffers inDownloads,
+    final RCTransferBufferDownloadType inDownload)
+  {
+    Objects.requireNonNull(inDevice, "device");
+
+    this.downloads =
+      Objects.requireNonNull(inDownloads, "downloads");
+    this.download =
+      Objects.requireNonNull(inDownload, "download");
+
+    this.transferQueue =
+      inDevice.transferQueue();
+    this.targetQueue =
+      inDevice.queueForCategory(this.download.targetQueue());
+    this.debugging =
+      inDevice.device().debugging();
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void prepare()
+    throws Exception
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+
+    this.result =
+      this.downloads.allocate(this.download.id(), this.download.size());
+  }
+
+  @Override
+  public boolean requiresSubmission()
+  {
+    return true;
+  }
+
+  @Override
+  public VulkanQueueType targetQueue()
+  {
+    return this.targetQueue;
+  }
+
+  @Override
+  public long stagingOctets()
+  {
+    return RCTransferDownloadBuffers.sizeClassOf(this.download.size());
+  }
+
+  @Override
+  public long transferRemainingOctets()
+  {
+    return this.recorded ? 0L : this.download.size();
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public long recordTransferCommands(
+    final VulkanCommandBufferType commands,
+    final long maximumOctets)
+    throws RocaroException
+  {
+    /*
+     * Downloads are not split across batches; the results would not be
+     * available until the final part had completed in any case.
+     */
+
+    this.recorded = true;
+    if (Objects.equals(this.transferQueue, this.targetQueue)) {
+      this.recordDownload(commands);
+    }
+    return this.download.size();
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void recordTargetCommands(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    this.recordDownload(commands);
+  }
+
+  private void recordDownload(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    final var source =
+      this.download.buffer().data();
+    final var target =
+      this.result.buffer();
+    final var size =
+      this.download.size();
+
+    try (final var _ =
+           this.debugging.begin(
+             commands,
+             "BufferDownload[%s]".formatted(this.download.name()))) {
+
+      /*
+       * Wait for any prior writes to the buffer to complete.
+       */
+
+      final var preCopyBarrier =
+        VulkanBufferMemoryBarrier.builder()
+          .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_ALL_COMMANDS_BIT))
+          .setSrcAccessMask(Set.of(VK_ACCESS_MEMORY_WRITE_BIT))
+          .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setDstStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+          .setDstAccessMask(Set.of(VK_ACCESS_TRANSFER_READ_BIT))
+          .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setBuffer(source)
+          .setOffset(this.download.offset())
+          .setSize(size)
+          .build();
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addBufferMemoryBarriers(preCopyBarrier)
+          .build()
+      );
+
+      commands.copyBuffer(
+        source,
+        target,
+        List.of(VulkanBufferCopy.of(this.download.offset(), 0L, size))
+      );
+
+      /*
+       * Make the copy visible to the host.
+       */
+
+      final var postCopyBarrier =
+        VulkanBufferMemoryBarrier.builder()
+          .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+          .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+          .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setDstStageMask(Set.of(VK_PIPELINE_STAGE_HOST_BIT))
+          .setDstAccessMask(Set.of(VK_ACCESS_HOST_READ_BIT))
+          .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setBuffer(target)
+          .setOffset(0L)
+          .setSize(size)
+          .build();
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addBufferMemoryBarriers(postCopyBarrier)
+          .build()
+      );
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public RCTransferDownloadType complete()
+  {
+    /*
+     * Ownership of the download passes to the caller.
+     */
+
+    final var r = this.result;
+    this.result = null;
+    return r;
+  }
+
+  @RCThread(GPU)
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    RCThreadLabels.checkThreadLabelsAny(GPU);
+
+    /*
+     * If the task failed before completing, the download is released.
+     */
+
+    if (this.result != null) {
+      this.result.close();
+      this.result = null;
+    }
+  }
+}
@@ -0,0 +1,630 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanAccessFlag;
+import com.io7m.jcoronado.api.VulkanBufferCopy;
+import com.io7m.jcoronado.api.VulkanBufferCreateInfo;
+import com.io7m.jcoronado.api.VulkanBufferMemoryBarrier;
+import com.io7m.jcoronado.api.VulkanBufferType;
+import com.io7m.jcoronado.api.VulkanBufferUsageFlag;
+import com.io7m.jcoronado.api.VulkanCommandBufferType;
+import com.io7m.jcoronado.api.VulkanDebuggingType;
+import com.io7m.jcoronado.api.VulkanDependencyInfo;
+import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.api.VulkanPipelineStageFlag;
+import com.io7m.jcoronado.api.VulkanQueueFamilyIndex;
+import com.io7m.jcoronado.api.VulkanQueueType;
+import com.io7m.jcoronado.vma.VMAAllocationCreateInfo;
+import com.io7m.jcoronado.vma.VMAAllocationResult;
+import com.io7m.jcoronado.vma.VMAAllocatorType;
+import com.io7m.jmulticlose.core.CloseableCollectionType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.buffers.RCBufferID;
+import com.io7m.rocaro.api.buffers.RCBufferType;
+import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.api.transfers.RCTransferBufferIndexType;
+import com.io7m.rocaro.api.transfers.RCTransferBufferStorageType;
+import com.io7m.rocaro.api.transfers.RCTransferBufferType;
+import com.io7m.rocaro.api.transfers.RCTransferBufferUniformType;
+import com.io7m.rocaro.api.transfers.RCTransferBufferVertexType;
+import com.io7m.rocaro.api.transfers.RCTransferCopyFunctionRangedType;
+import com.io7m.rocaro.api.transfers.RCTransferJFREventStagingCopy;
+import com.io7m.rocaro.vanilla.internal.RCResourceCollections;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.buffers.RCBufferIndex;
+import com.io7m.rocaro.vanilla.internal.buffers.RCBufferStorage;
+import com.io7m.rocaro.vanilla.internal.buffers.RCBufferUniform;
+import com.io7m.rocaro.vanilla.internal.buffers.RCBufferVertex;
+import com.io7m.rocaro.vanilla.internal.threading.RCThread;
+import com.io7m.rocaro.vanilla.internal.threading.RCThreadLabels;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.foreign.MemorySegment;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_INDEX_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_SHADER_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_SHADER_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_UNIFORM_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_VERTEX_ATTRIBUTE_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanBufferUsageFlag.VK_BUFFER_USAGE_INDEX_BUFFER_BIT;
+import static com.io7m.jcoronado.api.VulkanBufferUsageFlag.VK_BUFFER_USAGE_STORAGE_BUFFER_BIT;
+import static com.io7m.jcoronado.api.VulkanBufferUsageFlag.VK_BUFFER_USAGE_TRANSFER_DST_BIT;
+import static com.io7m.jcoronado.api.VulkanBufferUsageFlag.VK_BUFFER_USAGE_TRANSFER_SRC_BIT;
+import static com.io7m.jcoronado.api.VulkanBufferUsageFlag.VK_BUFFER_USAGE_UNIFORM_BUFFER_BIT;
+import static com.io7m.jcoronado.api.VulkanBufferUsageFlag.VK_BUFFER_USAGE_VERTEX_BUFFER_BIT;
+import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_DEVICE_LOCAL_BIT;
+import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_HOST_COHERENT_BIT;
+import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_COMPUTE_SHADER_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_COPY_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_FRAGMENT_SHADER_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_VERTEX_INPUT_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_VERTEX_SHADER_BIT;
+import static com.io7m.jcoronado.api.VulkanSharingMode.VK_SHARING_MODE_EXCLUSIVE;
+import static com.io7m.jcoronado.vma.VMAMemoryUsage.VMA_MEMORY_USAGE_GPU_ONLY;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.GPU;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.TRANSFER_IO;
+
+final class RCTransferBufferTask<B extends RCBufferType>
+  extends RCObject
+  implements RCTransferTaskType<B>
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(RCTransferBufferTask.class);
+
+  private final RCDeviceType device;
+  private final VMAAllocatorType allocator;
+  private final RCTransferStagingBuffers staging;
+  private final RCTransferParallelCopy copies;
+  private final CloseableCollectionType<RocaroException> resources;
+  private final RCTransferBufferType<B> buffer;
+  private final VulkanQueueType transferQueue;
+  private final VulkanQueueType targetQueue;
+  private final VulkanDebuggingType debugging;
+  private final Set<VulkanPipelineStageFlag> dstStages;
+  private final Set<VulkanAccessFlag> dstAccess;
+  private final long directUploadTypes;
+  private RCTransferStagingAllocation stagingAllocation;
+  private VMAAllocationResult<VulkanBufferType> bufferResult;
+  private boolean direct;
+  private long octetsCopied;
+
+  RCTransferBufferTask(
+    final RCDeviceType inDevice,
+    final VMAAllocatorType inAllocator,
+    final RCTransferStagingBuffers inStaging,
+    final RCTransferParallelCopy inCopies,
+    final RCStrings strings,
+    final RCTransferBufferType<B> inBuffer,
+    final long inDirectUploadTypes)
+  {
+    Objects.requireNonNull(strings, "strings");
+
+    this.resources =
+      RCResourceCollections.create(strings);
+    this.device =
+      Objects.requireNonNull(inDevice, "device");
+    this.allocator =
+      Objects.requireNonNull(inAllocator, "allocator");
+    this.staging =
+      Objects.requireNonNull(inStaging, "staging");
+    this.copies =
+      Objects.requireNonNull(inCopies, "copies");
+    this.buffer =
+      Objects.requireNonNull(inBuffer, "buffer");
+
+    this.transferQueue =
+      this.device.transferQueue();
+    this.targetQueue =
+      inDevice.queueForCategory(this.buffer.targetQueue());
+    this.debugging =
+      inDevice.device().debugging();
+
+    this.directUploadTypes =
+      inDirectUploadTypes;
+    this.dstStages =
+      dstStagesFor(this.buffer);
+    this.dstAccess =
+      dstAccessFor(this.buffer);
+  }
+
+  private static VulkanBufferUsageFlag usageFor(
+    final RCTransferBufferType<?> buffer)
+  {
+    return switch (buffer) {
+      case final RCTransferBufferIndexType _ ->
+        VK_BUFFER_USAGE_INDEX_BUFFER_BIT;
+      case final RCTransferBufferStorageType _ ->
+        VK_BUFFER_USAGE_STORAGE_BUFFER_BIT;
+      case final RCTransferBufferUniformType _ ->
+        VK_BUFFER_USAGE_UNIFORM_BUFFER_BIT;
+      case final RCTransferBufferVertexType _ ->
+        VK_BUFFER_USAGE_VERTEX_BUFFER_BIT;
+    };
+  }
+
+  private static Set<VulkanPipelineStageFlag> dstStagesFor(
+    final RCTransferBufferType<?> buffer)
+  {
+    return switch (buffer) {
+      case final RCTransferBufferIndexType _ ->
+        Set.of(VK_PIPELINE_STAGE_VERTEX_INPUT_BIT);
+      case final RCTransferBufferVertexType _ ->
+        Set.of(VK_PIPELINE_STAGE_VERTEX_INPUT_BIT);
+      case final RCTransferBufferStorageType _,
+           final RCTransferBufferUniformType _ -> Set.of(
+        VK_PIPELINE_STAGE_VERTEX_SHADER_BIT,
+        VK_PIPELINE_STAGE_FRAGMENT_SHADER_BIT,
+        VK_PIPELINE_STAGE_COMPUTE_SHADER_BIT
+      );
+    };
+  }
+
+  private static Set<VulkanAccessFlag> dstAccessFor(
+    final RCTransferBufferType<?> buffer)
+  {
+    return switch (buffer) {
+      case final RCTransferBufferIndexType _ ->
+        Set.of(VK_ACCESS_INDEX_READ_BIT);
+      case final RCTransferBufferVertexType _ ->
+        Set.of(VK_ACCESS_VERTEX_ATTRIBUTE_READ_BIT);
+      case final RCTransferBufferUniformType _ ->
+        Set.of(VK_ACCESS_UNIFORM_READ_BIT);
+      case final RCTransferBufferStorageType _ ->
+        Set.of(VK_ACCESS_SHADER_READ_BIT, VK_ACCESS_SHADER_WRITE_BIT);
+    };
+  }
+
+  private VulkanBufferCreateInfo bufferCreateInfo()
+  {
+    return VulkanBufferCreateInfo.builder()
+      .setSize(this.buffer.size())
+      .addUsageFlags(VK_BUFFER_USAGE_TRANSFER_DST_BIT)
+      .addUsageFlags(VK_BUFFER_USAGE_TRANSFER_SRC_BIT)
+      .addUsageFlags(usageFor(this.buffer))
+      .setSharingMode(VK_SHARING_MODE_EXCLUSIVE)
+      .build();
+  }
+
+  /**
+   * Try to create a buffer in device-local, host-visible memory and write
+   * the data directly into it. Host writes to coherent memory are made
+   * available to the device by the next queue submission, and the buffer
+   * has not yet been used by any queue, so no staging copy, submission, or
+   * ownership transfer is required.
+   *
+   * The allocation is restricted to the memory types that were detected as
+   * suitable for direct uploads, and the task falls back to a staging copy
+   * only if the memory cannot be allocated or mapped. Once the data copier
+   * has been called, any failure is reported to the caller; copiers are not
+   * required to be able to run more than once.
+   */
+
+  @RCThread(TRANSFER_IO)
+  private boolean tryCreateDirect()
+    throws Exception
+  {
+    final var allocInfo =
+      VMAAllocationCreateInfo.builder()
+        .setUsage(VMA_MEMORY_USAGE_GPU_ONLY)
+        .addRequiredFlags(VK_MEMORY_PROPERTY_DEVICE_LOCAL_BIT)
+        .addRequiredFlags(VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT)
+        .addRequiredFlags(VK_MEMORY_PROPERTY_HOST_COHERENT_BIT)
+        .setMemoryTypeBits(this.directUploadTypes)
+        .build();
+
+    final VMAAllocationResult<VulkanBufferType> result;
+    try {
+      result = this.allocator.createBuffer(allocInfo, this.bufferCreateInfo());
+    } catch (final VulkanException e) {
+      LOG.debug(
+        "Direct allocation failed for buffer {}, falling back to staging: ",
+        this.buffer.name(),
+        e
+      );
+      return false;
+    }
+
+    final var ev = new RCTransferJFREventStagingCopy();
+    ev.begin();
+
+    var mapped = false;
+    try (final var map = this.allocator.mapMemory(result.allocation())) {
+      final var target = MemorySegment.ofBuffer(map.asByteBuffer());
+      mapped = true;
+      this.buffer.dataCopier().copy(target);
+    } catch (final Exception e) {
+      try {
+        result.result().close();
+      } catch (final Exception ex) {
+        e.addSuppressed(ex);
+      }
+      if (mapped) {
+        throw e;
+      }
+      LOG.debug(
+        "Direct mapping failed for buffer {}, falling back to staging: ",
+        this.buffer.name(),
+        e
+      );
+      return false;
+    }
+
+    if (ev.shouldCommit()) {
+      ev.message = "Copying directly to a device-local buffer.";
+      ev.transferID = this.buffer.id().toString();
+      ev.size = this.buffer.size();
+      ev.commit();
+    }
+
+    this.debugging.setObjectName(
+      result.result(),
+      "Buffer[%s]".formatted(this.buffer.name())
+    );
+    this.bufferResult = result;
+    return true;
+  }
+
+  private VMAAllocationResult<VulkanBufferType> createGPUBuffer()
+    throws VulkanException
+  {
+    final var createInfo =
+      this.bufferCreateInfo();
+
+    final var allocInfo =
+      VMAAllocationCreateInfo.builder()
+        .setUsage(VMA_MEMORY_USAGE_GPU_ONLY)
+        .addRequiredFlags(VK_MEMORY_PROPERTY_DEVICE_LOCAL_BIT)
+        .setMemoryTypeBits(0L)
+        .build();
+
+    final var result =
+      this.allocator.createBuffer(allocInfo, createInfo);
+
+    this.debugging.setObjectName(
+      result.result(),
+      "Buffer[%s]".formatted(this.buffer.name())
+    );
+    return result;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void prepare()
+    throws Exception
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+
+    if (this.directUploadTypes != 0L) {
+      this.direct = this.tryCreateDirect();
+      if (this.direct) {
+        return;
+      }
+    }
+
+    /*
+     * Staging memory is allocated part-by-part in stageTransfer().
+     */
+
+    try {
+      this.bufferResult =
+        this.createGPUBuffer();
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  @Override
+  public boolean requiresSubmission()
+  {
+    return !this.direct;
+  }
+
+  @Override
+  public VulkanQueueType targetQueue()
+  {
+    return this.targetQueue;
+  }
+
+  @Override
+  public long stagingOctets()
+  {
+    return this.buffer.size();
+  }
+
+  @Override
+  public long transferRemainingOctets()
+  {
+    if (this.direct) {
+      return 0L;
+    }
+    return this.buffer.size() - this.octetsCopied;
+  }
+
+  /*
+   * Copy functions that are not ranged can only produce all the data at
+   * once, and so the data is copied in a single part.
+   */
+
+  private long partOctets(
+    final long maximumOctets)
+  {
+    final var remaining =
+      this.buffer.size() - this.octetsCopied;
+
+    if (this.buffer.dataCopier() instanceof RCTransferCopyFunctionRangedType) {
+      return Math.min(remaining, Math.max(1L, maximumOctets));
+    }
+    return remaining;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void stageTransfer(
+    final CloseableCollectionType<RocaroException> partResources,
+    final long maximumOctets)
+    throws RocaroException, InterruptedException
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+
+    final var offset =
+      this.octetsCopied;
+    final var octets =
+      this.partOctets(maximumOctets);
+
+    /*
+     * Only the part that is about to be recorded is allocated and filled,
+     * so that the reading of later parts overlaps with the GPU's execution
+     * of earlier parts, and so that the operation holds no staging memory
+     * while it waits to be selected for later parts.
+     */
+
+    this.stagingAllocation =
+      partResources.add(
+        this.staging.allocate(
+          this.buffer.id(),
+          octets,
+          RCTransferAlignment.copyAlignment(1L)
+        )
+      );
+
+    final var ev = new RCTransferJFREventStagingCopy();
+    ev.begin();
+
+    if (this.buffer.dataCopier()
+      instanceof final RCTransferCopyFunctionRangedType ranged) {
+      this.copies.copyRanged(
+        ranged,
+        this.stagingAllocation.target(),
+        offset,
+        1L
+      );
+    } else {
+      this.buffer.dataCopier().copy(this.stagingAllocation.target());
+    }
+
+    if (ev.shouldCommit()) {
+      ev.message = "Copying a part to a CPU-side staging buffer.";
+      ev.transferID = this.buffer.id().toString();
+      ev.size = octets;
+      ev.commit();
+    }
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public long recordTransferCommands(
+    final VulkanCommandBufferType commands,
+    final long maximumOctets)
+    throws RocaroException
+  {
+    final var target =
+      this.bufferResult.result();
+    final var size =
+      this.buffer.size();
+    final var singleQueue =
+      Objects.equals(this.transferQueue, this.targetQueue);
+
+    /*
+     * Large buffers may be copied in several parts. The barrier that
+     * makes the contents visible is recorded after the final part.
+     */
+
+    final var offset =
+      this.octetsCopied;
+    final var octetsNow =
+      this.partOctets(maximumOctets);
+    final var isLast =
+      offset + octetsNow == size;
+
+    try (final var _ =
+           this.debugging.begin(
+             commands,
+             "TransferQueueUpload[%s]".formatted(this.buffer.name()))) {
+
+      /*
+       * Copy the contents of the CPU-side staging buffer into the buffer.
+       * The buffer is newly created and so no barrier is required before
+       * the copy.
+       */
+
+      commands.copyBuffer(
+        this.stagingAllocation.buffer(),
+        target,
+        List.of(
+          VulkanBufferCopy.of(
+            this.stagingAllocation.offset(),
+            offset,
+            octetsNow
+          )
+        )
+      );
+
+      if (!isLast) {
+        this.octetsCopied += octetsNow;
+        return octetsNow;
+      }
+
+      /*
+       * Make the copy visible to subsequent readers. If we're working with
+       * two different queues, this barrier is the release half of a queue
+       * family ownership transfer.
+       */
+
+      final VulkanBufferMemoryBarrier barrier;
+      if (singleQueue) {
+        barrier =
+          VulkanBufferMemoryBarrier.builder()
+            .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+            .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+            .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+            .setDstStageMask(this.dstStages)
+            .setDstAccessMask(this.dstAccess)
+            .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+            .setBuffer(target)
+            .setOffset(0L)
+            .setSize(size)
+            .build();
+      } else {
+        barrier =
+          VulkanBufferMemoryBarrier.builder()
+            .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+            .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+            .setSrcQueueFamilyIndex(this.transferQueue.queueFamilyIndex())
+            .setDstStageMask(Set.of())
+            .setDstAccessMask(Set.of())
+            .setDstQueueFamilyIndex(this.targetQueue.queueFamilyIndex())
+            .setBuffer(target)
+            .setOffset(0L)
+            .setSize(size)
+            .build();
+      }
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addBufferMemoryBarriers(barrier)
+          .build()
+      );
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+
+    this.octetsCopied += octetsNow;
+    return octetsNow;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void recordTargetCommands(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    /*
+     * Record the acquire half of the queue family ownership transfer.
+     */
+
+    try (final var _ =
+           this.debugging.begin(
+             commands,
+             "TargetQueueAcquire[%s]".formatted(this.buffer.name()))) {
+
+      final var barrier =
+        VulkanBufferMemoryBarrier.builder()
+          .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+          .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+          .setSrcQueueFamilyIndex(this.transferQueue.queueFamilyIndex())
+          .setDstStageMask(this.dstStages)
+          .setDstAccessMask(this.dstAccess)
+          .setDstQueueFamilyIndex(this.targetQueue.queueFamilyIndex())
+          .setBuffer(this.bufferResult.result())
+          .setOffset(0L)
+          .setSize(this.buffer.size())
+          .build();
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addBufferMemoryBarriers(barrier)
+          .build()
+      );
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  @SuppressWarnings("unchecked")
+  public B complete()
+  {
+    final var id =
+      new RCBufferID(this.buffer.id());
+    final var data =
+      this.bufferResult.result();
+    final var size =
+      this.buffer.size();
+
+    /*
+     * The buffer is owned by the result from this point on.
+     */
+
+    this.bufferResult = null;
+    final var reference =
+      RCTransferTaskType.resultReference(data);
+
+    return (B) switch (this.buffer) {
+      case final RCTransferBufferIndexType index ->
+        new RCBufferIndex(id, data, size, index.indexType(), reference);
+      case final RCTransferBufferStorageType _ ->
+        new RCBufferStorage(id, data, size, reference);
+      case final RCTransferBufferUniformType _ ->
+        new RCBufferUniform(id, data, size, reference);
+      case final RCTransferBufferVertexType _ ->
+        new RCBufferVertex(id, data, size, reference);
+    };
+  }
+
+  @RCThread(GPU)
+  @Override
+  public void discard()
+    throws RocaroException
+  {
+    RCThreadLabels.checkThreadLabelsAny(GPU);
+
+    final var result = this.bufferResult;
+    this.bufferResult = null;
+    RCTransferTaskType.discardResult(result);
+  }
+
+  @RCThread(GPU)
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    RCThreadLabels.checkThreadLabelsAny(GPU);
+    this.resources.close();
+  }
+}
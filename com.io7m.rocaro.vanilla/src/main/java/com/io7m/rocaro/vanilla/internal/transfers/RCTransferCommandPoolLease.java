@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanCommandPoolType;
+import com.io7m.jcoronado.api.VulkanQueueFamilyIndex;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+
+import java.util.Objects;
+
+/**
+ * An exclusive lease on a command pool. Closing the lease resets the
+ * command pool and returns it to its owner.
+ */
+
+public final class RCTransferCommandPoolLease
+  extends RCObject
+  implements AutoCloseable
+{
+  private final RCTransferCommandPools owner;
+  private final VulkanQueueFamilyIndex family;
+  private final VulkanCommandPoolType pool;
+  private boolean closed;
+
+  RCTransferCommandPoolLease(
+    final RCTransferCommandPools inOwner,
+    final VulkanQueueFamilyIndex inFamily,
+    final VulkanCommandPoolType inPool)
+  {
+    this.owner =
+      Objects.requireNonNull(inOwner, "owner");
+    this.family =
+      Objects.requireNonNull(inFamily, "family");
+    this.pool =
+      Objects.requireNonNull(inPool, "pool");
+  }
+
+  /**
+   * @return The leased command pool
+   */
+
+  public VulkanCommandPoolType pool()
+  {
+    return this.pool;
+  }
+
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    this.owner.release(this.family, this.pool);
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanCommandPoolCreateInfo;
+import com.io7m.jcoronado.api.VulkanCommandPoolType;
+import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.api.VulkanLogicalDeviceType;
+import com.io7m.jcoronado.api.VulkanQueueFamilyIndex;
+import com.io7m.jcoronado.api.VulkanQueueType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>A pool of command pools used by the transfer service.</p>
+ *
+ * <p>Vulkan command pools are externally synchronized: a pool, and every
+ * command buffer allocated from it, may only be used by one thread at a
+ * time. Transfer batches are recorded on one thread but are released on
+ * another when the GPU completes them, and so rather than sharing a
+ * single command pool per queue family, each command buffer is allocated
+ * from a command pool leased exclusively for the lifetime of the batch.
+ * When the lease is closed, the command pool is reset and returned to a
+ * free list for its queue family. New command pools are created when the
+ * free list is empty, and so the number of pools grows with the number of
+ * batches in flight.</p>
+ */
+
+public final class RCTransferCommandPools
+  extends RCObject
+  implements AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(RCTransferCommandPools.class);
+
+  private final VulkanLogicalDeviceType device;
+  private final ReentrantLock lock;
+  private final Map<VulkanQueueFamilyIndex, ArrayDeque<VulkanCommandPoolType>> free;
+  private final List<VulkanCommandPoolType> created;
+  private boolean closed;
+
+  /**
+   * Create an empty pool.
+   *
+   * @param inDevice The device
+   */
+
+  public RCTransferCommandPools(
+    final VulkanLogicalDeviceType inDevice)
+  {
+    this.device =
+      Objects.requireNonNull(inDevice, "device");
+    this.lock =
+      new ReentrantLock();
+    this.free =
+      new HashMap<>();
+    this.created =
+      new ArrayList<>();
+  }
+
+  /**
+   * Lease a command pool for the given queue.
+   *
+   * @param queue The queue
+   *
+   * @return A lease
+   *
+   * @throws RocaroException On errors
+   */
+
+  public RCTransferCommandPoolLease acquire(
+    final VulkanQueueType queue)
+    throws RocaroException
+  {
+    Objects.requireNonNull(queue, "queue");
+
+    final var family = queue.queueFamilyIndex();
+
+    this.lock.lock();
+    try {
+      if (this.closed) {
+        throw new IllegalStateException("Command pools are closed.");
+      }
+
+      final var available = this.free.get(family);
+      if (available != null && !available.isEmpty()) {
+        return new RCTransferCommandPoolLease(this, family, available.pop());
+      }
+
+      final var pool = this.createPool(family);
+      this.created.add(pool);
+      return new RCTransferCommandPoolLease(this, family, pool);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private VulkanCommandPoolType createPool(
+    final VulkanQueueFamilyIndex family)
+    throws RocaroException
+  {
+    try {
+      final var pool =
+        this.device.createCommandPool(
+          VulkanCommandPoolCreateInfo.builder()
+            .setQueueFamilyIndex(family)
+            .build()
+        );
+
+      final var index = this.created.size();
+      this.device.debugging()
+        .setObjectName(
+          pool,
+          "TransferCommandPool[%s][%d]"
+            .formatted(family, Integer.valueOf(index))
+        );
+
+      LOG.debug(
+        "Created transfer command pool {} for queue family {}",
+        Integer.valueOf(index),
+        family
+      );
+      return pool;
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  void release(
+    final VulkanQueueFamilyIndex family,
+    final VulkanCommandPoolType pool)
+    throws RocaroException
+  {
+    /*
+     * Resetting the pool returns the memory of every command buffer that
+     * was allocated from it. The lease is exclusive, so no other thread
+     * can be using the pool.
+     */
+
+    try {
+      this.device.resetCommandPool(pool);
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+
+    this.lock.lock();
+    try {
+      if (!this.closed) {
+        this.free.computeIfAbsent(family, _ -> new ArrayDeque<>())
+          .push(pool);
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * @return The number of command pools that have been created
+   */
+
+  public int createdCount()
+  {
+    this.lock.lock();
+    try {
+      return this.created.size();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Destroy every command pool. This must only be called when no leases
+   * are outstanding.
+   *
+   * @throws RocaroException On errors
+   */
+
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    final List<VulkanCommandPoolType> pools;
+    this.lock.lock();
+    try {
+      this.closed = true;
+      pools = List.copyOf(this.created);
+      this.created.clear();
+      this.free.clear();
+    } finally {
+      this.lock.unlock();
+    }
+
+    RocaroException failure = null;
+    for (final var pool : pools) {
+      try {
+        pool.close();
+      } catch (final Exception e) {
+        final var ex = RCVulkanException.wrap(e);
+        if (failure == null) {
+          failure = ex;
+        } else {
+          failure.addSuppressed(ex);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+}
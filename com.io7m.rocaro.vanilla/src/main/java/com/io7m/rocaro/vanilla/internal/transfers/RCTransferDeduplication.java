@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.vanilla.internal.RCResourceReferencedType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * <p>Deduplication of transfer operations in flight.</p>
+ *
+ * <p>Operations are identified by their IDs. While an operation is in
+ * flight, submitting another operation with the same ID does not start a
+ * new operation; instead, each submission receives its own future that
+ * completes when the shared operation completes. Cancelling one of these
+ * futures affects only that submission, and the shared operation is itself
+ * cancelled only when every submission has been cancelled.</p>
+ *
+ * <p>Every submission receives the same result object. Results that own
+ * resources (such as uploaded images and buffers, and downloads) hold them
+ * with a reference-counted {@link RCResourceReferencedType holder}: each
+ * submission that receives the result holds its own reference, and the
+ * resources are released when the last submission closes the result.</p>
+ */
+
+public final class RCTransferDeduplication
+  extends RCObject
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(RCTransferDeduplication.class);
+
+  private final ReentrantLock lock;
+  private final HashMap<UUID, Shared<?>> operations;
+
+  private static final class Shared<T>
+  {
+    private final CompletableFuture<T> source;
+    private final ArrayList<CompletableFuture<T>> views;
+    private boolean finished;
+
+    Shared(
+      final CompletableFuture<T> inSource)
+    {
+      this.source =
+        Objects.requireNonNull(inSource, "source");
+      this.views =
+        new ArrayList<>();
+    }
+  }
+
+  /**
+   * Create an empty set of operations.
+   */
+
+  public RCTransferDeduplication()
+  {
+    this.lock =
+      new ReentrantLock();
+    this.operations =
+      new HashMap<>();
+  }
+
+  /**
+   * Share an operation. If an operation with the given ID is in flight,
+   * a future that observes it is returned. Otherwise, {@code start} is
+   * called to start the operation.
+   *
+   * @param id    The operation ID
+   * @param start A function that starts the operation
+   * @param <T>   The type of results
+   *
+   * @return A future representing this submission of the operation
+   */
+
+  @SuppressWarnings("unchecked")
+  public <T> CompletableFuture<T> share(
+    final UUID id,
+    final Supplier<CompletableFuture<T>> start)
+  {
+    Objects.requireNonNull(id, "id");
+    Objects.requireNonNull(start, "start");
+
+    this.lock.lock();
+    try {
+      var shared = (Shared<T>) this.operations.get(id);
+      Shared<T> created = null;
+      if (shared == null) {
+        created = new Shared<>(start.get());
+        this.operations.put(id, created);
+        shared = created;
+      }
+
+      final var view = new CompletableFuture<T>();
+      shared.views.add(view);
+
+      /*
+       * The source is observed only once the first view exists, because
+       * an operation that has already completed delivers its result
+       * immediately.
+       */
+
+      if (created != null) {
+        final var observed = created;
+        observed.source.whenComplete((value, exception) -> {
+          this.finish(id, observed, value, exception);
+        });
+      }
+
+      final var viewShared = shared;
+      view.whenComplete((_, _) -> {
+        if (view.isCancelled()) {
+          this.cancelled(id, viewShared, view);
+        }
+      });
+      return view;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private <T> void finish(
+    final UUID id,
+    final Shared<T> shared,
+    final T value,
+    final Throwable exception)
+  {
+    final List<CompletableFuture<T>> views;
+    this.lock.lock();
+    try {
+      shared.finished = true;
+      this.operations.remove(id, shared);
+      views = List.copyOf(shared.views);
+      shared.views.clear();
+    } finally {
+      this.lock.unlock();
+    }
+
+    if (exception != null) {
+      for (final var view : views) {
+        view.completeExceptionally(exception);
+      }
+      return;
+    }
+
+    /*
+     * Each view that receives the result holds its own reference to it. A
+     * view that was cancelled concurrently gives its reference back. The
+     * reference created by the operation itself is then released, so that
+     * the result is released at once if no view received it.
+     */
+
+    for (final var view : views) {
+      acquire(value);
+      if (!view.complete(value)) {
+        release(value);
+      }
+    }
+    release(value);
+  }
+
+  private static void acquire(
+    final Object value)
+  {
+    if (value instanceof final RCResourceReferencedType referenced) {
+      referenced.reference().acquire();
+    }
+  }
+
+  private static void release(
+    final Object value)
+  {
+    if (value instanceof final RCResourceReferencedType referenced) {
+      try {
+        referenced.reference().close();
+      } catch (final RocaroException e) {
+        LOG.debug("Failed to release shared result: ", e);
+      }
+    }
+  }
+
+  private <T> void cancelled(
+    final UUID id,
+    final Shared<T> shared,
+    final CompletableFuture<T> view)
+  {
+    this.lock.lock();
+    try {
+      if (shared.finished) {
+        return;
+      }
+      shared.views.remove(view);
+      if (!shared.views.isEmpty()) {
+        return;
+      }
+      this.operations.remove(id, shared);
+    } finally {
+      this.lock.unlock();
+    }
+
+    shared.source.cancel(false);
+  }
+
+  /**
+   * @return The number of distinct operations in flight
+   */
+
+  public int size()
+  {
+    this.lock.lock();
+    try {
+      return this.operations.size();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+}
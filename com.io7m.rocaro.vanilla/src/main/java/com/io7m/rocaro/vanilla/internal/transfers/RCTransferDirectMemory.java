@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.api.VulkanPhysicalDeviceType;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.io7m.jcoronado.api.VulkanMemoryHeapFlag.VK_MEMORY_HEAP_DEVICE_LOCAL_BIT;
+import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_DEVICE_LOCAL_BIT;
+import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_HOST_COHERENT_BIT;
+import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT;
+
+/**
+ * Functions to detect memory that can be written directly by the host
+ * and read efficiently by the device.
+ */
+
+public final class RCTransferDirectMemory
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(RCTransferDirectMemory.class);
+
+  private RCTransferDirectMemory()
+  {
+
+  }
+
+  /**
+   * <p>Determine the memory types that the given device exposes as
+   * device-local, host-visible, and host-coherent within its primary
+   * device-local heap. Such memory types exist on devices with unified
+   * memory (integrated GPUs) and on discrete GPUs with resizable BAR
+   * enabled.</p>
+   *
+   * <p>Discrete GPUs without resizable BAR typically expose only a small
+   * (256MiB) window of device-local memory as host-visible, in a separate
+   * heap. That window is a scarce resource, and so memory types in that
+   * heap are never returned.</p>
+   *
+   * @param physicalDevice The physical device
+   *
+   * @return A mask of memory type indices suitable for direct uploads, in
+   * the form expected by {@code memoryTypeBits}, or {@code 0} if direct
+   * uploads should not be used
+   *
+   * @throws RCVulkanException On errors
+   */
+
+  public static long directUploadMemoryTypes(
+    final VulkanPhysicalDeviceType physicalDevice)
+    throws RCVulkanException
+  {
+    try {
+      final var memory =
+        physicalDevice.memory();
+      final var heaps =
+        memory.memoryHeaps();
+
+      /*
+       * Find the largest device-local heap.
+       */
+
+      var largestIndex = -1;
+      var largestSize = 0L;
+      for (int index = 0; index < heaps.size(); ++index) {
+        final var heap = heaps.get(index);
+        if (heap.flags().contains(VK_MEMORY_HEAP_DEVICE_LOCAL_BIT)) {
+          if (Long.compareUnsigned(heap.size(), largestSize) > 0) {
+            largestSize = heap.size();
+            largestIndex = index;
+          }
+        }
+      }
+
+      if (largestIndex == -1) {
+        return 0L;
+      }
+
+      /*
+       * Direct uploads are possible using the memory types in that heap
+       * that are device-local, host-visible, and host-coherent.
+       */
+
+      final var types = memory.memoryTypes();
+      var mask = 0L;
+      for (int index = 0; index < types.size(); ++index) {
+        final var type = types.get(index);
+        final var flags = type.propertyFlags();
+        if (type.heapIndex() == largestIndex
+            && flags.contains(VK_MEMORY_PROPERTY_DEVICE_LOCAL_BIT)
+            && flags.contains(VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT)
+            && flags.contains(VK_MEMORY_PROPERTY_HOST_COHERENT_BIT)) {
+          mask |= 1L << index;
+        }
+      }
+
+      if (mask != 0L) {
+        LOG.debug(
+          "Device-local heap {} (size {}) is host-visible with memory types 0x{}; direct uploads are available",
+          Integer.valueOf(largestIndex),
+          Long.toUnsignedString(largestSize),
+          Long.toHexString(mask)
+        );
+      }
+      return mask;
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+}
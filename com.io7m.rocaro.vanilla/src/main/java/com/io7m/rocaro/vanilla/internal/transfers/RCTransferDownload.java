@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanBufferType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.transfers.RCTransferDownloadType;
+import com.io7m.rocaro.vanilla.internal.RCResourceReference;
+import com.io7m.rocaro.vanilla.internal.RCResourceReferencedType;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Objects;
+
+/**
+ * The data downloaded by a download operation. Closing the download
+ * returns its buffer to the pool; a download shared between several
+ * owners returns its buffer when every owner has closed it.
+ */
+
+public final class RCTransferDownload
+  extends RCObject
+  implements RCTransferDownloadType, RCResourceReferencedType
+{
+  private final RCTransferDownloadBuffers owner;
+  private final RCTransferDownloadBuffer buffer;
+  private final long size;
+  private final RCResourceReference reference;
+
+  RCTransferDownload(
+    final RCTransferDownloadBuffers inOwner,
+    final RCTransferDownloadBuffer inBuffer,
+    final long inSize)
+  {
+    this.owner =
+      Objects.requireNonNull(inOwner, "owner");
+    this.buffer =
+      Objects.requireNonNull(inBuffer, "buffer");
+    this.size =
+      inSize;
+    this.reference =
+      RCResourceReference.create(() -> this.owner.release(this.buffer));
+  }
+
+  /**
+   * @return The buffer into which the device writes the data
+   */
+
+  VulkanBufferType buffer()
+  {
+    return this.buffer.buffer();
+  }
+
+  /**
+   * @return The size of the download
+   */
+
+  long size()
+  {
+    return this.size;
+  }
+
+  @Override
+  public MemorySegment data()
+  {
+    if (this.reference.isReleased()) {
+      throw new IllegalStateException("Download is closed.");
+    }
+    return this.buffer.mapped()
+      .asSlice(0L, this.size)
+      .asReadOnly();
+  }
+
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    this.reference.close();
+  }
+
+  @Override
+  public RCResourceReference reference()
+  {
+    return this.reference;
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanBufferType;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Objects;
+
+/**
+ * A persistently mapped, host-visible buffer used for downloads.
+ *
+ * @param buffer   The buffer
+ * @param mapping  The memory mapping
+ * @param mapped   The mapped memory
+ * @param capacity The size of the buffer
+ */
+
+record RCTransferDownloadBuffer(
+  VulkanBufferType buffer,
+  AutoCloseable mapping,
+  MemorySegment mapped,
+  long capacity)
+  implements AutoCloseable
+{
+  /**
+   * A persistently mapped, host-visible buffer used for downloads.
+   *
+   * @param buffer   The buffer
+   * @param mapping  The memory mapping
+   * @param mapped   The mapped memory
+   * @param capacity The size of the buffer
+   */
+
+  RCTransferDownloadBuffer
+  {
+    Objects.requireNonNull(buffer, "buffer");
+    Objects.requireNonNull(mapping, "mapping");
+    Objects.requireNonNull(mapped, "mapped");
+  }
+
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    try {
+      this.mapping.close();
+      this.buffer.close();
+    } catch (final Exception e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanBufferCreateInfo;
+import com.io7m.jcoronado.api.VulkanDebuggingType;
+import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.vma.VMAAllocationCreateInfo;
+import com.io7m.jcoronado.vma.VMAAllocatorType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.io7m.jcoronado.api.VulkanBufferUsageFlag.VK_BUFFER_USAGE_TRANSFER_DST_BIT;
+import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_HOST_CACHED_BIT;
+import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_HOST_COHERENT_BIT;
+import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT;
+import static com.io7m.jcoronado.api.VulkanSharingMode.VK_SHARING_MODE_EXCLUSIVE;
+import static com.io7m.jcoronado.vma.VMAMemoryUsage.VMA_MEMORY_USAGE_GPU_TO_CPU;
+
+/**
+ * <p>The host-visible memory used by downloads.</p>
+ *
+ * <p>Download buffers are persistently mapped and are grouped into size
+ * classes of powers of two. When a download is closed, its buffer is
+ * returned to a free list for its size class so that later downloads of
+ * a similar size can reuse it without allocating. Only a small number of
+ * free buffers are retained for each size class.</p>
+ */
+
+public final class RCTransferDownloadBuffers
+  extends RCObject
+  implements AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(RCTransferDownloadBuffers.class);
+
+  private static final long SIZE_CLASS_MINIMUM =
+    64L * 1024L;
+  private static final int RETAINED_PER_CLASS =
+    4;
+
+  private final VMAAllocatorType allocator;
+  private final VulkanDebuggingType debugging;
+  private final ReentrantLock lock;
+  private final Map<Long, ArrayDeque<RCTransferDownloadBuffer>> free;
+  private boolean closed;
+
+  private RCTransferDownloadBuffers(
+    final VMAAllocatorType inAllocator,
+    final VulkanDebuggingType inDebugging)
+  {
+    this.allocator =
+      Objects.requireNonNull(inAllocator, "allocator");
+    this.debugging =
+      Objects.requireNonNull(inDebugging, "debugging");
+    this.lock =
+      new ReentrantLock();
+    this.free =
+      new HashMap<>();
+  }
+
+  /**
+   * Create an empty download buffer pool.
+   *
+   * @param device The device
+   *
+   * @return The pool
+   */
+
+  public static RCTransferDownloadBuffers create(
+    final RCDeviceType device)
+  {
+    Objects.requireNonNull(device, "device");
+    return new RCTransferDownloadBuffers(
+      device.allocator(),
+      device.device().debugging()
+    );
+  }
+
+  /**
+   * @param size The required size
+   *
+   * @return The size class that can hold {@code size} octets
+   */
+
+  public static long sizeClassOf(
+    final long size)
+  {
+    if (size <= SIZE_CLASS_MINIMUM) {
+      return SIZE_CLASS_MINIMUM;
+    }
+    final var high = Long.highestOneBit(size);
+    return high == size ? size : high << 1;
+  }
+
+  /**
+   * Allocate a download of the given size.
+   *
+   * @param transferID The ID of the transfer that will own the download
+   * @param size       The size of the download
+   *
+   * @return The download
+   *
+   * @throws RocaroException On errors
+   */
+
+  public RCTransferDownload allocate(
+    final UUID transferID,
+    final long size)
+    throws RocaroException
+  {
+    Objects.requireNonNull(transferID, "transferID");
+
+    final var sizeClass = sizeClassOf(size);
+
+    this.lock.lock();
+    try {
+      final var queue = this.free.get(Long.valueOf(sizeClass));
+      if (queue != null && !queue.isEmpty()) {
+        return new RCTransferDownload(this, queue.pop(), size);
+      }
+    } finally {
+      this.lock.unlock();
+    }
+
+    return new RCTransferDownload(
+      this,
+      this.createBuffer(transferID, sizeClass),
+      size
+    );
+  }
+
+  private RCTransferDownloadBuffer createBuffer(
+    final UUID transferID,
+    final long sizeClass)
+    throws RocaroException
+  {
+    LOG.debug(
+      "Creating a download buffer of size {} for transfer {}",
+      Long.valueOf(sizeClass),
+      transferID
+    );
+
+    /*
+     * The memory is required to be host-coherent so that the results of
+     * the device's writes do not need to be explicitly invalidated, and
+     * is preferably host-cached so that reads from it are fast.
+     */
+
+    final var allocInfo =
+      VMAAllocationCreateInfo.builder()
+        .setUsage(VMA_MEMORY_USAGE_GPU_TO_CPU)
+        .addRequiredFlags(VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT)
+        .addRequiredFlags(VK_MEMORY_PROPERTY_HOST_COHERENT_BIT)
+        .addPreferredFlags(VK_MEMORY_PROPERTY_HOST_CACHED_BIT)
+        .setMemoryTypeBits(0L)
+        .build();
+
+    final var createInfo =
+      VulkanBufferCreateInfo.builder()
+        .setSize(sizeClass)
+        .addUsageFlags(VK_BUFFER_USAGE_TRANSFER_DST_BIT)
+        .setSharingMode(VK_SHARING_MODE_EXCLUSIVE)
+        .build();
+
+    try {
+      final var buffer =
+        this.allocator.createBuffer(allocInfo, createInfo);
+
+      this.debugging.setObjectName(
+        buffer.result(),
+        "TransferDownloadBuffer[%d]".formatted(Long.valueOf(sizeClass))
+      );
+
+      final var map =
+        this.allocator.mapMemory(buffer.allocation());
+      final var mapped =
+        MemorySegment.ofBuffer(map.asByteBuffer());
+
+      return new RCTransferDownloadBuffer(
+        buffer.result(),
+        map,
+        mapped,
+        sizeClass
+      );
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  void release(
+    final RCTransferDownloadBuffer buffer)
+    throws RocaroException
+  {
+    this.lock.lock();
+    try {
+      if (!this.closed) {
+        final var queue =
+          this.free.computeIfAbsent(
+            Long.valueOf(buffer.capacity()),
+            _ -> new ArrayDeque<>()
+          );
+        if (queue.size() < RETAINED_PER_CLASS) {
+          queue.push(buffer);
+          return;
+        }
+      }
+    } finally {
+      this.lock.unlock();
+    }
+
+    buffer.close();
+  }
+
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    final var buffers = new ArrayList<RCTransferDownloadBuffer>();
+
+    this.lock.lock();
+    try {
+      this.closed = true;
+      for (final var queue : this.free.values()) {
+        buffers.addAll(queue);
+      }
+      this.free.clear();
+    } finally {
+      this.lock.unlock();
+    }
+
+    RocaroException failure = null;
+    for (final var buffer : buffers) {
+      try {
+        buffer.close();
+      } catch (final RocaroException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.api.VulkanFilter;
+import com.io7m.jcoronado.api.VulkanFormat;
+import com.io7m.jcoronado.api.VulkanFormatFeatureFlag;
+import com.io7m.jcoronado.api.VulkanPhysicalDeviceType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.transfers.RCTransferException;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.io7m.jcoronado.api.VulkanFilter.VK_FILTER_LINEAR;
+import static com.io7m.jcoronado.api.VulkanFilter.VK_FILTER_NEAREST;
+import static com.io7m.jcoronado.api.VulkanFormatFeatureFlag.VK_FORMAT_FEATURE_BLIT_DST_BIT;
+import static com.io7m.jcoronado.api.VulkanFormatFeatureFlag.VK_FORMAT_FEATURE_BLIT_SRC_BIT;
+import static com.io7m.jcoronado.api.VulkanFormatFeatureFlag.VK_FORMAT_FEATURE_SAMPLED_IMAGE_BIT;
+import static com.io7m.jcoronado.api.VulkanFormatFeatureFlag.VK_FORMAT_FEATURE_SAMPLED_IMAGE_FILTER_LINEAR_BIT;
+import static com.io7m.jcoronado.api.VulkanFormatFeatureFlag.VK_FORMAT_FEATURE_TRANSFER_DST_BIT;
+import static com.io7m.rocaro.api.RCStandardErrorCodes.TRANSFER_FORMAT_UNSUPPORTED;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ERROR_TRANSFER_FORMAT_BLIT_UNSUPPORTED;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ERROR_TRANSFER_FORMAT_UNSUPPORTED;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ERROR_TRANSFER_FORMAT_UNSUPPORTED_REMEDIATE;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.FORMAT;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.SOURCE_FORMAT;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.TARGET_FORMAT;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.TRANSFER;
+
+/**
+ * <p>The features that the device supports for each image format.</p>
+ *
+ * <p>The features that a format is guaranteed to support (such as
+ * {@link VulkanFormat#mandatoryFeatures()}) are a lower bound; devices
+ * usually support more, and some formats (such as the block-compressed
+ * formats) have no guaranteed support at all. The optimal tiling features
+ * of each format are queried from the physical device the first time the
+ * format is used, and cached thereafter.</p>
+ */
+
+public final class RCTransferFormats
+  extends RCObject
+{
+  private final RCStrings strings;
+  private final VulkanPhysicalDeviceType physicalDevice;
+  private final ConcurrentHashMap<VulkanFormat, Set<VulkanFormatFeatureFlag>> features;
+
+  /**
+   * Create a format feature cache.
+   *
+   * @param inStrings        The string resources
+   * @param inPhysicalDevice The physical device
+   */
+
+  public RCTransferFormats(
+    final RCStrings inStrings,
+    final VulkanPhysicalDeviceType inPhysicalDevice)
+  {
+    this.strings =
+      Objects.requireNonNull(inStrings, "strings");
+    this.physicalDevice =
+      Objects.requireNonNull(inPhysicalDevice, "physicalDevice");
+    this.features =
+      new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Determine the features the device supports for images of the given
+   * format created with optimal tiling.
+   *
+   * @param format The format
+   *
+   * @return The supported features
+   *
+   * @throws RCVulkanException On errors
+   */
+
+  public Set<VulkanFormatFeatureFlag> optimalTilingFeatures(
+    final VulkanFormat format)
+    throws RCVulkanException
+  {
+    Objects.requireNonNull(format, "format");
+
+    final var existing = this.features.get(format);
+    if (existing != null) {
+      return existing;
+    }
+
+    try {
+      final var supported =
+        Set.copyOf(
+          this.physicalDevice.formatProperties(format)
+            .optimalTilingFeatures()
+        );
+      this.features.put(format, supported);
+      return supported;
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  /**
+   * Check that images of the given format can be uploaded to and sampled
+   * by the device. Support for a block-compressed format is otherwise only
+   * implied by the corresponding device feature (such as
+   * {@code textureCompressionBC}), and a device that reports that feature
+   * must also report these format features.
+   *
+   * @param transferID The ID of the transfer
+   * @param format     The format
+   *
+   * @throws RCTransferException If the format is not supported
+   * @throws RCVulkanException   On errors
+   */
+
+  public void checkSampledUpload(
+    final UUID transferID,
+    final VulkanFormat format)
+    throws RCTransferException, RCVulkanException
+  {
+    Objects.requireNonNull(transferID, "transferID");
+
+    final var supported = this.optimalTilingFeatures(format);
+    if (supported.contains(VK_FORMAT_FEATURE_SAMPLED_IMAGE_BIT)
+        && supported.contains(VK_FORMAT_FEATURE_TRANSFER_DST_BIT)) {
+      return;
+    }
+
+    throw new RCTransferException(
+      this.strings.format(ERROR_TRANSFER_FORMAT_UNSUPPORTED),
+      Map.ofEntries(
+        Map.entry(this.strings.format(TRANSFER), transferID.toString()),
+        Map.entry(this.strings.format(FORMAT), format.name())
+      ),
+      TRANSFER_FORMAT_UNSUPPORTED.codeName(),
+      Optional.of(
+        this.strings.format(ERROR_TRANSFER_FORMAT_UNSUPPORTED_REMEDIATE)
+      )
+    );
+  }
+
+  /**
+   * Check that the device can blit from images of the source format to
+   * images of the target format, and determine the filter to use. Linear
+   * filtering is used if the device supports it for the source format.
+   *
+   * @param transferID The ID of the transfer
+   * @param source     The source format
+   * @param target     The target format
+   *
+   * @return The blit filter
+   *
+   * @throws RCTransferException If the formats cannot be blitted
+   * @throws RCVulkanException   On errors
+   */
+
+  public VulkanFilter blitFilter(
+    final UUID transferID,
+    final VulkanFormat source,
+    final VulkanFormat target)
+    throws RCTransferException, RCVulkanException
+  {
+    Objects.requireNonNull(transferID, "transferID");
+
+    final var sourceFeatures = this.optimalTilingFeatures(source);
+    final var targetFeatures = this.optimalTilingFeatures(target);
+    if (!sourceFeatures.contains(VK_FORMAT_FEATURE_BLIT_SRC_BIT)
+        || !targetFeatures.contains(VK_FORMAT_FEATURE_BLIT_DST_BIT)) {
+      throw new RCTransferException(
+        this.strings.format(ERROR_TRANSFER_FORMAT_BLIT_UNSUPPORTED),
+        Map.ofEntries(
+          Map.entry(this.strings.format(TRANSFER), transferID.toString()),
+          Map.entry(this.strings.format(SOURCE_FORMAT), source.name()),
+          Map.entry(this.strings.format(TARGET_FORMAT), target.name())
+        ),
+        TRANSFER_FORMAT_UNSUPPORTED.codeName(),
+        Optional.empty()
+      );
+    }
+
+    if (sourceFeatures.contains(VK_FORMAT_FEATURE_SAMPLED_IMAGE_FILTER_LINEAR_BIT)) {
+      return VK_FILTER_LINEAR;
+    }
+    return VK_FILTER_NEAREST;
+  }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanAccessFlag;
+import com.io7m.jcoronado.api.VulkanCommandBufferType;
+import com.io7m.jcoronado.api.VulkanDebuggingType;
+import com.io7m.jcoronado.api.VulkanDependencyInfo;
+import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.api.VulkanExtent3D;
+import com.io7m.jcoronado.api.VulkanFilter;
+import com.io7m.jcoronado.api.VulkanImageBlit;
+import com.io7m.jcoronado.api.VulkanImageCopy;
+import com.io7m.jcoronado.api.VulkanImageLayout;
+import com.io7m.jcoronado.api.VulkanImageMemoryBarrier;
+import com.io7m.jcoronado.api.VulkanImageSubresourceLayers;
+import com.io7m.jcoronado.api.VulkanImageSubresourceRange;
+import com.io7m.jcoronado.api.VulkanImageType;
+import com.io7m.jcoronado.api.VulkanOffset3D;
+import com.io7m.jcoronado.api.VulkanPipelineStageFlag;
+import com.io7m.jcoronado.api.VulkanQueueFamilyIndex;
+import com.io7m.jcoronado.api.VulkanQueueType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.api.images.RCImageColorBasicType;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorBasicCopyType;
+import com.io7m.rocaro.api.transfers.RCTransferImageCopyRegion;
+import com.io7m.rocaro.vanilla.internal.threading.RCThread;
+import com.io7m.rocaro.vanilla.internal.threading.RCThreadLabels;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_MEMORY_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_SHADER_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanImageAspectFlag.VK_IMAGE_ASPECT_COLOR_BIT;
+import static com.io7m.jcoronado.api.VulkanImageLayout.VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL;
+import static com.io7m.jcoronado.api.VulkanImageLayout.VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_ALL_COMMANDS_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_TRANSFER_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_VERTEX_SHADER_BIT;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.GPU;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.TRANSFER_IO;
+
+/**
+ * <p>A task that copies regions between two existing images on the
+ * device.</p>
+ *
+ * <p>Both images are owned by the target queue, and so all the commands
+ * are recorded onto the target queue as with image updates. The regions
+ * are copied exactly when the formats match and no region is scaled, and
+ * are blitted otherwise.</p>
+ */
+
+final class RCTransferImageColorBasicCopyTask
+  extends RCObject
+  implements RCTransferTaskType<RCImageColorBasicType>
+{
+  private final RCTransferImageColorBasicCopyType copy;
+  private final VulkanQueueType transferQueue;
+  private final VulkanQueueType targetQueue;
+  private final VulkanDebuggingType debugging;
+  private final VulkanImageSubresourceRange imageSubresourceRange;
+  private final VulkanImageSubresourceLayers imageSubresourceLayers;
+  private final long size;
+  private final VulkanFilter blitFilter;
+  private boolean recorded;
+
+  RCTransferImageColorBasicCopyTask(
+    final RCDeviceType inDevice,
+    final RCTransferImageColorBasicCopyType inCopy,
+    final VulkanFilter inBlitFilter)
+  {
+    Objects.requireNonNull(inDevice, "device");
+
+    this.copy =
+      Objects.requireNonNull(inCopy, "copy");
+    this.blitFilter =
+      Objects.requireNonNull(inBlitFilter, "blitFilter");
+
+    this.transferQueue =
+      inDevice.transferQueue();
+    this.targetQueue =
+      inDevice.queueForCategory(this.copy.targetQueue());
+    this.debugging =
+      inDevice.device().debugging();
+
+    final var texelSize =
+      Integer.toUnsignedLong(this.copy.target().format().texelSizeOctets());
+
+    var octets = 0L;
+    for (final var region : this.copy.regions()) {
+      octets += Integer.toUnsignedLong(region.targetSize().x())
+                * Integer.toUnsignedLong(region.targetSize().y())
+                * texelSize;
+    }
+    this.size = octets;
+
+    this.imageSubresourceRange =
+      VulkanImageSubresourceRange.builder()
+        .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+        .setBaseMipLevel(0)
+        .setBaseArrayLayer(0)
+        .setLevelCount(1)
+        .setLayerCount(1)
+        .build();
+
+    this.imageSubresourceLayers =
+      VulkanImageSubresourceLayers.builder()
+        .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+        .setBaseArrayLayer(0)
+        .setLayerCount(1)
+        .setMipLevel(0)
+        .build();
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void prepare()
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+  }
+
+  @Override
+  public boolean requiresSubmission()
+  {
+    return true;
+  }
+
+  @Override
+  public VulkanQueueType targetQueue()
+  {
+    return this.targetQueue;
+  }
+
+  @Override
+  public long stagingOctets()
+  {
+    return 0L;
+  }
+
+  @Override
+  public long transferRemainingOctets()
+  {
+    return this.recorded ? 0L : this.size;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public long recordTransferCommands(
+    final VulkanCommandBufferType commands,
+    final long maximumOctets)
+    throws RocaroException
+  {
+    this.recorded = true;
+    if (Objects.equals(this.transferQueue, this.targetQueue)) {
+      this.recordCopy(commands);
+    }
+    return this.size;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void recordTargetCommands(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    this.recordCopy(commands);
+  }
+
+  private void recordCopy(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    final var source =
+      this.copy.source().data();
+    final var target =
+      this.copy.target().data();
+    final var sourceLayout =
+      this.copy.sourceLayout();
+    final var targetLayout =
+      this.copy.targetLayout();
+
+    try (final var _ =
+           this.debugging.begin(
+             commands,
+             "ImageCopy[%s]".formatted(this.copy.name()))) {
+
+      /*
+       * Wait for any prior writes to either image to complete, and
+       * transition both into layouts suitable for copying. The old
+       * layouts are the images' current layouts, so that the existing
+       * contents are preserved.
+       */
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addImageMemoryBarriers(
+            this.barrier(
+              source,
+              VK_PIPELINE_STAGE_ALL_COMMANDS_BIT,
+              VK_ACCESS_MEMORY_WRITE_BIT,
+              VK_PIPELINE_STAGE_TRANSFER_BIT,
+              VK_ACCESS_TRANSFER_READ_BIT,
+              sourceLayout,
+              VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL
+            ))
+          .addImageMemoryBarriers(
+            this.barrier(
+              target,
+              VK_PIPELINE_STAGE_ALL_COMMANDS_BIT,
+              VK_ACCESS_MEMORY_WRITE_BIT,
+              VK_PIPELINE_STAGE_TRANSFER_BIT,
+              VK_ACCESS_TRANSFER_WRITE_BIT,
+              targetLayout,
+              VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL
+            ))
+          .build()
+      );
+
+      if (this.copy.requiresBlit()) {
+        this.recordBlit(commands, source, target);
+      } else {
+        this.recordExactCopy(commands, source, target);
+      }
+
+      /*
+       * Return both images to their original layouts.
+       */
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addImageMemoryBarriers(
+            this.barrier(
+              source,
+              VK_PIPELINE_STAGE_TRANSFER_BIT,
+              VK_ACCESS_TRANSFER_READ_BIT,
+              VK_PIPELINE_STAGE_VERTEX_SHADER_BIT,
+              VK_ACCESS_SHADER_READ_BIT,
+              VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL,
+              sourceLayout
+            ))
+          .addImageMemoryBarriers(
+            this.barrier(
+              target,
+              VK_PIPELINE_STAGE_TRANSFER_BIT,
+              VK_ACCESS_TRANSFER_WRITE_BIT,
+              VK_PIPELINE_STAGE_VERTEX_SHADER_BIT,
+              VK_ACCESS_SHADER_READ_BIT,
+              VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL,
+              targetLayout
+            ))
+          .build()
+      );
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  private void recordExactCopy(
+    final VulkanCommandBufferType commands,
+    final VulkanImageType source,
+    final VulkanImageType target)
+    throws VulkanException
+  {
+    final var regions =
+      this.copy.regions();
+    final var copies =
+      new ArrayList<VulkanImageCopy>(regions.size());
+
+    for (final var region : regions) {
+      copies.add(
+        VulkanImageCopy.builder()
+          .setSrcSubresource(this.imageSubresourceLayers)
+          .setSrcOffset(
+            VulkanOffset3D.of(
+              region.sourceOffset().x(),
+              region.sourceOffset().y(),
+              0))
+          .setDstSubresource(this.imageSubresourceLayers)
+          .setDstOffset(
+            VulkanOffset3D.of(
+              region.targetOffset().x(),
+              region.targetOffset().y(),
+              0))
+          .setExtent(
+            VulkanExtent3D.of(
+              region.sourceSize().x(),
+              region.sourceSize().y(),
+              1))
+          .build()
+      );
+    }
+
+    commands.copyImage(
+      source,
+      VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL,
+      target,
+      VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL,
+      copies
+    );
+  }
+
+  private void recordBlit(
+    final VulkanCommandBufferType commands,
+    final VulkanImageType source,
+    final VulkanImageType target)
+    throws VulkanException
+  {
+    final var regions =
+      this.copy.regions();
+    final var blits =
+      new ArrayList<VulkanImageBlit>(regions.size());
+
+    for (final var region : regions) {
+      blits.add(blitOf(region, this.imageSubresourceLayers));
+    }
+
+    commands.blitImage(
+      source,
+      VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL,
+      target,
+      VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL,
+      blits,
+      this.blitFilter
+    );
+  }
+
+  private static VulkanImageBlit blitOf(
+    final RCTransferImageCopyRegion region,
+    final VulkanImageSubresourceLayers layers)
+  {
+    final var so = region.sourceOffset();
+    final var ss = region.sourceSize();
+    final var to = region.targetOffset();
+    final var ts = region.targetSize();
+
+    return VulkanImageBlit.builder()
+      .setSrcSubresource(layers)
+      .setSrcOffset0(VulkanOffset3D.of(so.x(), so.y(), 0))
+      .setSrcOffset1(VulkanOffset3D.of(so.x() + ss.x(), so.y() + ss.y(), 1))
+      .setDstSubresource(layers)
+      .setDstOffset0(VulkanOffset3D.of(to.x(), to.y(), 0))
+      .setDstOffset1(VulkanOffset3D.of(to.x() + ts.x(), to.y() + ts.y(), 1))
+      .build();
+  }
+
+  private VulkanImageMemoryBarrier barrier(
+    final VulkanImageType image,
+    final VulkanPipelineStageFlag srcStage,
+    final VulkanAccessFlag srcAccess,
+    final VulkanPipelineStageFlag dstStage,
+    final VulkanAccessFlag dstAccess,
+    final VulkanImageLayout oldLayout,
+    final VulkanImageLayout newLayout)
+  {
+    return VulkanImageMemoryBarrier.builder()
+      .setSrcStageMask(Set.of(srcStage))
+      .setSrcAccessMask(Set.of(srcAccess))
+      .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+      .setDstStageMask(Set.of(dstStage))
+      .setDstAccessMask(Set.of(dstAccess))
+      .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+      .setImage(image)
+      .setOldLayout(oldLayout)
+      .setNewLayout(newLayout)
+      .setSubresourceRange(this.imageSubresourceRange)
+      .build();
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public RCImageColorBasicType complete()
+  {
+    return this.copy.target();
+  }
+
+  @RCThread(GPU)
+  @Override
+  public void close()
+  {
+    RCThreadLabels.checkThreadLabelsAny(GPU);
+  }
+}
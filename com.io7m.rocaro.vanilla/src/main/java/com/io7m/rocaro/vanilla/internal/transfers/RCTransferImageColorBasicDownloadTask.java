@@ -0,0 +1,315 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanBufferImageCopy;
+import com.io7m.jcoronado.api.VulkanBufferMemoryBarrier;
+import com.io7m.jcoronado.api.VulkanCommandBufferType;
+import com.io7m.jcoronado.api.VulkanDebuggingType;
+import com.io7m.jcoronado.api.VulkanDependencyInfo;
+import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.api.VulkanExtent3D;
+import com.io7m.jcoronado.api.VulkanImageMemoryBarrier;
+import com.io7m.jcoronado.api.VulkanImageSubresourceLayers;
+import com.io7m.jcoronado.api.VulkanImageSubresourceRange;
+import com.io7m.jcoronado.api.VulkanOffset3D;
+import com.io7m.jcoronado.api.VulkanQueueFamilyIndex;
+import com.io7m.jcoronado.api.VulkanQueueType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.api.transfers.RCTransferDownloadType;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorBasicDownloadType;
+import com.io7m.rocaro.vanilla.internal.threading.RCThread;
+import com.io7m.rocaro.vanilla.internal.threading.RCThreadLabels;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_HOST_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_MEMORY_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanImageAspectFlag.VK_IMAGE_ASPECT_COLOR_BIT;
+import static com.io7m.jcoronado.api.VulkanImageLayout.VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_ALL_COMMANDS_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_COPY_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_HOST_BIT;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.GPU;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.TRANSFER_IO;
+
+/**
+ * <p>A task that downloads the contents of an existing image.</p>
+ *
+ * <p>The image is owned by the target queue and may be in use there.
+ * As with image updates, all the commands (the layout transitions and the
+ * copy) are recorded onto the target queue rather than transferring
+ * ownership of the image to the transfer queue and back again.</p>
+ */
+
+final class RCTransferImageColorBasicDownloadTask
+  extends RCObject
+  implements RCTransferTaskType<RCTransferDownloadType>
+{
+  private final RCTransferDownloadBuffers downloads;
+  private final RCTransferImageColorBasicDownloadType download;
+  private final VulkanQueueType transferQueue;
+  private final VulkanQueueType targetQueue;
+  private final VulkanDebuggingType debugging;
+  private final VulkanImageSubresourceRange imageSubresourceRange;
+  private final long size;
+  private RCTransferDownload result;
+  private boolean recorded;
+
+  RCTransferImageColorBasicDownloadTask(
+    final RCDeviceType inDevice,
+    final RCTransferDownloadBuffers inDownloads,
+    final RCTransferImageColorBasicDownloadType inDownload)
+  {
+    Objects.requireNonNull(inDevice, "device");
+
+    this.downloads =
+      Objects.requireNonNull(inDownloads, "downloads");
+    this.download =
+      Objects.requireNonNull(inDownload, "download");
+
+    this.transferQueue =
+      inDevice.transferQueue();
+    this.targetQueue =
+      inDevice.queueForCategory(this.download.targetQueue());
+    this.debugging =
+      inDevice.device().debugging();
+
+    final var image = this.download.image();
+    this.size =
+      Integer.toUnsignedLong(image.size().x())
+      * Integer.toUnsignedLong(image.size().y())
+      * Integer.toUnsignedLong(image.format().texelSizeOctets());
+
+    this.imageSubresourceRange =
+      VulkanImageSubresourceRange.builder()
+        .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+        .setBaseMipLevel(0)
+        .setBaseArrayLayer(0)
+        .setLevelCount(1)
+        .setLayerCount(1)
+        .build();
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void prepare()
+    throws Exception
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+
+    this.result =
+      this.downloads.allocate(this.download.id(), this.size);
+  }
+
+  @Override
+  public boolean requiresSubmission()
+  {
+    return true;
+  }
+
+  @Override
+  public VulkanQueueType targetQueue()
+  {
+    return this.targetQueue;
+  }
+
+  @Override
+  public long stagingOctets()
+  {
+    return RCTransferDownloadBuffers.sizeClassOf(this.size);
+  }
+
+  @Override
+  public long transferRemainingOctets()
+  {
+    return this.recorded ? 0L : this.size;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public long recordTransferCommands(
+    final VulkanCommandBufferType commands,
+    final long maximumOctets)
+    throws RocaroException
+  {
+    this.recorded = true;
+    if (Objects.equals(this.transferQueue, this.targetQueue)) {
+      this.recordDownload(commands);
+    }
+    return this.size;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void recordTargetCommands(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    this.recordDownload(commands);
+  }
+
+  private void recordDownload(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    final var imageInfo =
+      this.download.image();
+    final var image =
+      imageInfo.data();
+    final var layout =
+      this.download.layout();
+    final var target =
+      this.result.buffer();
+
+    try (final var _ =
+           this.debugging.begin(
+             commands,
+             "ImageDownload[%s]".formatted(this.download.name()))) {
+
+      /*
+       * Wait for any prior writes to the image to complete, and
+       * transition it into a layout suitable for copying from.
+       */
+
+      final var preCopyBarrier =
+        VulkanImageMemoryBarrier.builder()
+          .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_ALL_COMMANDS_BIT))
+          .setSrcAccessMask(Set.of(VK_ACCESS_MEMORY_WRITE_BIT))
+          .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setDstStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+          .setDstAccessMask(Set.of(VK_ACCESS_TRANSFER_READ_BIT))
+          .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setImage(image)
+          .setOldLayout(layout)
+          .setNewLayout(VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL)
+          .setSubresourceRange(this.imageSubresourceRange)
+          .build();
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addImageMemoryBarriers(preCopyBarrier)
+          .build()
+      );
+
+      commands.copyImageToBuffer(
+        image,
+        VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL,
+        target,
+        List.of(
+          VulkanBufferImageCopy.builder()
+            .setBufferImageHeight(0)
+            .setBufferOffset(0L)
+            .setBufferRowLength(0)
+            .setImageExtent(
+              VulkanExtent3D.of(
+                imageInfo.size().x(),
+                imageInfo.size().y(),
+                1))
+            .setImageOffset(VulkanOffset3D.of(0, 0, 0))
+            .setImageSubresource(
+              VulkanImageSubresourceLayers.builder()
+                .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+                .setBaseArrayLayer(0)
+                .setLayerCount(1)
+                .setMipLevel(0)
+                .build())
+            .build()
+        )
+      );
+
+      /*
+       * Return the image to its original layout, and make the copy
+       * visible to the host.
+       */
+
+      final var postCopyBarrier =
+        VulkanImageMemoryBarrier.builder()
+          .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+          .setSrcAccessMask(Set.of())
+          .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setDstStageMask(Set.of(VK_PIPELINE_STAGE_ALL_COMMANDS_BIT))
+          .setDstAccessMask(Set.of())
+          .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setImage(image)
+          .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL)
+          .setNewLayout(layout)
+          .setSubresourceRange(this.imageSubresourceRange)
+          .build();
+
+      final var hostBarrier =
+        VulkanBufferMemoryBarrier.builder()
+          .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+          .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+          .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setDstStageMask(Set.of(VK_PIPELINE_STAGE_HOST_BIT))
+          .setDstAccessMask(Set.of(VK_ACCESS_HOST_READ_BIT))
+          .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setBuffer(target)
+          .setOffset(0L)
+          .setSize(this.size)
+          .build();
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addImageMemoryBarriers(postCopyBarrier)
+          .addBufferMemoryBarriers(hostBarrier)
+          .build()
+      );
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public RCTransferDownloadType complete()
+  {
+    /*
+     * Ownership of the download passes to the caller.
+     */
+
+    final var r = this.result;
+    this.result = null;
+    return r;
+  }
+
+  @RCThread(GPU)
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    RCThreadLabels.checkThreadLabelsAny(GPU);
+
+    /*
+     * If the task failed before completing, the download is released.
+     */
+
+    if (this.result != null) {
+      this.result.close();
+      this.result = null;
+    }
+  }
+}
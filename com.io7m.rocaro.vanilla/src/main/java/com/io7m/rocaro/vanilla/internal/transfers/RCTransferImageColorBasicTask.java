@@ -17,10 +17,7 @@
 
 package com.io7m.rocaro.vanilla.internal.transfers;
 
-import com.io7m.jcoronado.api.VulkanBufferCreateInfo;
 import com.io7m.jcoronado.api.VulkanBufferImageCopy;
-import com.io7m.jcoronado.api.VulkanBufferType;
-import com.io7m.jcoronado.api.VulkanCommandBufferSubmitInfo;
 import com.io7m.jcoronado.api.VulkanCommandBufferType;
 import com.io7m.jcoronado.api.VulkanComponentMapping;
 import com.io7m.jcoronado.api.VulkanComponentSwizzle;
@@ -28,6 +25,8 @@ import com.io7m.jcoronado.api.VulkanDebuggingType;
 import com.io7m.jcoronado.api.VulkanDependencyInfo;
 import com.io7m.jcoronado.api.VulkanException;
 import com.io7m.jcoronado.api.VulkanExtent3D;
+import com.io7m.jcoronado.api.VulkanFilter;
+import com.io7m.jcoronado.api.VulkanImageBlit;
 import com.io7m.jcoronado.api.VulkanImageCreateInfo;
 import com.io7m.jcoronado.api.VulkanImageKind;
 import com.io7m.jcoronado.api.VulkanImageMemoryBarrier;
@@ -41,9 +40,6 @@ import com.io7m.jcoronado.api.VulkanLogicalDeviceType;
 import com.io7m.jcoronado.api.VulkanOffset3D;
 import com.io7m.jcoronado.api.VulkanQueueFamilyIndex;
 import com.io7m.jcoronado.api.VulkanQueueType;
-import com.io7m.jcoronado.api.VulkanSemaphoreSubmitInfo;
-import com.io7m.jcoronado.api.VulkanSemaphoreTimelineWait;
-import com.io7m.jcoronado.api.VulkanSubmitInfo;
 import com.io7m.jcoronado.vma.VMAAllocationCreateInfo;
 import com.io7m.jcoronado.vma.VMAAllocationResult;
 import com.io7m.jcoronado.vma.VMAAllocatorType;
@@ -51,88 +47,88 @@ import com.io7m.jmulticlose.core.CloseableCollectionType;
 import com.io7m.rocaro.api.RCObject;
 import com.io7m.rocaro.api.RocaroException;
 import com.io7m.rocaro.api.devices.RCDeviceType;
-import com.io7m.rocaro.api.images.RCImageColorBasicType;
+import com.io7m.rocaro.api.images.RCImageColorBasicUploadedType;
+import com.io7m.rocaro.api.transfers.RCTransferCopyFunctionRangedType;
 import com.io7m.rocaro.api.transfers.RCTransferImageColorBasicType;
 import com.io7m.rocaro.api.transfers.RCTransferJFREventStagingCopy;
 import com.io7m.rocaro.vanilla.internal.RCResourceCollections;
 import com.io7m.rocaro.vanilla.internal.RCStrings;
 import com.io7m.rocaro.vanilla.internal.images.RCImageColorBasic;
-import com.io7m.rocaro.vanilla.internal.notifications.RCNotificationServiceType;
 import com.io7m.rocaro.vanilla.internal.threading.RCThread;
 import com.io7m.rocaro.vanilla.internal.threading.RCThreadLabels;
 import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
 
-import java.lang.foreign.MemorySegment;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 
 import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_SHADER_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_READ_BIT;
 import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_WRITE_BIT;
-import static com.io7m.jcoronado.api.VulkanBufferUsageFlag.VK_BUFFER_USAGE_TRANSFER_SRC_BIT;
-import static com.io7m.jcoronado.api.VulkanCommandBufferUsageFlag.VK_COMMAND_BUFFER_USAGE_ONE_TIME_SUBMIT_BIT;
 import static com.io7m.jcoronado.api.VulkanImageAspectFlag.VK_IMAGE_ASPECT_COLOR_BIT;
 import static com.io7m.jcoronado.api.VulkanImageLayout.VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL;
+import static com.io7m.jcoronado.api.VulkanImageLayout.VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL;
 import static com.io7m.jcoronado.api.VulkanImageLayout.VK_IMAGE_LAYOUT_UNDEFINED;
 import static com.io7m.jcoronado.api.VulkanImageTiling.VK_IMAGE_TILING_OPTIMAL;
 import static com.io7m.jcoronado.api.VulkanImageUsageFlag.VK_IMAGE_USAGE_SAMPLED_BIT;
 import static com.io7m.jcoronado.api.VulkanImageUsageFlag.VK_IMAGE_USAGE_TRANSFER_DST_BIT;
+import static com.io7m.jcoronado.api.VulkanImageUsageFlag.VK_IMAGE_USAGE_TRANSFER_SRC_BIT;
 import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_DEVICE_LOCAL_BIT;
-import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT;
 import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_COPY_BIT;
 import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_TRANSFER_BIT;
 import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_VERTEX_SHADER_BIT;
 import static com.io7m.jcoronado.api.VulkanSampleCountFlag.VK_SAMPLE_COUNT_1_BIT;
 import static com.io7m.jcoronado.api.VulkanSharingMode.VK_SHARING_MODE_EXCLUSIVE;
-import static com.io7m.jcoronado.vma.VMAMemoryUsage.VMA_MEMORY_USAGE_CPU_ONLY;
 import static com.io7m.jcoronado.vma.VMAMemoryUsage.VMA_MEMORY_USAGE_GPU_ONLY;
-import static com.io7m.rocaro.api.devices.RCDeviceQueueCategory.GRAPHICS;
-import static com.io7m.rocaro.api.devices.RCDeviceQueueCategory.TRANSFER;
 import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.GPU;
 import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.TRANSFER_IO;
 
 final class RCTransferImageColorBasicTask
   extends RCObject
-  implements RCTransferTaskType<RCImageColorBasicType>
+  implements RCTransferTaskType<RCImageColorBasicUploadedType>
 {
   private final RCDeviceType device;
   private final VMAAllocatorType allocator;
+  private final RCTransferStagingBuffers staging;
+  private final RCTransferParallelCopy copies;
   private final CloseableCollectionType<RocaroException> resources;
   private final RCTransferImageColorBasicType image2D;
   private final VulkanQueueType transferQueue;
   private final VulkanQueueType targetQueue;
-  private final RCNotificationServiceType notifications;
   private final VulkanLogicalDeviceType vulkanDevice;
   private final VulkanImageSubresourceRange imageSubresourceRange;
-  private final RCTransferCommandBufferFactoryType commandBuffers;
   private final VulkanDebuggingType debugging;
-  private VulkanCommandBufferType mainCommands;
+  private final int mipLevels;
+  private final VulkanFilter mipmapFilter;
+  private RCTransferStagingAllocation stagingAllocation;
+  private VMAAllocationResult<VulkanImageType> imageResult;
+  private long rowsCopied;
 
   RCTransferImageColorBasicTask(
     final RCDeviceType inDevice,
     final VMAAllocatorType inAllocator,
-    final RCTransferCommandBufferFactoryType inCommandBuffers,
+    final RCTransferStagingBuffers inStaging,
+    final RCTransferParallelCopy inCopies,
     final RCStrings strings,
-    final RCNotificationServiceType inNotifications,
-    final RCTransferImageColorBasicType inImage2D)
+    final RCTransferImageColorBasicType inImage2D,
+    final VulkanFilter inMipmapFilter)
   {
     Objects.requireNonNull(strings, "strings");
 
     this.resources =
       RCResourceCollections.create(strings);
-    this.notifications =
-      Objects.requireNonNull(inNotifications, "notifications");
     this.device =
       Objects.requireNonNull(inDevice, "device");
     this.allocator =
       Objects.requireNonNull(inAllocator, "allocator");
-    this.commandBuffers =
-      Objects.requireNonNull(inCommandBuffers, "commandBuffers");
+    this.staging =
+      Objects.requireNonNull(inStaging, "staging");
+    this.copies =
+      Objects.requireNonNull(inCopies, "copies");
     this.image2D =
       Objects.requireNonNull(inImage2D, "image2D");
+    this.mipmapFilter =
+      Objects.requireNonNull(inMipmapFilter, "mipmapFilter");
 
     this.transferQueue =
       this.device.transferQueue();
@@ -143,16 +139,46 @@ final class RCTransferImageColorBasicTask
     this.debugging =
       this.vulkanDevice.debugging();
 
+    this.mipLevels =
+      this.image2D.generateMipmaps()
+        ? RCTransferMipmaps.levelCount(
+        this.image2D.size().x(),
+        this.image2D.size().y())
+        : 1;
+
     this.imageSubresourceRange =
       VulkanImageSubresourceRange.builder()
         .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
         .setBaseMipLevel(0)
         .setBaseArrayLayer(0)
-        .setLevelCount(1)
+        .setLevelCount(this.mipLevels)
         .setLayerCount(1)
         .build();
   }
 
+  private VulkanImageSubresourceRange levelRange(
+    final int level)
+  {
+    return VulkanImageSubresourceRange.builder()
+      .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+      .setBaseMipLevel(level)
+      .setBaseArrayLayer(0)
+      .setLevelCount(1)
+      .setLayerCount(1)
+      .build();
+  }
+
+  private VulkanImageSubresourceLayers levelLayers(
+    final int level)
+  {
+    return VulkanImageSubresourceLayers.builder()
+      .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+      .setBaseArrayLayer(0)
+      .setLayerCount(1)
+      .setMipLevel(level)
+      .build();
+  }
+
   private VMAAllocationResult<VulkanImageType> createGPUTexture()
     throws VulkanException
   {
@@ -170,12 +196,13 @@ final class RCTransferImageColorBasicTask
         .setFormat(format)
         .setImageType(VulkanImageKind.VK_IMAGE_TYPE_2D)
         .setInitialLayout(VK_IMAGE_LAYOUT_UNDEFINED)
-        .setMipLevels(1)
+        .setMipLevels(this.mipLevels)
         .setSamples(Set.of(VK_SAMPLE_COUNT_1_BIT))
         .setSharingMode(VK_SHARING_MODE_EXCLUSIVE)
         .setTiling(VK_IMAGE_TILING_OPTIMAL)
         .addUsage(VK_IMAGE_USAGE_SAMPLED_BIT)
         .addUsage(VK_IMAGE_USAGE_TRANSFER_DST_BIT)
+        .addUsage(VK_IMAGE_USAGE_TRANSFER_SRC_BIT)
         .build();
 
     final var allocInfo =
@@ -196,100 +223,60 @@ final class RCTransferImageColorBasicTask
   }
 
   @RCThread(TRANSFER_IO)
-  private VMAAllocationResult<VulkanBufferType> createCPUStagingBuffer(
-    final CloseableCollectionType<RocaroException> taskResources)
-    throws VulkanException
+  @Override
+  public void prepare()
+    throws Exception
   {
-    RCThreadLabels.checkThreadLabelsAny(TRANSFER_IO);
-
-    final var width =
-      this.image2D.size().x();
-    final var height =
-      this.image2D.size().y();
-    final var format =
-      this.image2D.format();
-
-    final var size =
-      Integer.toUnsignedLong(width)
-      * Integer.toUnsignedLong(height)
-      * Integer.toUnsignedLong(format.texelSizeOctets());
-
-    final var ev = new RCTransferJFREventStagingCopy();
-    ev.begin();
-
-    final var allocInfo =
-      VMAAllocationCreateInfo.builder()
-        .setUsage(VMA_MEMORY_USAGE_CPU_ONLY)
-        .addRequiredFlags(VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT)
-        .setMemoryTypeBits(0L)
-        .build();
-
-    final var stagingBufferCreateInfo =
-      VulkanBufferCreateInfo.builder()
-        .setSize(size)
-        .addUsageFlags(VK_BUFFER_USAGE_TRANSFER_SRC_BIT)
-        .setSharingMode(VK_SHARING_MODE_EXCLUSIVE)
-        .build();
-
-    final var stagingBuffer =
-      this.allocator.createBuffer(allocInfo, stagingBufferCreateInfo);
-
-    this.debugging.setObjectName(
-      stagingBuffer.result(),
-      "TransferStagingBuffer"
-    );
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
 
-    taskResources.add(stagingBuffer.result());
+    /*
+     * Staging memory is allocated band-by-band in stageTransfer().
+     */
 
-    try (final var map =
-           this.allocator.mapMemory(stagingBuffer.allocation())) {
-      final var target =
-        MemorySegment.ofBuffer(map.asByteBuffer());
-      this.image2D.dataCopier().copy(target);
-      map.flush();
+    try {
+      this.imageResult =
+        this.createGPUTexture();
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
     }
+  }
 
-    if (ev.shouldCommit()) {
-      ev.message = "Copying to a CPU-side staging buffer.";
-      ev.transferID = this.image2D.id().toString();
-      ev.size = size;
-      ev.commit();
-    }
+  @Override
+  public boolean requiresSubmission()
+  {
+    return true;
+  }
 
-    return stagingBuffer;
+  @Override
+  public VulkanQueueType targetQueue()
+  {
+    return this.targetQueue;
   }
 
+  @RCThread(TRANSFER_IO)
   @Override
-  public RCImageColorBasicType execute()
+  public RCImageColorBasicUploadedType complete()
     throws Exception
   {
     RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
 
     try {
-      this.mainCommands =
-        this.commandBuffers.commandBufferForQueue(
-          this.resources,
-          this.device.transferQueue(),
-          "MainTransferCommands"
-        );
-
-      final var stagingR =
-        this.createCPUStagingBuffer(this.resources);
-      final var imageR =
-        this.createGPUTexture();
-      final var transferFuture =
-        this.scheduleTransferCommands(imageR, stagingR);
+      final var imageView =
+        this.createImageView(this.imageResult.result());
 
-      transferFuture.get(5L, TimeUnit.SECONDS);
+      /*
+       * The image is owned by the result from this point on.
+       */
 
-      final var imageView =
-        this.createImageView(imageR.result());
+      final var data = this.imageResult.result();
+      this.imageResult = null;
 
       return new RCImageColorBasic(
         this.image2D.size(),
-        imageR.result(),
+        data,
         imageView,
-        this.image2D.format()
+        this.image2D.format(),
+        RCTransferTaskType.resultReference(imageView, data)
       );
     } catch (final VulkanException e) {
       throw RCVulkanException.wrap(e);
@@ -324,110 +311,194 @@ final class RCTransferImageColorBasicTask
     return imageView;
   }
 
+  private long rowOctets()
+  {
+    return Integer.toUnsignedLong(this.image2D.size().x())
+           * Integer.toUnsignedLong(this.image2D.format().texelSizeOctets());
+  }
+
+  private long rows()
+  {
+    return Integer.toUnsignedLong(this.image2D.size().y());
+  }
+
+  @Override
+  public long stagingOctets()
+  {
+    return this.rows() * this.rowOctets();
+  }
+
+  @Override
+  public long transferRemainingOctets()
+  {
+    return (this.rows() - this.rowsCopied) * this.rowOctets();
+  }
+
+  /*
+   * Copy functions that are not ranged can only produce all the data at
+   * once, and so the data is copied in a single band.
+   */
+
+  private long partRows(
+    final long maximumOctets)
+  {
+    final var remaining =
+      this.rows() - this.rowsCopied;
+
+    if (this.image2D.dataCopier() instanceof RCTransferCopyFunctionRangedType) {
+      return RCTransferAlignment.rowsForCopy(
+        this.rowOctets(),
+        maximumOctets,
+        remaining
+      );
+    }
+    return remaining;
+  }
+
   @RCThread(TRANSFER_IO)
-  private CompletableFuture<?> scheduleTransferCommands(
-    final VMAAllocationResult<VulkanImageType> gpuImageResult,
-    final VMAAllocationResult<VulkanBufferType> stagingBufferResult)
-    throws VulkanException, RocaroException
+  @Override
+  public void stageTransfer(
+    final CloseableCollectionType<RocaroException> partResources,
+    final long maximumOctets)
+    throws RocaroException, InterruptedException
   {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+
+    final var rowOctets =
+      this.rowOctets();
+    final var offset =
+      this.rowsCopied * rowOctets;
+    final var octets =
+      this.partRows(maximumOctets) * rowOctets;
+    final var texelSize =
+      Integer.toUnsignedLong(this.image2D.format().texelSizeOctets());
+
     /*
-     * The operations we perform are slightly different depending on whether
-     * the transfer needs to happen on a single queue or multiple.
+     * Only the band of rows that is about to be recorded is allocated and
+     * filled, so that the reading of later bands overlaps with the GPU's
+     * execution of earlier bands, and so that the operation holds no
+     * staging memory while it waits to be selected for later bands. The
+     * offset of a buffer-to-image copy must be a multiple of both four and
+     * the texel size of the image format.
      */
 
-    if (Objects.equals(this.transferQueue, this.targetQueue)) {
-      return this.scheduleTransferCommandsSingleQueue(
-        gpuImageResult,
-        stagingBufferResult
+    this.stagingAllocation =
+      partResources.add(
+        this.staging.allocate(
+          this.image2D.id(),
+          octets,
+          RCTransferAlignment.copyAlignment(texelSize)
+        )
       );
-    } else {
-      return this.scheduleTransferCommandsMultiQueue(
-        gpuImageResult,
-        stagingBufferResult
+
+    /*
+     * The band may itself be filled concurrently; slices never split a
+     * row. The staging memory is host-coherent and so does not need to be
+     * explicitly flushed.
+     */
+
+    final var ev = new RCTransferJFREventStagingCopy();
+    ev.begin();
+
+    if (this.image2D.dataCopier()
+      instanceof final RCTransferCopyFunctionRangedType ranged) {
+      this.copies.copyRanged(
+        ranged,
+        this.stagingAllocation.target(),
+        offset,
+        rowOctets
       );
+    } else {
+      this.image2D.dataCopier().copy(this.stagingAllocation.target());
+    }
+
+    if (ev.shouldCommit()) {
+      ev.message = "Copying a part to a CPU-side staging buffer.";
+      ev.transferID = this.image2D.id().toString();
+      ev.size = octets;
+      ev.commit();
     }
   }
 
   @RCThread(TRANSFER_IO)
-  private CompletableFuture<?> scheduleTransferCommandsMultiQueue(
-    final VMAAllocationResult<VulkanImageType> gpuImageResult,
-    final VMAAllocationResult<VulkanBufferType> stagingBufferResult)
-    throws VulkanException, RocaroException
+  @Override
+  public long recordTransferCommands(
+    final VulkanCommandBufferType commands,
+    final long maximumOctets)
+    throws RocaroException
   {
     final var width =
       this.image2D.size().x();
-    final var height =
-      this.image2D.size().y();
     final var finalLayout =
       this.image2D.finalLayout();
-
-    final var otherCommands =
-      this.commandBuffers.commandBufferForQueue(
-        this.resources,
-        this.targetQueue,
-        "OwnershipTransferCommands"
-      );
+    final var image =
+      this.imageResult.result();
+    final var rowOctets =
+      this.rowOctets();
 
     /*
-     * Create a semaphore that will be used to execute the commands on
-     * the target queue after the commands on the transfer queue.
+     * Large images may be copied in several parts, each consisting of a
+     * band of whole rows. The image is transitioned into a layout suitable
+     * for copying before the first part, and transitioned into its final
+     * layout after the last part. Parts recorded in later batches are
+     * ordered after earlier parts by virtue of being submitted later to
+     * the same queue.
      */
 
-    final var semaphoreInitial =
-      this.resources.add(this.vulkanDevice.createBinarySemaphore());
-
-    this.debugging.setObjectName(
-      semaphoreInitial,
-      "TransferSemaphoreInitial[%s]".formatted(this.image2D.name())
-    );
+    final var rowsFirst =
+      this.rowsCopied;
+    final var rowsNow =
+      this.partRows(maximumOctets);
+    final var isFirst =
+      rowsFirst == 0L;
+    final var isLast =
+      rowsFirst + rowsNow == this.rows();
 
     /*
-     * Create a semaphore that will be used to signal the end of the
-     * commands on the target queue.
+     * The operations we perform are slightly different depending on whether
+     * the transfer needs to happen on a single queue or multiple.
      */
 
-    final var semaphoreEnd =
-      this.resources.add(this.vulkanDevice.createTimelineSemaphore(0L));
-
-    this.debugging.setObjectName(
-      semaphoreEnd,
-      "TransferSemaphoreCompletion[%s]".formatted(this.image2D.name())
-    );
+    final var singleQueue =
+      Objects.equals(this.transferQueue, this.targetQueue);
 
     /*
-     * Record the commands that will be executed by the transfer queue.
-     * This is, essentially, "copy the image data and transition it to the
-     * final layout".
+     * If mipmaps are to be generated, the image stays in the transfer
+     * destination layout after the copy, and is transitioned into its
+     * final layout level-by-level as the mipmap chain is generated.
      */
 
-    try (final var _ =
-           this.debugging.begin(this.mainCommands, "TransferQueueUpload")) {
+    final var generateMipmaps =
+      this.mipLevels > 1;
+    final var copiedLayout =
+      generateMipmaps ? VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL : finalLayout;
 
-      this.mainCommands.beginCommandBuffer(
-        VK_COMMAND_BUFFER_USAGE_ONE_TIME_SUBMIT_BIT
-      );
+    try (final var _ =
+           this.debugging.begin(
+             commands,
+             "TransferQueueUpload[%s]".formatted(this.image2D.name()))) {
 
       /*
        * Transition the image into a state that is optimal for being the
        * destination of a transfer operation.
        */
 
-      {
-        final var preCopyTransitionBarrier =
-          VulkanImageMemoryBarrier.builder()
-            .setSrcStageMask(Set.of())
-            .setSrcAccessMask(Set.of())
-            .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
-            .setDstStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
-            .setDstAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
-            .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
-            .setImage(gpuImageResult.result())
-            .setOldLayout(VK_IMAGE_LAYOUT_UNDEFINED)
-            .setNewLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
-            .setSubresourceRange(this.imageSubresourceRange)
-            .build();
+      final var preCopyTransitionBarrier =
+        VulkanImageMemoryBarrier.builder()
+          .setSrcStageMask(Set.of())
+          .setSrcAccessMask(Set.of())
+          .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setDstStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+          .setDstAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+          .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setImage(image)
+          .setOldLayout(VK_IMAGE_LAYOUT_UNDEFINED)
+          .setNewLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+          .setSubresourceRange(this.imageSubresourceRange)
+          .build();
 
-        this.mainCommands.pipelineBarrier(
+      if (isFirst) {
+        commands.pipelineBarrier(
           VulkanDependencyInfo.builder()
             .addImageMemoryBarriers(preCopyTransitionBarrier)
             .build()
@@ -441,34 +512,45 @@ final class RCTransferImageColorBasicTask
       final var bufferImageCopy =
         VulkanBufferImageCopy.builder()
           .setBufferImageHeight(0)
-          .setBufferOffset(0L)
+          .setBufferOffset(this.stagingAllocation.offset())
           .setBufferRowLength(0)
-          .setImageExtent(VulkanExtent3D.of(width, height, 1))
-          .setImageOffset(VulkanOffset3D.of(0, 0, 0))
-          .setImageSubresource(
-            VulkanImageSubresourceLayers.builder()
-              .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
-              .setBaseArrayLayer(0)
-              .setLayerCount(1)
-              .setMipLevel(0)
-              .build())
+          .setImageExtent(VulkanExtent3D.of(width, (int) rowsNow, 1))
+          .setImageOffset(VulkanOffset3D.of(0, (int) rowsFirst, 0))
+          .setImageSubresource(this.levelLayers(0))
           .build();
 
-      this.mainCommands.copyBufferToImage(
-        stagingBufferResult.result(),
-        gpuImageResult.result(),
+      commands.copyBufferToImage(
+        this.stagingAllocation.buffer(),
+        image,
         VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL,
         List.of(bufferImageCopy)
       );
 
       /*
        * Transition the now-populated image into the specified final layout.
-       * Because we're working with two different queues, we need to execute
-       * a barrier on both queues.
+       * If we're only working with a single queue, a single pipeline barrier
+       * on this queue suffices. Otherwise, this barrier is the release half
+       * of a queue family ownership transfer, and the acquire half is
+       * recorded onto the target queue.
        */
 
-      {
-        final var postCopyTransitionBarrier0 =
+      final VulkanImageMemoryBarrier postCopyTransitionBarrier;
+      if (singleQueue) {
+        postCopyTransitionBarrier =
+          VulkanImageMemoryBarrier.builder()
+            .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+            .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+            .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+            .setDstStageMask(Set.of(VK_PIPELINE_STAGE_VERTEX_SHADER_BIT))
+            .setDstAccessMask(Set.of(VK_ACCESS_SHADER_READ_BIT))
+            .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+            .setImage(image)
+            .setSubresourceRange(this.imageSubresourceRange)
+            .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+            .setNewLayout(finalLayout)
+            .build();
+      } else {
+        postCopyTransitionBarrier =
           VulkanImageMemoryBarrier.builder()
             .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
             .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
@@ -476,266 +558,224 @@ final class RCTransferImageColorBasicTask
             .setDstStageMask(Set.of())
             .setDstAccessMask(Set.of())
             .setDstQueueFamilyIndex(this.targetQueue.queueFamilyIndex())
-            .setImage(gpuImageResult.result())
+            .setImage(image)
             .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
-            .setNewLayout(finalLayout)
+            .setNewLayout(copiedLayout)
             .setSubresourceRange(this.imageSubresourceRange)
             .build();
-
-        this.mainCommands.pipelineBarrier(
-          VulkanDependencyInfo.builder()
-            .addImageMemoryBarriers(postCopyTransitionBarrier0)
-            .build()
-        );
       }
 
-      this.mainCommands.endCommandBuffer();
+      if (isLast) {
+        if (singleQueue && generateMipmaps) {
+          this.recordMipmaps(commands);
+        } else {
+          commands.pipelineBarrier(
+            VulkanDependencyInfo.builder()
+              .addImageMemoryBarriers(postCopyTransitionBarrier)
+              .build()
+          );
+        }
+      }
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
     }
 
-    /*
-     * Put together the work submission for the transfer queue. The work
-     * will signal the given semaphore when it completes.
-     */
-
-    final var transferSemaphoreSubmission =
-      VulkanSemaphoreSubmitInfo.builder()
-        .addStageMask(VK_PIPELINE_STAGE_COPY_BIT)
-        .setSemaphore(semaphoreInitial)
-        .build();
-
-    final var transferCommandSubmission =
-      VulkanCommandBufferSubmitInfo.builder()
-        .setCommandBuffer(this.mainCommands)
-        .build();
+    this.rowsCopied += rowsNow;
+    return rowsNow * rowOctets;
+  }
 
-    final var transferSubmission =
-      VulkanSubmitInfo.builder()
-        .addCommandBuffers(transferCommandSubmission)
-        .addSignalSemaphores(transferSemaphoreSubmission)
-        .build();
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void recordTargetCommands(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    final var finalLayout =
+      this.image2D.finalLayout();
+    final var generateMipmaps =
+      this.mipLevels > 1;
 
     /*
-     * Record the commands that will be executed by the graphics queue.
-     * This is merely one half of an ownership transfer.
+     * Record the acquire half of the queue family ownership transfer. If
+     * mipmaps are to be generated, the image is acquired in the transfer
+     * destination layout and the chain is generated on the target queue.
      */
 
     try (final var _ =
-           this.debugging.begin(this.mainCommands, "GraphicsQueueUpload")) {
+           this.debugging.begin(
+             commands,
+             "TargetQueueAcquire[%s]".formatted(this.image2D.name()))) {
 
-      final var postCopyTransitionBarrier1 =
+      final var acquireBarrier =
         VulkanImageMemoryBarrier.builder()
           .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
           .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
           .setSrcQueueFamilyIndex(this.transferQueue.queueFamilyIndex())
-          .setDstStageMask(Set.of(VK_PIPELINE_STAGE_VERTEX_SHADER_BIT))
-          .setDstAccessMask(Set.of(VK_ACCESS_SHADER_READ_BIT))
+          .setDstStageMask(
+            generateMipmaps
+              ? Set.of(VK_PIPELINE_STAGE_TRANSFER_BIT)
+              : Set.of(VK_PIPELINE_STAGE_VERTEX_SHADER_BIT))
+          .setDstAccessMask(
+            generateMipmaps
+              ? Set.of(VK_ACCESS_TRANSFER_READ_BIT, VK_ACCESS_TRANSFER_WRITE_BIT)
+              : Set.of(VK_ACCESS_SHADER_READ_BIT))
           .setDstQueueFamilyIndex(this.targetQueue.queueFamilyIndex())
-          .setImage(gpuImageResult.result())
+          .setImage(this.imageResult.result())
           .setSubresourceRange(this.imageSubresourceRange)
-          .setOldLayout(finalLayout)
-          .setNewLayout(finalLayout)
+          .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+          .setNewLayout(
+            generateMipmaps ? VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL : finalLayout)
           .build();
 
-      otherCommands.beginCommandBuffer(
-        VK_COMMAND_BUFFER_USAGE_ONE_TIME_SUBMIT_BIT
-      );
-      otherCommands.pipelineBarrier(
+      commands.pipelineBarrier(
         VulkanDependencyInfo.builder()
-          .addImageMemoryBarriers(postCopyTransitionBarrier1)
+          .addImageMemoryBarriers(acquireBarrier)
           .build()
       );
-      otherCommands.endCommandBuffer();
-    }
 
-    /*
-     * Put together the work submission for the graphics queue. The work
-     * will wait on the transfer semaphore before executing, and will signal
-     * the given fence when completed.
-     */
-
-    final var graphicsCommandSubmission =
-      VulkanCommandBufferSubmitInfo.builder()
-        .setCommandBuffer(otherCommands)
-        .build();
-
-    final var graphicsSemaphoreWait =
-      VulkanSemaphoreSubmitInfo.builder()
-        .addStageMask(VK_PIPELINE_STAGE_COPY_BIT)
-        .setSemaphore(semaphoreInitial)
-        .build();
-
-    final var graphicsSemaphoreSignal =
-      VulkanSemaphoreSubmitInfo.builder()
-        .addStageMask(VK_PIPELINE_STAGE_VERTEX_SHADER_BIT)
-        .setSemaphore(semaphoreEnd)
-        .setValue(1L)
-        .build();
-
-    final var graphicsSubmission =
-      VulkanSubmitInfo.builder()
-        .addCommandBuffers(graphicsCommandSubmission)
-        .addWaitSemaphores(graphicsSemaphoreWait)
-        .addSignalSemaphores(graphicsSemaphoreSignal)
-        .build();
-
-    this.device.submit(
-      TRANSFER,
-      List.of(transferSubmission),
-      Optional.empty()
-    );
-    this.device.submit(
-      GRAPHICS,
-      List.of(graphicsSubmission),
-      Optional.empty()
-    );
-
-    return this.notifications.registerTimelineSemaphore(
-      new VulkanSemaphoreTimelineWait(semaphoreEnd, 1L)
-    );
+      if (generateMipmaps) {
+        this.recordMipmaps(commands);
+      }
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
   }
 
-  @RCThread(TRANSFER_IO)
-  private CompletableFuture<?> scheduleTransferCommandsSingleQueue(
-    final VMAAllocationResult<VulkanImageType> gpuImageResult,
-    final VMAAllocationResult<VulkanBufferType> stagingBufferResult)
+  /**
+   * Generate the mipmap chain with a sequence of blits, each level being
+   * produced from the level above it. On entry, every level is in the
+   * transfer destination layout and level 0 contains the image data. On
+   * exit, every level is in the final layout. This must be recorded onto
+   * a graphics queue.
+   */
+
+  private void recordMipmaps(
+    final VulkanCommandBufferType commands)
     throws VulkanException
   {
+    final var image =
+      this.imageResult.result();
+    final var finalLayout =
+      this.image2D.finalLayout();
     final var width =
       this.image2D.size().x();
     final var height =
       this.image2D.size().y();
-    final var finalLayout =
-      this.image2D.finalLayout();
-
-    /*
-     * Create a semaphore that will be used to determine when the entire image
-     * transfer is completed. This semaphore will ultimately be monitored by
-     * the notification service.
-     */
-
-    final var semaphoreEnd =
-      this.resources.add(this.vulkanDevice.createTimelineSemaphore(0L));
-
-    this.debugging.setObjectName(
-      semaphoreEnd,
-      "TransferSemaphoreCompletion[%s]".formatted(this.image2D.name())
-    );
 
     try (final var _ =
-           this.debugging.begin(this.mainCommands, "TransferQueueUpload")) {
+           this.debugging.begin(
+             commands,
+             "GenerateMipmaps[%s]".formatted(this.image2D.name()))) {
 
-      this.mainCommands.beginCommandBuffer(
-        VK_COMMAND_BUFFER_USAGE_ONE_TIME_SUBMIT_BIT
-      );
+      for (int level = 1; level < this.mipLevels; ++level) {
+        final var source = level - 1;
 
-      /*
-       * Transition the image into a state that is optimal for being the
-       * destination of a transfer operation.
-       */
+        /*
+         * The source level has been written (either by the copy, or by
+         * the previous blit) and must now become a blit source.
+         */
 
-      final var preCopyTransitionBarrier =
-        VulkanImageMemoryBarrier.builder()
-          .setSrcStageMask(Set.of())
-          .setSrcAccessMask(Set.of())
-          .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
-          .setDstStageMask(Set.of(VK_PIPELINE_STAGE_TRANSFER_BIT))
-          .setDstAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
-          .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
-          .setImage(gpuImageResult.result())
-          .setSubresourceRange(this.imageSubresourceRange)
-          .setOldLayout(VK_IMAGE_LAYOUT_UNDEFINED)
-          .setNewLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
-          .build();
-
-      this.mainCommands.pipelineBarrier(
-        VulkanDependencyInfo.builder()
-          .addImageMemoryBarriers(preCopyTransitionBarrier)
-          .build()
-      );
+        commands.pipelineBarrier(
+          VulkanDependencyInfo.builder()
+            .addImageMemoryBarriers(
+              VulkanImageMemoryBarrier.builder()
+                .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_TRANSFER_BIT))
+                .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+                .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+                .setDstStageMask(Set.of(VK_PIPELINE_STAGE_TRANSFER_BIT))
+                .setDstAccessMask(Set.of(VK_ACCESS_TRANSFER_READ_BIT))
+                .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+                .setImage(image)
+                .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+                .setNewLayout(VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL)
+                .setSubresourceRange(this.levelRange(source))
+                .build())
+            .build()
+        );
 
-      /*
-       * Copy the contents of the CPU-side staging buffer into the image.
-       */
+        commands.blitImage(
+          image,
+          VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL,
+          image,
+          VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL,
+          List.of(
+            VulkanImageBlit.builder()
+              .setSrcSubresource(this.levelLayers(source))
+              .setSrcOffset0(VulkanOffset3D.of(0, 0, 0))
+              .setSrcOffset1(
+                VulkanOffset3D.of(
+                  RCTransferMipmaps.levelSize(width, source),
+                  RCTransferMipmaps.levelSize(height, source),
+                  1))
+              .setDstSubresource(this.levelLayers(level))
+              .setDstOffset0(VulkanOffset3D.of(0, 0, 0))
+              .setDstOffset1(
+                VulkanOffset3D.of(
+                  RCTransferMipmaps.levelSize(width, level),
+                  RCTransferMipmaps.levelSize(height, level),
+                  1))
+              .build()
+          ),
+          this.mipmapFilter
+        );
 
-      final var bufferImageCopy =
-        VulkanBufferImageCopy.builder()
-          .setBufferImageHeight(0)
-          .setBufferOffset(0L)
-          .setBufferRowLength(0)
-          .setImageExtent(VulkanExtent3D.of(width, height, 1))
-          .setImageOffset(VulkanOffset3D.of(0, 0, 0))
-          .setImageSubresource(
-            VulkanImageSubresourceLayers.builder()
-              .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
-              .setBaseArrayLayer(0)
-              .setLayerCount(1)
-              .setMipLevel(0)
-              .build())
-          .build();
+        /*
+         * The source level is now complete.
+         */
 
-      this.mainCommands.copyBufferToImage(
-        stagingBufferResult.result(),
-        gpuImageResult.result(),
-        VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL,
-        List.of(bufferImageCopy)
-      );
+        commands.pipelineBarrier(
+          VulkanDependencyInfo.builder()
+            .addImageMemoryBarriers(
+              VulkanImageMemoryBarrier.builder()
+                .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_TRANSFER_BIT))
+                .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_READ_BIT))
+                .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+                .setDstStageMask(Set.of(VK_PIPELINE_STAGE_VERTEX_SHADER_BIT))
+                .setDstAccessMask(Set.of(VK_ACCESS_SHADER_READ_BIT))
+                .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+                .setImage(image)
+                .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_SRC_OPTIMAL)
+                .setNewLayout(finalLayout)
+                .setSubresourceRange(this.levelRange(source))
+                .build())
+            .build()
+        );
+      }
 
       /*
-       * Transition the now-populated image into the specified final layout.
-       * Because we're only working with a single queue, we only need to
-       * use a single pipeline barrier on this queue.
+       * The last level was only ever written.
        */
 
-      final var postCopyTransitionBarrier =
-        VulkanImageMemoryBarrier.builder()
-          .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_TRANSFER_BIT))
-          .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
-          .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
-          .setDstStageMask(Set.of(VK_PIPELINE_STAGE_VERTEX_SHADER_BIT))
-          .setDstAccessMask(Set.of(VK_ACCESS_SHADER_READ_BIT))
-          .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
-          .setImage(gpuImageResult.result())
-          .setSubresourceRange(this.imageSubresourceRange)
-          .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
-          .setNewLayout(finalLayout)
-          .build();
-
-      this.mainCommands.pipelineBarrier(
+      commands.pipelineBarrier(
         VulkanDependencyInfo.builder()
-          .addImageMemoryBarriers(postCopyTransitionBarrier)
+          .addImageMemoryBarriers(
+            VulkanImageMemoryBarrier.builder()
+              .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_TRANSFER_BIT))
+              .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+              .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+              .setDstStageMask(Set.of(VK_PIPELINE_STAGE_VERTEX_SHADER_BIT))
+              .setDstAccessMask(Set.of(VK_ACCESS_SHADER_READ_BIT))
+              .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+              .setImage(image)
+              .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+              .setNewLayout(finalLayout)
+              .setSubresourceRange(this.levelRange(this.mipLevels - 1))
+              .build())
           .build()
       );
-
-      this.mainCommands.endCommandBuffer();
     }
+  }
 
-    final var commandSubmission =
-      VulkanCommandBufferSubmitInfo.builder()
-        .setCommandBuffer(this.mainCommands)
-        .build();
-
-    final var semaphoreSignal =
-      VulkanSemaphoreSubmitInfo.builder()
-        .addStageMask(VK_PIPELINE_STAGE_VERTEX_SHADER_BIT)
-        .setSemaphore(semaphoreEnd)
-        .setValue(1L)
-        .build();
-
-    final var submission =
-      VulkanSubmitInfo.builder()
-        .addCommandBuffers(commandSubmission)
-        .addSignalSemaphores(semaphoreSignal)
-        .build();
-
-    this.device.submit(
-      this.targetQueue,
-      List.of(submission),
-      Optional.empty()
-    );
+  @RCThread(GPU)
+  @Override
+  public void discard()
+    throws RocaroException
+  {
+    RCThreadLabels.checkThreadLabelsAny(GPU);
 
-    return this.notifications.registerTimelineSemaphore(
-      new VulkanSemaphoreTimelineWait(semaphoreEnd, 1L)
-    );
+    final var result = this.imageResult;
+    this.imageResult = null;
+    RCTransferTaskType.discardResult(result);
   }
 
   @RCThread(GPU)
@@ -0,0 +1,387 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanBufferImageCopy;
+import com.io7m.jcoronado.api.VulkanCommandBufferType;
+import com.io7m.jcoronado.api.VulkanDebuggingType;
+import com.io7m.jcoronado.api.VulkanDependencyInfo;
+import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.api.VulkanExtent3D;
+import com.io7m.jcoronado.api.VulkanImageMemoryBarrier;
+import com.io7m.jcoronado.api.VulkanImageSubresourceLayers;
+import com.io7m.jcoronado.api.VulkanImageSubresourceRange;
+import com.io7m.jcoronado.api.VulkanOffset3D;
+import com.io7m.jcoronado.api.VulkanQueueFamilyIndex;
+import com.io7m.jcoronado.api.VulkanQueueType;
+import com.io7m.jmulticlose.core.CloseableCollectionType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.api.images.RCImageColorBasicType;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorBasicUpdateType;
+import com.io7m.rocaro.api.transfers.RCTransferJFREventStagingCopy;
+import com.io7m.rocaro.vanilla.internal.RCResourceCollections;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.threading.RCThread;
+import com.io7m.rocaro.vanilla.internal.threading.RCThreadLabels;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_MEMORY_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_SHADER_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanImageAspectFlag.VK_IMAGE_ASPECT_COLOR_BIT;
+import static com.io7m.jcoronado.api.VulkanImageLayout.VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_ALL_COMMANDS_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_COPY_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_VERTEX_SHADER_BIT;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.GPU;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.TRANSFER_IO;
+
+/**
+ * <p>A task that updates regions of an existing image.</p>
+ *
+ * <p>The image is already owned by the target queue and may be in use
+ * there. Rather than transferring ownership to the transfer queue and back
+ * again, all the commands (the layout transitions and a single copy
+ * command covering every region) are recorded onto the target queue. The
+ * commands are therefore submitted with the batch's target queue work, or
+ * with the transfer queue work if the two queues are the same.</p>
+ */
+
+final class RCTransferImageColorBasicUpdateTask
+  extends RCObject
+  implements RCTransferTaskType<RCImageColorBasicType>
+{
+  private final CloseableCollectionType<RocaroException> resources;
+  private final RCTransferStagingBuffers staging;
+  private final RCTransferImageColorBasicUpdateType update;
+  private final VulkanQueueType transferQueue;
+  private final VulkanQueueType targetQueue;
+  private final VulkanDebuggingType debugging;
+  private final VulkanImageSubresourceRange imageSubresourceRange;
+  private final long texelSize;
+  private final long[] regionOffsets;
+  private final long size;
+  private RCTransferStagingAllocation stagingAllocation;
+  private boolean recorded;
+
+  RCTransferImageColorBasicUpdateTask(
+    final RCDeviceType inDevice,
+    final RCTransferStagingBuffers inStaging,
+    final RCStrings strings,
+    final RCTransferImageColorBasicUpdateType inUpdate)
+  {
+    Objects.requireNonNull(inDevice, "device");
+    Objects.requireNonNull(strings, "strings");
+
+    this.resources =
+      RCResourceCollections.create(strings);
+    this.staging =
+      Objects.requireNonNull(inStaging, "staging");
+    this.update =
+      Objects.requireNonNull(inUpdate, "update");
+
+    this.transferQueue =
+      inDevice.transferQueue();
+    this.targetQueue =
+      inDevice.queueForCategory(this.update.targetQueue());
+    this.debugging =
+      inDevice.device().debugging();
+    this.texelSize =
+      Integer.toUnsignedLong(
+        this.update.image().format().texelSizeOctets()
+      );
+
+    /*
+     * Every region is packed into a single staging allocation. The offset
+     * of each region must satisfy the alignment requirements of a
+     * buffer-to-image copy.
+     */
+
+    final var alignment =
+      RCTransferAlignment.copyAlignment(this.texelSize);
+    final var regions =
+      this.update.regions();
+
+    this.regionOffsets =
+      new long[regions.size()];
+
+    var offset = 0L;
+    for (int index = 0; index < regions.size(); ++index) {
+      final var region = regions.get(index);
+      offset = ((offset + alignment - 1L) / alignment) * alignment;
+      this.regionOffsets[index] = offset;
+      offset += this.regionSize(region.size().x(), region.size().y());
+    }
+    this.size = offset;
+
+    this.imageSubresourceRange =
+      VulkanImageSubresourceRange.builder()
+        .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+        .setBaseMipLevel(0)
+        .setBaseArrayLayer(0)
+        .setLevelCount(1)
+        .setLayerCount(1)
+        .build();
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void prepare()
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+
+    /*
+     * Staging memory is allocated in stageTransfer(), so that the
+     * operation holds no staging memory while it waits to be selected.
+     */
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void stageTransfer(
+    final CloseableCollectionType<RocaroException> partResources,
+    final long maximumOctets)
+    throws RocaroException, InterruptedException
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+
+    final var alignment =
+      RCTransferAlignment.copyAlignment(this.texelSize);
+    final var regions =
+      this.update.regions();
+
+    final var ev = new RCTransferJFREventStagingCopy();
+    ev.begin();
+
+    this.stagingAllocation =
+      partResources.add(
+        this.staging.allocate(this.update.id(), this.size, alignment)
+      );
+
+    final var target = this.stagingAllocation.target();
+    for (int index = 0; index < regions.size(); ++index) {
+      final var region = regions.get(index);
+      region.dataCopier()
+        .copy(
+          target.asSlice(
+            this.regionOffsets[index],
+            regionSize(region.size().x(), region.size().y())
+          )
+        );
+    }
+
+    if (ev.shouldCommit()) {
+      ev.message = "Copying image regions to a CPU-side staging buffer.";
+      ev.transferID = this.update.id().toString();
+      ev.size = this.size;
+      ev.commit();
+    }
+  }
+
+  private long regionSize(
+    final int width,
+    final int height)
+  {
+    return Integer.toUnsignedLong(width)
+           * Integer.toUnsignedLong(height)
+           * this.texelSize;
+  }
+
+  @Override
+  public boolean requiresSubmission()
+  {
+    return true;
+  }
+
+  @Override
+  public VulkanQueueType targetQueue()
+  {
+    return this.targetQueue;
+  }
+
+  @Override
+  public long stagingOctets()
+  {
+    return this.size;
+  }
+
+  @Override
+  public long transferRemainingOctets()
+  {
+    return this.recorded ? 0L : this.size;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public long recordTransferCommands(
+    final VulkanCommandBufferType commands,
+    final long maximumOctets)
+    throws RocaroException
+  {
+    /*
+     * The regions are not split across batches; an update is typically
+     * small, and splitting it would expose partially updated images.
+     */
+
+    this.recorded = true;
+    if (Objects.equals(this.transferQueue, this.targetQueue)) {
+      this.recordUpdate(commands);
+    }
+    return this.size;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void recordTargetCommands(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    this.recordUpdate(commands);
+  }
+
+  private void recordUpdate(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    final var image =
+      this.update.image().data();
+    final var layout =
+      this.update.layout();
+    final var regions =
+      this.update.regions();
+
+    try (final var _ =
+           this.debugging.begin(
+             commands,
+             "ImageUpdate[%s]".formatted(this.update.name()))) {
+
+      /*
+       * Wait for any prior use of the image to complete, and transition
+       * it into a layout suitable for copying. The old layout is the
+       * image's current layout, so that the existing contents outside
+       * the updated regions are preserved. Any prior writes to the image
+       * must be made available before they are overwritten by the copy.
+       */
+
+      final var preCopyBarrier =
+        VulkanImageMemoryBarrier.builder()
+          .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_ALL_COMMANDS_BIT))
+          .setSrcAccessMask(Set.of(VK_ACCESS_MEMORY_WRITE_BIT))
+          .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setDstStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+          .setDstAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+          .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setImage(image)
+          .setOldLayout(layout)
+          .setNewLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+          .setSubresourceRange(this.imageSubresourceRange)
+          .build();
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addImageMemoryBarriers(preCopyBarrier)
+          .build()
+      );
+
+      /*
+       * Copy every region with a single copy command.
+       */
+
+      final var copies =
+        new ArrayList<VulkanBufferImageCopy>(regions.size());
+
+      for (int index = 0; index < regions.size(); ++index) {
+        final var region = regions.get(index);
+        copies.add(
+          VulkanBufferImageCopy.builder()
+            .setBufferImageHeight(0)
+            .setBufferOffset(
+              this.stagingAllocation.offset() + this.regionOffsets[index])
+            .setBufferRowLength(0)
+            .setImageExtent(
+              VulkanExtent3D.of(region.size().x(), region.size().y(), 1))
+            .setImageOffset(
+              VulkanOffset3D.of(region.offset().x(), region.offset().y(), 0))
+            .setImageSubresource(
+              VulkanImageSubresourceLayers.builder()
+                .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+                .setBaseArrayLayer(0)
+                .setLayerCount(1)
+                .setMipLevel(0)
+                .build())
+            .build()
+        );
+      }
+
+      commands.copyBufferToImage(
+        this.stagingAllocation.buffer(),
+        image,
+        VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL,
+        copies
+      );
+
+      /*
+       * Return the image to its original layout.
+       */
+
+      final var postCopyBarrier =
+        VulkanImageMemoryBarrier.builder()
+          .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+          .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+          .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setDstStageMask(Set.of(VK_PIPELINE_STAGE_VERTEX_SHADER_BIT))
+          .setDstAccessMask(Set.of(VK_ACCESS_SHADER_READ_BIT))
+          .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+          .setImage(image)
+          .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+          .setNewLayout(layout)
+          .setSubresourceRange(this.imageSubresourceRange)
+          .build();
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addImageMemoryBarriers(postCopyBarrier)
+          .build()
+      );
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public RCImageColorBasicType complete()
+  {
+    return this.update.image();
+  }
+
+  @RCThread(GPU)
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    RCThreadLabels.checkThreadLabelsAny(GPU);
+    this.resources.close();
+  }
+}
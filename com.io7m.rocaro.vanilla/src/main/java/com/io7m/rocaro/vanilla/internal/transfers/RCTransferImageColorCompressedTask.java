@@ -0,0 +1,612 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanBufferImageCopy;
+import com.io7m.jcoronado.api.VulkanCommandBufferType;
+import com.io7m.jcoronado.api.VulkanComponentMapping;
+import com.io7m.jcoronado.api.VulkanComponentSwizzle;
+import com.io7m.jcoronado.api.VulkanDebuggingType;
+import com.io7m.jcoronado.api.VulkanDependencyInfo;
+import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.api.VulkanExtent3D;
+import com.io7m.jcoronado.api.VulkanImageCreateInfo;
+import com.io7m.jcoronado.api.VulkanImageKind;
+import com.io7m.jcoronado.api.VulkanImageMemoryBarrier;
+import com.io7m.jcoronado.api.VulkanImageSubresourceLayers;
+import com.io7m.jcoronado.api.VulkanImageSubresourceRange;
+import com.io7m.jcoronado.api.VulkanImageType;
+import com.io7m.jcoronado.api.VulkanImageViewCreateInfo;
+import com.io7m.jcoronado.api.VulkanImageViewKind;
+import com.io7m.jcoronado.api.VulkanLogicalDeviceType;
+import com.io7m.jcoronado.api.VulkanOffset3D;
+import com.io7m.jcoronado.api.VulkanQueueFamilyIndex;
+import com.io7m.jcoronado.api.VulkanQueueType;
+import com.io7m.jcoronado.vma.VMAAllocationCreateInfo;
+import com.io7m.jcoronado.vma.VMAAllocationResult;
+import com.io7m.jcoronado.vma.VMAAllocatorType;
+import com.io7m.jmulticlose.core.CloseableCollectionType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.api.images.RCImageColorCompressedType;
+import com.io7m.rocaro.api.images.RCImageCompressedFormats;
+import com.io7m.rocaro.api.images.RCImageFormatBlock;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorCompressedType;
+import com.io7m.rocaro.api.transfers.RCTransferJFREventStagingCopy;
+import com.io7m.rocaro.vanilla.internal.RCResourceCollections;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.images.RCImageColorCompressed;
+import com.io7m.rocaro.vanilla.internal.threading.RCThread;
+import com.io7m.rocaro.vanilla.internal.threading.RCThreadLabels;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_SHADER_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanImageAspectFlag.VK_IMAGE_ASPECT_COLOR_BIT;
+import static com.io7m.jcoronado.api.VulkanImageLayout.VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL;
+import static com.io7m.jcoronado.api.VulkanImageLayout.VK_IMAGE_LAYOUT_UNDEFINED;
+import static com.io7m.jcoronado.api.VulkanImageTiling.VK_IMAGE_TILING_OPTIMAL;
+import static com.io7m.jcoronado.api.VulkanImageUsageFlag.VK_IMAGE_USAGE_SAMPLED_BIT;
+import static com.io7m.jcoronado.api.VulkanImageUsageFlag.VK_IMAGE_USAGE_TRANSFER_DST_BIT;
+import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_DEVICE_LOCAL_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_COPY_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_VERTEX_SHADER_BIT;
+import static com.io7m.jcoronado.api.VulkanSampleCountFlag.VK_SAMPLE_COUNT_1_BIT;
+import static com.io7m.jcoronado.api.VulkanSharingMode.VK_SHARING_MODE_EXCLUSIVE;
+import static com.io7m.jcoronado.vma.VMAMemoryUsage.VMA_MEMORY_USAGE_GPU_ONLY;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.GPU;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.TRANSFER_IO;
+
+/**
+ * <p>A task that uploads a block-compressed image with one or more mipmap
+ * levels and array layers.</p>
+ *
+ * <p>The data for the levels of each part is packed into a staging
+ * allocation, each level beginning at an offset that is a multiple of both
+ * four and the block size. Large images are copied in several parts,
+ * each part consisting of one or more whole levels.</p>
+ */
+
+final class RCTransferImageColorCompressedTask
+  extends RCObject
+  implements RCTransferTaskType<RCImageColorCompressedType>
+{
+  private final RCDeviceType device;
+  private final VMAAllocatorType allocator;
+  private final RCTransferStagingBuffers staging;
+  private final RCTransferParallelCopy copies;
+  private final CloseableCollectionType<RocaroException> resources;
+  private final RCTransferImageColorCompressedType image;
+  private final VulkanQueueType transferQueue;
+  private final VulkanQueueType targetQueue;
+  private final VulkanLogicalDeviceType vulkanDevice;
+  private final VulkanDebuggingType debugging;
+  private final VulkanImageSubresourceRange imageSubresourceRange;
+  private final RCImageFormatBlock block;
+  private final long[] levelOffsets;
+  private final long[] levelSizes;
+  private RCTransferStagingAllocation stagingAllocation;
+  private VMAAllocationResult<VulkanImageType> imageResult;
+  private int levelsCopied;
+
+  RCTransferImageColorCompressedTask(
+    final RCDeviceType inDevice,
+    final VMAAllocatorType inAllocator,
+    final RCTransferStagingBuffers inStaging,
+    final RCTransferParallelCopy inCopies,
+    final RCStrings strings,
+    final RCTransferImageColorCompressedType inImage)
+  {
+    Objects.requireNonNull(strings, "strings");
+
+    this.resources =
+      RCResourceCollections.create(strings);
+    this.device =
+      Objects.requireNonNull(inDevice, "device");
+    this.allocator =
+      Objects.requireNonNull(inAllocator, "allocator");
+    this.staging =
+      Objects.requireNonNull(inStaging, "staging");
+    this.copies =
+      Objects.requireNonNull(inCopies, "copies");
+    this.image =
+      Objects.requireNonNull(inImage, "image");
+
+    this.transferQueue =
+      this.device.transferQueue();
+    this.targetQueue =
+      inDevice.queueForCategory(this.image.targetQueue());
+    this.vulkanDevice =
+      inDevice.device();
+    this.debugging =
+      this.vulkanDevice.debugging();
+    this.block =
+      RCImageCompressedFormats.blockOf(this.image.format())
+        .orElseThrow();
+
+    final var levelCount = this.image.levels().size();
+    this.imageSubresourceRange =
+      VulkanImageSubresourceRange.builder()
+        .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+        .setBaseMipLevel(0)
+        .setBaseArrayLayer(0)
+        .setLevelCount(levelCount)
+        .setLayerCount(this.image.layers())
+        .build();
+
+    /*
+     * Calculate the size and staging offset of each level.
+     */
+
+    final var alignment =
+      RCTransferAlignment.copyAlignment(this.block.octets());
+    final var layers =
+      Integer.toUnsignedLong(this.image.layers());
+
+    this.levelOffsets = new long[levelCount];
+    this.levelSizes = new long[levelCount];
+
+    var offset = 0L;
+    for (int level = 0; level < levelCount; ++level) {
+      offset = ((offset + alignment - 1L) / alignment) * alignment;
+      this.levelOffsets[level] = offset;
+      this.levelSizes[level] =
+        this.block.areaOctets(this.levelWidth(level), this.levelHeight(level))
+        * layers;
+      offset += this.levelSizes[level];
+    }
+  }
+
+  private int levelWidth(
+    final int level)
+  {
+    return RCTransferMipmaps.levelSize(this.image.size().x(), level);
+  }
+
+  private int levelHeight(
+    final int level)
+  {
+    return RCTransferMipmaps.levelSize(this.image.size().y(), level);
+  }
+
+  private long totalSize()
+  {
+    final var last = this.levelSizes.length - 1;
+    return this.levelOffsets[last] + this.levelSizes[last];
+  }
+
+  private VMAAllocationResult<VulkanImageType> createGPUTexture()
+    throws VulkanException
+  {
+    final var textureCreateInfo =
+      VulkanImageCreateInfo.builder()
+        .setArrayLayers(this.image.layers())
+        .setExtent(
+          VulkanExtent3D.of(this.image.size().x(), this.image.size().y(), 1))
+        .setFormat(this.image.format())
+        .setImageType(VulkanImageKind.VK_IMAGE_TYPE_2D)
+        .setInitialLayout(VK_IMAGE_LAYOUT_UNDEFINED)
+        .setMipLevels(this.levelSizes.length)
+        .setSamples(Set.of(VK_SAMPLE_COUNT_1_BIT))
+        .setSharingMode(VK_SHARING_MODE_EXCLUSIVE)
+        .setTiling(VK_IMAGE_TILING_OPTIMAL)
+        .addUsage(VK_IMAGE_USAGE_SAMPLED_BIT)
+        .addUsage(VK_IMAGE_USAGE_TRANSFER_DST_BIT)
+        .build();
+
+    final var allocInfo =
+      VMAAllocationCreateInfo.builder()
+        .setUsage(VMA_MEMORY_USAGE_GPU_ONLY)
+        .addRequiredFlags(VK_MEMORY_PROPERTY_DEVICE_LOCAL_BIT)
+        .setMemoryTypeBits(0L)
+        .build();
+
+    final var result =
+      this.allocator.createImage(allocInfo, textureCreateInfo);
+
+    this.debugging.setObjectName(
+      result.result(),
+      "Image[%s]".formatted(this.image.name())
+    );
+    return result;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void prepare()
+    throws Exception
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+
+    /*
+     * Staging memory is allocated level-by-level in stageTransfer().
+     */
+
+    try {
+      this.imageResult = this.createGPUTexture();
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  @Override
+  public boolean requiresSubmission()
+  {
+    return true;
+  }
+
+  @Override
+  public VulkanQueueType targetQueue()
+  {
+    return this.targetQueue;
+  }
+
+  @Override
+  public long stagingOctets()
+  {
+    return this.totalSize();
+  }
+
+  @Override
+  public long transferRemainingOctets()
+  {
+    var remaining = 0L;
+    for (int level = this.levelsCopied; level < this.levelSizes.length; ++level) {
+      remaining += this.levelSizes[level];
+    }
+    return remaining;
+  }
+
+  /*
+   * Select the levels to copy in the next part. At least one level is
+   * always copied.
+   */
+
+  private int partLevelEnd(
+    final long maximumOctets)
+  {
+    var levelEnd = this.levelsCopied;
+    var octets = 0L;
+    do {
+      octets += this.levelSizes[levelEnd];
+      ++levelEnd;
+    } while (levelEnd < this.levelSizes.length
+             && octets + this.levelSizes[levelEnd] <= maximumOctets);
+    return levelEnd;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void stageTransfer(
+    final CloseableCollectionType<RocaroException> partResources,
+    final long maximumOctets)
+    throws RocaroException, InterruptedException
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+
+    final var levelFirst =
+      this.levelsCopied;
+    final var levelLast =
+      this.partLevelEnd(maximumOctets) - 1;
+    final var base =
+      this.levelOffsets[levelFirst];
+    final var size =
+      this.levelOffsets[levelLast] + this.levelSizes[levelLast] - base;
+
+    /*
+     * Only the levels that are about to be recorded are allocated and
+     * filled, so that the operation holds no staging memory while it waits
+     * to be selected for later levels. The offset of every level relative
+     * to the first level of the part remains a multiple of the alignment.
+     */
+
+    final var ev = new RCTransferJFREventStagingCopy();
+    ev.begin();
+
+    this.stagingAllocation =
+      partResources.add(
+        this.staging.allocate(
+          this.image.id(),
+          size,
+          RCTransferAlignment.copyAlignment(this.block.octets())
+        )
+      );
+
+    /*
+     * Each level occupies a disjoint region of the staging memory, and so
+     * the levels may be filled concurrently. The staging memory is
+     * host-coherent and so does not need to be explicitly flushed.
+     */
+
+    final var target =
+      this.stagingAllocation.target();
+    final var levels =
+      this.image.levels();
+    final var levelCopies =
+      new ArrayList<Runnable>(levelLast - levelFirst + 1);
+
+    for (final var level : levels) {
+      final var index = level.level();
+      if (index < levelFirst || index > levelLast) {
+        continue;
+      }
+      final var slice =
+        target.asSlice(this.levelOffsets[index] - base, this.levelSizes[index]);
+      levelCopies.add(() -> level.dataCopier().copy(slice));
+    }
+    this.copies.copyAll(levelCopies);
+
+    if (ev.shouldCommit()) {
+      ev.message = "Copying compressed levels to a CPU-side staging buffer.";
+      ev.transferID = this.image.id().toString();
+      ev.size = size;
+      ev.commit();
+    }
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public long recordTransferCommands(
+    final VulkanCommandBufferType commands,
+    final long maximumOctets)
+    throws RocaroException
+  {
+    final var finalLayout =
+      this.image.finalLayout();
+    final var vkImage =
+      this.imageResult.result();
+    final var singleQueue =
+      Objects.equals(this.transferQueue, this.targetQueue);
+
+    final var levelFirst = this.levelsCopied;
+    final var levelEnd = this.partLevelEnd(maximumOctets);
+    var octets = 0L;
+    for (int level = levelFirst; level < levelEnd; ++level) {
+      octets += this.levelSizes[level];
+    }
+
+    final var isFirst = levelFirst == 0;
+    final var isLast = levelEnd == this.levelSizes.length;
+
+    try (final var _ =
+           this.debugging.begin(
+             commands,
+             "TransferQueueUpload[%s]".formatted(this.image.name()))) {
+
+      if (isFirst) {
+        commands.pipelineBarrier(
+          VulkanDependencyInfo.builder()
+            .addImageMemoryBarriers(
+              VulkanImageMemoryBarrier.builder()
+                .setSrcStageMask(Set.of())
+                .setSrcAccessMask(Set.of())
+                .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+                .setDstStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+                .setDstAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+                .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+                .setImage(vkImage)
+                .setOldLayout(VK_IMAGE_LAYOUT_UNDEFINED)
+                .setNewLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+                .setSubresourceRange(this.imageSubresourceRange)
+                .build())
+            .build()
+        );
+      }
+
+      /*
+       * Copy each selected level, covering every array layer. A row
+       * length and image height of zero indicate that the data is tightly
+       * packed according to the image extent, rounded up to whole blocks.
+       */
+
+      final var copies =
+        new ArrayList<VulkanBufferImageCopy>(levelEnd - levelFirst);
+
+      for (int level = levelFirst; level < levelEnd; ++level) {
+        copies.add(
+          VulkanBufferImageCopy.builder()
+            .setBufferImageHeight(0)
+            .setBufferOffset(
+              this.stagingAllocation.offset()
+              + this.levelOffsets[level]
+              - this.levelOffsets[levelFirst])
+            .setBufferRowLength(0)
+            .setImageExtent(
+              VulkanExtent3D.of(
+                this.levelWidth(level),
+                this.levelHeight(level),
+                1))
+            .setImageOffset(VulkanOffset3D.of(0, 0, 0))
+            .setImageSubresource(
+              VulkanImageSubresourceLayers.builder()
+                .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+                .setBaseArrayLayer(0)
+                .setLayerCount(this.image.layers())
+                .setMipLevel(level)
+                .build())
+            .build()
+        );
+      }
+
+      commands.copyBufferToImage(
+        this.stagingAllocation.buffer(),
+        vkImage,
+        VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL,
+        copies
+      );
+
+      if (isLast) {
+        final VulkanImageMemoryBarrier barrier;
+        if (singleQueue) {
+          barrier =
+            VulkanImageMemoryBarrier.builder()
+              .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+              .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+              .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+              .setDstStageMask(Set.of(VK_PIPELINE_STAGE_VERTEX_SHADER_BIT))
+              .setDstAccessMask(Set.of(VK_ACCESS_SHADER_READ_BIT))
+              .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+              .setImage(vkImage)
+              .setSubresourceRange(this.imageSubresourceRange)
+              .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+              .setNewLayout(finalLayout)
+              .build();
+        } else {
+          barrier =
+            VulkanImageMemoryBarrier.builder()
+              .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+              .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+              .setSrcQueueFamilyIndex(this.transferQueue.queueFamilyIndex())
+              .setDstStageMask(Set.of())
+              .setDstAccessMask(Set.of())
+              .setDstQueueFamilyIndex(this.targetQueue.queueFamilyIndex())
+              .setImage(vkImage)
+              .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+              .setNewLayout(finalLayout)
+              .setSubresourceRange(this.imageSubresourceRange)
+              .build();
+        }
+
+        commands.pipelineBarrier(
+          VulkanDependencyInfo.builder()
+            .addImageMemoryBarriers(barrier)
+            .build()
+        );
+      }
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+
+    this.levelsCopied = levelEnd;
+    return octets;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void recordTargetCommands(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    try (final var _ =
+           this.debugging.begin(
+             commands,
+             "TargetQueueAcquire[%s]".formatted(this.image.name()))) {
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addImageMemoryBarriers(
+            VulkanImageMemoryBarrier.builder()
+              .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+              .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+              .setSrcQueueFamilyIndex(this.transferQueue.queueFamilyIndex())
+              .setDstStageMask(Set.of(VK_PIPELINE_STAGE_VERTEX_SHADER_BIT))
+              .setDstAccessMask(Set.of(VK_ACCESS_SHADER_READ_BIT))
+              .setDstQueueFamilyIndex(this.targetQueue.queueFamilyIndex())
+              .setImage(this.imageResult.result())
+              .setSubresourceRange(this.imageSubresourceRange)
+              .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+              .setNewLayout(this.image.finalLayout())
+              .build())
+          .build()
+      );
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public RCImageColorCompressedType complete()
+    throws Exception
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+
+    final var viewKind =
+      this.image.layers() == 1
+        ? VulkanImageViewKind.VK_IMAGE_VIEW_TYPE_2D
+        : VulkanImageViewKind.VK_IMAGE_VIEW_TYPE_2D_ARRAY;
+
+    try {
+      final var imageView =
+        this.vulkanDevice.createImageView(
+          VulkanImageViewCreateInfo.builder()
+            .setImage(this.imageResult.result())
+            .setViewType(viewKind)
+            .setFormat(this.image.format())
+            .setComponents(VulkanComponentMapping.of(
+              VulkanComponentSwizzle.VK_COMPONENT_SWIZZLE_IDENTITY,
+              VulkanComponentSwizzle.VK_COMPONENT_SWIZZLE_IDENTITY,
+              VulkanComponentSwizzle.VK_COMPONENT_SWIZZLE_IDENTITY,
+              VulkanComponentSwizzle.VK_COMPONENT_SWIZZLE_IDENTITY
+            ))
+            .setSubresourceRange(this.imageSubresourceRange)
+            .build()
+        );
+
+      this.debugging.setObjectName(
+        imageView,
+        "ImageView[%s]".formatted(this.image.name())
+      );
+
+      /*
+       * The image is owned by the result from this point on.
+       */
+
+      final var data = this.imageResult.result();
+      this.imageResult = null;
+
+      return new RCImageColorCompressed(
+        this.image.size(),
+        data,
+        imageView,
+        this.image.format(),
+        this.levelSizes.length,
+        this.image.layers(),
+        RCTransferTaskType.resultReference(imageView, data)
+      );
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  @RCThread(GPU)
+  @Override
+  public void discard()
+    throws RocaroException
+  {
+    RCThreadLabels.checkThreadLabelsAny(GPU);
+
+    final var result = this.imageResult;
+    this.imageResult = null;
+    RCTransferTaskType.discardResult(result);
+  }
+
+  @RCThread(GPU)
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    RCThreadLabels.checkThreadLabelsAny(GPU);
+    this.resources.close();
+  }
+}
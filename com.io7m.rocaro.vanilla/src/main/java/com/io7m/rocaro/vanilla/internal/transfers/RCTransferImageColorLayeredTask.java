@@ -0,0 +1,621 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanBufferImageCopy;
+import com.io7m.jcoronado.api.VulkanCommandBufferType;
+import com.io7m.jcoronado.api.VulkanComponentMapping;
+import com.io7m.jcoronado.api.VulkanComponentSwizzle;
+import com.io7m.jcoronado.api.VulkanDebuggingType;
+import com.io7m.jcoronado.api.VulkanDependencyInfo;
+import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.api.VulkanExtent3D;
+import com.io7m.jcoronado.api.VulkanImageCreateInfo;
+import com.io7m.jcoronado.api.VulkanImageKind;
+import com.io7m.jcoronado.api.VulkanImageMemoryBarrier;
+import com.io7m.jcoronado.api.VulkanImageSubresourceLayers;
+import com.io7m.jcoronado.api.VulkanImageSubresourceRange;
+import com.io7m.jcoronado.api.VulkanImageType;
+import com.io7m.jcoronado.api.VulkanImageViewCreateInfo;
+import com.io7m.jcoronado.api.VulkanImageViewKind;
+import com.io7m.jcoronado.api.VulkanLogicalDeviceType;
+import com.io7m.jcoronado.api.VulkanOffset3D;
+import com.io7m.jcoronado.api.VulkanQueueFamilyIndex;
+import com.io7m.jcoronado.api.VulkanQueueType;
+import com.io7m.jcoronado.vma.VMAAllocationCreateInfo;
+import com.io7m.jcoronado.vma.VMAAllocationResult;
+import com.io7m.jcoronado.vma.VMAAllocatorType;
+import com.io7m.jmulticlose.core.CloseableCollectionType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.api.images.RCImageColorLayeredType;
+import com.io7m.rocaro.api.images.RCImageLayeredKind;
+import com.io7m.rocaro.api.transfers.RCTransferCopyFunctionRangedType;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorLayeredType;
+import com.io7m.rocaro.api.transfers.RCTransferJFREventStagingCopy;
+import com.io7m.rocaro.vanilla.internal.RCResourceCollections;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.images.RCImageColorLayered;
+import com.io7m.rocaro.vanilla.internal.threading.RCThread;
+import com.io7m.rocaro.vanilla.internal.threading.RCThreadLabels;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_SHADER_READ_BIT;
+import static com.io7m.jcoronado.api.VulkanAccessFlag.VK_ACCESS_TRANSFER_WRITE_BIT;
+import static com.io7m.jcoronado.api.VulkanImageAspectFlag.VK_IMAGE_ASPECT_COLOR_BIT;
+import static com.io7m.jcoronado.api.VulkanImageCreateFlag.VK_IMAGE_CREATE_CUBE_COMPATIBLE_BIT;
+import static com.io7m.jcoronado.api.VulkanImageLayout.VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL;
+import static com.io7m.jcoronado.api.VulkanImageLayout.VK_IMAGE_LAYOUT_UNDEFINED;
+import static com.io7m.jcoronado.api.VulkanImageTiling.VK_IMAGE_TILING_OPTIMAL;
+import static com.io7m.jcoronado.api.VulkanImageUsageFlag.VK_IMAGE_USAGE_SAMPLED_BIT;
+import static com.io7m.jcoronado.api.VulkanImageUsageFlag.VK_IMAGE_USAGE_TRANSFER_DST_BIT;
+import static com.io7m.jcoronado.api.VulkanImageUsageFlag.VK_IMAGE_USAGE_TRANSFER_SRC_BIT;
+import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_DEVICE_LOCAL_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_COPY_BIT;
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_VERTEX_SHADER_BIT;
+import static com.io7m.jcoronado.api.VulkanSampleCountFlag.VK_SAMPLE_COUNT_1_BIT;
+import static com.io7m.jcoronado.api.VulkanSharingMode.VK_SHARING_MODE_EXCLUSIVE;
+import static com.io7m.jcoronado.vma.VMAMemoryUsage.VMA_MEMORY_USAGE_GPU_ONLY;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.GPU;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.TRANSFER_IO;
+
+/**
+ * <p>A task that uploads a layered image: a 2D array, one or more cube
+ * maps, or a 3D volume.</p>
+ *
+ * <p>The layers of each part are packed into a staging allocation, one
+ * layer after another. Each part of the upload is a single copy region
+ * covering a contiguous range of layers (or, for 3D volumes, a contiguous
+ * range of slices). Large images are copied in several parts, each part
+ * consisting of one or more whole layers.</p>
+ */
+
+final class RCTransferImageColorLayeredTask
+  extends RCObject
+  implements RCTransferTaskType<RCImageColorLayeredType>
+{
+  private final RCDeviceType device;
+  private final VMAAllocatorType allocator;
+  private final RCTransferStagingBuffers staging;
+  private final RCTransferParallelCopy copies;
+  private final CloseableCollectionType<RocaroException> resources;
+  private final RCTransferImageColorLayeredType image;
+  private final VulkanQueueType transferQueue;
+  private final VulkanQueueType targetQueue;
+  private final VulkanLogicalDeviceType vulkanDevice;
+  private final VulkanDebuggingType debugging;
+  private final VulkanImageSubresourceRange imageSubresourceRange;
+  private final boolean volume;
+  private final long layerOctets;
+  private RCTransferStagingAllocation stagingAllocation;
+  private VMAAllocationResult<VulkanImageType> imageResult;
+  private int layersCopied;
+
+  RCTransferImageColorLayeredTask(
+    final RCDeviceType inDevice,
+    final VMAAllocatorType inAllocator,
+    final RCTransferStagingBuffers inStaging,
+    final RCTransferParallelCopy inCopies,
+    final RCStrings strings,
+    final RCTransferImageColorLayeredType inImage)
+  {
+    Objects.requireNonNull(strings, "strings");
+
+    this.resources =
+      RCResourceCollections.create(strings);
+    this.device =
+      Objects.requireNonNull(inDevice, "device");
+    this.allocator =
+      Objects.requireNonNull(inAllocator, "allocator");
+    this.staging =
+      Objects.requireNonNull(inStaging, "staging");
+    this.copies =
+      Objects.requireNonNull(inCopies, "copies");
+    this.image =
+      Objects.requireNonNull(inImage, "image");
+
+    this.transferQueue =
+      this.device.transferQueue();
+    this.targetQueue =
+      inDevice.queueForCategory(this.image.targetQueue());
+    this.vulkanDevice =
+      inDevice.device();
+    this.debugging =
+      this.vulkanDevice.debugging();
+    this.volume =
+      this.image.kind() == RCImageLayeredKind.VOLUME_3D;
+    this.layerOctets =
+      Integer.toUnsignedLong(this.image.size().x())
+      * Integer.toUnsignedLong(this.image.size().y())
+      * Integer.toUnsignedLong(this.image.format().texelSizeOctets());
+
+    /*
+     * The slices of a 3D image are not array layers.
+     */
+
+    this.imageSubresourceRange =
+      VulkanImageSubresourceRange.builder()
+        .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+        .setBaseMipLevel(0)
+        .setBaseArrayLayer(0)
+        .setLevelCount(1)
+        .setLayerCount(this.arrayLayers())
+        .build();
+  }
+
+  private int arrayLayers()
+  {
+    return this.volume ? 1 : this.image.layers();
+  }
+
+  private int depth()
+  {
+    return this.volume ? this.image.layers() : 1;
+  }
+
+  private long totalSize()
+  {
+    return this.layerOctets * Integer.toUnsignedLong(this.image.layers());
+  }
+
+  private VMAAllocationResult<VulkanImageType> createGPUTexture()
+    throws VulkanException
+  {
+    final var builder =
+      VulkanImageCreateInfo.builder()
+        .setArrayLayers(this.arrayLayers())
+        .setExtent(
+          VulkanExtent3D.of(
+            this.image.size().x(),
+            this.image.size().y(),
+            this.depth()))
+        .setFormat(this.image.format())
+        .setImageType(
+          this.volume
+            ? VulkanImageKind.VK_IMAGE_TYPE_3D
+            : VulkanImageKind.VK_IMAGE_TYPE_2D)
+        .setInitialLayout(VK_IMAGE_LAYOUT_UNDEFINED)
+        .setMipLevels(1)
+        .setSamples(Set.of(VK_SAMPLE_COUNT_1_BIT))
+        .setSharingMode(VK_SHARING_MODE_EXCLUSIVE)
+        .setTiling(VK_IMAGE_TILING_OPTIMAL)
+        .addUsage(VK_IMAGE_USAGE_SAMPLED_BIT)
+        .addUsage(VK_IMAGE_USAGE_TRANSFER_DST_BIT)
+        .addUsage(VK_IMAGE_USAGE_TRANSFER_SRC_BIT);
+
+    if (this.image.kind() == RCImageLayeredKind.CUBE) {
+      builder.addFlags(VK_IMAGE_CREATE_CUBE_COMPATIBLE_BIT);
+    }
+
+    final var allocInfo =
+      VMAAllocationCreateInfo.builder()
+        .setUsage(VMA_MEMORY_USAGE_GPU_ONLY)
+        .addRequiredFlags(VK_MEMORY_PROPERTY_DEVICE_LOCAL_BIT)
+        .setMemoryTypeBits(0L)
+        .build();
+
+    final var result =
+      this.allocator.createImage(allocInfo, builder.build());
+
+    this.debugging.setObjectName(
+      result.result(),
+      "Image[%s]".formatted(this.image.name())
+    );
+    return result;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void prepare()
+    throws Exception
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+
+    /*
+     * Staging memory is allocated layer-by-layer in stageTransfer().
+     */
+
+    try {
+      this.imageResult = this.createGPUTexture();
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  @Override
+  public boolean requiresSubmission()
+  {
+    return true;
+  }
+
+  @Override
+  public VulkanQueueType targetQueue()
+  {
+    return this.targetQueue;
+  }
+
+  @Override
+  public long stagingOctets()
+  {
+    return this.totalSize();
+  }
+
+  @Override
+  public long transferRemainingOctets()
+  {
+    return Integer.toUnsignedLong(this.image.layers() - this.layersCopied)
+           * this.layerOctets;
+  }
+
+  /*
+   * Copy functions that are not ranged can only produce all the data at
+   * once, and so the data is copied in a single part.
+   */
+
+  private int partLayers(
+    final long maximumOctets)
+  {
+    final var remaining =
+      this.image.layers() - this.layersCopied;
+
+    if (this.image.dataCopier() instanceof RCTransferCopyFunctionRangedType) {
+      return (int) Math.min(
+        remaining,
+        Math.max(1L, maximumOctets / this.layerOctets)
+      );
+    }
+    return remaining;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void stageTransfer(
+    final CloseableCollectionType<RocaroException> partResources,
+    final long maximumOctets)
+    throws RocaroException, InterruptedException
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+
+    final var offset =
+      Integer.toUnsignedLong(this.layersCopied) * this.layerOctets;
+    final var octets =
+      Integer.toUnsignedLong(this.partLayers(maximumOctets))
+      * this.layerOctets;
+
+    /*
+     * Only the range of layers that is about to be recorded is allocated
+     * and filled, so that the operation holds no staging memory while it
+     * waits to be selected for later ranges. The offset of a
+     * buffer-to-image copy must be a multiple of both four and the texel
+     * size of the image format.
+     */
+
+    this.stagingAllocation =
+      partResources.add(
+        this.staging.allocate(
+          this.image.id(),
+          octets,
+          RCTransferAlignment.copyAlignment(
+            Integer.toUnsignedLong(this.image.format().texelSizeOctets()))
+        )
+      );
+
+    /*
+     * The range may itself be filled concurrently; slices never split a
+     * layer.
+     */
+
+    final var ev = new RCTransferJFREventStagingCopy();
+    ev.begin();
+
+    if (this.image.dataCopier()
+      instanceof final RCTransferCopyFunctionRangedType ranged) {
+      this.copies.copyRanged(
+        ranged,
+        this.stagingAllocation.target(),
+        offset,
+        this.layerOctets
+      );
+    } else {
+      this.image.dataCopier().copy(this.stagingAllocation.target());
+    }
+
+    if (ev.shouldCommit()) {
+      ev.message = "Copying layers to a CPU-side staging buffer.";
+      ev.transferID = this.image.id().toString();
+      ev.size = octets;
+      ev.commit();
+    }
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public long recordTransferCommands(
+    final VulkanCommandBufferType commands,
+    final long maximumOctets)
+    throws RocaroException
+  {
+    final var finalLayout =
+      this.image.finalLayout();
+    final var vkImage =
+      this.imageResult.result();
+    final var singleQueue =
+      Objects.equals(this.transferQueue, this.targetQueue);
+
+    /*
+     * Select the layers to copy in this part. At least one layer is
+     * always copied.
+     */
+
+    final var layerFirst =
+      this.layersCopied;
+    final var layersNow =
+      this.partLayers(maximumOctets);
+    final var octets =
+      Integer.toUnsignedLong(layersNow) * this.layerOctets;
+
+    final var isFirst = layerFirst == 0;
+    final var isLast = layerFirst + layersNow == this.image.layers();
+
+    try (final var _ =
+           this.debugging.begin(
+             commands,
+             "TransferQueueUpload[%s]".formatted(this.image.name()))) {
+
+      if (isFirst) {
+        commands.pipelineBarrier(
+          VulkanDependencyInfo.builder()
+            .addImageMemoryBarriers(
+              VulkanImageMemoryBarrier.builder()
+                .setSrcStageMask(Set.of())
+                .setSrcAccessMask(Set.of())
+                .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+                .setDstStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+                .setDstAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+                .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+                .setImage(vkImage)
+                .setOldLayout(VK_IMAGE_LAYOUT_UNDEFINED)
+                .setNewLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+                .setSubresourceRange(this.imageSubresourceRange)
+                .build())
+            .build()
+        );
+      }
+
+      /*
+       * A single region covers every selected layer. For arrays and cube
+       * maps, the layers are array layers; for volumes, they are slices
+       * along the Z axis.
+       */
+
+      final VulkanBufferImageCopy region;
+      if (this.volume) {
+        region =
+          VulkanBufferImageCopy.builder()
+            .setBufferImageHeight(0)
+            .setBufferOffset(this.stagingAllocation.offset())
+            .setBufferRowLength(0)
+            .setImageExtent(
+              VulkanExtent3D.of(
+                this.image.size().x(),
+                this.image.size().y(),
+                layersNow))
+            .setImageOffset(VulkanOffset3D.of(0, 0, layerFirst))
+            .setImageSubresource(
+              VulkanImageSubresourceLayers.builder()
+                .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+                .setBaseArrayLayer(0)
+                .setLayerCount(1)
+                .setMipLevel(0)
+                .build())
+            .build();
+      } else {
+        region =
+          VulkanBufferImageCopy.builder()
+            .setBufferImageHeight(0)
+            .setBufferOffset(this.stagingAllocation.offset())
+            .setBufferRowLength(0)
+            .setImageExtent(
+              VulkanExtent3D.of(
+                this.image.size().x(),
+                this.image.size().y(),
+                1))
+            .setImageOffset(VulkanOffset3D.of(0, 0, 0))
+            .setImageSubresource(
+              VulkanImageSubresourceLayers.builder()
+                .addAspectMask(VK_IMAGE_ASPECT_COLOR_BIT)
+                .setBaseArrayLayer(layerFirst)
+                .setLayerCount(layersNow)
+                .setMipLevel(0)
+                .build())
+            .build();
+      }
+
+      commands.copyBufferToImage(
+        this.stagingAllocation.buffer(),
+        vkImage,
+        VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL,
+        List.of(region)
+      );
+
+      if (isLast) {
+        final VulkanImageMemoryBarrier barrier;
+        if (singleQueue) {
+          barrier =
+            VulkanImageMemoryBarrier.builder()
+              .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+              .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+              .setSrcQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+              .setDstStageMask(Set.of(VK_PIPELINE_STAGE_VERTEX_SHADER_BIT))
+              .setDstAccessMask(Set.of(VK_ACCESS_SHADER_READ_BIT))
+              .setDstQueueFamilyIndex(VulkanQueueFamilyIndex.ignored())
+              .setImage(vkImage)
+              .setSubresourceRange(this.imageSubresourceRange)
+              .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+              .setNewLayout(finalLayout)
+              .build();
+        } else {
+          barrier =
+            VulkanImageMemoryBarrier.builder()
+              .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+              .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+              .setSrcQueueFamilyIndex(this.transferQueue.queueFamilyIndex())
+              .setDstStageMask(Set.of())
+              .setDstAccessMask(Set.of())
+              .setDstQueueFamilyIndex(this.targetQueue.queueFamilyIndex())
+              .setImage(vkImage)
+              .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+              .setNewLayout(finalLayout)
+              .setSubresourceRange(this.imageSubresourceRange)
+              .build();
+        }
+
+        commands.pipelineBarrier(
+          VulkanDependencyInfo.builder()
+            .addImageMemoryBarriers(barrier)
+            .build()
+        );
+      }
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+
+    this.layersCopied += layersNow;
+    return octets;
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public void recordTargetCommands(
+    final VulkanCommandBufferType commands)
+    throws RocaroException
+  {
+    try (final var _ =
+           this.debugging.begin(
+             commands,
+             "TargetQueueAcquire[%s]".formatted(this.image.name()))) {
+
+      commands.pipelineBarrier(
+        VulkanDependencyInfo.builder()
+          .addImageMemoryBarriers(
+            VulkanImageMemoryBarrier.builder()
+              .setSrcStageMask(Set.of(VK_PIPELINE_STAGE_COPY_BIT))
+              .setSrcAccessMask(Set.of(VK_ACCESS_TRANSFER_WRITE_BIT))
+              .setSrcQueueFamilyIndex(this.transferQueue.queueFamilyIndex())
+              .setDstStageMask(Set.of(VK_PIPELINE_STAGE_VERTEX_SHADER_BIT))
+              .setDstAccessMask(Set.of(VK_ACCESS_SHADER_READ_BIT))
+              .setDstQueueFamilyIndex(this.targetQueue.queueFamilyIndex())
+              .setImage(this.imageResult.result())
+              .setSubresourceRange(this.imageSubresourceRange)
+              .setOldLayout(VK_IMAGE_LAYOUT_TRANSFER_DST_OPTIMAL)
+              .setNewLayout(this.image.finalLayout())
+              .build())
+          .build()
+      );
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  private VulkanImageViewKind viewKind()
+  {
+    return switch (this.image.kind()) {
+      case ARRAY_2D -> VulkanImageViewKind.VK_IMAGE_VIEW_TYPE_2D_ARRAY;
+      case CUBE -> this.image.layers() == 6
+        ? VulkanImageViewKind.VK_IMAGE_VIEW_TYPE_CUBE
+        : VulkanImageViewKind.VK_IMAGE_VIEW_TYPE_CUBE_ARRAY;
+      case VOLUME_3D -> VulkanImageViewKind.VK_IMAGE_VIEW_TYPE_3D;
+    };
+  }
+
+  @RCThread(TRANSFER_IO)
+  @Override
+  public RCImageColorLayeredType complete()
+    throws Exception
+  {
+    RCThreadLabels.checkThreadLabelsAll(TRANSFER_IO);
+
+    try {
+      final var imageView =
+        this.vulkanDevice.createImageView(
+          VulkanImageViewCreateInfo.builder()
+            .setImage(this.imageResult.result())
+            .setViewType(this.viewKind())
+            .setFormat(this.image.format())
+            .setComponents(VulkanComponentMapping.of(
+              VulkanComponentSwizzle.VK_COMPONENT_SWIZZLE_IDENTITY,
+              VulkanComponentSwizzle.VK_COMPONENT_SWIZZLE_IDENTITY,
+              VulkanComponentSwizzle.VK_COMPONENT_SWIZZLE_IDENTITY,
+              VulkanComponentSwizzle.VK_COMPONENT_SWIZZLE_IDENTITY
+            ))
+            .setSubresourceRange(this.imageSubresourceRange)
+            .build()
+        );
+
+      this.debugging.setObjectName(
+        imageView,
+        "ImageView[%s]".formatted(this.image.name())
+      );
+
+      /*
+       * The image is owned by the result from this point on.
+       */
+
+      final var data = this.imageResult.result();
+      this.imageResult = null;
+
+      return new RCImageColorLayered(
+        this.image.size(),
+        data,
+        imageView,
+        this.image.format(),
+        this.image.kind(),
+        this.image.layers(),
+        RCTransferTaskType.resultReference(imageView, data)
+      );
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  @RCThread(GPU)
+  @Override
+  public void discard()
+    throws RocaroException
+  {
+    RCThreadLabels.checkThreadLabelsAny(GPU);
+
+    final var result = this.imageResult;
+    this.imageResult = null;
+    RCTransferTaskType.discardResult(result);
+  }
+
+  @RCThread(GPU)
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    RCThreadLabels.checkThreadLabelsAny(GPU);
+    this.resources.close();
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jaffirm.core.Preconditions;
+
+/**
+ * Functions to calculate the dimensions of mipmap chains.
+ */
+
+public final class RCTransferMipmaps
+{
+  private RCTransferMipmaps()
+  {
+
+  }
+
+  /**
+   * Calculate the number of levels in a full mipmap chain for an image of
+   * the given size. The chain ends with a level of size {@code 1x1}.
+   *
+   * @param width  The image width
+   * @param height The image height
+   *
+   * @return The number of levels
+   */
+
+  public static int levelCount(
+    final int width,
+    final int height)
+  {
+    Preconditions.checkPreconditionV(
+      width > 0 && height > 0,
+      "Image size %dx%d must be positive",
+      Integer.valueOf(width),
+      Integer.valueOf(height)
+    );
+
+    final var largest = Math.max(width, height);
+    return 32 - Integer.numberOfLeadingZeros(largest);
+  }
+
+  /**
+   * Calculate the size of a single dimension of an image at the given
+   * mipmap level.
+   *
+   * @param size  The size at level 0
+   * @param level The level
+   *
+   * @return The size at the given level
+   */
+
+  public static int levelSize(
+    final int size,
+    final int level)
+  {
+    return Math.max(1, size >>> level);
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RCRendererID;
+import com.io7m.rocaro.api.transfers.RCTransferCopyFunctionRangedType;
+import com.io7m.rocaro.api.transfers.RCTransferServiceConfiguration;
+import com.io7m.rocaro.vanilla.internal.threading.RCExecutors;
+
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.TRANSFER_IO;
+
+/**
+ * <p>Parallel copies into staging memory.</p>
+ *
+ * <p>Large copies are divided into disjoint slices that are filled
+ * concurrently by a fork-join pool. Slices never split a unit of the given
+ * granularity (such as a row of texels), and so copy functions always
+ * observe whole units. The staging memory is host-coherent, and so
+ * completing all the slices is sufficient for the data to be visible to
+ * the device; no explicit flush is required.</p>
+ */
+
+public final class RCTransferParallelCopy
+  extends RCObject
+  implements AutoCloseable
+{
+  private final Optional<ForkJoinPool> pool;
+  private final long chunkOctets;
+
+  private RCTransferParallelCopy(
+    final Optional<ForkJoinPool> inPool,
+    final long inChunkOctets)
+  {
+    this.pool =
+      Objects.requireNonNull(inPool, "pool");
+    this.chunkOctets =
+      inChunkOctets;
+  }
+
+  /**
+   * Create a parallel copier. If the configured parallelism is one, all
+   * copies are performed on the calling thread.
+   *
+   * @param id            The renderer ID
+   * @param configuration The transfer configuration
+   *
+   * @return A parallel copier
+   */
+
+  public static RCTransferParallelCopy create(
+    final RCRendererID id,
+    final RCTransferServiceConfiguration configuration)
+  {
+    Objects.requireNonNull(id, "id");
+    Objects.requireNonNull(configuration, "configuration");
+
+    final var parallelism =
+      configuration.stagingCopyParallelism();
+
+    if (parallelism <= 1) {
+      return new RCTransferParallelCopy(
+        Optional.empty(),
+        configuration.stagingCopyChunkOctets()
+      );
+    }
+
+    return new RCTransferParallelCopy(
+      Optional.of(
+        RCExecutors.createForkJoinPool(
+          "transfer-service-copy",
+          id,
+          parallelism,
+          TRANSFER_IO
+        )
+      ),
+      configuration.stagingCopyChunkOctets()
+    );
+  }
+
+  /**
+   * Copy into the given target segment using the given ranged copy
+   * function. The target segment corresponds to the range of the source
+   * beginning at {@code sourceOffset}.
+   *
+   * @param copier       The copy function
+   * @param target       The target segment
+   * @param sourceOffset The offset of the target segment within the source
+   * @param granularity  The size of a unit that must not be split
+   */
+
+  public void copyRanged(
+    final RCTransferCopyFunctionRangedType copier,
+    final MemorySegment target,
+    final long sourceOffset,
+    final long granularity)
+  {
+    Objects.requireNonNull(copier, "copier");
+    Objects.requireNonNull(target, "target");
+
+    if (this.pool.isEmpty() || target.byteSize() <= this.chunkOctets) {
+      copier.copyRange(target, sourceOffset);
+      return;
+    }
+
+    this.pool.get().invoke(
+      new CopyRange(
+        copier,
+        target,
+        sourceOffset,
+        Math.max(1L, granularity),
+        this.chunkOctets
+      )
+    );
+  }
+
+  /**
+   * Run all the given copies, concurrently if parallel copies are
+   * enabled. The copies must write to disjoint regions of memory.
+   *
+   * @param copies The copies
+   */
+
+  public void copyAll(
+    final List<Runnable> copies)
+  {
+    Objects.requireNonNull(copies, "copies");
+
+    if (this.pool.isEmpty() || copies.size() <= 1) {
+      for (final var copy : copies) {
+        copy.run();
+      }
+      return;
+    }
+
+    this.pool.get().invoke(new CopyAll(copies));
+  }
+
+  @Override
+  public void close()
+  {
+    this.pool.ifPresent(ForkJoinPool::close);
+  }
+
+  private static final class CopyAll
+    extends RecursiveAction
+  {
+    private final List<Runnable> copies;
+
+    CopyAll(
+      final List<Runnable> inCopies)
+    {
+      this.copies = List.copyOf(inCopies);
+    }
+
+    @Override
+    protected void compute()
+    {
+      final var tasks =
+        new ArrayList<ForkJoinTask<?>>(this.copies.size());
+      for (final var copy : this.copies) {
+        tasks.add(ForkJoinTask.adapt(copy));
+      }
+      ForkJoinTask.invokeAll(tasks);
+    }
+  }
+
+  private static final class CopyRange
+    extends RecursiveAction
+  {
+    private final RCTransferCopyFunctionRangedType copier;
+    private final MemorySegment target;
+    private final long sourceOffset;
+    private final long granularity;
+    private final long chunkOctets;
+
+    CopyRange(
+      final RCTransferCopyFunctionRangedType inCopier,
+      final MemorySegment inTarget,
+      final long inSourceOffset,
+      final long inGranularity,
+      final long inChunkOctets)
+    {
+      this.copier = inCopier;
+      this.target = inTarget;
+      this.sourceOffset = inSourceOffset;
+      this.granularity = inGranularity;
+      this.chunkOctets = inChunkOctets;
+    }
+
+    @Override
+    protected void compute()
+    {
+      final var size =
+        this.target.byteSize();
+      final var split =
+        ((size / 2L) / this.granularity) * this.granularity;
+
+      if (size <= this.chunkOctets || split == 0L) {
+        this.copier.copyRange(this.target, this.sourceOffset);
+        return;
+      }
+
+      ForkJoinTask.invokeAll(
+        new CopyRange(
+          this.copier,
+          this.target.asSlice(0L, split),
+          this.sourceOffset,
+          this.granularity,
+          this.chunkOctets
+        ),
+        new CopyRange(
+          this.copier,
+          this.target.asSlice(split),
+          this.sourceOffset + split,
+          this.granularity,
+          this.chunkOctets
+        )
+      );
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.transfers.RCTransferOperationType;
+import com.io7m.rocaro.api.transfers.RCTransferPriority;
+import com.io7m.rocaro.vanilla.internal.threading.RCThread;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.GPU;
+
+/**
+ * A prepared transfer operation waiting to be included in a batch.
+ *
+ * @param operation The operation
+ * @param task      The task
+ * @param future    The future that will receive the result
+ * @param <T>       The type of results
+ */
+
+record RCTransferPending<T>(
+  RCTransferOperationType<T> operation,
+  RCTransferTaskType<T> task,
+  CompletableFuture<T> future)
+  implements RCTransferScheduledType
+{
+  RCTransferPending
+  {
+    Objects.requireNonNull(operation, "operation");
+    Objects.requireNonNull(task, "task");
+    Objects.requireNonNull(future, "future");
+  }
+
+  @Override
+  public RCTransferPriority priority()
+  {
+    return this.operation.priority();
+  }
+
+  @Override
+  public long transferRemainingOctets()
+  {
+    return this.task.transferRemainingOctets();
+  }
+
+  void complete()
+  {
+    /*
+     * A cancelled operation is not completed; the results of the task are
+     * discarded when the task is closed.
+     */
+
+    if (this.future.isDone()) {
+      return;
+    }
+
+    try {
+      final var result = this.task.complete();
+      if (!this.future.complete(result)
+          && result instanceof final AutoCloseable closeable) {
+        closeable.close();
+      }
+    } catch (final Throwable e) {
+      this.future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Close the task, discarding its results if they were never delivered.
+   *
+   * @throws RocaroException On errors
+   */
+
+  @RCThread(GPU)
+  void close()
+    throws RocaroException
+  {
+    try {
+      if (this.future.isCompletedExceptionally()) {
+        this.task.discard();
+      }
+    } finally {
+      this.task.close();
+    }
+  }
+}
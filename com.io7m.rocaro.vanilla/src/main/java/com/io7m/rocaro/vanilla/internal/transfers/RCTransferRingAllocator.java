@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.rocaro.api.RCObject;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * <p>A FIFO ring allocator. Regions are allocated sequentially from the
+ * ring, wrapping around to the start of the ring when the end is reached.
+ * Regions may be released in any order, but space is only reclaimed when
+ * the oldest live region is released.</p>
+ *
+ * <p>The allocator does not perform any synchronization; callers are
+ * responsible for serializing access.</p>
+ */
+
+public final class RCTransferRingAllocator
+  extends RCObject
+{
+  private final long capacity;
+  private final ArrayDeque<RCTransferRingRegion> live;
+  private long used;
+
+  /**
+   * A FIFO ring allocator.
+   *
+   * @param inCapacity The ring capacity in octets
+   */
+
+  public RCTransferRingAllocator(
+    final long inCapacity)
+  {
+    Preconditions.checkPreconditionV(
+      inCapacity > 0L,
+      "Capacity %d must be positive",
+      Long.valueOf(inCapacity)
+    );
+
+    this.capacity = inCapacity;
+    this.live = new ArrayDeque<>();
+    this.used = 0L;
+  }
+
+  private static long alignUp(
+    final long offset,
+    final long alignment)
+  {
+    final var remainder = offset % alignment;
+    if (remainder == 0L) {
+      return offset;
+    }
+    return offset + (alignment - remainder);
+  }
+
+  /**
+   * @return The ring capacity in octets
+   */
+
+  public long capacity()
+  {
+    return this.capacity;
+  }
+
+  /**
+   * @return The number of octets held by regions that have not been released
+   */
+
+  public long used()
+  {
+    return this.used;
+  }
+
+  /**
+   * @return The number of live regions
+   */
+
+  public int liveCount()
+  {
+    return this.live.size();
+  }
+
+  /**
+   * Try to allocate a region.
+   *
+   * @param size      The size of the region
+   * @param alignment The required alignment of the region's offset
+   *
+   * @return The region, or nothing if the ring has insufficient space
+   */
+
+  public Optional<RCTransferRingRegion> allocate(
+    final long size,
+    final long alignment)
+  {
+    Preconditions.checkPreconditionV(
+      size > 0L,
+      "Size %d must be positive",
+      Long.valueOf(size)
+    );
+    Preconditions.checkPreconditionV(
+      alignment > 0L,
+      "Alignment %d must be positive",
+      Long.valueOf(alignment)
+    );
+
+    if (size > this.capacity) {
+      return Optional.empty();
+    }
+
+    /*
+     * An empty ring always allocates from the start.
+     */
+
+    if (this.live.isEmpty()) {
+      return Optional.of(this.push(0L, size));
+    }
+
+    final var first = this.live.peekFirst();
+    final var last = this.live.peekLast();
+    final var head = alignUp(last.end(), alignment);
+
+    /*
+     * If the newest region is at or after the oldest region, the live
+     * regions occupy a single contiguous span, and the free space is the
+     * span after the newest region plus the span before the oldest region.
+     * Otherwise, the live regions have wrapped around, and the free space
+     * is the gap between the newest and the oldest region.
+     */
+
+    if (last.offset() >= first.offset()) {
+      if (head + size <= this.capacity) {
+        return Optional.of(this.push(head, size));
+      }
+      if (size <= first.offset()) {
+        return Optional.of(this.push(0L, size));
+      }
+      return Optional.empty();
+    }
+
+    if (head + size <= first.offset()) {
+      return Optional.of(this.push(head, size));
+    }
+    return Optional.empty();
+  }
+
+  private RCTransferRingRegion push(
+    final long offset,
+    final long size)
+  {
+    final var region = new RCTransferRingRegion(offset, size);
+    this.live.addLast(region);
+    this.used += size;
+    return region;
+  }
+
+  /**
+   * Release a region. The space held by the region is reclaimed when
+   * all regions allocated before it have also been released.
+   *
+   * @param region The region
+   */
+
+  public void release(
+    final RCTransferRingRegion region)
+  {
+    Objects.requireNonNull(region, "region");
+
+    Preconditions.checkPreconditionV(
+      !region.isReleased(),
+      "Region %s must not already be released",
+      region
+    );
+
+    region.setReleased();
+    this.used -= region.size();
+
+    while (!this.live.isEmpty()) {
+      final var first = this.live.peekFirst();
+      if (!first.isReleased()) {
+        break;
+      }
+      this.live.removeFirst();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.rocaro.api.RCObject;
+
+/**
+ * A region allocated from a ring allocator.
+ */
+
+public final class RCTransferRingRegion
+  extends RCObject
+{
+  private final long offset;
+  private final long size;
+  private boolean released;
+
+  RCTransferRingRegion(
+    final long inOffset,
+    final long inSize)
+  {
+    this.offset = inOffset;
+    this.size = inSize;
+    this.released = false;
+  }
+
+  /**
+   * @return The offset of the region within the ring
+   */
+
+  public long offset()
+  {
+    return this.offset;
+  }
+
+  /**
+   * @return The size of the region
+   */
+
+  public long size()
+  {
+    return this.size;
+  }
+
+  /**
+   * @return The offset of the first octet after the region
+   */
+
+  public long end()
+  {
+    return this.offset + this.size;
+  }
+
+  boolean isReleased()
+  {
+    return this.released;
+  }
+
+  void setReleased()
+  {
+    this.released = true;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[RCTransferRingRegion 0x%s 0x%s]".formatted(
+      Long.toUnsignedString(this.offset, 16),
+      Long.toUnsignedString(this.size, 16)
+    );
+  }
+}
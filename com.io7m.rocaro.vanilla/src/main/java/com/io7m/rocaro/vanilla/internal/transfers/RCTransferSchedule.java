@@ -0,0 +1,343 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.transfers.RCTransferJFREventFrame;
+import com.io7m.rocaro.api.transfers.RCTransferPriority;
+import com.io7m.rocaro.api.transfers.RCTransferServiceConfiguration;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * <p>The schedule of pending transfer operations.</p>
+ *
+ * <p>Pending operations are held in a priority queue and are issued in
+ * priority order. Each frame, non-critical operations may copy at most a
+ * configurable number of octets; operations that do not fit into the
+ * remaining budget are copied in parts across several frames. If the
+ * renderer is not producing frames, the budget is replenished after an
+ * idle timeout.</p>
+ *
+ * <p>Operations hold staging memory only for the parts that the schedule
+ * has selected, and the parts selected for a single batch never require
+ * more staging memory than one staging ring holds (unless a single
+ * critical operation alone requires more). An operation held back by the
+ * budget therefore never holds staging memory that a later critical
+ * operation needs.</p>
+ *
+ * <p>Schedules are not thread-safe.</p>
+ *
+ * @param <T> The type of scheduled operations
+ */
+
+public final class RCTransferSchedule<T extends RCTransferScheduledType>
+  extends RCObject
+{
+  private final PriorityQueue<Queued<T>> queue;
+  private final int maximumOperations;
+  private final long frameBudget;
+  private final long frameIdleNanos;
+  private final long stagingLimit;
+  private long sequence;
+  private long frameCount;
+  private long frameBudgeted;
+  private long frameBudgetedAt;
+  private long budgetRemaining;
+  private long issued;
+  private long frameNumber;
+
+  private record Queued<T>(
+    T item,
+    RCTransferPriority priority,
+    long sequence)
+  {
+
+  }
+
+  /**
+   * A part of an operation selected for a batch.
+   *
+   * @param <T> The type of scheduled operations
+   */
+
+  public static final class Part<T extends RCTransferScheduledType>
+  {
+    private final Queued<T> queued;
+    private final long maximumOctets;
+
+    private Part(
+      final Queued<T> inQueued,
+      final long inMaximumOctets)
+    {
+      this.queued =
+        Objects.requireNonNull(inQueued, "queued");
+      this.maximumOctets =
+        inMaximumOctets;
+    }
+
+    /**
+     * @return The operation
+     */
+
+    public T item()
+    {
+      return this.queued.item();
+    }
+
+    /**
+     * @return The maximum number of octets the part may copy
+     */
+
+    public long maximumOctets()
+    {
+      return this.maximumOctets;
+    }
+  }
+
+  /**
+   * Create an empty schedule.
+   *
+   * @param configuration The transfer service configuration
+   * @param now           The current time in nanoseconds
+   */
+
+  public RCTransferSchedule(
+    final RCTransferServiceConfiguration configuration,
+    final long now)
+  {
+    Objects.requireNonNull(configuration, "configuration");
+
+    this.queue =
+      new PriorityQueue<>(
+        Comparator.<Queued<T>, RCTransferPriority>comparing(Queued::priority)
+          .thenComparingLong(Queued::sequence)
+      );
+    this.maximumOperations =
+      configuration.batchMaximumOperations();
+    this.frameBudget =
+      configuration.frameBudgetOctets();
+    this.frameIdleNanos =
+      configuration.frameIdleTimeout().toNanos();
+    this.stagingLimit =
+      configuration.stagingRingSize();
+    this.frameNumber =
+      -1L;
+    this.frameBudgetedAt =
+      now;
+    this.budgetRemaining =
+      this.frameBudget;
+  }
+
+  /**
+   * Add an operation to the schedule.
+   *
+   * @param item The operation
+   */
+
+  public void enqueue(
+    final T item)
+  {
+    Objects.requireNonNull(item, "item");
+    this.queue.add(new Queued<>(item, item.priority(), this.sequence++));
+  }
+
+  /**
+   * @return {@code true} if no operations are scheduled
+   */
+
+  public boolean isEmpty()
+  {
+    return this.queue.isEmpty();
+  }
+
+  /**
+   * @return The number of scheduled operations
+   */
+
+  public int size()
+  {
+    return this.queue.size();
+  }
+
+  /**
+   * Indicate that a new frame has started. The budget is replenished by
+   * the next call to {@link #replenish(long)}.
+   *
+   * @param inFrameNumber The frame number
+   */
+
+  public void frameStarted(
+    final long inFrameNumber)
+  {
+    this.frameNumber = inFrameNumber;
+    ++this.frameCount;
+  }
+
+  /**
+   * Replenish the budget if a frame has started, or if the idle timeout
+   * has elapsed, since the budget was last replenished.
+   *
+   * @param now The current time in nanoseconds
+   */
+
+  public void replenish(
+    final long now)
+  {
+    final var newFrame = this.frameCount != this.frameBudgeted;
+    final var idle = now - this.frameBudgetedAt >= this.frameIdleNanos;
+    if (!newFrame && !idle) {
+      return;
+    }
+
+    final var ev = new RCTransferJFREventFrame();
+    if (ev.shouldCommit()) {
+      var queued = 0L;
+      for (final var q : this.queue) {
+        queued += q.item().transferRemainingOctets();
+      }
+
+      ev.frame = this.frameNumber;
+      ev.budget = this.frameBudget;
+      ev.issued = this.issued;
+      ev.queueDepth = this.queue.size();
+      ev.queued = queued;
+      ev.commit();
+    }
+
+    this.frameBudgeted = this.frameCount;
+    this.frameBudgetedAt = now;
+    this.budgetRemaining = this.frameBudget;
+    this.issued = 0L;
+  }
+
+  /**
+   * @param now The current time in nanoseconds
+   *
+   * @return The time in nanoseconds until the idle timeout replenishes the
+   * budget
+   */
+
+  public long idleRemainingNanos(
+    final long now)
+  {
+    return Math.max(1L, this.frameIdleNanos - (now - this.frameBudgetedAt));
+  }
+
+  /**
+   * Select the parts of the next batch. The selected operations are
+   * removed from the schedule; operations that are not finished by the
+   * batch must be returned with {@link #requeue(List)}.
+   *
+   * @param discard A function that returns {@code true} for operations
+   *                that must be removed from the schedule without being
+   *                selected
+   *
+   * @return The selected parts
+   */
+
+  public List<Part<T>> select(
+    final Predicate<T> discard)
+  {
+    Objects.requireNonNull(discard, "discard");
+
+    final var batch = new ArrayList<Part<T>>();
+    var staged = 0L;
+
+    while (batch.size() < this.maximumOperations) {
+      final var next = this.queue.peek();
+      if (next == null) {
+        break;
+      }
+
+      if (discard.test(next.item())) {
+        this.queue.poll();
+        continue;
+      }
+
+      final var remaining =
+        next.item().transferRemainingOctets();
+
+      /*
+       * Critical operations ignore the budget, and are copied in a single
+       * part. A critical operation that would not fit into the staging
+       * memory remaining for this batch is left for the next batch, so
+       * that the parts of a batch can always be staged together.
+       */
+
+      if (next.priority() == RCTransferPriority.CRITICAL) {
+        if (!batch.isEmpty() && staged + remaining > this.stagingLimit) {
+          break;
+        }
+        this.queue.poll();
+        batch.add(new Part<>(next, Long.MAX_VALUE));
+        this.budgetRemaining -= remaining;
+        staged += remaining;
+        continue;
+      }
+
+      final var room =
+        Math.min(this.budgetRemaining, this.stagingLimit - staged);
+
+      if (room <= 0L) {
+        break;
+      }
+
+      this.queue.poll();
+      batch.add(new Part<>(next, room));
+      final var taken = Math.min(remaining, room);
+      this.budgetRemaining -= taken;
+      staged += taken;
+    }
+    return batch;
+  }
+
+  /**
+   * Return parts of operations that were not finished by their batch to
+   * the schedule. The operations retain their original place in the
+   * schedule.
+   *
+   * @param parts The parts
+   */
+
+  public void requeue(
+    final List<Part<T>> parts)
+  {
+    for (final var part : parts) {
+      this.queue.add(part.queued);
+    }
+  }
+
+  /**
+   * Record that a number of octets were issued in the current frame.
+   *
+   * @param octets The octets
+   */
+
+  public void issued(
+    final long octets)
+  {
+    this.issued += octets;
+  }
+}
@@ -18,9 +18,8 @@
 package com.io7m.rocaro.vanilla.internal.transfers;
 
 import com.io7m.jcoronado.api.VulkanCommandBufferType;
-import com.io7m.jcoronado.api.VulkanCommandPoolCreateInfo;
-import com.io7m.jcoronado.api.VulkanCommandPoolType;
 import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.api.VulkanFilter;
 import com.io7m.jcoronado.api.VulkanQueueType;
 import com.io7m.jcoronado.vma.VMAAllocatorType;
 import com.io7m.jmulticlose.core.CloseableCollectionType;
@@ -28,14 +27,27 @@ import com.io7m.repetoir.core.RPServiceDirectoryType;
 import com.io7m.rocaro.api.RCCloseableType;
 import com.io7m.rocaro.api.RCObject;
 import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.buffers.RCBufferType;
 import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.api.transfers.RCTransferBufferCopyType;
+import com.io7m.rocaro.api.transfers.RCTransferBufferDownloadType;
+import com.io7m.rocaro.api.transfers.RCTransferBufferType;
+import com.io7m.rocaro.api.transfers.RCTransferException;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorBasicCopyType;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorBasicDownloadType;
 import com.io7m.rocaro.api.transfers.RCTransferImageColorBasicType;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorBasicUpdateType;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorCompressedType;
+import com.io7m.rocaro.api.transfers.RCTransferImageColorLayeredType;
 import com.io7m.rocaro.api.transfers.RCTransferJFREventExecuted;
 import com.io7m.rocaro.api.transfers.RCTransferOperationType;
+import com.io7m.rocaro.api.transfers.RCTransferServiceConfiguration;
 import com.io7m.rocaro.api.transfers.RCTransferServiceType;
 import com.io7m.rocaro.vanilla.internal.RCResourceCollections;
 import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.frames.RCFrameServiceType;
 import com.io7m.rocaro.vanilla.internal.notifications.RCNotificationServiceType;
+import com.io7m.rocaro.vanilla.internal.threading.RCExecutorOne;
 import com.io7m.rocaro.vanilla.internal.threading.RCExecutors;
 import com.io7m.rocaro.vanilla.internal.threading.RCThread;
 import com.io7m.rocaro.vanilla.internal.threading.RCThreadLabels;
@@ -49,6 +61,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 
 import static com.io7m.jcoronado.api.VulkanCommandBufferLevel.VK_COMMAND_BUFFER_LEVEL_PRIMARY;
+import static com.io7m.jcoronado.api.VulkanFilter.VK_FILTER_NEAREST;
 import static com.io7m.rocaro.api.RCUnit.UNIT;
 import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.TRANSFER_IO;
 
@@ -66,10 +79,16 @@ public final class RCTransferService
   private final RCNotificationServiceType notifications;
   private final RCDeviceType device;
   private final VMAAllocatorType allocator;
+  private final RCTransferStagingBuffers staging;
+  private final RCTransferParallelCopy copies;
+  private final RCTransferDownloadBuffers downloads;
+  private final RCTransferFormats formats;
   private final ExecutorService taskExecutor;
-  private final VulkanCommandPoolType transferCommandPool;
-  private final VulkanCommandPoolType graphicsCommandPool;
-  private final VulkanCommandPoolType computeCommandPool;
+  private final RCTransferBatcher batcher;
+  private final RCTransferAdmission admission;
+  private final RCTransferDeduplication deduplication;
+  private final long directUploadTypes;
+  private final RCTransferCommandPools commandPools;
   private final RCStrings strings;
   private final CloseableCollectionType<RocaroException> resources;
 
@@ -79,10 +98,14 @@ public final class RCTransferService
     final RCNotificationServiceType inNotifications,
     final RCDeviceType inDevice,
     final VMAAllocatorType inAllocator,
+    final RCTransferStagingBuffers inStaging,
+    final RCTransferParallelCopy inCopies,
+    final RCTransferDownloadBuffers inDownloads,
+    final RCTransferFormats inFormats,
     final ExecutorService inTaskExecutor,
-    final VulkanCommandPoolType inTransferCommandPool,
-    final VulkanCommandPoolType inGraphicsCommandPool,
-    final VulkanCommandPoolType inComputeCommandPool)
+    final RCTransferCommandPools inCommandPools,
+    final RCTransferServiceConfiguration configuration,
+    final long inDirectUploadTypes)
   {
     this.resources =
       Objects.requireNonNull(inResources, "inResources");
@@ -94,20 +117,40 @@ public final class RCTransferService
       Objects.requireNonNull(inDevice, "device");
     this.allocator =
       Objects.requireNonNull(inAllocator, "inAllocator");
+    this.staging =
+      Objects.requireNonNull(inStaging, "staging");
+    this.copies =
+      Objects.requireNonNull(inCopies, "copies");
+    this.downloads =
+      Objects.requireNonNull(inDownloads, "downloads");
+    this.formats =
+      Objects.requireNonNull(inFormats, "formats");
     this.taskExecutor =
       Objects.requireNonNull(inTaskExecutor, "taskExecutor");
-    this.transferCommandPool =
-      Objects.requireNonNull(inTransferCommandPool, "transferCommandPool");
-    this.graphicsCommandPool =
-      Objects.requireNonNull(inGraphicsCommandPool, "graphicsCommandPool");
-    this.computeCommandPool =
-      Objects.requireNonNull(inComputeCommandPool, "computeCommandPool");
+    this.commandPools =
+      Objects.requireNonNull(inCommandPools, "commandPools");
+    this.directUploadTypes =
+      inDirectUploadTypes;
+    this.admission =
+      RCTransferAdmission.create(this.strings, configuration);
+    this.deduplication =
+      new RCTransferDeduplication();
+    this.batcher =
+      new RCTransferBatcher(
+        this.strings,
+        this.device,
+        this.notifications,
+        this::createCommandBuffer,
+        this.taskExecutor,
+        configuration
+      );
   }
 
   /**
    * Create a transfer service.
    *
-   * @param services The service directory
+   * @param services      The service directory
+   * @param configuration The transfer configuration
    *
    * @return The service
    *
@@ -115,15 +158,20 @@ public final class RCTransferService
    */
 
   public static RCTransferService create(
-    final RPServiceDirectoryType services)
+    final RPServiceDirectoryType services,
+    final RCTransferServiceConfiguration configuration)
     throws RocaroException
   {
+    Objects.requireNonNull(configuration, "configuration");
+
     final var strings =
       services.requireService(RCStrings.class);
     final var renderer =
       services.requireService(RCVulkanRendererType.class);
     final var notifications =
       services.requireService(RCNotificationServiceType.class);
+    final var frames =
+      services.requireService(RCFrameServiceType.class);
 
     final var resources =
       RCResourceCollections.create(strings);
@@ -134,6 +182,25 @@ public final class RCTransferService
       final var allocator =
         device.allocator();
 
+      final var staging =
+        RCTransferStagingBuffers.create(strings, device, configuration);
+
+      /*
+       * The copy pool is added before the task executor so that it is
+       * closed after any tasks that use it have completed.
+       */
+
+      final var copies =
+        resources.add(
+          RCTransferParallelCopy.create(renderer.id(), configuration)
+        );
+
+      final var downloads =
+        resources.add(RCTransferDownloadBuffers.create(device));
+
+      final var formats =
+        new RCTransferFormats(strings, renderer.physicalDevice());
+
       final var taskExecutor =
         resources.add(
           RCExecutors.createVirtualExecutor(
@@ -143,44 +210,60 @@ public final class RCTransferService
           )
         );
 
-      final var transferCommandPool =
-        device.registerResource(
-          createCommandPool(
-            device,
-            device.transferQueue(),
-            "TransferCommandPool[Transfer]"
-          )
-        );
+      final var commandPools =
+        resources.add(new RCTransferCommandPools(device.device()));
+
+      var directUploadTypes = 0L;
+      if (configuration.directUploads()) {
+        directUploadTypes =
+          RCTransferDirectMemory.directUploadMemoryTypes(
+            renderer.physicalDevice()
+          );
+      }
 
-      final var graphicsCommandPool =
-        device.registerResource(
-          createCommandPool(
-            device,
-            device.graphicsQueue(),
-            "TransferCommandPool[Graphics]"
+      final var batchExecutor =
+        resources.add(
+          RCExecutorOne.create(
+            renderer.id(),
+            "transfer-service-batch",
+            TRANSFER_IO
           )
         );
 
-      final var computeCommandPool =
-        device.registerResource(
-          createCommandPool(
-            device,
-            device.computeQueue(),
-            "TransferCommandPool[Compute]"
-          )
+      final var service =
+        new RCTransferService(
+          resources,
+          strings,
+          notifications,
+          device,
+          allocator,
+          staging,
+          copies,
+          downloads,
+          formats,
+          taskExecutor,
+          commandPools,
+          configuration,
+          directUploadTypes
         );
 
-      return new RCTransferService(
-        resources,
-        strings,
-        notifications,
-        device,
-        allocator,
-        taskExecutor,
-        transferCommandPool,
-        graphicsCommandPool,
-        computeCommandPool
+      /*
+       * The batcher is added after the executor on which it runs so that it
+       * is closed (and its loop terminated) before the executor is closed.
+       */
+
+      resources.add(service.batcher);
+      batchExecutor.execute(service.batcher::run);
+
+      /*
+       * The start of each frame replenishes the per-frame transfer budget.
+       */
+
+      resources.add(
+        frames.frameInformation()
+          .subscribe((_, frame) -> service.batcher.frameStarted(frame))
       );
+      return service;
 
     } catch (final Throwable e) {
       resources.close();
@@ -188,100 +271,281 @@ public final class RCTransferService
     }
   }
 
-  private static VulkanCommandPoolType createCommandPool(
-    final RCDeviceType device,
-    final VulkanQueueType queue,
-    final String name)
-    throws RCVulkanException
-  {
-    try {
-      final var debugging =
-        device.device().debugging();
-
-      final var poolInfo =
-        VulkanCommandPoolCreateInfo.builder()
-          .setQueueFamilyIndex(queue.queueFamilyIndex())
-          .build();
-
-      final var commandPool =
-        device.device().createCommandPool(poolInfo);
-
-      debugging.setObjectName(commandPool, name);
-      return commandPool;
-    } catch (final VulkanException e) {
-      throw RCVulkanException.wrap(e);
-    }
-  }
-
   private <T> CompletableFuture<T> executeOp(
     final RCTransferOperationType<T> operation,
     final RCTransferTaskType<T> task)
   {
     final var future = new CompletableFuture<T>();
-    this.taskExecutor.execute(() -> {
-      final var ev = new RCTransferJFREventExecuted();
-      ev.transferID = operation.id().toString();
-      ev.type = operation.getClass().getSimpleName();
-
-      try {
-        future.complete(this.executeAndCloseTask(task));
-        ev.message = "Transfer completed";
-      } catch (final Throwable e) {
-        ev.message = "Transfer failed (%s)".formatted(e.getMessage());
-        future.completeExceptionally(e);
-      } finally {
-        if (ev.shouldCommit()) {
-          ev.commit();
+    final var ev = new RCTransferJFREventExecuted();
+    ev.begin();
+
+    future.whenComplete((_, exception) -> {
+      if (ev.shouldCommit()) {
+        ev.transferID = operation.id().toString();
+        ev.type = operation.getClass().getSimpleName();
+        if (exception == null) {
+          ev.message = "Transfer completed";
+        } else {
+          ev.message = "Transfer failed (%s)".formatted(exception.getMessage());
         }
+        ev.commit();
       }
     });
+
+    /*
+     * The operation holds its place within the limits on operations in
+     * flight until its future completes, however it completes.
+     */
+
+    final var pending =
+      new RCTransferPending<>(operation, task, future);
+    final var octets =
+      task.stagingOctets();
+
+    try {
+      this.admission.admit(operation.id(), octets, () -> {
+        future.whenComplete((_, _) -> this.admission.release(octets));
+        this.taskExecutor.execute(() -> this.prepareTask(pending));
+      });
+    } catch (final RCTransferException e) {
+      future.completeExceptionally(e);
+      this.closeTask(pending);
+    }
     return future;
   }
 
   @RCThread(TRANSFER_IO)
-  private <T> T executeAndCloseTask(
-    final RCTransferTaskType<T> task)
-    throws Exception
+  private <T> void prepareTask(
+    final RCTransferPending<T> pending)
   {
     RCThreadLabels.checkThreadLabelsAny(TRANSFER_IO);
 
+    final var task = pending.task();
+    final var future = pending.future();
+
+    /*
+     * An operation that was cancelled while waiting to be admitted is
+     * never prepared.
+     */
+
+    if (future.isDone()) {
+      this.closeTask(pending);
+      return;
+    }
+
+    /*
+     * Prepare the task here, and then hand it to the batcher. The batcher
+     * takes responsibility for closing the task once it has been enqueued,
+     * and discards it without submitting anything if the operation is
+     * cancelled before it is recorded.
+     */
+
     try {
-      return task.execute();
-    } finally {
+      task.prepare();
+    } catch (final Throwable e) {
+      future.completeExceptionally(e);
+      this.closeTask(pending);
+      return;
+    }
+
+    /*
+     * Some tasks (such as direct uploads) are complete as soon as they have
+     * been prepared.
+     */
+
+    if (!task.requiresSubmission()) {
+      pending.complete();
+      this.closeTask(pending);
+      return;
+    }
+
+    this.batcher.enqueue(pending);
+  }
+
+  private void closeTask(
+    final RCTransferPending<?> pending)
+  {
+    this.device.execute(() -> {
       if (LOG.isTraceEnabled()) {
-        LOG.trace("Closing task {}", task);
+        LOG.trace("Closing task {}", pending.task());
       }
-      this.device.execute(() -> {
-        if (LOG.isTraceEnabled()) {
-          LOG.trace("Closing task {}", task);
-        }
-        task.close();
-        return UNIT;
-      });
-    }
+      pending.close();
+      return UNIT;
+    });
   }
 
   @Override
   public <T> CompletableFuture<T> transfer(
     final RCTransferOperationType<T> operation)
+  {
+    Objects.requireNonNull(operation, "operation");
+
+    return this.deduplication.share(
+      operation.id(),
+      () -> this.start(operation)
+    );
+  }
+
+  private <T> CompletableFuture<T> start(
+    final RCTransferOperationType<T> operation)
   {
     return switch (operation) {
+      case final RCTransferBufferType<?> buffer -> {
+        yield (CompletableFuture<T>) this.executeBuffer(buffer);
+      }
       case final RCTransferImageColorBasicType image -> {
+        final VulkanFilter filter;
+        try {
+          filter = this.mipmapFilter(image);
+        } catch (final RocaroException e) {
+          yield CompletableFuture.failedFuture(e);
+        }
         yield (CompletableFuture<T>) this.executeOp(
           image,
           new RCTransferImageColorBasicTask(
             this.device,
             this.allocator,
-            this::createCommandBuffer,
+            this.staging,
+            this.copies,
+            this.strings,
+            image,
+            filter
+          )
+        );
+      }
+      case final RCTransferImageColorCompressedType image -> {
+        try {
+          this.formats.checkSampledUpload(image.id(), image.format());
+        } catch (final RocaroException e) {
+          yield CompletableFuture.failedFuture(e);
+        }
+        yield (CompletableFuture<T>) this.executeOp(
+          image,
+          new RCTransferImageColorCompressedTask(
+            this.device,
+            this.allocator,
+            this.staging,
+            this.copies,
             this.strings,
-            this.notifications,
             image
           )
         );
       }
+      case final RCTransferBufferCopyType copy -> {
+        yield (CompletableFuture<T>) this.executeOp(
+          copy,
+          new RCTransferBufferCopyTask(this.device, copy)
+        );
+      }
+      case final RCTransferImageColorBasicCopyType copy -> {
+        final VulkanFilter filter;
+        try {
+          filter = this.copyFilter(copy);
+        } catch (final RocaroException e) {
+          yield CompletableFuture.failedFuture(e);
+        }
+        yield (CompletableFuture<T>) this.executeOp(
+          copy,
+          new RCTransferImageColorBasicCopyTask(this.device, copy, filter)
+        );
+      }
+      case final RCTransferBufferDownloadType download -> {
+        yield (CompletableFuture<T>) this.executeOp(
+          download,
+          new RCTransferBufferDownloadTask(
+            this.device,
+            this.downloads,
+            download
+          )
+        );
+      }
+      case final RCTransferImageColorBasicDownloadType download -> {
+        yield (CompletableFuture<T>) this.executeOp(
+          download,
+          new RCTransferImageColorBasicDownloadTask(
+            this.device,
+            this.downloads,
+            download
+          )
+        );
+      }
+      case final RCTransferImageColorLayeredType image -> {
+        yield (CompletableFuture<T>) this.executeOp(
+          image,
+          new RCTransferImageColorLayeredTask(
+            this.device,
+            this.allocator,
+            this.staging,
+            this.copies,
+            this.strings,
+            image
+          )
+        );
+      }
+      case final RCTransferImageColorBasicUpdateType update -> {
+        yield (CompletableFuture<T>) this.executeOp(
+          update,
+          new RCTransferImageColorBasicUpdateTask(
+            this.device,
+            this.staging,
+            this.strings,
+            update
+          )
+        );
+      }
     };
   }
 
+  /*
+   * Mipmaps are generated by blitting each level of the image from the
+   * previous level. The filter is unused if no mipmaps are generated.
+   */
+
+  private VulkanFilter mipmapFilter(
+    final RCTransferImageColorBasicType image)
+    throws RocaroException
+  {
+    if (!image.generateMipmaps()) {
+      return VK_FILTER_NEAREST;
+    }
+    return this.formats.blitFilter(image.id(), image.format(), image.format());
+  }
+
+  /*
+   * The filter is unused if the copy does not require a blit.
+   */
+
+  private VulkanFilter copyFilter(
+    final RCTransferImageColorBasicCopyType copy)
+    throws RocaroException
+  {
+    if (!copy.requiresBlit()) {
+      return VK_FILTER_NEAREST;
+    }
+    return this.formats.blitFilter(
+      copy.id(),
+      copy.source().format(),
+      copy.target().format()
+    );
+  }
+
+  private <B extends RCBufferType> CompletableFuture<B> executeBuffer(
+    final RCTransferBufferType<B> buffer)
+  {
+    return this.executeOp(
+      buffer,
+      new RCTransferBufferTask<>(
+        this.device,
+        this.allocator,
+        this.staging,
+        this.copies,
+        this.strings,
+        buffer,
+        this.directUploadTypes
+      )
+    );
+  }
+
   private VulkanCommandBufferType createCommandBuffer(
     final CloseableCollectionType<RocaroException> taskResources,
     final VulkanQueueType queue,
@@ -289,16 +553,18 @@ public final class RCTransferService
     throws RocaroException
   {
     try {
-      final var pool =
-        switch (this.device.categoryForQueue(queue)) {
-          case COMPUTE -> this.computeCommandPool;
-          case GRAPHICS -> this.graphicsCommandPool;
-          case TRANSFER -> this.transferCommandPool;
-        };
+      /*
+       * The lease is registered before the command buffer so that the
+       * command buffer is freed before the pool is reset and returned for
+       * reuse.
+       */
+
+      final var lease =
+        taskResources.add(this.commandPools.acquire(queue));
 
       final var commandBuffer =
         this.device.device()
-          .createCommandBuffer(pool, VK_COMMAND_BUFFER_LEVEL_PRIMARY);
+          .createCommandBuffer(lease.pool(), VK_COMMAND_BUFFER_LEVEL_PRIMARY);
 
       this.device.device()
         .debugging()
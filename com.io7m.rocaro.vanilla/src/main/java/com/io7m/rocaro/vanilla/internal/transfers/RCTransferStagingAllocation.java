@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanBufferType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A region of staging memory allocated for a single transfer. The region
+ * is either a part of one of the persistently mapped staging rings, or a
+ * dedicated buffer for uploads too large to fit into a ring.
+ */
+
+public final class RCTransferStagingAllocation
+  extends RCObject
+  implements AutoCloseable
+{
+  private final RCTransferStagingBuffers owner;
+  private final Optional<RCTransferStagingRing> ring;
+  private final Optional<RCTransferRingRegion> region;
+  private final Optional<AutoCloseable> mapping;
+  private final VulkanBufferType buffer;
+  private final long offset;
+  private final MemorySegment target;
+  private boolean closed;
+
+  RCTransferStagingAllocation(
+    final RCTransferStagingBuffers inOwner,
+    final Optional<RCTransferStagingRing> inRing,
+    final Optional<RCTransferRingRegion> inRegion,
+    final Optional<AutoCloseable> inMapping,
+    final VulkanBufferType inBuffer,
+    final long inOffset,
+    final MemorySegment inTarget)
+  {
+    this.owner =
+      Objects.requireNonNull(inOwner, "owner");
+    this.ring =
+      Objects.requireNonNull(inRing, "ring");
+    this.region =
+      Objects.requireNonNull(inRegion, "region");
+    this.mapping =
+      Objects.requireNonNull(inMapping, "mapping");
+    this.buffer =
+      Objects.requireNonNull(inBuffer, "buffer");
+    this.offset =
+      inOffset;
+    this.target =
+      Objects.requireNonNull(inTarget, "target");
+  }
+
+  /**
+   * @return The buffer containing the staging memory
+   */
+
+  public VulkanBufferType buffer()
+  {
+    return this.buffer;
+  }
+
+  /**
+   * @return The offset of the staging memory within the buffer
+   */
+
+  public long offset()
+  {
+    return this.offset;
+  }
+
+  /**
+   * @return The size of the staging memory
+   */
+
+  public long size()
+  {
+    return this.target.byteSize();
+  }
+
+  /**
+   * @return The mapped staging memory
+   */
+
+  public MemorySegment target()
+  {
+    return this.target;
+  }
+
+  /**
+   * @return {@code true} if this allocation uses a dedicated buffer
+   */
+
+  public boolean isDedicated()
+  {
+    return this.ring.isEmpty();
+  }
+
+  /**
+   * Release the staging memory. This must only be called when the GPU
+   * has finished reading from the memory.
+   *
+   * @throws RocaroException On errors
+   */
+
+  @Override
+  public void close()
+    throws RocaroException
+  {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+
+    if (this.ring.isPresent()) {
+      this.owner.release(this.ring.get(), this.region.orElseThrow());
+      return;
+    }
+
+    try {
+      if (this.mapping.isPresent()) {
+        this.mapping.get().close();
+      }
+      this.buffer.close();
+    } catch (final Exception e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanBufferCreateInfo;
+import com.io7m.jcoronado.api.VulkanBufferType;
+import com.io7m.jcoronado.api.VulkanDebuggingType;
+import com.io7m.jcoronado.api.VulkanException;
+import com.io7m.jcoronado.vma.VMAAllocationCreateInfo;
+import com.io7m.jcoronado.vma.VMAAllocationResult;
+import com.io7m.jcoronado.vma.VMAAllocatorType;
+import com.io7m.rocaro.api.RCObject;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.api.devices.RCDeviceType;
+import com.io7m.rocaro.api.transfers.RCTransferException;
+import com.io7m.rocaro.api.transfers.RCTransferServiceConfiguration;
+import com.io7m.rocaro.vanilla.internal.RCStrings;
+import com.io7m.rocaro.vanilla.internal.threading.RCThread;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.foreign.MemorySegment;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.io7m.jcoronado.api.VulkanBufferUsageFlag.VK_BUFFER_USAGE_TRANSFER_SRC_BIT;
+import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_HOST_COHERENT_BIT;
+import static com.io7m.jcoronado.api.VulkanMemoryPropertyFlag.VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT;
+import static com.io7m.jcoronado.api.VulkanSharingMode.VK_SHARING_MODE_EXCLUSIVE;
+import static com.io7m.jcoronado.vma.VMAMemoryUsage.VMA_MEMORY_USAGE_CPU_ONLY;
+import static com.io7m.rocaro.api.RCStandardErrorCodes.TRANSFER_STAGING_EXHAUSTED;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ERROR_TRANSFER_STAGING_EXHAUSTED;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.ERROR_TRANSFER_STAGING_EXHAUSTED_REMEDIATE;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.SIZE;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.TIMEOUT;
+import static com.io7m.rocaro.vanilla.internal.RCStringConstants.TRANSFER;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.GPU;
+import static com.io7m.rocaro.vanilla.internal.threading.RCThreadLabel.TRANSFER_IO;
+
+/**
+ * <p>The staging memory used by the transfer service.</p>
+ *
+ * <p>Staging memory is sub-allocated from a set of large, persistently
+ * mapped, host-coherent rings. Regions are released when the transfers that
+ * own them complete, and allocations that cannot currently be satisfied wait
+ * until enough space has been released. Requests that are larger than a
+ * single ring are given dedicated buffers.</p>
+ */
+
+public final class RCTransferStagingBuffers
+  extends RCObject
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(RCTransferStagingBuffers.class);
+
+  private final RCStrings strings;
+  private final VMAAllocatorType allocator;
+  private final VulkanDebuggingType debugging;
+  private final List<RCTransferStagingRing> rings;
+  private final long ringSize;
+  private final Duration waitTimeout;
+  private final ReentrantLock lock;
+  private final Condition released;
+  private int ringCurrent;
+
+  private RCTransferStagingBuffers(
+    final RCStrings inStrings,
+    final VMAAllocatorType inAllocator,
+    final VulkanDebuggingType inDebugging,
+    final List<RCTransferStagingRing> inRings,
+    final long inRingSize,
+    final Duration inWaitTimeout)
+  {
+    this.strings =
+      Objects.requireNonNull(inStrings, "strings");
+    this.allocator =
+      Objects.requireNonNull(inAllocator, "allocator");
+    this.debugging =
+      Objects.requireNonNull(inDebugging, "debugging");
+    this.rings =
+      List.copyOf(inRings);
+    this.ringSize =
+      inRingSize;
+    this.waitTimeout =
+      Objects.requireNonNull(inWaitTimeout, "waitTimeout");
+    this.lock =
+      new ReentrantLock();
+    this.released =
+      this.lock.newCondition();
+    this.ringCurrent =
+      0;
+  }
+
+  /**
+   * Create the staging rings. The rings are registered as resources of
+   * the given device, and are therefore destroyed when the device is
+   * closed.
+   *
+   * @param strings       The string resources
+   * @param device        The device
+   * @param configuration The transfer configuration
+   *
+   * @return The staging buffers
+   *
+   * @throws RocaroException On errors
+   */
+
+  public static RCTransferStagingBuffers create(
+    final RCStrings strings,
+    final RCDeviceType device,
+    final RCTransferServiceConfiguration configuration)
+    throws RocaroException
+  {
+    Objects.requireNonNull(strings, "strings");
+    Objects.requireNonNull(device, "device");
+    Objects.requireNonNull(configuration, "configuration");
+
+    final var allocator =
+      device.allocator();
+    final var debugging =
+      device.device().debugging();
+    final var ringSize =
+      configuration.stagingRingSize();
+    final var ringCount =
+      configuration.stagingRingCount();
+    final var rings =
+      new ArrayList<RCTransferStagingRing>(ringCount);
+
+    try {
+      for (int index = 0; index < ringCount; ++index) {
+        final var buffer =
+          createBuffer(allocator, ringSize);
+
+        device.registerResource(buffer.result());
+        debugging.setObjectName(
+          buffer.result(),
+          "TransferStagingRing[%d]".formatted(Integer.valueOf(index))
+        );
+
+        /*
+         * The mapping is registered after the buffer so that it is
+         * released before the buffer is destroyed.
+         */
+
+        final var map =
+          device.registerResource(allocator.mapMemory(buffer.allocation()));
+        final var mapped =
+          MemorySegment.ofBuffer(map.asByteBuffer());
+
+        rings.add(new RCTransferStagingRing(index, buffer.result(), mapped));
+      }
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+
+    LOG.debug(
+      "Created {} staging rings of size {}",
+      Integer.valueOf(ringCount),
+      Long.valueOf(ringSize)
+    );
+
+    return new RCTransferStagingBuffers(
+      strings,
+      allocator,
+      debugging,
+      rings,
+      ringSize,
+      configuration.stagingWaitTimeout()
+    );
+  }
+
+  private static VMAAllocationResult<VulkanBufferType> createBuffer(
+    final VMAAllocatorType allocator,
+    final long size)
+    throws VulkanException
+  {
+    /*
+     * The memory is required to be host-coherent so that writes into
+     * mapped regions do not need to be explicitly flushed.
+     */
+
+    final var allocInfo =
+      VMAAllocationCreateInfo.builder()
+        .setUsage(VMA_MEMORY_USAGE_CPU_ONLY)
+        .addRequiredFlags(VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT)
+        .addRequiredFlags(VK_MEMORY_PROPERTY_HOST_COHERENT_BIT)
+        .setMemoryTypeBits(0L)
+        .build();
+
+    final var createInfo =
+      VulkanBufferCreateInfo.builder()
+        .setSize(size)
+        .addUsageFlags(VK_BUFFER_USAGE_TRANSFER_SRC_BIT)
+        .setSharingMode(VK_SHARING_MODE_EXCLUSIVE)
+        .build();
+
+    return allocator.createBuffer(allocInfo, createInfo);
+  }
+
+  /**
+   * Allocate staging memory. If the memory cannot be allocated immediately,
+   * the calling thread waits until enough memory has been released by
+   * completed transfers.
+   *
+   * @param transferID The ID of the transfer that will own the memory
+   * @param size       The required size
+   * @param alignment  The required offset alignment
+   *
+   * @return The allocation
+   *
+   * @throws RocaroException      On errors
+   * @throws InterruptedException If the calling thread is interrupted
+   */
+
+  @RCThread(TRANSFER_IO)
+  public RCTransferStagingAllocation allocate(
+    final UUID transferID,
+    final long size,
+    final long alignment)
+    throws RocaroException, InterruptedException
+  {
+    Objects.requireNonNull(transferID, "transferID");
+
+    if (size > this.ringSize) {
+      return this.allocateDedicated(transferID, size);
+    }
+
+    var remaining = this.waitTimeout.toNanos();
+    this.lock.lock();
+    try {
+      while (true) {
+        final var ringCount = this.rings.size();
+        for (int index = 0; index < ringCount; ++index) {
+          final var ringIndex =
+            (this.ringCurrent + index) % ringCount;
+          final var ring =
+            this.rings.get(ringIndex);
+          final var regionOpt =
+            ring.allocator().allocate(size, alignment);
+
+          if (regionOpt.isPresent()) {
+            final var region = regionOpt.get();
+            this.ringCurrent = ringIndex;
+            return new RCTransferStagingAllocation(
+              this,
+              Optional.of(ring),
+              Optional.of(region),
+              Optional.empty(),
+              ring.buffer(),
+              region.offset(),
+              ring.mapped().asSlice(region.offset(), size)
+            );
+          }
+        }
+
+        if (remaining <= 0L) {
+          throw this.errorExhausted(transferID, size);
+        }
+
+        LOG.trace(
+          "Waiting for {} octets of staging memory for transfer {}",
+          Long.valueOf(size),
+          transferID
+        );
+        remaining = this.released.awaitNanos(remaining);
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private RCTransferStagingAllocation allocateDedicated(
+    final UUID transferID,
+    final long size)
+    throws RocaroException
+  {
+    LOG.debug(
+      "Transfer {} of size {} exceeds the staging ring size; using a dedicated buffer",
+      transferID,
+      Long.valueOf(size)
+    );
+
+    try {
+      final var buffer =
+        createBuffer(this.allocator, size);
+
+      this.debugging.setObjectName(
+        buffer.result(),
+        "TransferStagingBuffer[%s]".formatted(transferID)
+      );
+
+      final var map =
+        this.allocator.mapMemory(buffer.allocation());
+      final var mapped =
+        MemorySegment.ofBuffer(map.asByteBuffer());
+
+      return new RCTransferStagingAllocation(
+        this,
+        Optional.empty(),
+        Optional.empty(),
+        Optional.of(map),
+        buffer.result(),
+        0L,
+        mapped
+      );
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  @RCThread(GPU)
+  void release(
+    final RCTransferStagingRing ring,
+    final RCTransferRingRegion region)
+  {
+    this.lock.lock();
+    try {
+      ring.allocator().release(region);
+      this.released.signalAll();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private RCTransferException errorExhausted(
+    final UUID transferID,
+    final long size)
+  {
+    return new RCTransferException(
+      this.strings.format(ERROR_TRANSFER_STAGING_EXHAUSTED),
+      Map.ofEntries(
+        Map.entry(this.strings.format(TRANSFER), transferID.toString()),
+        Map.entry(this.strings.format(SIZE), Long.toUnsignedString(size)),
+        Map.entry(this.strings.format(TIMEOUT), this.waitTimeout.toString())
+      ),
+      TRANSFER_STAGING_EXHAUSTED.codeName(),
+      Optional.of(
+        this.strings.format(ERROR_TRANSFER_STAGING_EXHAUSTED_REMEDIATE)
+      )
+    );
+  }
+}
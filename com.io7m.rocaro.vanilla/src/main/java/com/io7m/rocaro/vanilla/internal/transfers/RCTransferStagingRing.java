@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.rocaro.vanilla.internal.transfers;
+
+import com.io7m.jcoronado.api.VulkanBufferType;
+import com.io7m.rocaro.api.RCObject;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Objects;
+
+/**
+ * A single persistently mapped staging ring.
+ */
+
+final class RCTransferStagingRing
+  extends RCObject
+{
+  private final int index;
+  private final VulkanBufferType buffer;
+  private final MemorySegment mapped;
+  private final RCTransferRingAllocator allocator;
+
+  RCTransferStagingRing(
+    final int inIndex,
+    final VulkanBufferType inBuffer,
+    final MemorySegment inMapped)
+  {
+    this.index =
+      inIndex;
+    this.buffer =
+      Objects.requireNonNull(inBuffer, "buffer");
+    this.mapped =
+      Objects.requireNonNull(inMapped, "mapped");
+    this.allocator =
+      new RCTransferRingAllocator(inMapped.byteSize());
+  }
+
+  int index()
+  {
+    return this.index;
+  }
+
+  VulkanBufferType buffer()
+  {
+    return this.buffer;
+  }
+
+  MemorySegment mapped()
+  {
+    return this.mapped;
+  }
+
+  RCTransferRingAllocator allocator()
+  {
+    return this.allocator;
+  }
+}
@@ -17,11 +17,222 @@
 
 package com.io7m.rocaro.vanilla.internal.transfers;
 
+import com.io7m.jcoronado.api.VulkanCommandBufferType;
+import com.io7m.jcoronado.api.VulkanQueueType;
+import com.io7m.jcoronado.vma.VMAAllocationResult;
+import com.io7m.jmulticlose.core.CloseableCollectionType;
 import com.io7m.rocaro.api.RCCloseableGPUType;
+import com.io7m.rocaro.api.RocaroException;
+import com.io7m.rocaro.vanilla.internal.RCResourceReference;
+import com.io7m.rocaro.vanilla.internal.vulkan.RCVulkanException;
+
+/**
+ * <p>A single transfer task. Tasks are executed in phases so that the
+ * commands of many tasks can be recorded into the same command buffers
+ * and submitted together:</p>
+ *
+ * <ol>
+ *   <li>{@link #prepare()} is called on a transfer I/O thread to create any
+ *   resources. If, after preparation, {@link #requiresSubmission()} returns
+ *   {@code false}, the task skips directly to {@link #complete()}.</li>
+ *   <li>{@link #stageTransfer(CloseableCollectionType, long)} is called on
+ *   a transfer I/O thread, once the batcher has selected the next part of
+ *   the transfer, to allocate and fill the staging memory for that
+ *   part.</li>
+ *   <li>{@link #recordTransferCommands(VulkanCommandBufferType, long)} is
+ *   called to record commands onto the transfer queue. A task may copy its
+ *   data in several parts, in which case this method and
+ *   {@link #stageTransfer(CloseableCollectionType, long)} are called once
+ *   per batch until {@link #transferRemainingOctets()} returns zero.</li>
+ *   <li>{@link #recordTargetCommands(VulkanCommandBufferType)} is called
+ *   to record commands onto the target queue, if the target queue differs
+ *   from the transfer queue. This happens in the same batch as the final
+ *   part of the transfer.</li>
+ *   <li>{@link #complete()} is called once the GPU has finished executing
+ *   all the recorded commands.</li>
+ * </ol>
+ *
+ * <p>If the operation is cancelled or fails, {@link #discard()} is called
+ * instead of {@link #complete()}.</p>
+ *
+ * @param <V> The type of result values
+ */
 
 interface RCTransferTaskType<V>
   extends RCCloseableGPUType
 {
-  V execute()
+  /**
+   * Prepare the task.
+   *
+   * @throws Exception On errors
+   */
+
+  void prepare()
     throws Exception;
+
+  /**
+   * @return {@code true} if the task has commands that must be submitted
+   */
+
+  boolean requiresSubmission();
+
+  /**
+   * @return The queue that will own the results of the task
+   */
+
+  VulkanQueueType targetQueue();
+
+  /**
+   * @return The number of octets of host-visible staging or download memory
+   * that the task will use while it is in flight; this must be known
+   * before {@link #prepare()} is called
+   */
+
+  long stagingOctets();
+
+  /**
+   * @return The number of octets that the task will copy on the transfer
+   * queue and that have not yet been recorded
+   */
+
+  long transferRemainingOctets();
+
+  /**
+   * Allocate and fill the staging memory for the part of the transfer that
+   * the next call to
+   * {@link #recordTransferCommands(VulkanCommandBufferType, long)} will
+   * record, given the same {@code maximumOctets}. This is called on a
+   * transfer I/O thread, and never on the thread that records commands, so
+   * that the source data of many transfers is read concurrently while
+   * earlier batches execute on the GPU. Recording does not begin until
+   * this method has returned.
+   *
+   * <p>Staging memory is only allocated for parts that have been selected
+   * for a batch, so that an operation held back by the per-frame budget
+   * holds no staging memory. The allocation must be registered with
+   * {@code partResources}, which are released once the batch containing
+   * the part has completed.</p>
+   *
+   * @param partResources The resources of the part
+   * @param maximumOctets The maximum number of octets to copy
+   *
+   * @throws Exception On errors
+   */
+
+  default void stageTransfer(
+    final CloseableCollectionType<RocaroException> partResources,
+    final long maximumOctets)
+    throws Exception
+  {
+
+  }
+
+  /**
+   * Record commands that will execute on the transfer queue. The task
+   * should copy no more than {@code maximumOctets} octets of data, but
+   * may exceed it if the smallest unit of copying it can perform is
+   * larger. The commands recorded by the final part of the task must
+   * make the results available to the target queue.
+   *
+   * @param commands      The command buffer
+   * @param maximumOctets The maximum number of octets to copy
+   *
+   * @return The number of octets copied
+   *
+   * @throws RocaroException On errors
+   */
+
+  long recordTransferCommands(
+    VulkanCommandBufferType commands,
+    long maximumOctets)
+    throws RocaroException;
+
+  /**
+   * Record commands that will execute on the target queue. This is only
+   * called if the target queue is not the transfer queue.
+   *
+   * @param commands The command buffer
+   *
+   * @throws RocaroException On errors
+   */
+
+  void recordTargetCommands(
+    VulkanCommandBufferType commands)
+    throws RocaroException;
+
+  /**
+   * Complete the task. This is called after all recorded commands have
+   * finished executing.
+   *
+   * @return The result
+   *
+   * @throws Exception On errors
+   */
+
+  V complete()
+    throws Exception;
+
+  /**
+   * Release any resources that would otherwise have been handed to the
+   * caller by {@link #complete()}. This is called on the GPU thread, before
+   * {@link #close()}, when the task was prepared but its result will never
+   * be delivered (because the operation was cancelled, or failed). A task
+   * owns the resources it creates for the caller only until they are
+   * handed over by {@link #complete()}, and so they are not registered
+   * with the resources that {@link #close()} releases.
+   *
+   * @throws RocaroException On errors
+   */
+
+  default void discard()
+    throws RocaroException
+  {
+
+  }
+
+  /**
+   * Create the holder of the resources of a result that {@link #complete()}
+   * hands to the caller. The resources are closed, in the given order, when
+   * the last owner of the result closes it.
+   *
+   * @param resources The resources
+   *
+   * @return The holder
+   */
+
+  static RCResourceReference resultReference(
+    final AutoCloseable... resources)
+  {
+    return RCResourceReference.create(() -> {
+      try {
+        for (final var resource : resources) {
+          resource.close();
+        }
+      } catch (final Exception e) {
+        throw RCVulkanException.wrap(e);
+      }
+    });
+  }
+
+  /**
+   * Close the undelivered result of a task, for use by {@link #discard()}.
+   *
+   * @param result The result, or {@code null} if none was created
+   *
+   * @throws RocaroException On errors
+   */
+
+  static void discardResult(
+    final VMAAllocationResult<? extends AutoCloseable> result)
+    throws RocaroException
+  {
+    if (result == null) {
+      return;
+    }
+    try {
+      result.result().close();
+    } catch (final Exception e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
 }
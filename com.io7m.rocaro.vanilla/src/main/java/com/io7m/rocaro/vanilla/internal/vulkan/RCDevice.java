@@ -22,6 +22,9 @@ import com.io7m.jcoronado.api.VulkanFenceType;
 import com.io7m.jcoronado.api.VulkanLogicalDeviceType;
 import com.io7m.jcoronado.api.VulkanQueueFamilyPropertyFlag;
 import com.io7m.jcoronado.api.VulkanQueueType;
+import com.io7m.jcoronado.api.VulkanSemaphoreSubmitInfo;
+import com.io7m.jcoronado.api.VulkanSemaphoreTimelineType;
+import com.io7m.jcoronado.api.VulkanSemaphoreTimelineWait;
 import com.io7m.jcoronado.api.VulkanSubmitInfo;
 import com.io7m.jcoronado.vma.VMAAllocatorType;
 import com.io7m.jmulticlose.core.CloseableCollectionType;
@@ -31,20 +34,28 @@ import com.io7m.rocaro.api.RocaroException;
 import com.io7m.rocaro.api.devices.RCDeviceJFREventQueueSubmit;
 import com.io7m.rocaro.api.devices.RCDeviceJFREventWaitIdle;
 import com.io7m.rocaro.api.devices.RCDeviceQueueCategory;
+import com.io7m.rocaro.api.devices.RCDeviceTimelineSubmission;
 import com.io7m.rocaro.api.devices.RCDeviceType;
 import com.io7m.rocaro.vanilla.internal.RCResourceCollections;
 import com.io7m.rocaro.vanilla.internal.RCStrings;
 import com.io7m.rocaro.vanilla.internal.threading.RCExecutorType;
+import com.io7m.rocaro.vanilla.internal.threading.RCThread;
 import com.io7m.rocaro.vanilla.internal.threading.RCThreadLabels;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
+import static com.io7m.jcoronado.api.VulkanPipelineStageFlag.VK_PIPELINE_STAGE_ALL_COMMANDS_BIT;
 import static com.io7m.jcoronado.api.VulkanQueueFamilyPropertyFlag.VK_QUEUE_COMPUTE_BIT;
 import static com.io7m.jcoronado.api.VulkanQueueFamilyPropertyFlag.VK_QUEUE_GRAPHICS_BIT;
 import static com.io7m.rocaro.api.RCUnit.UNIT;
@@ -69,6 +80,29 @@ public final class RCDevice
   private final VulkanQueueType graphicsQueue;
   private final VulkanQueueType transferQueue;
   private final CloseableCollectionType<RocaroException> gpuResources;
+  private final HashMap<VulkanQueueType, ArrayList<Deferred>> deferred;
+  private final ReentrantLock timelineLock;
+  private final HashMap<VulkanQueueType, Timeline> timelines;
+
+  private static final class Timeline
+  {
+    private final VulkanSemaphoreTimelineType semaphore;
+    private long value;
+
+    Timeline(
+      final VulkanSemaphoreTimelineType inSemaphore)
+    {
+      this.semaphore =
+        Objects.requireNonNull(inSemaphore, "semaphore");
+    }
+  }
+
+  private record Deferred(
+    List<VulkanSubmitInfo> submission,
+    CompletableFuture<RCUnit> future)
+  {
+
+  }
 
   RCDevice(
     final RCStrings strings,
@@ -96,6 +130,12 @@ public final class RCDevice
     queueCheck(inComputeQueue, VK_QUEUE_COMPUTE_BIT);
     queueCheckTransfer(inTransferQueue);
 
+    this.deferred =
+      new HashMap<>();
+    this.timelineLock =
+      new ReentrantLock();
+    this.timelines =
+      new HashMap<>();
     this.gpuResources =
       RCResourceCollections.create(strings);
     this.allResources =
@@ -252,22 +292,233 @@ public final class RCDevice
     Objects.requireNonNull(submission, "submission");
 
     return this.execute(() -> {
-      if (LOG.isTraceEnabled()) {
-        logSubmission(queue, submission, fence);
+      this.submitNow(queue, submission, fence);
+      return UNIT;
+    });
+  }
+
+  @Override
+  public CompletableFuture<RCUnit> submitDeferred(
+    final VulkanQueueType queue,
+    final List<VulkanSubmitInfo> submission,
+    final Duration maximumDelay)
+  {
+    Objects.requireNonNull(queue, "queue");
+    Objects.requireNonNull(submission, "submission");
+    Objects.requireNonNull(maximumDelay, "maximumDelay");
+
+    final var future = new CompletableFuture<RCUnit>();
+    this.executor.execute(() -> {
+      final var waiting =
+        this.deferred.computeIfAbsent(queue, _ -> new ArrayList<>());
+
+      /*
+       * The first deferred submission for a queue schedules a flush, so
+       * that deferred work is never held for longer than the maximum
+       * delay if nothing else is submitted to the queue.
+       */
+
+      if (waiting.isEmpty()) {
+        final var flush =
+          CompletableFuture.delayedExecutor(
+            maximumDelay.toNanos(),
+            TimeUnit.NANOSECONDS,
+            this.executor
+          );
+        flush.execute(() -> this.flushDeferred(queue));
       }
+      waiting.add(new Deferred(List.copyOf(submission), future));
+    });
+    return future;
+  }
 
-      final var ev = new RCDeviceJFREventQueueSubmit();
-      ev.queue = queue.toString();
-      ev.begin();
+  @Override
+  public RCDeviceTimelineSubmission submitTimeline(
+    final VulkanQueueType queue,
+    final List<VulkanSubmitInfo> submission)
+    throws RocaroException
+  {
+    return this.submitTimelineWith(queue, submission, Optional.empty());
+  }
+
+  @Override
+  public RCDeviceTimelineSubmission submitTimelineDeferred(
+    final VulkanQueueType queue,
+    final List<VulkanSubmitInfo> submission,
+    final Duration maximumDelay)
+    throws RocaroException
+  {
+    Objects.requireNonNull(maximumDelay, "maximumDelay");
+    return this.submitTimelineWith(queue, submission, Optional.of(maximumDelay));
+  }
+
+  private RCDeviceTimelineSubmission submitTimelineWith(
+    final VulkanQueueType queue,
+    final List<VulkanSubmitInfo> submission,
+    final Optional<Duration> deferral)
+    throws RocaroException
+  {
+    Objects.requireNonNull(queue, "queue");
+    Objects.requireNonNull(submission, "submission");
+
+    /*
+     * Values are assigned, and the submissions handed to the device
+     * executor, while holding the lock. The executor runs submissions in
+     * the order in which they are handed to it (deferred submissions are
+     * placed ahead of any timeline submission that follows them), and so
+     * the values signalled on each queue are strictly increasing.
+     */
+
+    this.timelineLock.lock();
+    try {
+      final var timeline = this.timelineFor(queue);
+      final var value = ++timeline.value;
+
+      final var signal =
+        VulkanSubmitInfo.builder()
+          .addSignalSemaphores(
+            VulkanSemaphoreSubmitInfo.builder()
+              .addStageMask(VK_PIPELINE_STAGE_ALL_COMMANDS_BIT)
+              .setSemaphore(timeline.semaphore)
+              .setValue(value)
+              .build())
+          .build();
+
+      final var combined = new ArrayList<VulkanSubmitInfo>(submission);
+      combined.add(signal);
+
+      final CompletableFuture<RCUnit> future;
+      if (deferral.isPresent()) {
+        future = this.submitDeferred(queue, combined, deferral.get());
+      } else {
+        future = this.submit(queue, combined, Optional.empty());
+      }
+
+      return new RCDeviceTimelineSubmission(
+        future,
+        new VulkanSemaphoreTimelineWait(timeline.semaphore, value)
+      );
+    } finally {
+      this.timelineLock.unlock();
+    }
+  }
 
+  private Timeline timelineFor(
+    final VulkanQueueType queue)
+    throws RocaroException
+  {
+    final var existing = this.timelines.get(queue);
+    if (existing != null) {
+      return existing;
+    }
+
+    try {
+      final var semaphore =
+        this.registerResource(this.device.createTimelineSemaphore(0L));
+      this.device.debugging()
+        .setObjectName(semaphore, "QueueTimeline[%s]".formatted(queue));
+
+      final var timeline = new Timeline(semaphore);
+      this.timelines.put(queue, timeline);
+      return timeline;
+    } catch (final VulkanException e) {
+      throw RCVulkanException.wrap(e);
+    }
+  }
+
+  @RCThread(GPU)
+  private void flushDeferred(
+    final VulkanQueueType queue)
+  {
+    final var waiting = this.deferred.get(queue);
+    if (waiting == null || waiting.isEmpty()) {
+      return;
+    }
+
+    try {
+      this.submitNow(queue, List.of(), Optional.empty());
+    } catch (final Throwable e) {
+      LOG.debug("Deferred submission failed: ", e);
+    }
+  }
+
+  @RCThread(GPU)
+  private void submitNow(
+    final VulkanQueueType queue,
+    final List<VulkanSubmitInfo> submission,
+    final Optional<VulkanFenceType> fence)
+    throws VulkanException
+  {
+    final List<Deferred> waiting =
+      Objects.requireNonNullElse(this.deferred.remove(queue), List.of());
+
+    /*
+     * Any deferred work for the queue is submitted ahead of the given work
+     * in the same queue submission, unless the given work signals a fence.
+     * A fence signal operation covers all work submitted to the queue
+     * before it, and deferred work (such as the ownership acquisitions of
+     * the transfer service) typically waits on the timeline of another
+     * queue. Placing it ahead of a fenced submission, such as a frame,
+     * would make the fence (and therefore frame pacing) depend on the
+     * completion of work on that other queue. Instead, the deferred work
+     * is submitted by itself immediately after the fenced submission.
+     */
+
+    if (fence.isPresent()) {
       try {
-        queue.submit(submission, fence);
+        this.submitWithDeferred(queue, List.of(), submission, fence);
       } finally {
-        ev.end();
-        ev.commit();
+        if (!waiting.isEmpty()) {
+          this.submitWithDeferred(queue, waiting, List.of(), Optional.empty());
+        }
       }
-      return UNIT;
-    });
+      return;
+    }
+
+    this.submitWithDeferred(queue, waiting, submission, fence);
+  }
+
+  @RCThread(GPU)
+  private void submitWithDeferred(
+    final VulkanQueueType queue,
+    final List<Deferred> waiting,
+    final List<VulkanSubmitInfo> submission,
+    final Optional<VulkanFenceType> fence)
+    throws VulkanException
+  {
+    final var combined =
+      new ArrayList<VulkanSubmitInfo>();
+
+    for (final var d : waiting) {
+      combined.addAll(d.submission());
+    }
+    combined.addAll(submission);
+
+    if (LOG.isTraceEnabled()) {
+      logSubmission(queue, combined, fence);
+    }
+
+    final var ev = new RCDeviceJFREventQueueSubmit();
+    ev.queue = queue.toString();
+    ev.submissions = combined.size();
+    ev.deferred = waiting.size();
+    ev.begin();
+
+    try {
+      queue.submit(combined, fence);
+    } catch (final VulkanException | RuntimeException e) {
+      for (final var d : waiting) {
+        d.future().completeExceptionally(e);
+      }
+      throw e;
+    } finally {
+      ev.end();
+      ev.commit();
+    }
+
+    for (final var d : waiting) {
+      d.future().complete(UNIT);
+    }
   }
 
   @Override
@@ -69,6 +69,8 @@ module com.io7m.rocaro.vanilla
 
   exports com.io7m.rocaro.vanilla.internal
     to com.io7m.rocaro.tests;
+  exports com.io7m.rocaro.vanilla.internal.assets
+    to com.io7m.rocaro.tests;
   exports com.io7m.rocaro.vanilla.internal.graph
     to com.io7m.rocaro.tests;
   exports com.io7m.rocaro.vanilla.internal.windows
@@ -81,6 +83,8 @@ module com.io7m.rocaro.vanilla
     to com.io7m.rocaro.tests;
   exports com.io7m.rocaro.vanilla.internal.threading
     to com.io7m.rocaro.tests;
+  exports com.io7m.rocaro.vanilla.internal.transfers
+    to com.io7m.rocaro.tests;
   exports com.io7m.rocaro.vanilla.internal.renderdoc
     to com.io7m.rocaro.tests;
   exports com.io7m.rocaro.vanilla.internal.frames